@@ -0,0 +1,184 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.audit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.util.Assert;
+
+/**
+ * In-memory {@link AuditEventRepository} implementation suitable for retaining a large
+ * number of events. Events are partitioned into buckets by timestamp and each bucket
+ * keeps a secondary index by principal, so {@link #find(String, Date)} only visits the
+ * buckets (and principals) that can match. Adding an event does not take a lock. Once
+ * the capacity is reached the oldest events are evicted.
+ *
+ * @author Dave Syer
+ * @author Phillip Webb
+ * @since 1.4.0
+ */
+public class PartitionedAuditEventRepository implements AuditEventRepository {
+
+	private static final int DEFAULT_CAPACITY = 4000;
+
+	private static final long DEFAULT_BUCKET_DURATION = 60 * 1000;
+
+	private final int capacity;
+
+	private final long bucketDuration;
+
+	private final ConcurrentNavigableMap<Long, Bucket> buckets = new ConcurrentSkipListMap<Long, Bucket>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	public PartitionedAuditEventRepository() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public PartitionedAuditEventRepository(int capacity) {
+		this(capacity, DEFAULT_BUCKET_DURATION);
+	}
+
+	/**
+	 * Create a new {@link PartitionedAuditEventRepository} instance.
+	 * @param capacity the maximum number of events to retain
+	 * @param bucketDuration the length of time (in milliseconds) covered by each bucket
+	 */
+	public PartitionedAuditEventRepository(int capacity, long bucketDuration) {
+		Assert.isTrue(capacity > 0, "Capacity must be positive");
+		Assert.isTrue(bucketDuration > 0, "BucketDuration must be positive");
+		this.capacity = capacity;
+		this.bucketDuration = bucketDuration;
+	}
+
+	@Override
+	public List<AuditEvent> find(String principal, Date after) {
+		Collection<Bucket> buckets = (after == null ? this.buckets.values()
+				: this.buckets.tailMap(getBucketKey(after), true).values());
+		List<AuditEvent> events = new ArrayList<AuditEvent>();
+		for (Bucket bucket : buckets) {
+			Queue<AuditEvent> candidates = bucket.getEvents(principal);
+			if (candidates != null) {
+				for (AuditEvent event : candidates) {
+					if (after == null || event.getTimestamp().compareTo(after) >= 0) {
+						events.add(event);
+					}
+				}
+			}
+		}
+		return events;
+	}
+
+	@Override
+	public void add(AuditEvent event) {
+		Assert.notNull(event, "AuditEvent must not be null");
+		long key = getBucketKey(event.getTimestamp());
+		getOrCreateBucket(key).add(event);
+		if (this.size.incrementAndGet() > this.capacity) {
+			evictOldest(key);
+		}
+	}
+
+	private Bucket getOrCreateBucket(long key) {
+		Bucket bucket = this.buckets.get(key);
+		if (bucket == null) {
+			bucket = new Bucket();
+			Bucket existing = this.buckets.putIfAbsent(key, bucket);
+			bucket = (existing == null ? bucket : existing);
+		}
+		return bucket;
+	}
+
+	private void evictOldest(long currentKey) {
+		Map.Entry<Long, Bucket> oldest = this.buckets.firstEntry();
+		while (oldest != null) {
+			Bucket bucket = oldest.getValue();
+			if (bucket.evictOldest()) {
+				this.size.decrementAndGet();
+				return;
+			}
+			if (oldest.getKey() >= currentKey) {
+				return;
+			}
+			// Empty buckets older than the one currently being written can go
+			this.buckets.remove(oldest.getKey(), bucket);
+			oldest = this.buckets.firstEntry();
+		}
+	}
+
+	private long getBucketKey(Date timestamp) {
+		long time = timestamp.getTime();
+		return time - (time % this.bucketDuration + this.bucketDuration)
+				% this.bucketDuration;
+	}
+
+	/**
+	 * The events in a single time bucket, in the order they were added, together with
+	 * an index of the same events by principal.
+	 */
+	private static class Bucket {
+
+		private final Queue<AuditEvent> events = new ConcurrentLinkedQueue<AuditEvent>();
+
+		private final ConcurrentMap<String, Queue<AuditEvent>> principals = new ConcurrentHashMap<String, Queue<AuditEvent>>();
+
+		public void add(AuditEvent event) {
+			String principal = event.getPrincipal();
+			if (principal != null) {
+				Queue<AuditEvent> events = this.principals.get(principal);
+				if (events == null) {
+					events = new ConcurrentLinkedQueue<AuditEvent>();
+					Queue<AuditEvent> existing = this.principals.putIfAbsent(principal,
+							events);
+					events = (existing == null ? events : existing);
+				}
+				events.add(event);
+			}
+			this.events.add(event);
+		}
+
+		public Queue<AuditEvent> getEvents(String principal) {
+			return (principal == null ? this.events : this.principals.get(principal));
+		}
+
+		public boolean evictOldest() {
+			AuditEvent event = this.events.poll();
+			if (event == null) {
+				return false;
+			}
+			Queue<AuditEvent> events = (event.getPrincipal() == null ? null
+					: this.principals.get(event.getPrincipal()));
+			if (events != null) {
+				events.remove(event);
+			}
+			return true;
+		}
+
+	}
+
+}
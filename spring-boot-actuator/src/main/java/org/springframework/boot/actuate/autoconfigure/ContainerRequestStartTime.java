@@ -0,0 +1,205 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletRequestWrapper;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Reads the time at which the servlet container started to process a request, so that
+ * the time the request spent queued before reaching the filter chain can be measured.
+ * Tomcat, Jetty and Undertow are supported. The way that the start time is read is
+ * resolved once for each native request type and then cached.
+ *
+ * @author Dave Syer
+ */
+final class ContainerRequestStartTime {
+
+	private static final Accessor NONE = new Accessor() {
+
+		@Override
+		public long getQueueTime(Object request) {
+			return -1;
+		}
+
+	};
+
+	private static final Log logger = LogFactory.getLog(ContainerRequestStartTime.class);
+
+	private final ConcurrentMap<Class<?>, Accessor> accessors = new ConcurrentHashMap<Class<?>, Accessor>();
+
+	/**
+	 * Return the time, in milliseconds, since the container started to process the given
+	 * request.
+	 * @param request the request
+	 * @return the queue time or {@code -1} if the container does not expose it
+	 */
+	public long getQueueTime(ServletRequest request) {
+		ServletRequest nativeRequest = request;
+		while (nativeRequest instanceof ServletRequestWrapper) {
+			nativeRequest = ((ServletRequestWrapper) nativeRequest).getRequest();
+		}
+		Accessor accessor = getAccessor(nativeRequest.getClass());
+		try {
+			return accessor.getQueueTime(nativeRequest);
+		}
+		catch (Exception ex) {
+			logger.debug("Unable to read request start time", ex);
+			return -1;
+		}
+	}
+
+	private Accessor getAccessor(Class<?> type) {
+		Accessor accessor = this.accessors.get(type);
+		if (accessor == null) {
+			accessor = createAccessor(type);
+			this.accessors.put(type, accessor);
+		}
+		return accessor;
+	}
+
+	private Accessor createAccessor(Class<?> type) {
+		// Jetty
+		Method timeStamp = findMethod(type, "getTimeStamp");
+		if (timeStamp != null) {
+			return new EpochMillisAccessor(null, timeStamp);
+		}
+		// Undertow
+		Method exchange = findMethod(type, "getExchange");
+		if (exchange != null) {
+			Method startTime = findMethod(exchange.getReturnType(),
+					"getRequestStartTime");
+			if (startTime != null) {
+				return new NanoTimeAccessor(exchange, startTime);
+			}
+		}
+		// Tomcat
+		Field request = ReflectionUtils.findField(type, "request");
+		if (request != null) {
+			Method coyoteRequest = findMethod(request.getType(), "getCoyoteRequest");
+			if (coyoteRequest != null) {
+				Method startTime = findMethod(coyoteRequest.getReturnType(),
+						"getStartTime");
+				if (startTime != null) {
+					ReflectionUtils.makeAccessible(request);
+					return new TomcatAccessor(request, coyoteRequest, startTime);
+				}
+			}
+		}
+		return NONE;
+	}
+
+	private static Method findMethod(Class<?> type, String name) {
+		Method method = ReflectionUtils.findMethod(type, name);
+		if (method == null || method.getReturnType() == void.class) {
+			return null;
+		}
+		ReflectionUtils.makeAccessible(method);
+		return method;
+	}
+
+	/**
+	 * Strategy used to read the queue time from a native request.
+	 */
+	private interface Accessor {
+
+		long getQueueTime(Object request) throws Exception;
+
+	}
+
+	/**
+	 * {@link Accessor} for a start time in milliseconds since the epoch, optionally read
+	 * from an intermediate object.
+	 */
+	private static class EpochMillisAccessor implements Accessor {
+
+		private final Method source;
+
+		private final Method startTime;
+
+		EpochMillisAccessor(Method source, Method startTime) {
+			this.source = source;
+			this.startTime = startTime;
+		}
+
+		@Override
+		public long getQueueTime(Object request) throws Exception {
+			Object target = (this.source == null ? request
+					: this.source.invoke(request));
+			long startTime = ((Number) this.startTime.invoke(target)).longValue();
+			return (startTime > 0 ? System.currentTimeMillis() - startTime : -1);
+		}
+
+	}
+
+	/**
+	 * {@link Accessor} for a start time read from {@link System#nanoTime()}.
+	 */
+	private static class NanoTimeAccessor implements Accessor {
+
+		private final Method source;
+
+		private final Method startTime;
+
+		NanoTimeAccessor(Method source, Method startTime) {
+			this.source = source;
+			this.startTime = startTime;
+		}
+
+		@Override
+		public long getQueueTime(Object request) throws Exception {
+			Object target = this.source.invoke(request);
+			long startTime = ((Number) this.startTime.invoke(target)).longValue();
+			// Undertow returns -1 unless it has been asked to record the start time
+			return (startTime != -1 ? TimeUnit.NANOSECONDS
+					.toMillis(System.nanoTime() - startTime) : -1);
+		}
+
+	}
+
+	/**
+	 * {@link Accessor} for Tomcat, where the start time is held by the coyote request
+	 * behind the request facade.
+	 */
+	private static class TomcatAccessor extends EpochMillisAccessor {
+
+		private final Field request;
+
+		TomcatAccessor(Field request, Method coyoteRequest, Method startTime) {
+			super(coyoteRequest, startTime);
+			this.request = request;
+		}
+
+		@Override
+		public long getQueueTime(Object request) throws Exception {
+			return super.getQueueTime(this.request.get(request));
+		}
+
+	}
+
+}
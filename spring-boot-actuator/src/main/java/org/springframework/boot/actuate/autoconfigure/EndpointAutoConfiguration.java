@@ -19,13 +19,16 @@ package org.springframework.boot.actuate.autoconfigure;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import liquibase.integration.spring.SpringLiquibase;
 import org.flywaydb.core.Flyway;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.endpoint.AutoConfigurationReportEndpoint;
 import org.springframework.boot.actuate.endpoint.BeansEndpoint;
 import org.springframework.boot.actuate.endpoint.ConfigurationPropertiesReportEndpoint;
@@ -38,6 +41,7 @@ import org.springframework.boot.actuate.endpoint.HealthEndpoint;
 import org.springframework.boot.actuate.endpoint.InfoEndpoint;
 import org.springframework.boot.actuate.endpoint.LiquibaseEndpoint;
 import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.ProfilerEndpoint;
 import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.actuate.endpoint.RequestMappingEndpoint;
 import org.springframework.boot.actuate.endpoint.ShutdownEndpoint;
@@ -45,6 +49,7 @@ import org.springframework.boot.actuate.endpoint.TraceEndpoint;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.actuate.health.OrderedHealthAggregator;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.boot.actuate.trace.InMemoryTraceRepository;
 import org.springframework.boot.actuate.trace.TraceRepository;
@@ -54,6 +59,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionEvaluationRepor
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.SearchStrategy;
 import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
 import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
@@ -81,10 +87,18 @@ import org.springframework.web.servlet.handler.AbstractHandlerMethodMapping;
 @EnableConfigurationProperties(EndpointProperties.class)
 public class EndpointAutoConfiguration {
 
+	/**
+	 * The name of the {@link Executor} bean that, if present, is used to invoke health
+	 * indicators concurrently.
+	 */
+	public static final String HEALTH_INDICATOR_EXECUTOR_BEAN_NAME = "healthIndicatorExecutor";
+
 	private final HealthAggregator healthAggregator;
 
 	private final Map<String, HealthIndicator> healthIndicators;
 
+	private final Executor healthIndicatorExecutor;
+
 	private final List<InfoContributor> infoContributors;
 
 	private final Collection<PublicMetrics> publicMetrics;
@@ -94,11 +108,14 @@ public class EndpointAutoConfiguration {
 	public EndpointAutoConfiguration(
 			ObjectProvider<HealthAggregator> healthAggregatorProvider,
 			ObjectProvider<Map<String, HealthIndicator>> healthIndicatorsProvider,
+			@Qualifier(HEALTH_INDICATOR_EXECUTOR_BEAN_NAME)
+			ObjectProvider<Executor> healthIndicatorExecutorProvider,
 			ObjectProvider<List<InfoContributor>> infoContributorsProvider,
 			ObjectProvider<Collection<PublicMetrics>> publicMetricsProvider,
 			ObjectProvider<TraceRepository> traceRepositoryProvider) {
 		this.healthAggregator = healthAggregatorProvider.getIfAvailable();
 		this.healthIndicators = healthIndicatorsProvider.getIfAvailable();
+		this.healthIndicatorExecutor = healthIndicatorExecutorProvider.getIfAvailable();
 		this.infoContributors = infoContributorsProvider.getIfAvailable();
 		this.publicMetrics = publicMetricsProvider.getIfAvailable();
 		this.traceRepository = traceRepositoryProvider.getIfAvailable();
@@ -113,12 +130,29 @@ public class EndpointAutoConfiguration {
 	@Bean
 	@ConditionalOnMissingBean
 	public HealthEndpoint healthEndpoint() {
-		return new HealthEndpoint(
+		Map<String, HealthIndicator> healthIndicators = new LinkedHashMap<String, HealthIndicator>();
+		ScheduledCompositeHealthIndicator scheduledHealthIndicator = null;
+		if (this.healthIndicators != null) {
+			for (Map.Entry<String, HealthIndicator> entry : this.healthIndicators
+					.entrySet()) {
+				if (entry.getValue() instanceof ScheduledCompositeHealthIndicator) {
+					scheduledHealthIndicator = (ScheduledCompositeHealthIndicator) entry
+							.getValue();
+				}
+				else {
+					healthIndicators.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		HealthEndpoint endpoint = new HealthEndpoint(
 				this.healthAggregator == null ? new OrderedHealthAggregator()
 						: this.healthAggregator,
-				this.healthIndicators == null
-						? Collections.<String, HealthIndicator>emptyMap()
-						: this.healthIndicators);
+				healthIndicators);
+		if (this.healthIndicatorExecutor != null) {
+			endpoint.setExecutor(this.healthIndicatorExecutor);
+		}
+		endpoint.setScheduledHealthIndicator(scheduledHealthIndicator);
+		return endpoint;
 	}
 
 	@Bean
@@ -177,6 +211,45 @@ public class EndpointAutoConfiguration {
 		return new ConfigurationPropertiesReportEndpoint();
 	}
 
+	@Configuration
+	@ConditionalOnProperty(prefix = "endpoints.health", name = "background-refresh")
+	static class HealthEndpointBackgroundRefreshConfiguration {
+
+		/**
+		 * The health indicators, with their time to live and timeout, are registered by
+		 * the {@link HealthEndpoint} once its properties have been bound.
+		 * @param healthAggregatorProvider the health aggregator
+		 * @param healthIndicatorExecutorProvider the health indicator executor
+		 * @return the scheduled health indicator
+		 */
+		@Bean
+		public ScheduledCompositeHealthIndicator healthEndpointScheduledHealthIndicator(
+				ObjectProvider<HealthAggregator> healthAggregatorProvider,
+				@Qualifier(HEALTH_INDICATOR_EXECUTOR_BEAN_NAME)
+				ObjectProvider<Executor> healthIndicatorExecutorProvider) {
+			HealthAggregator healthAggregator = healthAggregatorProvider
+					.getIfAvailable();
+			ScheduledCompositeHealthIndicator healthIndicator = new ScheduledCompositeHealthIndicator(
+					healthAggregator == null ? new OrderedHealthAggregator()
+							: healthAggregator);
+			healthIndicator.setExecutor(healthIndicatorExecutorProvider.getIfAvailable());
+			return healthIndicator;
+		}
+
+	}
+
+	@Configuration
+	@ConditionalOnProperty(prefix = "endpoints.profiler", name = "enabled")
+	static class ProfilerEndpointConfiguration {
+
+		@Bean
+		@ConditionalOnMissingBean
+		public ProfilerEndpoint profilerEndpoint() {
+			return new ProfilerEndpoint();
+		}
+
+	}
+
 	@Configuration
 	@ConditionalOnBean(Flyway.class)
 	@ConditionalOnClass(Flyway.class)
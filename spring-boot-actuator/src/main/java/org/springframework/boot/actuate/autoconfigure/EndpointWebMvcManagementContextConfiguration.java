@@ -19,6 +19,7 @@ package org.springframework.boot.actuate.autoconfigure;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.autoconfigure.ManagementServerProperties.Security;
 import org.springframework.boot.actuate.condition.ConditionalOnEnabledEndpoint;
@@ -26,6 +27,8 @@ import org.springframework.boot.actuate.endpoint.Endpoint;
 import org.springframework.boot.actuate.endpoint.EnvironmentEndpoint;
 import org.springframework.boot.actuate.endpoint.HealthEndpoint;
 import org.springframework.boot.actuate.endpoint.MetricsEndpoint;
+import org.springframework.boot.actuate.endpoint.ProfilerEndpoint;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.actuate.endpoint.ShutdownEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.EndpointHandlerMapping;
 import org.springframework.boot.actuate.endpoint.mvc.EndpointHandlerMappingCustomizer;
@@ -35,7 +38,13 @@ import org.springframework.boot.actuate.endpoint.mvc.LogFileMvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MetricsMvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.MvcEndpoints;
+import org.springframework.boot.actuate.endpoint.mvc.ProfilerMvcEndpoint;
+import org.springframework.boot.actuate.endpoint.mvc.PrometheusMvcEndpoint;
 import org.springframework.boot.actuate.endpoint.mvc.ShutdownMvcEndpoint;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
+import org.springframework.boot.actuate.metrics.prometheus.DefaultPrometheusNamingStrategy;
+import org.springframework.boot.actuate.metrics.prometheus.PrometheusNamingStrategy;
 import org.springframework.boot.autoconfigure.condition.ConditionOutcome;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -134,10 +143,13 @@ public class EndpointWebMvcManagementContextConfiguration {
 	@Bean
 	@ConditionalOnBean(HealthEndpoint.class)
 	@ConditionalOnEnabledEndpoint("health")
-	public HealthMvcEndpoint healthMvcEndpoint(HealthEndpoint delegate) {
+	public HealthMvcEndpoint healthMvcEndpoint(HealthEndpoint delegate,
+			ObjectProvider<ScheduledCompositeHealthIndicator> scheduledHealthIndicator) {
 		Security security = this.managementServerProperties.getSecurity();
 		boolean secure = (security != null && security.isEnabled());
 		HealthMvcEndpoint healthMvcEndpoint = new HealthMvcEndpoint(delegate, secure);
+		healthMvcEndpoint
+				.setScheduledHealthIndicator(scheduledHealthIndicator.getIfAvailable());
 		if (this.healthMvcEndpointProperties.getMapping() != null) {
 			healthMvcEndpoint
 					.addStatusMapping(this.healthMvcEndpointProperties.getMapping());
@@ -152,6 +164,30 @@ public class EndpointWebMvcManagementContextConfiguration {
 		return new MetricsMvcEndpoint(delegate);
 	}
 
+	@Bean
+	@ConditionalOnBean(PublicMetrics.class)
+	@ConditionalOnEnabledEndpoint(value = "prometheus", enabledByDefault = false)
+	public PrometheusMvcEndpoint prometheusMvcEndpoint(List<PublicMetrics> publicMetrics,
+			ObjectProvider<PrometheusNamingStrategy> namingStrategy,
+			ObjectProvider<HistogramBuffers> histogramBuffers) {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(publicMetrics);
+		PrometheusNamingStrategy strategy = namingStrategy.getIfAvailable();
+		if (strategy == null) {
+			DefaultPrometheusNamingStrategy defaultStrategy = new DefaultPrometheusNamingStrategy();
+			defaultStrategy.setHistogramBuffers(histogramBuffers.getIfAvailable());
+			strategy = defaultStrategy;
+		}
+		endpoint.setNamingStrategy(strategy);
+		return endpoint;
+	}
+
+	@Bean
+	@ConditionalOnBean(ProfilerEndpoint.class)
+	@ConditionalOnEnabledEndpoint(value = "profiler", enabledByDefault = false)
+	public ProfilerMvcEndpoint profilerMvcEndpoint(ProfilerEndpoint delegate) {
+		return new ProfilerMvcEndpoint(delegate);
+	}
+
 	@Bean
 	@ConditionalOnEnabledEndpoint("logfile")
 	@Conditional(LogFileCondition.class)
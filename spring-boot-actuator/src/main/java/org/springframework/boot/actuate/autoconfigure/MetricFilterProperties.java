@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the {@link MetricsFilter}.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@ConfigurationProperties("endpoints.metrics.filter")
+public class MetricFilterProperties {
+
+	/**
+	 * Record the time that requests spend queued in the servlet container before they
+	 * reach the filter chain. Supported with Tomcat, Jetty and Undertow (when it is
+	 * configured to record the request start time).
+	 */
+	private boolean queueTime;
+
+	public boolean isQueueTime() {
+		return this.queueTime;
+	}
+
+	public void setQueueTime(boolean queueTime) {
+		this.queueTime = queueTime;
+	}
+
+}
@@ -18,6 +18,8 @@ package org.springframework.boot.actuate.autoconfigure;
 
 import com.codahale.metrics.MetricRegistry;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.buffer.BufferCounterService;
@@ -25,6 +27,7 @@ import org.springframework.boot.actuate.metrics.buffer.BufferGaugeService;
 import org.springframework.boot.actuate.metrics.buffer.BufferMetricReader;
 import org.springframework.boot.actuate.metrics.buffer.CounterBuffers;
 import org.springframework.boot.actuate.metrics.buffer.GaugeBuffers;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.actuate.metrics.export.Exporter;
 import org.springframework.boot.actuate.metrics.export.MetricCopyExporter;
 import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
@@ -37,6 +40,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnJava.JavaVersion;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnJava.Range;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.MessageChannel;
@@ -65,6 +69,12 @@ import org.springframework.messaging.MessageChannel;
  * "histogram.*", "meter.*". "timer.*") and sending them to the {@code GaugeService} or
  * {@code CounterService}.
  * <p>
+ * With Java 8, setting {@code spring.metrics.histogram.enabled=true} additionally
+ * records response times (and other "histogram.*" and "timer.*" gauges) in fixed-size
+ * {@link HistogramBuffers}, whose percentiles are rolled over on the metric export
+ * schedule and, if that does not run, when they are read (every
+ * {@code spring.metrics.histogram.rollover-millis} at most).
+ * <p>
  * By default all metric updates go to all {@link MetricWriter} instances in the
  * application context via a {@link MetricCopyExporter} firing every 5 seconds (disable
  * this by setting {@code spring.metrics.export.enabled=false}).
@@ -122,12 +132,20 @@ public class MetricRepositoryAutoConfiguration {
 			return new GaugeBuffers();
 		}
 
+		@Bean
+		@ConditionalOnMissingBean
+		@ConditionalOnProperty(prefix = "spring.metrics.histogram", name = "enabled")
+		public HistogramBuffers histogramBuffers(
+				@Value("${spring.metrics.histogram.rollover-millis:5000}") long rolloverMillis) {
+			return new HistogramBuffers(rolloverMillis);
+		}
+
 		@Bean
 		@ExportMetricReader
 		@ConditionalOnMissingBean
 		public BufferMetricReader actuatorMetricReader(CounterBuffers counters,
-				GaugeBuffers gauges) {
-			return new BufferMetricReader(counters, gauges);
+				GaugeBuffers gauges, ObjectProvider<HistogramBuffers> histograms) {
+			return new BufferMetricReader(counters, gauges, histograms.getIfAvailable());
 		}
 
 		@Bean
@@ -138,8 +156,9 @@ public class MetricRepositoryAutoConfiguration {
 
 		@Bean
 		@ConditionalOnMissingBean(GaugeService.class)
-		public BufferGaugeService gaugeService(GaugeBuffers writer) {
-			return new BufferGaugeService(writer);
+		public BufferGaugeService gaugeService(GaugeBuffers writer,
+				ObjectProvider<HistogramBuffers> histograms) {
+			return new BufferGaugeService(writer, histograms.getIfAvailable());
 		}
 	}
 
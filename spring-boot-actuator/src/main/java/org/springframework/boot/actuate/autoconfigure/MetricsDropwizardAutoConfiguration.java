@@ -18,15 +18,18 @@ package org.springframework.boot.actuate.autoconfigure;
 
 import com.codahale.metrics.MetricRegistry;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
 import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.dropwizard.DropwizardMetricServices;
+import org.springframework.boot.actuate.metrics.dropwizard.ReservoirFactory;
 import org.springframework.boot.actuate.metrics.reader.MetricRegistryMetricReader;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -39,6 +42,7 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ConditionalOnClass(MetricRegistry.class)
 @AutoConfigureBefore(MetricRepositoryAutoConfiguration.class)
+@EnableConfigurationProperties(MetricsDropwizardProperties.class)
 public class MetricsDropwizardAutoConfiguration {
 
 	@Bean
@@ -51,8 +55,13 @@ public class MetricsDropwizardAutoConfiguration {
 	@ConditionalOnMissingBean({ DropwizardMetricServices.class, CounterService.class,
 			GaugeService.class })
 	public DropwizardMetricServices dropwizardMetricServices(
-			MetricRegistry metricRegistry) {
-		return new DropwizardMetricServices(metricRegistry);
+			MetricRegistry metricRegistry,
+			ObjectProvider<ReservoirFactory> reservoirFactory,
+			MetricsDropwizardProperties properties) {
+		DropwizardMetricServices services = new DropwizardMetricServices(metricRegistry,
+				reservoirFactory.getIfAvailable());
+		services.setTimerPrefixes(properties.getTimerPrefixes());
+		return services;
 	}
 
 	@Bean
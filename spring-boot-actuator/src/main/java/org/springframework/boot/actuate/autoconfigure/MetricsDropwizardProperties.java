@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure;
+
+import org.springframework.boot.actuate.metrics.dropwizard.DropwizardMetricServices;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for the {@link DropwizardMetricServices}.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@ConfigurationProperties("spring.metrics.dropwizard")
+public class MetricsDropwizardProperties {
+
+	/**
+	 * Prefixes of the gauges (in milliseconds) that are recorded in a timer instead of a
+	 * gauge, e.g. "gauge.response." for the HTTP response times.
+	 */
+	private String[] timerPrefixes = new String[0];
+
+	public String[] getTimerPrefixes() {
+		return this.timerPrefixes;
+	}
+
+	public void setTimerPrefixes(String[] timerPrefixes) {
+		this.timerPrefixes = timerPrefixes;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,6 +20,11 @@ import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -37,30 +42,70 @@ import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatus.Series;
-import org.springframework.util.StopWatch;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.HandlerInterceptorAdapter;
 import org.springframework.web.util.UrlPathHelper;
 
 /**
- * Filter that counts requests and measures processing times.
+ * Filter that counts requests and measures processing times. The number of active
+ * requests, both in total and for each best matching pattern, and the peak number of
+ * active requests are also tracked in lock-free counters and submitted to the
+ * {@link GaugeService} whenever they change. Patterns are only known once a handler has
+ * been mapped so the {@link #getHandlerInterceptor() handler interceptor} must be
+ * registered for the per-pattern counts to be updated. Requests for patterns
+ * beyond the first 1000 are counted together as {@code active.overflow}. When a
+ * {@link ContainerRequestStartTime} is set the time that requests spent queued in the
+ * container is also recorded.
  */
 @Order(Ordered.HIGHEST_PRECEDENCE)
 final class MetricsFilter extends OncePerRequestFilter {
 
-	private static final String ATTRIBUTE_STOP_WATCH = MetricsFilter.class.getName()
-			+ ".StopWatch";
+	private static final String ATTRIBUTE_START_TIME = MetricsFilter.class.getName()
+			+ ".StartTime";
+
+	private static final String ATTRIBUTE_QUEUE_TIME = MetricsFilter.class.getName()
+			+ ".QueueTime";
+
+	private static final String ATTRIBUTE_ACTIVE_KEYS = MetricsFilter.class.getName()
+			+ ".ActiveKeys";
+
+	private static final String ACTIVE_KEY = "requests.active";
+
+	private static final String PEAK_ACTIVE_KEY = "requests.active.peak";
 
 	private static final int UNDEFINED_HTTP_STATUS = 999;
 
 	private static final String UNKNOWN_PATH_SUFFIX = "/unmapped";
 
+	private static final String OVERFLOW_PATTERN_SUFFIX = "/overflow";
+
+	private static final int MAX_CACHED_PATTERNS = 1000;
+
+	private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
 	private static final Log logger = LogFactory.getLog(MetricsFilter.class);
 
 	private final CounterService counterService;
 
 	private final GaugeService gaugeService;
 
+	private final ConcurrentMap<String, MetricKeys> patternKeys = new ConcurrentHashMap<String, MetricKeys>();
+
+	private final MetricKeys unmappedKeys = new MetricKeys(UNKNOWN_PATH_SUFFIX, true);
+
+	private final MetricKeys overflowKeys = new MetricKeys(OVERFLOW_PATTERN_SUFFIX,
+			false);
+
+	private final AtomicInteger active = new AtomicInteger();
+
+	private final AtomicInteger peakActive = new AtomicInteger();
+
+	private final HandlerInterceptor handlerInterceptor = new ActiveRequestInterceptor();
+
+	private ContainerRequestStartTime containerRequestStartTime;
+
 	private static final Set<PatternReplacer> STATUS_REPLACERS;
 
 	static {
@@ -87,6 +132,26 @@ final class MetricsFilter extends OncePerRequestFilter {
 		this.gaugeService = gaugeService;
 	}
 
+	/**
+	 * Set the {@link ContainerRequestStartTime} used to record the time that requests
+	 * spend queued in the container before reaching this filter.
+	 * @param containerRequestStartTime the container request start time or {@code null}
+	 * to not record queue times
+	 */
+	void setContainerRequestStartTime(
+			ContainerRequestStartTime containerRequestStartTime) {
+		this.containerRequestStartTime = containerRequestStartTime;
+	}
+
+	/**
+	 * Return a {@link HandlerInterceptor} that updates the active request gauge of the
+	 * best matching pattern once a handler has been mapped.
+	 * @return the handler interceptor
+	 */
+	HandlerInterceptor getHandlerInterceptor() {
+		return this.handlerInterceptor;
+	}
+
 	@Override
 	protected boolean shouldNotFilterAsyncDispatch() {
 		return false;
@@ -96,8 +161,8 @@ final class MetricsFilter extends OncePerRequestFilter {
 	protected void doFilterInternal(HttpServletRequest request,
 			HttpServletResponse response, FilterChain chain)
 					throws ServletException, IOException {
-		StopWatch stopWatch = createStopWatchIfNecessary(request);
-		String path = new UrlPathHelper().getPathWithinApplication(request);
+		long startTime = getStartTimeIfNecessary(request);
+		String path = URL_PATH_HELPER.getPathWithinApplication(request);
 		int status = HttpStatus.INTERNAL_SERVER_ERROR.value();
 		try {
 			chain.doFilter(request, response);
@@ -105,21 +170,71 @@ final class MetricsFilter extends OncePerRequestFilter {
 		}
 		finally {
 			if (!request.isAsyncStarted()) {
-				stopWatch.stop();
-				request.removeAttribute(ATTRIBUTE_STOP_WATCH);
-				recordMetrics(request, path, status, stopWatch.getTotalTimeMillis());
+				request.removeAttribute(ATTRIBUTE_START_TIME);
+				requestCompleted(request);
+				recordMetrics(request, path, status, TimeUnit.NANOSECONDS
+						.toMillis(System.nanoTime() - startTime));
+			}
+		}
+	}
+
+	private long getStartTimeIfNecessary(HttpServletRequest request) {
+		Long startTime = (Long) request.getAttribute(ATTRIBUTE_START_TIME);
+		if (startTime == null) {
+			startTime = System.nanoTime();
+			request.setAttribute(ATTRIBUTE_START_TIME, startTime);
+			requestStarted(request);
+		}
+		return startTime;
+	}
+
+	private void requestStarted(HttpServletRequest request) {
+		if (this.containerRequestStartTime != null) {
+			long queueTime = this.containerRequestStartTime.getQueueTime(request);
+			if (queueTime >= 0) {
+				request.setAttribute(ATTRIBUTE_QUEUE_TIME, queueTime);
+			}
+		}
+		int active = this.active.incrementAndGet();
+		int peak = this.peakActive.get();
+		while (active > peak) {
+			if (this.peakActive.compareAndSet(peak, active)) {
+				submitCount(PEAK_ACTIVE_KEY, this.peakActive);
+				break;
 			}
+			peak = this.peakActive.get();
 		}
+		submitCount(ACTIVE_KEY, this.active);
 	}
 
-	private StopWatch createStopWatchIfNecessary(HttpServletRequest request) {
-		StopWatch stopWatch = (StopWatch) request.getAttribute(ATTRIBUTE_STOP_WATCH);
-		if (stopWatch == null) {
-			stopWatch = new StopWatch();
-			stopWatch.start();
-			request.setAttribute(ATTRIBUTE_STOP_WATCH, stopWatch);
+	private void handlerMapped(HttpServletRequest request) {
+		if (request.getAttribute(ATTRIBUTE_START_TIME) == null
+				|| request.getAttribute(ATTRIBUTE_ACTIVE_KEYS) != null) {
+			return;
+		}
+		Object bestMatchingPattern = request
+				.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (bestMatchingPattern != null) {
+			String pattern = bestMatchingPattern.toString();
+			MetricKeys keys = getPatternKeys(pattern);
+			if (this.patternKeys.get(pattern) != keys) {
+				keys = this.overflowKeys;
+			}
+			request.setAttribute(ATTRIBUTE_ACTIVE_KEYS, keys);
+			keys.getActive().incrementAndGet();
+			submitCount(keys.getActiveKey(), keys.getActive());
 		}
-		return stopWatch;
+	}
+
+	private void requestCompleted(HttpServletRequest request) {
+		MetricKeys keys = (MetricKeys) request.getAttribute(ATTRIBUTE_ACTIVE_KEYS);
+		if (keys != null) {
+			request.removeAttribute(ATTRIBUTE_ACTIVE_KEYS);
+			keys.getActive().decrementAndGet();
+			submitCount(keys.getActiveKey(), keys.getActive());
+		}
+		this.active.decrementAndGet();
+		submitCount(ACTIVE_KEY, this.active);
 	}
 
 	private int getStatus(HttpServletResponse response) {
@@ -133,23 +248,41 @@ final class MetricsFilter extends OncePerRequestFilter {
 
 	private void recordMetrics(HttpServletRequest request, String path, int status,
 			long time) {
-		String suffix = getFinalStatus(request, path, status);
-		submitToGauge(getKey("response" + suffix), time);
-		incrementCounter(getKey("status." + status + suffix));
+		MetricKeys keys = getMetricKeys(request, path, status);
+		submitToGauge(keys.getGaugeKey(), time);
+		incrementCounter(keys.getCounterKey(status));
+		Long queueTime = (Long) request.getAttribute(ATTRIBUTE_QUEUE_TIME);
+		if (queueTime != null) {
+			request.removeAttribute(ATTRIBUTE_QUEUE_TIME);
+			submitToGauge(keys.getQueueKey(), queueTime);
+		}
 	}
 
-	private String getFinalStatus(HttpServletRequest request, String path, int status) {
+	private MetricKeys getMetricKeys(HttpServletRequest request, String path,
+			int status) {
 		Object bestMatchingPattern = request
 				.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
 		if (bestMatchingPattern != null) {
-			return fixSpecialCharacters(bestMatchingPattern.toString());
+			return getPatternKeys(bestMatchingPattern.toString());
 		}
 		Series series = getSeries(status);
 		if (Series.CLIENT_ERROR.equals(series) || Series.SERVER_ERROR.equals(series)
 				|| Series.REDIRECTION.equals(series)) {
-			return UNKNOWN_PATH_SUFFIX;
+			return this.unmappedKeys;
+		}
+		return new MetricKeys(path, false);
+	}
+
+	private MetricKeys getPatternKeys(String pattern) {
+		MetricKeys keys = this.patternKeys.get(pattern);
+		if (keys == null) {
+			keys = new MetricKeys(fixSpecialCharacters(pattern), true);
+			if (this.patternKeys.size() < MAX_CACHED_PATTERNS) {
+				MetricKeys existing = this.patternKeys.putIfAbsent(pattern, keys);
+				keys = (existing == null ? keys : existing);
+			}
 		}
-		return path;
+		return keys;
 	}
 
 	private String fixSpecialCharacters(String value) {
@@ -176,7 +309,7 @@ final class MetricsFilter extends OncePerRequestFilter {
 
 	}
 
-	private String getKey(String string) {
+	private static String getKey(String string) {
 		// graphite compatible metric names
 		String key = string;
 		for (PatternReplacer replacer : KEY_REPLACERS) {
@@ -200,6 +333,27 @@ final class MetricsFilter extends OncePerRequestFilter {
 		}
 	}
 
+	/**
+	 * Submit the current value of a count that has just changed. Submissions from
+	 * concurrent requests may arrive out of order, so the count is read again after each
+	 * submission and resubmitted if it has moved on. Whichever submission comes last was
+	 * therefore checked against the count, and the gauge is current once the count stops
+	 * changing, without any locking.
+	 * @param metricName the gauge name
+	 * @param count the count
+	 */
+	private void submitCount(String metricName, AtomicInteger count) {
+		int value = count.get();
+		while (true) {
+			submitToGauge(metricName, value);
+			int current = count.get();
+			if (current == value) {
+				return;
+			}
+			value = current;
+		}
+	}
+
 	private void incrementCounter(String metricName) {
 		try {
 			this.counterService.increment(metricName);
@@ -209,6 +363,97 @@ final class MetricsFilter extends OncePerRequestFilter {
 		}
 	}
 
+	/**
+	 * {@link HandlerInterceptor} that updates the active request gauges once the best
+	 * matching pattern is known.
+	 */
+	private class ActiveRequestInterceptor extends HandlerInterceptorAdapter {
+
+		@Override
+		public boolean preHandle(HttpServletRequest request,
+				HttpServletResponse response, Object handler) throws Exception {
+			handlerMapped(request);
+			return true;
+		}
+
+	}
+
+	/**
+	 * The gauge and counter keys for a given suffix. All keys are only derived when they
+	 * are first used, so keys for uncached paths cost no more than the metrics actually
+	 * recorded for them. Counter keys are derived for each status and then optionally
+	 * cached. Also tracks the number of active requests for the suffix.
+	 */
+	private static class MetricKeys {
+
+		private static final int MIN_CACHED_STATUS = 100;
+
+		private static final int MAX_CACHED_STATUS = 599;
+
+		private final String suffix;
+
+		private volatile String gaugeKey;
+
+		private volatile String queueKey;
+
+		private volatile String activeKey;
+
+		private final AtomicInteger active = new AtomicInteger();
+
+		private final AtomicReferenceArray<String> counterKeys;
+
+		MetricKeys(String suffix, boolean cacheCounterKeys) {
+			this.suffix = suffix;
+			this.counterKeys = (cacheCounterKeys ? new AtomicReferenceArray<String>(
+					MAX_CACHED_STATUS - MIN_CACHED_STATUS + 1) : null);
+		}
+
+		public String getGaugeKey() {
+			String key = this.gaugeKey;
+			if (key == null) {
+				key = getKey("response" + this.suffix);
+				this.gaugeKey = key;
+			}
+			return key;
+		}
+
+		public String getQueueKey() {
+			String key = this.queueKey;
+			if (key == null) {
+				key = getKey("queue" + this.suffix);
+				this.queueKey = key;
+			}
+			return key;
+		}
+
+		public String getActiveKey() {
+			String key = this.activeKey;
+			if (key == null) {
+				key = getKey("active" + this.suffix);
+				this.activeKey = key;
+			}
+			return key;
+		}
+
+		public AtomicInteger getActive() {
+			return this.active;
+		}
+
+		public String getCounterKey(int status) {
+			if (this.counterKeys == null || status < MIN_CACHED_STATUS
+					|| status > MAX_CACHED_STATUS) {
+				return getKey("status." + status + this.suffix);
+			}
+			String key = this.counterKeys.get(status - MIN_CACHED_STATUS);
+			if (key == null) {
+				key = getKey("status." + status + this.suffix);
+				this.counterKeys.set(status - MIN_CACHED_STATUS, key);
+			}
+			return key;
+		}
+
+	}
+
 	private static class PatternReplacer {
 
 		private final Pattern pattern;
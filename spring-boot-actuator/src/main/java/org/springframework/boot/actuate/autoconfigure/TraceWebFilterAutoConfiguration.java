@@ -20,13 +20,18 @@ import javax.servlet.Servlet;
 import javax.servlet.ServletRegistration;
 
 import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.TracePublicMetrics;
+import org.springframework.boot.actuate.trace.AsyncTraceWriter;
 import org.springframework.boot.actuate.trace.TraceProperties;
+import org.springframework.boot.actuate.trace.TraceProperties.Async;
 import org.springframework.boot.actuate.trace.TraceRepository;
 import org.springframework.boot.actuate.trace.WebRequestTraceFilter;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.ErrorAttributes;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -53,14 +58,36 @@ public class TraceWebFilterAutoConfiguration {
 	TraceProperties traceProperties = new TraceProperties();
 
 	@Bean
-	public WebRequestTraceFilter webRequestLoggingFilter(BeanFactory beanFactory) {
+	public WebRequestTraceFilter webRequestLoggingFilter(BeanFactory beanFactory,
+			ObjectProvider<AsyncTraceWriter> traceWriterProvider) {
 		WebRequestTraceFilter filter = new WebRequestTraceFilter(this.traceRepository,
 				this.traceProperties);
 
 		if (this.errorAttributes != null) {
 			filter.setErrorAttributes(this.errorAttributes);
 		}
+		AsyncTraceWriter traceWriter = traceWriterProvider.getIfAvailable();
+		if (traceWriter != null) {
+			filter.setTraceWriter(traceWriter);
+		}
 		return filter;
 	}
 
+	@Bean
+	@ConditionalOnProperty(prefix = "management.trace.async", name = "enabled")
+	public AsyncTraceWriter traceWriter() {
+		Async async = this.traceProperties.getAsync();
+		AsyncTraceWriter traceWriter = new AsyncTraceWriter(this.traceRepository,
+				async.getQueueCapacity(), async.getBatchSize());
+		traceWriter.setSampleRate(async.getSampleRate());
+		traceWriter.setAlwaysSampleErrors(async.isAlwaysSampleErrors());
+		return traceWriter;
+	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "management.trace.async", name = "enabled")
+	public TracePublicMetrics tracePublicMetrics(AsyncTraceWriter traceWriter) {
+		return new TracePublicMetrics(traceWriter);
+	}
+
 }
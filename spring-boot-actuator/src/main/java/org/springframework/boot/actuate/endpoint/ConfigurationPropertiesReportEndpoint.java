@@ -19,8 +19,13 @@ package org.springframework.boot.actuate.endpoint;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -40,8 +45,13 @@ import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
 import org.springframework.beans.BeansException;
 import org.springframework.boot.context.properties.ConfigurationBeanFactoryMetaData;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConfigurationPropertiesReboundEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.SmartApplicationListener;
+import org.springframework.core.Ordered;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
@@ -55,17 +65,29 @@ import org.springframework.util.StringUtils;
  * Configure property names by using {@code endpoints.configprops.keys_to_sanitize} in
  * your Spring Boot application configuration.
  *
+ * <p>
+ * The report for each bean is cached until the bean is replaced or bound again (signalled
+ * by a {@link ConfigurationPropertiesReboundEvent} in the endpoint's context), an
+ * application context is refreshed or closed, or {@link #clearCache()} is called. Code
+ * that changes the properties of a bean directly, through its setters, should call
+ * {@link #clearCache()}. The returned reports cannot be modified.
+ *
  * @author Christian Dupuis
  * @author Dave Syer
  */
 @ConfigurationProperties(prefix = "endpoints.configprops")
 public class ConfigurationPropertiesReportEndpoint
-		extends AbstractEndpoint<Map<String, Object>> implements ApplicationContextAware {
+		extends AbstractEndpoint<Map<String, Object>>
+		implements ApplicationContextAware, SmartApplicationListener {
 
 	private static final String CGLIB_FILTER_ID = "cglibFilter";
 
 	private final Sanitizer sanitizer = new Sanitizer();
 
+	private final ConcurrentMap<ApplicationContext, ContextReport> reports = new ConcurrentHashMap<ApplicationContext, ContextReport>();
+
+	private volatile ObjectMapper objectMapper;
+
 	private ApplicationContext context;
 
 	public ConfigurationPropertiesReportEndpoint() {
@@ -79,11 +101,50 @@ public class ConfigurationPropertiesReportEndpoint
 
 	public void setKeysToSanitize(String... keysToSanitize) {
 		this.sanitizer.setKeysToSanitize(keysToSanitize);
+		clearCache();
+	}
+
+	@Override
+	public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
+		return ConfigurationPropertiesReboundEvent.class.isAssignableFrom(eventType)
+				|| ApplicationContextEvent.class.isAssignableFrom(eventType);
+	}
+
+	@Override
+	public boolean supportsSourceType(Class<?> sourceType) {
+		return true;
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationEvent event) {
+		if (event instanceof ConfigurationPropertiesReboundEvent) {
+			String beanName = ((ConfigurationPropertiesReboundEvent) event).getBeanName();
+			for (ContextReport report : this.reports.values()) {
+				report.removeBeanReport(beanName);
+			}
+		}
+		else if (event instanceof ApplicationContextEvent) {
+			clearCache();
+		}
+	}
+
+	/**
+	 * Discard the cached reports so that the beans are serialized again the next time the
+	 * endpoint is invoked. Should be called whenever {@link ConfigurationProperties} beans
+	 * are rebound.
+	 */
+	public void clearCache() {
+		this.reports.clear();
 	}
 
 	@Override
 	public Map<String, Object> invoke() {
-		return extract(this.context);
+		return Collections.unmodifiableMap(extract(this.context));
 	}
 
 	/**
@@ -94,25 +155,36 @@ public class ConfigurationPropertiesReportEndpoint
 	 */
 	protected Map<String, Object> extract(ApplicationContext context) {
 		// Serialize beans into map structure and sanitize values
-		ObjectMapper mapper = new ObjectMapper();
-		configureObjectMapper(mapper);
-		return extract(context, mapper);
+		return extract(context, getObjectMapper());
+	}
+
+	private ObjectMapper getObjectMapper() {
+		ObjectMapper mapper = this.objectMapper;
+		if (mapper == null) {
+			mapper = new ObjectMapper();
+			configureObjectMapper(mapper);
+			this.objectMapper = mapper;
+		}
+		return mapper;
 	}
 
 	private Map<String, Object> extract(ApplicationContext context, ObjectMapper mapper) {
 		Map<String, Object> result = new HashMap<String, Object>();
-		ConfigurationBeanFactoryMetaData beanFactoryMetaData = getBeanFactoryMetaData(
-				context);
-		Map<String, Object> beans = getConfigurationPropertiesBeans(context,
-				beanFactoryMetaData);
-		for (Map.Entry<String, Object> entry : beans.entrySet()) {
-			String beanName = entry.getKey();
-			Object bean = entry.getValue();
+		ContextReport report = getContextReport(context);
+		for (String beanName : report.getBeanNames()) {
+			Object bean = context.getBean(beanName);
+			BeanReport beanReport = report.getBeanReport(beanName);
+			if (beanReport == null || beanReport.getBean() != bean) {
+				String prefix = extractPrefix(context, report.getBeanFactoryMetaData(),
+						beanName, bean);
+				beanReport = new BeanReport(bean, prefix, unmodifiableCopy(
+						sanitize(prefix, safeSerialize(mapper, bean, prefix))));
+				report.putBeanReport(beanName, beanReport);
+			}
 			Map<String, Object> root = new HashMap<String, Object>();
-			String prefix = extractPrefix(context, beanFactoryMetaData, beanName, bean);
-			root.put("prefix", prefix);
-			root.put("properties", sanitize(prefix, safeSerialize(mapper, bean, prefix)));
-			result.put(beanName, root);
+			root.put("prefix", beanReport.getPrefix());
+			root.put("properties", beanReport.getProperties());
+			result.put(beanName, Collections.unmodifiableMap(root));
 		}
 		if (context.getParent() != null) {
 			result.put("parent", extract(context.getParent(), mapper));
@@ -120,6 +192,21 @@ public class ConfigurationPropertiesReportEndpoint
 		return result;
 	}
 
+	private ContextReport getContextReport(ApplicationContext context) {
+		ContextReport report = this.reports.get(context);
+		if (report == null) {
+			ConfigurationBeanFactoryMetaData beanFactoryMetaData = getBeanFactoryMetaData(
+					context);
+			Map<String, Object> beans = getConfigurationPropertiesBeans(context,
+					beanFactoryMetaData);
+			report = new ContextReport(beanFactoryMetaData,
+					new LinkedHashSet<String>(beans.keySet()));
+			ContextReport existing = this.reports.putIfAbsent(context, report);
+			report = (existing == null ? report : existing);
+		}
+		return report;
+	}
+
 	private ConfigurationBeanFactoryMetaData getBeanFactoryMetaData(
 			ApplicationContext context) {
 		Map<String, ConfigurationBeanFactoryMetaData> beans = context
@@ -249,6 +336,96 @@ public class ConfigurationPropertiesReportEndpoint
 		return map;
 	}
 
+	@SuppressWarnings("unchecked")
+	private <T> T unmodifiableCopy(T value) {
+		if (value instanceof Map) {
+			Map<Object, Object> copy = new LinkedHashMap<Object, Object>();
+			for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+				copy.put(entry.getKey(), unmodifiableCopy(entry.getValue()));
+			}
+			return (T) Collections.unmodifiableMap(copy);
+		}
+		if (value instanceof List) {
+			List<Object> copy = new ArrayList<Object>();
+			for (Object element : (List<?>) value) {
+				copy.add(unmodifiableCopy(element));
+			}
+			return (T) Collections.unmodifiableList(copy);
+		}
+		return value;
+	}
+
+	/**
+	 * The {@link ConfigurationProperties} beans of a single context and the reports that
+	 * have been created for them.
+	 */
+	private static final class ContextReport {
+
+		private final ConfigurationBeanFactoryMetaData beanFactoryMetaData;
+
+		private final Set<String> beanNames;
+
+		private final ConcurrentMap<String, BeanReport> beanReports = new ConcurrentHashMap<String, BeanReport>();
+
+		ContextReport(ConfigurationBeanFactoryMetaData beanFactoryMetaData,
+				Set<String> beanNames) {
+			this.beanFactoryMetaData = beanFactoryMetaData;
+			this.beanNames = beanNames;
+		}
+
+		public ConfigurationBeanFactoryMetaData getBeanFactoryMetaData() {
+			return this.beanFactoryMetaData;
+		}
+
+		public Set<String> getBeanNames() {
+			return this.beanNames;
+		}
+
+		public BeanReport getBeanReport(String beanName) {
+			return this.beanReports.get(beanName);
+		}
+
+		public void putBeanReport(String beanName, BeanReport beanReport) {
+			this.beanReports.put(beanName, beanReport);
+		}
+
+		public void removeBeanReport(String beanName) {
+			this.beanReports.remove(beanName);
+		}
+
+	}
+
+	/**
+	 * The serialized and sanitized properties of a bean.
+	 */
+	private static final class BeanReport {
+
+		private final Object bean;
+
+		private final String prefix;
+
+		private final Map<String, Object> properties;
+
+		BeanReport(Object bean, String prefix, Map<String, Object> properties) {
+			this.bean = bean;
+			this.prefix = prefix;
+			this.properties = properties;
+		}
+
+		public Object getBean() {
+			return this.bean;
+		}
+
+		public String getPrefix() {
+			return this.prefix;
+		}
+
+		public Map<String, Object> getProperties() {
+			return this.properties;
+		}
+
+	}
+
 	/**
 	 * Extension to {@link JacksonAnnotationIntrospector} to suppress CGLIB generated bean
 	 * properties.
@@ -16,32 +16,56 @@
 
 package org.springframework.boot.actuate.endpoint;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.actuate.health.CompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.util.Assert;
 
 /**
- * {@link Endpoint} to expose application health.
+ * {@link Endpoint} to expose application health. If a
+ * {@link #setScheduledHealthIndicator(ScheduledCompositeHealthIndicator) scheduled
+ * health indicator} is set, the endpoint registers its health indicators with it and
+ * returns its latest snapshot instead of invoking the health indicators.
  *
  * @author Dave Syer
  * @author Christian Dupuis
  * @author Andy Wilkinson
  */
 @ConfigurationProperties(prefix = "endpoints.health")
-public class HealthEndpoint extends AbstractEndpoint<Health> {
+public class HealthEndpoint extends AbstractEndpoint<Health>
+		implements InitializingBean {
 
-	private final HealthIndicator healthIndicator;
+	private final Map<String, HealthIndicator> healthIndicators;
+
+	private final CompositeHealthIndicator healthIndicator;
+
+	private ScheduledCompositeHealthIndicator scheduledHealthIndicator;
 
 	/**
 	 * Time to live for cached result, in milliseconds.
 	 */
 	private long timeToLive = 1000;
 
+	/**
+	 * Time to live, in milliseconds, of the result of individual health indicators when
+	 * refreshed in the background. Indicators not listed use the time-to-live.
+	 */
+	private Map<String, Long> indicatorTimeToLive = new LinkedHashMap<String, Long>();
+
+	/**
+	 * Maximum time, in milliseconds, to wait for a health indicator when indicators are
+	 * invoked concurrently.
+	 */
+	private long timeout = 10000;
+
 	/**
 	 * Create a new {@link HealthIndicator} instance.
 	 * @param healthAggregator the health aggregator
@@ -52,11 +76,15 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		super("health", false);
 		Assert.notNull(healthAggregator, "HealthAggregator must not be null");
 		Assert.notNull(healthIndicators, "HealthIndicators must not be null");
+		this.healthIndicators = new LinkedHashMap<String, HealthIndicator>();
 		CompositeHealthIndicator healthIndicator = new CompositeHealthIndicator(
 				healthAggregator);
 		for (Map.Entry<String, HealthIndicator> entry : healthIndicators.entrySet()) {
-			healthIndicator.addHealthIndicator(getKey(entry.getKey()), entry.getValue());
+			String key = getKey(entry.getKey());
+			this.healthIndicators.put(key, entry.getValue());
+			healthIndicator.addHealthIndicator(key, entry.getValue());
 		}
+		healthIndicator.setTimeout(this.timeout);
 		this.healthIndicator = healthIndicator;
 	}
 
@@ -73,12 +101,83 @@ public class HealthEndpoint extends AbstractEndpoint<Health> {
 		this.timeToLive = ttl;
 	}
 
+	/**
+	 * Time to live of the result of individual health indicators, keyed by indicator
+	 * name, when they are refreshed in the background. Indicators that are not listed
+	 * use the {@link #getTimeToLive() time to live}.
+	 * @return the time to live in milliseconds of individual indicators
+	 * @since 1.4.0
+	 */
+	public Map<String, Long> getIndicatorTimeToLive() {
+		return this.indicatorTimeToLive;
+	}
+
+	public void setIndicatorTimeToLive(Map<String, Long> indicatorTimeToLive) {
+		this.indicatorTimeToLive = indicatorTimeToLive;
+	}
+
+	/**
+	 * Maximum time to wait for a health indicator when indicators are invoked
+	 * concurrently. Indicators that do not respond in time are reported as down.
+	 * @return the timeout in milliseconds (default 10000)
+	 * @see #setExecutor(Executor)
+	 */
+	public long getTimeout() {
+		return this.timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+		this.healthIndicator.setTimeout(timeout);
+	}
+
+	/**
+	 * Set the {@link ScheduledCompositeHealthIndicator} that refreshes the health
+	 * indicators in the background. When set, {@link #invoke()} returns its latest
+	 * snapshot. The health indicators are registered with it, using the configured time
+	 * to live, by {@link #afterPropertiesSet()}. The endpoint does not start or stop the
+	 * scheduled health indicator.
+	 * @param scheduledHealthIndicator the scheduled health indicator or {@code null}
+	 * @since 1.4.0
+	 */
+	public void setScheduledHealthIndicator(
+			ScheduledCompositeHealthIndicator scheduledHealthIndicator) {
+		this.scheduledHealthIndicator = scheduledHealthIndicator;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		ScheduledCompositeHealthIndicator scheduled = this.scheduledHealthIndicator;
+		if (scheduled != null) {
+			for (Map.Entry<String, HealthIndicator> entry : this.healthIndicators
+					.entrySet()) {
+				Long timeToLive = this.indicatorTimeToLive.get(entry.getKey());
+				scheduled.addHealthIndicator(entry.getKey(), entry.getValue(),
+						(timeToLive == null ? this.timeToLive : timeToLive));
+			}
+			scheduled.setTimeout(this.timeout);
+		}
+	}
+
+	/**
+	 * Set the {@link Executor} used to invoke the health indicators concurrently. By
+	 * default indicators are invoked sequentially on the calling thread.
+	 * @param executor the executor
+	 */
+	public void setExecutor(Executor executor) {
+		this.healthIndicator.setExecutor(executor);
+	}
+
 	/**
 	 * Invoke all {@link HealthIndicator} delegates and collect their health information.
 	 */
 	@Override
 	public Health invoke() {
-		return this.healthIndicator.health();
+		HealthIndicator healthIndicator = this.scheduledHealthIndicator;
+		if (healthIndicator == null) {
+			healthIndicator = this.healthIndicator;
+		}
+		return healthIndicator.health();
 	}
 
 	/**
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.core.Ordered;
+import org.springframework.lang.UsesJava7;
+import org.springframework.util.StringUtils;
+
+/**
+ * A {@link PublicMetrics} implementation that reports what the JVM's memory management
+ * did over the last completed interval: the number and duration of garbage collections,
+ * the memory promoted to the old generation, and the memory allocated in the young
+ * generation. The usage of the direct and mapped buffer pools is also reported.
+ * <p>
+ * Everything apart from the buffer pools is recorded from the notifications published
+ * by each {@link GarbageCollectorMXBean}, so nothing is computed when the metrics are
+ * read. An interval ends with the first garbage collection that completes after
+ * {@link #setInterval(long) interval} milliseconds, and the allocated memory is the
+ * growth of the eden space between collections, so it covers exactly the same period
+ * as the other metrics.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@UsesJava7
+public class MemoryPublicMetrics implements PublicMetrics, Ordered, DisposableBean {
+
+	private final List<NotificationEmitter> emitters = new ArrayList<NotificationEmitter>();
+
+	private final NotificationListener listener = new GarbageCollectionListener();
+
+	private final Map<String, Long> edenUsed = new HashMap<String, Long>();
+
+	private final Object monitor = new Object();
+
+	private long interval = 10000;
+
+	private long intervalStart;
+
+	private long collections;
+
+	private long collectionTime;
+
+	private long maxCollectionTime;
+
+	private long promoted;
+
+	private long allocated;
+
+	private Collection<Metric<?>> last;
+
+	public MemoryPublicMetrics() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (isEden(pool.getName())) {
+				this.edenUsed.put(pool.getName(), pool.getUsage().getUsed());
+			}
+		}
+		this.intervalStart = ManagementFactory.getRuntimeMXBean().getUptime();
+		this.last = endInterval(this.intervalStart);
+		for (GarbageCollectorMXBean bean : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			if (bean instanceof NotificationEmitter) {
+				NotificationEmitter emitter = (NotificationEmitter) bean;
+				emitter.addNotificationListener(this.listener, null, null);
+				this.emitters.add(emitter);
+			}
+		}
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 15;
+	}
+
+	/**
+	 * Set the minimum length of the interval that the metrics are reported for. The
+	 * metrics of an interval are available once the garbage collection that ends it has
+	 * completed, and until the next interval has ended.
+	 * @param interval the interval in milliseconds
+	 */
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		Collection<Metric<?>> result = new LinkedHashSet<Metric<?>>();
+		synchronized (this.monitor) {
+			result.addAll(this.last);
+		}
+		addBufferPoolMetrics(result);
+		return result;
+	}
+
+	private Collection<Metric<?>> endInterval(long end) {
+		Collection<Metric<?>> result = new ArrayList<Metric<?>>();
+		long duration = end - this.intervalStart;
+		result.add(new Metric<Long>("gc.interval", duration));
+		result.add(new Metric<Long>("gc.collections", this.collections));
+		result.add(new Metric<Long>("gc.collections.time", this.collectionTime));
+		result.add(new Metric<Long>("gc.collections.max", this.maxCollectionTime));
+		result.add(newMemoryMetric("gc.promoted", this.promoted));
+		if (!this.edenUsed.isEmpty()) {
+			result.add(newMemoryMetric("gc.allocated", this.allocated));
+			result.add(new Metric<Long>("gc.allocated.rate.kbps",
+					(duration > 0 ? this.allocated * 1000 / duration / 1024 : 0)));
+		}
+		this.intervalStart = end;
+		this.collections = 0;
+		this.collectionTime = 0;
+		this.maxCollectionTime = 0;
+		this.promoted = 0;
+		this.allocated = 0;
+		return result;
+	}
+
+	private void addBufferPoolMetrics(Collection<Metric<?>> result) {
+		for (BufferPoolMXBean pool : ManagementFactory
+				.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			String name = "buffers." + beautifyName(pool.getName());
+			result.add(new Metric<Long>(name + ".count", pool.getCount()));
+			result.add(newMemoryMetric(name + ".used", pool.getMemoryUsed()));
+			result.add(newMemoryMetric(name + ".capacity", pool.getTotalCapacity()));
+		}
+	}
+
+	private Metric<Long> newMemoryMetric(String name, long bytes) {
+		return new Metric<Long>(name, bytes / 1024);
+	}
+
+	private String beautifyName(String name) {
+		return StringUtils.replace(name, " ", "_").toLowerCase();
+	}
+
+	private void record(GcInfo info) {
+		Map<String, MemoryUsage> before = info.getMemoryUsageBeforeGc();
+		Map<String, MemoryUsage> after = info.getMemoryUsageAfterGc();
+		synchronized (this.monitor) {
+			for (Map.Entry<String, MemoryUsage> entry : after.entrySet()) {
+				String pool = entry.getKey();
+				MemoryUsage usage = before.get(pool);
+				if (usage == null) {
+					continue;
+				}
+				if (isOldGeneration(pool)) {
+					this.promoted += Math.max(0,
+							entry.getValue().getUsed() - usage.getUsed());
+				}
+				else if (this.edenUsed.containsKey(pool)) {
+					this.allocated += Math.max(0,
+							usage.getUsed() - this.edenUsed.get(pool));
+					this.edenUsed.put(pool, entry.getValue().getUsed());
+				}
+			}
+			this.collections++;
+			this.collectionTime += info.getDuration();
+			this.maxCollectionTime = Math.max(this.maxCollectionTime,
+					info.getDuration());
+			if (info.getEndTime() - this.intervalStart >= this.interval) {
+				this.last = endInterval(info.getEndTime());
+			}
+		}
+	}
+
+	private boolean isEden(String poolName) {
+		return poolName.contains("Eden Space");
+	}
+
+	private boolean isOldGeneration(String poolName) {
+		return poolName.contains("Old Gen") || poolName.contains("Tenured Gen");
+	}
+
+	@Override
+	public void destroy() {
+		for (NotificationEmitter emitter : this.emitters) {
+			try {
+				emitter.removeNotificationListener(this.listener);
+			}
+			catch (ListenerNotFoundException ex) {
+				// Continue
+			}
+		}
+		this.emitters.clear();
+	}
+
+	/**
+	 * {@link NotificationListener} to record garbage collections.
+	 */
+	private class GarbageCollectionListener implements NotificationListener {
+
+		@Override
+		public void handleNotification(Notification notification, Object handback) {
+			if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION
+					.equals(notification.getType())) {
+				record(GarbageCollectionNotificationInfo
+						.from((CompositeData) notification.getUserData()).getGcInfo());
+			}
+		}
+
+	}
+
+}
@@ -38,6 +38,16 @@ public class MetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
 
 	private final List<PublicMetrics> publicMetrics;
 
+	/**
+	 * Time to live for the metrics snapshot in milliseconds. The snapshot is shared by
+	 * all callers until it expires. Set to 0 to collect the metrics on every call.
+	 */
+	private long timeToLive = 0;
+
+	private final Object monitor = new Object();
+
+	private volatile Snapshot snapshot;
+
 	/**
 	 * Create a new {@link MetricsEndpoint} instance.
 	 * @param publicMetrics the metrics to expose
@@ -58,19 +68,63 @@ public class MetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
 		AnnotationAwareOrderComparator.sort(this.publicMetrics);
 	}
 
+	public long getTimeToLive() {
+		return this.timeToLive;
+	}
+
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
 	public void registerPublicMetrics(PublicMetrics metrics) {
-		this.publicMetrics.add(metrics);
-		AnnotationAwareOrderComparator.sort(this.publicMetrics);
+		synchronized (this.monitor) {
+			this.publicMetrics.add(metrics);
+			AnnotationAwareOrderComparator.sort(this.publicMetrics);
+			this.snapshot = null;
+		}
 	}
 
 	public void unregisterPublicMetrics(PublicMetrics metrics) {
-		this.publicMetrics.remove(metrics);
+		synchronized (this.monitor) {
+			this.publicMetrics.remove(metrics);
+			this.snapshot = null;
+		}
 	}
 
+	/**
+	 * Return the current metrics. Unless the {@link #setTimeToLive(long) time to live}
+	 * is {@code 0} the returned map is an unmodifiable snapshot that is shared with other
+	 * callers until it expires.
+	 * @return the metrics keyed by name
+	 */
 	@Override
 	public Map<String, Object> invoke() {
+		if (this.timeToLive <= 0) {
+			return collect(getPublicMetrics());
+		}
+		long now = System.currentTimeMillis();
+		Snapshot snapshot = this.snapshot;
+		if (snapshot == null || snapshot.isExpired(now, this.timeToLive)) {
+			synchronized (this.monitor) {
+				snapshot = this.snapshot;
+				if (snapshot == null || snapshot.isExpired(now, this.timeToLive)) {
+					snapshot = new Snapshot(
+							Collections.unmodifiableMap(collect(this.publicMetrics)));
+					this.snapshot = snapshot;
+				}
+			}
+		}
+		return snapshot.getMetrics();
+	}
+
+	private List<PublicMetrics> getPublicMetrics() {
+		synchronized (this.monitor) {
+			return new ArrayList<PublicMetrics>(this.publicMetrics);
+		}
+	}
+
+	private Map<String, Object> collect(List<PublicMetrics> metrics) {
 		Map<String, Object> result = new LinkedHashMap<String, Object>();
-		List<PublicMetrics> metrics = new ArrayList<PublicMetrics>(this.publicMetrics);
 		for (PublicMetrics publicMetric : metrics) {
 			try {
 				for (Metric<?> metric : publicMetric.metrics()) {
@@ -84,4 +138,28 @@ public class MetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
 		return result;
 	}
 
+	/**
+	 * Metrics collected at a point in time.
+	 */
+	private static final class Snapshot {
+
+		private final Map<String, Object> metrics;
+
+		private final long timestamp;
+
+		Snapshot(Map<String, Object> metrics) {
+			this.metrics = metrics;
+			this.timestamp = System.currentTimeMillis();
+		}
+
+		public Map<String, Object> getMetrics() {
+			return this.metrics;
+		}
+
+		public boolean isExpired(long now, long timeToLive) {
+			return (now - this.timestamp) >= timeToLive;
+		}
+
+	}
+
 }
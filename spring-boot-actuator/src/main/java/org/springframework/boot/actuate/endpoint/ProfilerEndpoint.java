@@ -0,0 +1,435 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * {@link Endpoint} to expose the results of a sampling profiler. While the endpoint is
+ * {@link #start() running} the stacks of live threads are sampled on a fixed interval, by
+ * a daemon thread that it owns, without lock information, and merged into a call tree.
+ * The endpoint reports the call tree and the most frequent top frames for each thread
+ * state.
+ * <p>
+ * Taking stack traces requires a safepoint, so each sample only covers the next
+ * {@link #setThreadsPerSample(int) threadsPerSample} threads, taking turns through all the
+ * live threads, and is limited to {@link #setMaxDepth(int) maxDepth} frames. This keeps
+ * each pause short at the cost of sampling an individual thread less often.
+ * <p>
+ * The call tree is bounded by {@link #setMaxNodes(int) maxNodes}. Once it is full,
+ * samples that would need new nodes are counted against the deepest existing node. The
+ * data is discarded and collection starts again once it covers more than the
+ * {@link #setWindow(long) window}.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@ConfigurationProperties(prefix = "endpoints.profiler")
+public class ProfilerEndpoint extends AbstractEndpoint<Map<String, Object>>
+		implements SmartLifecycle {
+
+	private static final Comparator<Node> COUNT_ORDER = new Comparator<Node>() {
+
+		@Override
+		public int compare(Node o1, Node o2) {
+			return (o1.count < o2.count ? 1 : (o1.count == o2.count ? 0 : -1));
+		}
+
+	};
+
+	/**
+	 * Time in milliseconds between samples.
+	 */
+	private long interval = 100;
+
+	/**
+	 * Maximum number of frames to sample for each thread.
+	 */
+	private int maxDepth = 64;
+
+	/**
+	 * Maximum number of threads to sample at a time. Set to 0 to sample all the live
+	 * threads every time.
+	 */
+	private int threadsPerSample = 16;
+
+	/**
+	 * Time in milliseconds after which the collected data is discarded and collection
+	 * starts again. Set to 0 to keep the data until it is reset.
+	 */
+	private long window = 600000;
+
+	/**
+	 * Maximum number of nodes in the call tree.
+	 */
+	private int maxNodes = 10000;
+
+	/**
+	 * Number of top frames to report for each thread state.
+	 */
+	private int topFrames = 20;
+
+	private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+	private final Object monitor = new Object();
+
+	private Node root;
+
+	private Map<Thread.State, StateCounts> states;
+
+	private int nodes;
+
+	private long samples;
+
+	private long start;
+
+	private final Map<StackTraceElement, String> frames = new HashMap<StackTraceElement, String>();
+
+	private long[] threadIds;
+
+	private int nextThread;
+
+	private ScheduledExecutorService sampler;
+
+	/**
+	 * Create a new {@link ProfilerEndpoint} instance.
+	 */
+	public ProfilerEndpoint() {
+		super("profiler");
+		reset();
+	}
+
+	public long getInterval() {
+		return this.interval;
+	}
+
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+	public int getMaxDepth() {
+		return this.maxDepth;
+	}
+
+	public void setMaxDepth(int maxDepth) {
+		this.maxDepth = maxDepth;
+	}
+
+	public int getThreadsPerSample() {
+		return this.threadsPerSample;
+	}
+
+	public void setThreadsPerSample(int threadsPerSample) {
+		this.threadsPerSample = threadsPerSample;
+	}
+
+	public long getWindow() {
+		return this.window;
+	}
+
+	public void setWindow(long window) {
+		this.window = window;
+	}
+
+	public int getMaxNodes() {
+		return this.maxNodes;
+	}
+
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+	public int getTopFrames() {
+		return this.topFrames;
+	}
+
+	public void setTopFrames(int topFrames) {
+		this.topFrames = topFrames;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (this.sampler != null) {
+			return;
+		}
+		this.sampler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "profiler");
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+		this.sampler.scheduleWithFixedDelay(new Runnable() {
+
+			@Override
+			public void run() {
+				if (isEnabled()) {
+					sample();
+				}
+			}
+
+		}, this.interval, this.interval, TimeUnit.MILLISECONDS);
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (this.sampler != null) {
+			this.sampler.shutdownNow();
+			this.sampler = null;
+		}
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public synchronized boolean isRunning() {
+		return this.sampler != null;
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	/**
+	 * Take a single sample of the next {@link #setThreadsPerSample(int) threadsPerSample}
+	 * live threads, apart from the current one.
+	 */
+	public void sample() {
+		long current = Thread.currentThread().getId();
+		ThreadInfo[] infos = this.threads.getThreadInfo(nextThreadIds(), this.maxDepth);
+		synchronized (this.monitor) {
+			if (this.window > 0 && System.currentTimeMillis() - this.start > this.window) {
+				clear();
+			}
+			for (ThreadInfo info : infos) {
+				if (info != null && info.getThreadId() != current) {
+					add(info.getThreadState(), info.getStackTrace());
+				}
+			}
+			this.samples++;
+		}
+	}
+
+	private long[] nextThreadIds() {
+		synchronized (this.monitor) {
+			if (this.threadIds == null || this.nextThread >= this.threadIds.length) {
+				this.threadIds = this.threads.getAllThreadIds();
+				this.nextThread = 0;
+			}
+			int count = this.threadIds.length - this.nextThread;
+			if (this.threadsPerSample > 0) {
+				count = Math.min(this.threadsPerSample, count);
+			}
+			long[] ids = Arrays.copyOfRange(this.threadIds, this.nextThread,
+					this.nextThread + count);
+			this.nextThread += count;
+			return ids;
+		}
+	}
+
+	/**
+	 * Discard all the samples taken so far.
+	 */
+	public void reset() {
+		synchronized (this.monitor) {
+			clear();
+		}
+	}
+
+	private void clear() {
+		this.root = new Node("root");
+		this.states = new EnumMap<Thread.State, StateCounts>(Thread.State.class);
+		this.nodes = 1;
+		this.samples = 0;
+		this.start = System.currentTimeMillis();
+	}
+
+	private void add(Thread.State state, StackTraceElement[] stack) {
+		Node node = this.root;
+		node.count++;
+		for (int i = stack.length - 1; i >= 0; i--) {
+			String frame = getFrame(stack[i]);
+			Node child = node.getChild(frame);
+			if (child == null) {
+				if (this.nodes >= this.maxNodes) {
+					break;
+				}
+				child = node.addChild(frame);
+				this.nodes++;
+			}
+			child.count++;
+			node = child;
+		}
+		StateCounts counts = this.states.get(state);
+		if (counts == null) {
+			counts = new StateCounts();
+			this.states.put(state, counts);
+		}
+		counts.add(stack.length == 0 ? null : getFrame(stack[0]), this.maxNodes);
+	}
+
+	private String getFrame(StackTraceElement element) {
+		String frame = this.frames.get(element);
+		if (frame == null) {
+			frame = element.getClassName() + "." + element.getMethodName();
+			if (this.frames.size() < this.maxNodes) {
+				this.frames.put(element, frame);
+			}
+		}
+		return frame;
+	}
+
+	@Override
+	public Map<String, Object> invoke() {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		synchronized (this.monitor) {
+			result.put("start", this.start);
+			result.put("samples", this.samples);
+			result.put("interval", this.interval);
+			result.put("window", this.window);
+			Map<String, Object> states = new LinkedHashMap<String, Object>();
+			for (Map.Entry<Thread.State, StateCounts> entry : this.states.entrySet()) {
+				states.put(entry.getKey().name(), entry.getValue().describe(this.topFrames));
+			}
+			result.put("states", states);
+			result.put("tree", this.root.describe());
+		}
+		return result;
+	}
+
+	/**
+	 * Sample counts for a single thread state.
+	 */
+	private static class StateCounts {
+
+		private final Map<String, Node> frames = new HashMap<String, Node>();
+
+		private long count;
+
+		public void add(String frame, int maxFrames) {
+			this.count++;
+			if (frame == null) {
+				return;
+			}
+			Node node = this.frames.get(frame);
+			if (node == null) {
+				if (this.frames.size() >= maxFrames) {
+					return;
+				}
+				node = new Node(frame);
+				this.frames.put(frame, node);
+			}
+			node.count++;
+		}
+
+		public Map<String, Object> describe(int topFrames) {
+			List<Node> frames = new ArrayList<Node>(this.frames.values());
+			Collections.sort(frames, COUNT_ORDER);
+			List<Map<String, Object>> top = new ArrayList<Map<String, Object>>();
+			for (int i = 0; i < Math.min(topFrames, frames.size()); i++) {
+				Node frame = frames.get(i);
+				Map<String, Object> description = new LinkedHashMap<String, Object>();
+				description.put("frame", frame.frame);
+				description.put("count", frame.count);
+				top.add(description);
+			}
+			Map<String, Object> result = new LinkedHashMap<String, Object>();
+			result.put("count", this.count);
+			result.put("top", top);
+			return result;
+		}
+
+	}
+
+	/**
+	 * A node in the call tree.
+	 */
+	private static class Node {
+
+		private final String frame;
+
+		private long count;
+
+		private Map<String, Node> children;
+
+		Node(String frame) {
+			this.frame = frame;
+		}
+
+		public Node getChild(String frame) {
+			return (this.children == null ? null : this.children.get(frame));
+		}
+
+		public Node addChild(String frame) {
+			if (this.children == null) {
+				this.children = new HashMap<String, Node>();
+			}
+			Node child = new Node(frame);
+			this.children.put(frame, child);
+			return child;
+		}
+
+		public Map<String, Object> describe() {
+			Map<String, Object> result = new LinkedHashMap<String, Object>();
+			result.put("frame", this.frame);
+			result.put("count", this.count);
+			if (this.children != null) {
+				List<Node> children = new ArrayList<Node>(this.children.values());
+				Collections.sort(children, COUNT_ORDER);
+				List<Map<String, Object>> descriptions = new ArrayList<Map<String, Object>>();
+				for (Node child : children) {
+					descriptions.add(child.describe());
+				}
+				result.put("children", descriptions);
+			}
+			return result;
+		}
+
+	}
+
+}
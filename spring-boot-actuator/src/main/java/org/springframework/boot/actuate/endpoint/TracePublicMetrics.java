@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.trace.AsyncTraceWriter;
+import org.springframework.util.Assert;
+
+/**
+ * {@link PublicMetrics} exposing the number of traces written, dropped and skipped by an
+ * {@link AsyncTraceWriter}.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public class TracePublicMetrics implements PublicMetrics {
+
+	private final AsyncTraceWriter traceWriter;
+
+	public TracePublicMetrics(AsyncTraceWriter traceWriter) {
+		Assert.notNull(traceWriter, "TraceWriter must not be null");
+		this.traceWriter = traceWriter;
+	}
+
+	@Override
+	public Collection<Metric<?>> metrics() {
+		List<Metric<?>> result = new ArrayList<Metric<?>>(3);
+		result.add(new Metric<Long>("trace.written", this.traceWriter.getWritten()));
+		result.add(new Metric<Long>("trace.dropped", this.traceWriter.getDropped()));
+		result.add(new Metric<Long>("trace.skipped", this.traceWriter.getSkipped()));
+		return result;
+	}
+
+}
@@ -22,12 +22,14 @@ import java.util.Map;
 
 import org.springframework.boot.actuate.endpoint.HealthEndpoint;
 import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.bind.RelaxedNames;
 import org.springframework.boot.bind.RelaxedPropertyResolver;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -63,6 +65,8 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 
 	private Health cached;
 
+	private ScheduledCompositeHealthIndicator scheduledHealthIndicator;
+
 	public HealthMvcEndpoint(HealthEndpoint delegate) {
 		this(delegate, true);
 	}
@@ -86,6 +90,17 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 				"management.security.");
 	}
 
+	/**
+	 * Set the {@link ScheduledCompositeHealthIndicator} used by the delegate, if any.
+	 * Its snapshot is not cached again and responses include an {@code Age} header.
+	 * @param scheduledHealthIndicator the scheduled health indicator or {@code null}
+	 * @since 1.4.0
+	 */
+	public void setScheduledHealthIndicator(
+			ScheduledCompositeHealthIndicator scheduledHealthIndicator) {
+		this.scheduledHealthIndicator = scheduledHealthIndicator;
+	}
+
 	/**
 	 * Set specific status mappings.
 	 * @param statusMapping a map of status code to {@link HttpStatus}
@@ -135,6 +150,15 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 		}
 		Health health = getHealth(principal);
 		HttpStatus status = getStatus(health);
+		long timestamp = getSnapshotTimestamp();
+		if (timestamp > 0) {
+			// Let clients know how stale the background refreshed snapshot is
+			HttpHeaders headers = new HttpHeaders();
+			headers.set(HttpHeaders.AGE, String.valueOf(Math.max(0,
+					(System.currentTimeMillis() - timestamp) / 1000)));
+			return new ResponseEntity<Health>(health, headers,
+					(status == null ? HttpStatus.OK : status));
+		}
 		if (status != null) {
 			return new ResponseEntity<Health>(health, status);
 		}
@@ -156,15 +180,28 @@ public class HealthMvcEndpoint extends AbstractEndpointMvcAdapter<HealthEndpoint
 	}
 
 	private Health getHealth(Principal principal) {
-		long accessTime = System.currentTimeMillis();
-		if (isCacheStale(accessTime)) {
-			this.lastAccess = accessTime;
-			this.cached = getDelegate().invoke();
+		Health health;
+		if (getSnapshotTimestamp() > 0) {
+			// The delegate already returns a background refreshed snapshot
+			health = getDelegate().invoke();
+		}
+		else {
+			long accessTime = System.currentTimeMillis();
+			if (isCacheStale(accessTime)) {
+				this.lastAccess = accessTime;
+				this.cached = getDelegate().invoke();
+			}
+			health = this.cached;
 		}
 		if (exposeHealthDetails(principal)) {
-			return this.cached;
+			return health;
 		}
-		return Health.status(this.cached.getStatus()).build();
+		return Health.status(health.getStatus()).build();
+	}
+
+	private long getSnapshotTimestamp() {
+		ScheduledCompositeHealthIndicator healthIndicator = this.scheduledHealthIndicator;
+		return (healthIndicator == null ? 0 : healthIndicator.getTimestamp());
 	}
 
 	private boolean isCacheStale(long accessTime) {
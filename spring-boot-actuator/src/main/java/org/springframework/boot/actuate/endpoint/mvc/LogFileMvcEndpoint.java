@@ -16,7 +16,17 @@
 
 package org.springframework.boot.actuate.endpoint.mvc;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -30,31 +40,48 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.boot.actuate.endpoint.Endpoint;
 import org.springframework.boot.actuate.endpoint.EndpointProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.boot.logging.LogFile;
 import org.springframework.context.EnvironmentAware;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 
 /**
  * Controller that provides an API for logfiles, i.e. downloading the main logfile
  * configured in environment property 'logging.file' that is standard, but optional
  * property for spring-boot applications.
+ * <p>
+ * The {@code lines} or {@code bytes} request parameter can be used to only download the
+ * end of the file. With {@code follow=true} the response is kept open (using servlet
+ * async processing) and data that is appended to the file is streamed to the client until
+ * the {@link #setFollowTimeout(long) follow timeout} is reached or the client disconnects.
+ * The file is checked for new data by a scheduled task, so no request thread is held
+ * while following.
  *
  * @author Johannes Edmeier
  * @author Phillip Webb
  * @since 1.3.0
  */
 @ConfigurationProperties(prefix = "endpoints.logfile")
-public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
+public class LogFileMvcEndpoint
+		implements MvcEndpoint, EnvironmentAware, DisposableBean {
 
 	private static final Log logger = LogFactory.getLog(LogFileMvcEndpoint.class);
 
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int CHUNK_SIZE = 65536;
+
 	/**
 	 * Endpoint URL path.
 	 */
@@ -72,8 +99,22 @@ public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 	 */
 	private Boolean sensitive;
 
+	/**
+	 * Time in milliseconds between checks for new data when following the log file.
+	 */
+	private long followPollInterval = 1000;
+
+	/**
+	 * Maximum time in milliseconds to follow the log file in a single request.
+	 */
+	private long followTimeout = 60000;
+
+	private final Handler handler = new Handler();
+
 	private Environment environment;
 
+	private ScheduledExecutorService scheduler;
+
 	@Override
 	public void setEnvironment(Environment environment) {
 		this.environment = environment;
@@ -105,6 +146,22 @@ public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 		this.sensitive = sensitive;
 	}
 
+	public long getFollowPollInterval() {
+		return this.followPollInterval;
+	}
+
+	public void setFollowPollInterval(long followPollInterval) {
+		this.followPollInterval = followPollInterval;
+	}
+
+	public long getFollowTimeout() {
+		return this.followTimeout;
+	}
+
+	public void setFollowTimeout(long followTimeout) {
+		this.followTimeout = followTimeout;
+	}
+
 	@Override
 	@SuppressWarnings("rawtypes")
 	public Class<? extends Endpoint> getEndpointType() {
@@ -112,14 +169,143 @@ public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 	}
 
 	@RequestMapping(method = { RequestMethod.GET, RequestMethod.HEAD })
-	public void invoke(HttpServletRequest request, HttpServletResponse response)
-			throws ServletException, IOException {
+	public ResponseBodyEmitter invoke(HttpServletRequest request,
+			HttpServletResponse response) throws ServletException, IOException {
 		if (!isEnabled()) {
 			response.setStatus(HttpStatus.NOT_FOUND.value());
-			return;
+			return null;
+		}
+		Integer lines = getParameter(request, "lines");
+		Integer bytes = getParameter(request, "bytes");
+		boolean follow = Boolean.valueOf(request.getParameter("follow"));
+		if (RequestMethod.HEAD.name().equals(request.getMethod())
+				|| request.getHeader(HttpHeaders.RANGE) != null
+				|| (lines == null && bytes == null && !follow)) {
+			this.handler.handleRequest(request, response);
+			return null;
 		}
 		Resource resource = getLogFileResource();
-		new Handler(resource).handleRequest(request, response);
+		if (resource == null) {
+			response.setStatus(HttpStatus.NOT_FOUND.value());
+			return null;
+		}
+		File file = resource.getFile();
+		RandomAccessFile input = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = input.getChannel();
+			long length = channel.size();
+			long position = length;
+			if (lines != null) {
+				position = findStartOfLastLines(channel, length, lines);
+			}
+			else if (bytes != null) {
+				position = Math.max(0, length - bytes);
+			}
+			response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+			if (follow) {
+				Follower follower = new Follower(file, input, position);
+				input = null;
+				return follower.start();
+			}
+			response.setHeader(HttpHeaders.CONTENT_LENGTH,
+					String.valueOf(length - position));
+			copy(channel, position, length, response.getOutputStream());
+			return null;
+		}
+		finally {
+			if (input != null) {
+				input.close();
+			}
+		}
+	}
+
+	@Override
+	public void destroy() {
+		synchronized (this) {
+			if (this.scheduler != null) {
+				this.scheduler.shutdownNow();
+				this.scheduler = null;
+			}
+		}
+	}
+
+	private synchronized ScheduledExecutorService getScheduler() {
+		if (this.scheduler == null) {
+			CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(
+					"logfile-follow-");
+			threadFactory.setDaemon(true);
+			this.scheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+		}
+		return this.scheduler;
+	}
+
+	private Integer getParameter(HttpServletRequest request, String name) {
+		String value = request.getParameter(name);
+		if (!StringUtils.hasText(value)) {
+			return null;
+		}
+		try {
+			return Math.max(0, Integer.parseInt(value.trim()));
+		}
+		catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	private static void copy(FileChannel channel, long position, long end,
+			OutputStream output) throws IOException {
+		byte[] buffer = new byte[BUFFER_SIZE];
+		ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+		while (position < end) {
+			wrapped.clear();
+			wrapped.limit((int) Math.min(BUFFER_SIZE, end - position));
+			int read = channel.read(wrapped, position);
+			if (read <= 0) {
+				break;
+			}
+			output.write(buffer, 0, read);
+			position += read;
+		}
+	}
+
+	/**
+	 * Find the position of the start of the given number of lines from the end of the
+	 * file by reading backwards in blocks.
+	 * @param channel the file channel
+	 * @param length the length of the file
+	 * @param lines the number of lines
+	 * @return the position of the first byte to send
+	 * @throws IOException if the file cannot be read
+	 */
+	private static long findStartOfLastLines(FileChannel channel, long length, int lines)
+			throws IOException {
+		if (lines <= 0) {
+			return length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long position = length;
+		int found = 0;
+		while (position > 0) {
+			int size = (int) Math.min(BUFFER_SIZE, position);
+			position -= size;
+			buffer.clear();
+			buffer.limit(size);
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, position + buffer.position()) < 0) {
+					break;
+				}
+			}
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				// A newline at the very end terminates the last line
+				if (buffer.get(i) == '\n' && position + i < length - 1) {
+					found++;
+					if (found == lines) {
+						return position + i + 1;
+					}
+				}
+			}
+		}
+		return 0;
 	}
 
 	private Resource getLogFileResource() {
@@ -139,14 +325,123 @@ public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 	}
 
 	/**
-	 * {@link ResourceHttpRequestHandler} to send the log file.
+	 * Follows the log file for a single request, sending any new data to a
+	 * {@link ResponseBodyEmitter} each time the file is polled.
 	 */
-	private static class Handler extends ResourceHttpRequestHandler {
+	private class Follower implements Runnable {
+
+		private final File file;
 
-		private final Resource resource;
+		private final long deadline;
+
+		private final ResponseBodyEmitter emitter;
+
+		private RandomAccessFile input;
+
+		private long position;
+
+		private ScheduledFuture<?> future;
+
+		private boolean closed;
+
+		Follower(File file, RandomAccessFile input, long position) {
+			this.file = file;
+			this.input = input;
+			this.position = position;
+			this.deadline = System.currentTimeMillis() + getFollowTimeout();
+			// The task completes the response at the deadline, the async timeout is a
+			// backstop in case it cannot
+			this.emitter = new ResponseBodyEmitter(
+					getFollowTimeout() + 2 * getFollowPollInterval());
+		}
+
+		public ResponseBodyEmitter start() {
+			Runnable close = new Runnable() {
+
+				@Override
+				public void run() {
+					close();
+				}
+
+			};
+			this.emitter.onCompletion(close);
+			this.emitter.onTimeout(close);
+			synchronized (this) {
+				this.future = getScheduler().scheduleWithFixedDelay(this, 0,
+						getFollowPollInterval(), TimeUnit.MILLISECONDS);
+			}
+			return this.emitter;
+		}
+
+		@Override
+		public synchronized void run() {
+			if (this.closed) {
+				return;
+			}
+			try {
+				if (this.file.length() < this.position) {
+					// The file has been truncated or rotated
+					this.input.close();
+					this.input = new RandomAccessFile(this.file, "r");
+					this.position = 0;
+				}
+				send();
+				if (System.currentTimeMillis() >= this.deadline) {
+					close();
+					this.emitter.complete();
+				}
+			}
+			catch (Exception ex) {
+				logger.debug("Stopped following log file", ex);
+				close();
+				this.emitter.complete();
+			}
+		}
+
+		private void send() throws IOException {
+			FileChannel channel = this.input.getChannel();
+			long length = channel.size();
+			while (this.position < length) {
+				ByteBuffer buffer = ByteBuffer
+						.allocate((int) Math.min(CHUNK_SIZE, length - this.position));
+				int read = channel.read(buffer, this.position);
+				if (read <= 0) {
+					return;
+				}
+				byte[] data = buffer.array();
+				if (read < data.length) {
+					data = Arrays.copyOf(data, read);
+				}
+				this.emitter.send(data, MediaType.TEXT_PLAIN);
+				this.position += read;
+			}
+		}
+
+		private synchronized void close() {
+			if (this.closed) {
+				return;
+			}
+			this.closed = true;
+			if (this.future != null) {
+				this.future.cancel(false);
+			}
+			try {
+				this.input.close();
+			}
+			catch (IOException ex) {
+				// Ignore
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ResourceHttpRequestHandler} to answer {@code HEAD} and range requests for the
+	 * log file.
+	 */
+	private class Handler extends ResourceHttpRequestHandler {
 
-		Handler(Resource resource) {
-			this.resource = resource;
+		Handler() {
 			try {
 				afterPropertiesSet();
 			}
@@ -157,7 +452,7 @@ public class LogFileMvcEndpoint implements MvcEndpoint, EnvironmentAware {
 
 		@Override
 		protected Resource getResource(HttpServletRequest request) throws IOException {
-			return this.resource;
+			return getLogFileResource();
 		}
 
 		@Override
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.boot.actuate.endpoint.ProfilerEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Adapter to expose {@link ProfilerEndpoint} as an {@link MvcEndpoint}. In addition to
+ * the report, a {@code POST} to {@code /reset} discards the samples taken so far.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@ConfigurationProperties(prefix = "endpoints.profiler")
+public class ProfilerMvcEndpoint extends EndpointMvcAdapter {
+
+	public ProfilerMvcEndpoint(ProfilerEndpoint delegate) {
+		super(delegate);
+	}
+
+	@RequestMapping(value = "/reset", method = RequestMethod.POST)
+	@ResponseBody
+	public Object reset() {
+		if (!getDelegate().isEnabled()) {
+			return getDisabledResponse();
+		}
+		((ProfilerEndpoint) getDelegate()).reset();
+		return new ResponseEntity<Map<String, String>>(
+				Collections.singletonMap("message", "Samples discarded"), HttpStatus.OK);
+	}
+
+}
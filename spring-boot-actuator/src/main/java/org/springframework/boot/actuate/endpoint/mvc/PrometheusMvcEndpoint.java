@@ -0,0 +1,346 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+
+import org.springframework.boot.actuate.endpoint.Endpoint;
+import org.springframework.boot.actuate.endpoint.EndpointProperties;
+import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.prometheus.DefaultPrometheusNamingStrategy;
+import org.springframework.boot.actuate.metrics.prometheus.PrometheusName;
+import org.springframework.boot.actuate.metrics.prometheus.PrometheusNamingStrategy;
+import org.springframework.boot.actuate.metrics.reader.MetricReader;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+/**
+ * {@link MvcEndpoint} that exposes {@link PublicMetrics} (including any
+ * {@link MetricReader} wrapped in a {@link MetricReaderPublicMetrics}) in the Prometheus
+ * text exposition format, so that they can be scraped by a Prometheus server. Metric
+ * names are converted using a {@link PrometheusNamingStrategy}, the series are grouped by
+ * metric family in the order that the families are first seen, and the response is
+ * written straight to the servlet output stream, compressed with gzip if the client
+ * accepts it.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@ConfigurationProperties(prefix = "endpoints.prometheus")
+public class PrometheusMvcEndpoint implements MvcEndpoint, EnvironmentAware {
+
+	private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private static final int BUFFER_SIZE = 8192;
+
+	/**
+	 * Endpoint URL path.
+	 */
+	@NotNull
+	@Pattern(regexp = "/.*", message = "Path must start with /")
+	private String path = "/prometheus";
+
+	/**
+	 * Enable the endpoint.
+	 */
+	private boolean enabled = true;
+
+	/**
+	 * Mark if the endpoint exposes sensitive information.
+	 */
+	private Boolean sensitive;
+
+	/**
+	 * Compress the response with gzip when the client accepts it.
+	 */
+	private boolean gzip = true;
+
+	private final List<PublicMetrics> publicMetrics;
+
+	private PrometheusNamingStrategy namingStrategy = new DefaultPrometheusNamingStrategy();
+
+	private Environment environment;
+
+	/**
+	 * Create a new {@link PrometheusMvcEndpoint} instance.
+	 * @param reader the reader of the metrics to expose
+	 */
+	public PrometheusMvcEndpoint(MetricReader reader) {
+		this(Collections.<PublicMetrics>singleton(new MetricReaderPublicMetrics(reader)));
+	}
+
+	/**
+	 * Create a new {@link PrometheusMvcEndpoint} instance.
+	 * @param publicMetrics the metrics to expose. The collection will be sorted using
+	 * the {@link AnnotationAwareOrderComparator}.
+	 */
+	public PrometheusMvcEndpoint(Collection<PublicMetrics> publicMetrics) {
+		Assert.notNull(publicMetrics, "PublicMetrics must not be null");
+		this.publicMetrics = new ArrayList<PublicMetrics>(publicMetrics);
+		AnnotationAwareOrderComparator.sort(this.publicMetrics);
+	}
+
+	@Override
+	public void setEnvironment(Environment environment) {
+		this.environment = environment;
+	}
+
+	@Override
+	public String getPath() {
+		return this.path;
+	}
+
+	public void setPath(String path) {
+		this.path = path;
+	}
+
+	public boolean isEnabled() {
+		return this.enabled;
+	}
+
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	@Override
+	public boolean isSensitive() {
+		return EndpointProperties.isSensitive(this.environment, this.sensitive, true);
+	}
+
+	public void setSensitive(Boolean sensitive) {
+		this.sensitive = sensitive;
+	}
+
+	public boolean isGzip() {
+		return this.gzip;
+	}
+
+	public void setGzip(boolean gzip) {
+		this.gzip = gzip;
+	}
+
+	public void setNamingStrategy(PrometheusNamingStrategy namingStrategy) {
+		Assert.notNull(namingStrategy, "NamingStrategy must not be null");
+		this.namingStrategy = namingStrategy;
+	}
+
+	@Override
+	@SuppressWarnings("rawtypes")
+	public Class<? extends Endpoint> getEndpointType() {
+		return null;
+	}
+
+	@RequestMapping(method = RequestMethod.GET)
+	public void invoke(HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		if (!isEnabled()) {
+			response.setStatus(HttpStatus.NOT_FOUND.value());
+			return;
+		}
+		Map<String, Family> families = collect();
+		response.setContentType(CONTENT_TYPE);
+		OutputStream stream = response.getOutputStream();
+		GZIPOutputStream gzip = null;
+		if (this.gzip && acceptsGzip(request)) {
+			response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+			gzip = new GZIPOutputStream(stream, BUFFER_SIZE);
+			stream = gzip;
+		}
+		Writer writer = new OutputStreamWriter(stream, UTF_8);
+		write(families, writer);
+		writer.flush();
+		if (gzip != null) {
+			gzip.finish();
+		}
+	}
+
+	private boolean acceptsGzip(HttpServletRequest request) {
+		Enumeration<String> values = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+		while (values != null && values.hasMoreElements()) {
+			for (String value : StringUtils
+					.commaDelimitedListToStringArray(values.nextElement())) {
+				if (value.trim().startsWith("gzip")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private Map<String, Family> collect() {
+		// The format requires all the series of a family to be together
+		Map<String, Family> families = new LinkedHashMap<String, Family>();
+		for (int source = 0; source < this.publicMetrics.size(); source++) {
+			try {
+				for (Metric<?> metric : this.publicMetrics.get(source).metrics()) {
+					Number value = metric.getValue();
+					if (value != null) {
+						PrometheusName name = this.namingStrategy
+								.getName(metric.getName());
+						Family family = families.get(name.getName());
+						if (family == null) {
+							family = new Family(name.getType());
+							families.put(name.getName(), family);
+						}
+						family.add(source, name, value);
+					}
+				}
+			}
+			catch (Exception ex) {
+				// Could not evaluate metrics
+			}
+		}
+		return families;
+	}
+
+	private void write(Map<String, Family> families, Writer writer) throws IOException {
+		StringBuilder line = new StringBuilder(256);
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			Family family = entry.getValue();
+			writer.append("# TYPE ").append(entry.getKey()).append(' ')
+					.append(family.getType()).append('\n');
+			if (family.hasSeveralSources()) {
+				// Duplicate series, the last one wins
+				Map<String, Number> values = new LinkedHashMap<String, Number>();
+				for (int i = 0; i < family.size(); i++) {
+					values.put(family.getName(i).getSeries(), family.getValue(i));
+				}
+				for (Map.Entry<String, Number> value : values.entrySet()) {
+					writeSeries(writer, line, value.getKey(), value.getValue());
+				}
+			}
+			else {
+				for (int i = 0; i < family.size(); i++) {
+					writeSeries(writer, line, family.getName(i).getSeries(),
+							family.getValue(i));
+				}
+			}
+		}
+	}
+
+	private void writeSeries(Writer writer, StringBuilder line, String series,
+			Number value) throws IOException {
+		line.setLength(0);
+		line.append(series).append(' ');
+		appendValue(line, value);
+		line.append('\n');
+		writer.append(line);
+	}
+
+	private void appendValue(StringBuilder line, Number value) {
+		if (value instanceof Double || value instanceof Float) {
+			double doubleValue = value.doubleValue();
+			if (Double.isNaN(doubleValue)) {
+				line.append("NaN");
+			}
+			else if (Double.isInfinite(doubleValue)) {
+				line.append(doubleValue > 0 ? "+Inf" : "-Inf");
+			}
+			else {
+				line.append(doubleValue);
+			}
+		}
+		else {
+			line.append(value);
+		}
+	}
+
+	/**
+	 * The series of a single metric family, held as parallel lists of names and values.
+	 */
+	private static final class Family {
+
+		private final String type;
+
+		private final List<PrometheusName> names = new ArrayList<PrometheusName>();
+
+		private final List<Number> values = new ArrayList<Number>();
+
+		private int source = -1;
+
+		private boolean severalSources;
+
+		Family(String type) {
+			this.type = type;
+		}
+
+		public void add(int source, PrometheusName name, Number value) {
+			if (this.source != source) {
+				this.severalSources = this.severalSources || this.source != -1;
+				this.source = source;
+			}
+			this.names.add(name);
+			this.values.add(value);
+		}
+
+		public String getType() {
+			return this.type;
+		}
+
+		/**
+		 * Returns {@code true} if the series came from more than one
+		 * {@link PublicMetrics}, in which case the same series may be present twice.
+		 * @return if there are several sources
+		 */
+		public boolean hasSeveralSources() {
+			return this.severalSources;
+		}
+
+		public int size() {
+			return this.names.size();
+		}
+
+		public PrometheusName getName(int index) {
+			return this.names.get(index);
+		}
+
+		public Number getValue(int index) {
+			return this.values.get(index);
+		}
+
+	}
+
+}
@@ -18,11 +18,24 @@ package org.springframework.boot.actuate.health;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.util.Assert;
 
 /**
  * {@link HealthIndicator} that returns health indications from all registered delegates.
+ * By default the delegates are invoked one after another on the calling thread. If an
+ * {@link #setExecutor(Executor) executor} is set they are invoked concurrently instead
+ * and, if a {@link #setTimeout(long) timeout} is also set, any delegate that has not
+ * responded in time is reported as {@link Status#DOWN DOWN} with a {@code timeout}
+ * detail.
  *
  * @author Tyler J. Frederick
  * @author Phillip Webb
@@ -35,6 +48,10 @@ public class CompositeHealthIndicator implements HealthIndicator {
 
 	private final HealthAggregator healthAggregator;
 
+	private Executor executor;
+
+	private long timeout;
+
 	/**
 	 * Create a new {@link CompositeHealthIndicator}.
 	 * @param healthAggregator the health aggregator
@@ -61,13 +78,102 @@ public class CompositeHealthIndicator implements HealthIndicator {
 		this.indicators.put(name, indicator);
 	}
 
+	/**
+	 * Set the {@link Executor} used to invoke the delegates concurrently. If no executor
+	 * is set the delegates are invoked sequentially on the calling thread.
+	 * @param executor the executor or {@code null}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the maximum time to wait for the delegates when they are invoked concurrently.
+	 * A delegate that does not respond within the timeout is cancelled and reported as
+	 * {@link Status#DOWN DOWN}.
+	 * @param timeout the timeout in milliseconds (zero or less to wait indefinitely)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
 	@Override
 	public Health health() {
+		Map<String, Health> healths = (this.executor == null ? getHealths()
+				: getHealthsConcurrently(this.executor));
+		return this.healthAggregator.aggregate(healths);
+	}
+
+	private Map<String, Health> getHealths() {
 		Map<String, Health> healths = new LinkedHashMap<String, Health>();
 		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
 			healths.put(entry.getKey(), entry.getValue().health());
 		}
-		return this.healthAggregator.aggregate(healths);
+		return healths;
+	}
+
+	private Map<String, Health> getHealthsConcurrently(Executor executor) {
+		Map<String, Future<Health>> futures = new LinkedHashMap<String, Future<Health>>();
+		for (Map.Entry<String, HealthIndicator> entry : this.indicators.entrySet()) {
+			FutureTask<Health> task = new FutureTask<Health>(
+					new HealthCallable(entry.getValue()));
+			try {
+				executor.execute(task);
+			}
+			catch (RejectedExecutionException ex) {
+				task.run();
+			}
+			futures.put(entry.getKey(), task);
+		}
+		long timeout = this.timeout;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		Map<String, Health> healths = new LinkedHashMap<String, Health>();
+		for (Map.Entry<String, Future<Health>> entry : futures.entrySet()) {
+			healths.put(entry.getKey(), getHealth(entry.getValue(), timeout, deadline));
+		}
+		return healths;
+	}
+
+	private Health getHealth(Future<Health> future, long timeout, long deadline) {
+		try {
+			if (timeout <= 0) {
+				return future.get();
+			}
+			return future.get(Math.max(deadline - System.nanoTime(), 0),
+					TimeUnit.NANOSECONDS);
+		}
+		catch (TimeoutException ex) {
+			future.cancel(true);
+			return Health.down().withDetail("timeout", timeout).build();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			future.cancel(true);
+			return Health.unknown().withDetail("error", "Interrupted").build();
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			return Health.down().withDetail("error",
+					cause.getClass().getName() + ": " + cause.getMessage()).build();
+		}
+	}
+
+	/**
+	 * {@link Callable} used to invoke a single delegate.
+	 */
+	private static class HealthCallable implements Callable<Health> {
+
+		private final HealthIndicator indicator;
+
+		HealthCallable(HealthIndicator indicator) {
+			this.indicator = indicator;
+		}
+
+		@Override
+		public Health call() throws Exception {
+			return this.indicator.health();
+		}
+
 	}
 
 }
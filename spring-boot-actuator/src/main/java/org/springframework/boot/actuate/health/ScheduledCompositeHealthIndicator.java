@@ -0,0 +1,455 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.util.Assert;
+
+/**
+ * {@link HealthIndicator} that refreshes its delegates in the background, each on its
+ * own interval, and returns the latest aggregated snapshot. Calling {@link #health()}
+ * never invokes any of the delegates: until the first snapshot is available the status
+ * is {@link Status#UNKNOWN UNKNOWN}. The snapshot includes an {@code age} detail with
+ * the time, in milliseconds, since the oldest of its results was obtained.
+ * <p>
+ * The refreshes are scheduled on a small pool of daemon threads that is owned by the
+ * indicator and only runs between calls to {@link #start()} and {@link #stop()}. When
+ * the indicator is a bean, the application context starts and stops it. The
+ * delegates are invoked on those threads unless an {@link #setExecutor(Executor)
+ * executor} is set. If a {@link #setTimeout(long) timeout} is set, a delegate that has
+ * not responded in time is cancelled and reported as {@link Status#DOWN DOWN} with a
+ * {@code timeout} detail, in the same way as {@link CompositeHealthIndicator}.
+ *
+ * @author Dave Syer
+ * @author Phillip Webb
+ * @since 1.4.0
+ */
+public class ScheduledCompositeHealthIndicator
+		implements HealthIndicator, SmartLifecycle {
+
+	private static final int DEFAULT_POOL_SIZE = 4;
+
+	private final Map<String, Snapshot> snapshots = new LinkedHashMap<String, Snapshot>();
+
+	private final HealthAggregator healthAggregator;
+
+	private final Object lifecycleMonitor = new Object();
+
+	private volatile Executor executor;
+
+	private volatile long timeout;
+
+	private int poolSize = DEFAULT_POOL_SIZE;
+
+	private volatile ScheduledExecutorService scheduler;
+
+	private volatile Health health;
+
+	private volatile long timestamp;
+
+	/**
+	 * Create a new {@link ScheduledCompositeHealthIndicator}.
+	 * @param healthAggregator the health aggregator
+	 */
+	public ScheduledCompositeHealthIndicator(HealthAggregator healthAggregator) {
+		Assert.notNull(healthAggregator, "HealthAggregator must not be null");
+		this.healthAggregator = healthAggregator;
+	}
+
+	/**
+	 * Add a delegate that should be refreshed on the given interval.
+	 * @param name the name of the indicator
+	 * @param indicator the indicator
+	 * @param refreshInterval the time (in milliseconds) between the end of one refresh
+	 * and the start of the next
+	 */
+	public void addHealthIndicator(String name, HealthIndicator indicator,
+			long refreshInterval) {
+		Assert.notNull(indicator, "Indicator must not be null");
+		Assert.isTrue(refreshInterval > 0, "RefreshInterval must be positive");
+		synchronized (this.snapshots) {
+			this.snapshots.put(name, new Snapshot(indicator, refreshInterval));
+		}
+	}
+
+	/**
+	 * Set the {@link Executor} used to invoke the delegates. If no executor is set the
+	 * delegates are invoked on the threads that schedule the refreshes.
+	 * @param executor the executor or {@code null}
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Set the maximum time to wait for a delegate to respond. A delegate that does not
+	 * respond within the timeout is cancelled and reported as {@link Status#DOWN DOWN}.
+	 * @param timeout the timeout in milliseconds (zero or less to wait indefinitely)
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Set the maximum number of threads used to schedule the refreshes. The pool never
+	 * has more threads than there are delegates.
+	 * @param poolSize the pool size (default 4)
+	 */
+	public void setPoolSize(int poolSize) {
+		Assert.isTrue(poolSize > 0, "PoolSize must be positive");
+		this.poolSize = poolSize;
+	}
+
+	/**
+	 * Start refreshing the delegates in the background. Each delegate is refreshed
+	 * immediately and then on its own interval.
+	 */
+	@Override
+	public void start() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.scheduler != null) {
+				return;
+			}
+			List<Snapshot> snapshots = getSnapshots();
+			ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+					Math.max(1, Math.min(this.poolSize, snapshots.size())),
+					new RefreshThreadFactory());
+			scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			this.scheduler = scheduler;
+			for (Snapshot snapshot : snapshots) {
+				snapshot.schedule(scheduler, 0);
+			}
+		}
+	}
+
+	/**
+	 * Stop refreshing the delegates, interrupting any refresh that is in progress. The
+	 * latest snapshot is still returned from {@link #health()}.
+	 */
+	@Override
+	public void stop() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.scheduler != null) {
+				this.scheduler.shutdownNow();
+				this.scheduler = null;
+			}
+		}
+	}
+
+	/**
+	 * Returns {@code true} if the delegates are being refreshed in the background.
+	 * @return if the indicator is running
+	 */
+	@Override
+	public boolean isRunning() {
+		return this.scheduler != null;
+	}
+
+	@Override
+	public void stop(Runnable callback) {
+		stop();
+		callback.run();
+	}
+
+	@Override
+	public boolean isAutoStartup() {
+		return true;
+	}
+
+	@Override
+	public int getPhase() {
+		return 0;
+	}
+
+	@Override
+	public Health health() {
+		Health health = this.health;
+		if (health == null) {
+			return Health.unknown().build();
+		}
+		if (expireRefreshes()) {
+			health = this.health;
+		}
+		long age = Math.max(0, System.currentTimeMillis() - this.timestamp);
+		return new Health.Builder(health.getStatus(), health.getDetails())
+				.withDetail("age", age).build();
+	}
+
+	/**
+	 * Returns the time that the oldest delegate result in the current snapshot was
+	 * obtained.
+	 * @return the timestamp in milliseconds or {@code 0} if no snapshot is available
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Refresh all delegates immediately, on the calling thread. Unlike
+	 * {@link #health()} this invokes every delegate.
+	 */
+	public void refresh() {
+		for (Snapshot snapshot : getSnapshots()) {
+			snapshot.refresh();
+		}
+		aggregate();
+	}
+
+	private List<Snapshot> getSnapshots() {
+		synchronized (this.snapshots) {
+			return new ArrayList<Snapshot>(this.snapshots.values());
+		}
+	}
+
+	private boolean expireRefreshes() {
+		// The scheduler threads might all be busy with slow delegates
+		boolean expired = false;
+		long now = System.currentTimeMillis();
+		for (Snapshot snapshot : getSnapshots()) {
+			expired |= snapshot.expire(now);
+		}
+		return expired;
+	}
+
+	private void aggregate() {
+		synchronized (this.snapshots) {
+			Map<String, Health> healths = new LinkedHashMap<String, Health>();
+			long timestamp = Long.MAX_VALUE;
+			for (Map.Entry<String, Snapshot> entry : this.snapshots.entrySet()) {
+				Snapshot snapshot = entry.getValue();
+				Health health = snapshot.getHealth();
+				if (health == null) {
+					// Don't publish a partial snapshot
+					return;
+				}
+				healths.put(entry.getKey(), health);
+				timestamp = Math.min(timestamp, snapshot.getTimestamp());
+			}
+			this.timestamp = (healths.isEmpty() ? System.currentTimeMillis()
+					: timestamp);
+			this.health = this.healthAggregator.aggregate(healths);
+		}
+	}
+
+	/**
+	 * The latest result of a single delegate.
+	 */
+	private class Snapshot implements Runnable {
+
+		private final HealthIndicator indicator;
+
+		private final long refreshInterval;
+
+		private volatile Health health;
+
+		private volatile long timestamp;
+
+		private volatile Refresh refresh;
+
+		Snapshot(HealthIndicator indicator, long refreshInterval) {
+			this.indicator = indicator;
+			this.refreshInterval = refreshInterval;
+		}
+
+		public Health getHealth() {
+			return this.health;
+		}
+
+		public long getTimestamp() {
+			return this.timestamp;
+		}
+
+		public void schedule(ScheduledExecutorService scheduler, long delay) {
+			try {
+				scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+			}
+			catch (RejectedExecutionException ex) {
+				// Stopped
+			}
+		}
+
+		@Override
+		public void run() {
+			ScheduledExecutorService scheduler = ScheduledCompositeHealthIndicator.this.scheduler;
+			if (scheduler == null) {
+				return;
+			}
+			final Refresh refresh = new Refresh(this, scheduler,
+					ScheduledCompositeHealthIndicator.this.timeout);
+			this.refresh = refresh;
+			if (refresh.getTimeout() > 0) {
+				try {
+					scheduler.schedule(new Runnable() {
+
+						@Override
+						public void run() {
+							refresh.expire();
+						}
+
+					}, refresh.getTimeout(), TimeUnit.MILLISECONDS);
+				}
+				catch (RejectedExecutionException ex) {
+					// Stopped
+				}
+			}
+			Executor executor = ScheduledCompositeHealthIndicator.this.executor;
+			if (executor == null) {
+				refresh.run();
+				return;
+			}
+			try {
+				executor.execute(refresh);
+			}
+			catch (RejectedExecutionException ex) {
+				refresh.run();
+			}
+		}
+
+		public void refresh() {
+			Health health;
+			try {
+				health = this.indicator.health();
+			}
+			catch (Exception ex) {
+				health = Health.down(ex).build();
+			}
+			update(health);
+		}
+
+		public boolean expire(long now) {
+			Refresh refresh = this.refresh;
+			return (refresh != null && refresh.isExpired(now) && refresh.expire());
+		}
+
+		public void update(Health health) {
+			this.timestamp = System.currentTimeMillis();
+			this.health = health;
+		}
+
+		public void completed(Refresh refresh, Health health) {
+			update(health);
+			aggregate();
+			if (this.refresh == refresh) {
+				this.refresh = null;
+			}
+		}
+
+	}
+
+	/**
+	 * A single background refresh of a delegate.
+	 */
+	private class Refresh extends FutureTask<Health> {
+
+		private final Snapshot snapshot;
+
+		private final ScheduledExecutorService scheduler;
+
+		private final long timeout;
+
+		private final long started = System.currentTimeMillis();
+
+		Refresh(final Snapshot snapshot, ScheduledExecutorService scheduler,
+				long timeout) {
+			super(new Callable<Health>() {
+
+				@Override
+				public Health call() throws Exception {
+					return snapshot.indicator.health();
+				}
+
+			});
+			this.snapshot = snapshot;
+			this.scheduler = scheduler;
+			this.timeout = timeout;
+		}
+
+		public long getTimeout() {
+			return this.timeout;
+		}
+
+		public boolean isExpired(long now) {
+			return (this.timeout > 0 && !isDone() && now - this.started >= this.timeout);
+		}
+
+		public boolean expire() {
+			if (cancel(true)) {
+				this.snapshot.completed(this,
+						Health.down().withDetail("timeout", this.timeout).build());
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		protected void done() {
+			if (!isCancelled()) {
+				this.snapshot.completed(this, getHealth());
+			}
+			this.snapshot.schedule(this.scheduler, this.snapshot.refreshInterval);
+		}
+
+		private Health getHealth() {
+			try {
+				return get();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				return Health.unknown().withDetail("error", "Interrupted").build();
+			}
+			catch (ExecutionException ex) {
+				Throwable cause = ex.getCause();
+				return Health.down().withDetail("error",
+						cause.getClass().getName() + ": " + cause.getMessage()).build();
+			}
+		}
+
+	}
+
+	/**
+	 * {@link ThreadFactory} for the daemon threads that refresh the delegates.
+	 */
+	private static class RefreshThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable,
+					"health-refresh-" + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,7 +22,10 @@ import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.lang.UsesJava8;
 
 /**
- * Fast implementation of {@link GaugeService} using {@link GaugeBuffers}.
+ * Fast implementation of {@link GaugeService} using {@link GaugeBuffers}. If
+ * {@link HistogramBuffers} are provided, values for metrics whose names start with one
+ * of the {@link #setHistogramPrefixes(String...) histogram prefixes} are additionally
+ * recorded in a histogram so that their percentiles can be read back.
  *
  * @author Dave Syer
  * @since 1.3.0
@@ -34,22 +37,64 @@ public class BufferGaugeService implements GaugeService {
 
 	private final GaugeBuffers buffers;
 
+	private final HistogramBuffers histograms;
+
+	private String[] histogramPrefixes = new String[] { "gauge.response.", "histogram.",
+			"timer." };
+
 	/**
 	 * Create a {@link BufferGaugeService} instance.
 	 * @param buffers the underlying buffers used to store metrics
 	 */
 	public BufferGaugeService(GaugeBuffers buffers) {
+		this(buffers, null);
+	}
+
+	/**
+	 * Create a {@link BufferGaugeService} instance.
+	 * @param buffers the underlying buffers used to store metrics
+	 * @param histograms the underlying buffers used to store histograms (may be
+	 * {@code null})
+	 * @since 1.4.0
+	 */
+	public BufferGaugeService(GaugeBuffers buffers, HistogramBuffers histograms) {
 		this.buffers = buffers;
+		this.histograms = histograms;
+	}
+
+	/**
+	 * Set the prefixes of the (fully qualified) metric names that should also be
+	 * recorded in a histogram. Defaults to the response times recorded by the actuator
+	 * and the "histogram." and "timer." prefixes.
+	 * @param histogramPrefixes the histogram prefixes
+	 * @since 1.4.0
+	 */
+	public void setHistogramPrefixes(String... histogramPrefixes) {
+		this.histogramPrefixes = histogramPrefixes;
 	}
 
 	@Override
 	public void submit(String metricName, double value) {
-		this.buffers.set(wrap(metricName), value);
+		String name = wrap(metricName);
+		this.buffers.set(name, value);
+		if (this.histograms != null && isHistogram(name)) {
+			this.histograms.record(name, value);
+		}
+	}
+
+	private boolean isHistogram(String name) {
+		for (String prefix : this.histogramPrefixes) {
+			if (name.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private String wrap(String metricName) {
-		if (this.names.containsKey(metricName)) {
-			return this.names.get(metricName);
+		String cached = this.names.get(metricName);
+		if (cached != null) {
+			return cached;
 		}
 		if (metricName.startsWith("gauge") || metricName.startsWith("histogram")
 				|| metricName.startsWith("timer")) {
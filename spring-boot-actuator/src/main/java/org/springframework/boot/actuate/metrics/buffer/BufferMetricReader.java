@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,13 +24,17 @@ import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffer.Snapshot;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
 import org.springframework.lang.UsesJava8;
 
 /**
- * {@link MetricReader} implementation using {@link CounterBuffers} and
- * {@link GaugeBuffers}.
+ * {@link MetricReader} implementation using {@link CounterBuffers},
+ * {@link GaugeBuffers} and (optionally) {@link HistogramBuffers}. Each histogram is
+ * exposed as a set of metrics named after the histogram with a ".p50", ".p90", ".p99",
+ * ".p999" or ".max" suffix, describing the values recorded in the last rollover
+ * interval.
  *
  * @author Dave Syer
  * @since 1.3.0
@@ -40,13 +44,31 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 
 	private static final Predicate<String> ALL = Pattern.compile(".*").asPredicate();
 
+	private static final String[] HISTOGRAM_SUFFIXES = { ".p50", ".p90", ".p99",
+			".p999", ".max" };
+
 	private final CounterBuffers counterBuffers;
 
 	private final GaugeBuffers gaugeBuffers;
 
+	private final HistogramBuffers histogramBuffers;
+
 	public BufferMetricReader(CounterBuffers counterBuffers, GaugeBuffers gaugeBuffers) {
+		this(counterBuffers, gaugeBuffers, null);
+	}
+
+	/**
+	 * Create a {@link BufferMetricReader} instance.
+	 * @param counterBuffers the counter buffers
+	 * @param gaugeBuffers the gauge buffers
+	 * @param histogramBuffers the histogram buffers (may be {@code null})
+	 * @since 1.4.0
+	 */
+	public BufferMetricReader(CounterBuffers counterBuffers, GaugeBuffers gaugeBuffers,
+			HistogramBuffers histogramBuffers) {
 		this.counterBuffers = counterBuffers;
 		this.gaugeBuffers = gaugeBuffers;
+		this.histogramBuffers = histogramBuffers;
 	}
 
 	@Override
@@ -55,9 +77,27 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 		if (buffer == null) {
 			buffer = this.gaugeBuffers.find(name);
 		}
+		if (buffer == null && this.histogramBuffers != null) {
+			return findHistogramMetric(name);
+		}
 		return (buffer == null ? null : asMetric(name, buffer));
 	}
 
+	private Metric<?> findHistogramMetric(String name) {
+		for (int i = 0; i < HISTOGRAM_SUFFIXES.length; i++) {
+			if (name.endsWith(HISTOGRAM_SUFFIXES[i])) {
+				HistogramBuffer buffer = this.histogramBuffers.find(name.substring(0,
+						name.length() - HISTOGRAM_SUFFIXES[i].length()));
+				if (buffer != null) {
+					Snapshot snapshot = buffer.getSnapshot();
+					return new Metric<Long>(name, getHistogramValue(snapshot, i),
+							new Date(buffer.getTimestamp()));
+				}
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public Iterable<Metric<?>> findAll() {
 		return findAll(BufferMetricReader.ALL);
@@ -70,13 +110,20 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 
 	@Override
 	public long count() {
-		return this.counterBuffers.count() + this.gaugeBuffers.count();
+		long count = this.counterBuffers.count() + this.gaugeBuffers.count();
+		if (this.histogramBuffers != null) {
+			count += this.histogramBuffers.count() * HISTOGRAM_SUFFIXES.length;
+		}
+		return count;
 	}
 
 	private Iterable<Metric<?>> findAll(Predicate<String> predicate) {
 		final List<Metric<?>> metrics = new ArrayList<Metric<?>>();
 		collectMetrics(this.gaugeBuffers, predicate, metrics);
 		collectMetrics(this.counterBuffers, predicate, metrics);
+		if (this.histogramBuffers != null) {
+			collectHistogramMetrics(this.histogramBuffers, predicate, metrics);
+		}
 		return metrics;
 	}
 
@@ -93,6 +140,41 @@ public class BufferMetricReader implements MetricReader, PrefixMetricReader {
 		});
 	}
 
+	private void collectHistogramMetrics(HistogramBuffers buffers,
+			final Predicate<String> predicate, final List<Metric<?>> metrics) {
+		buffers.forEach(ALL, new BiConsumer<String, HistogramBuffer>() {
+
+			@Override
+			public void accept(String name, HistogramBuffer buffer) {
+				Snapshot snapshot = buffer.getSnapshot();
+				for (int i = 0; i < HISTOGRAM_SUFFIXES.length; i++) {
+					String metricName = name + HISTOGRAM_SUFFIXES[i];
+					if (predicate.test(metricName)) {
+						metrics.add(new Metric<Long>(metricName,
+								getHistogramValue(snapshot, i),
+								new Date(buffer.getTimestamp())));
+					}
+				}
+			}
+
+		});
+	}
+
+	private long getHistogramValue(Snapshot snapshot, int suffixIndex) {
+		switch (suffixIndex) {
+		case 0:
+			return snapshot.getP50();
+		case 1:
+			return snapshot.getP90();
+		case 2:
+			return snapshot.getP99();
+		case 3:
+			return snapshot.getP999();
+		default:
+			return snapshot.getMax();
+		}
+	}
+
 	private <T extends Number> Metric<T> asMetric(final String name, Buffer<T> buffer) {
 		return new Metric<T>(name, buffer.getValue(), new Date(buffer.getTimestamp()));
 	}
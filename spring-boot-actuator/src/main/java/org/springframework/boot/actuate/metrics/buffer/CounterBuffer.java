@@ -31,19 +31,44 @@ public class CounterBuffer extends Buffer<Long> {
 
 	private final LongAdder adder;
 
+	private volatile boolean updated;
+
 	public CounterBuffer(long timestamp) {
 		super(timestamp);
 		this.adder = new LongAdder();
 	}
 
+	/**
+	 * Add the given delta. The clock is not read here: the buffer is only marked as
+	 * updated and the timestamp is stamped the next time it is read (see
+	 * {@link #getTimestamp()}), so hot counters pay for the adder alone.
+	 * @param delta the amount to add
+	 */
 	public void add(long delta) {
 		this.adder.add(delta);
+		if (!this.updated) {
+			this.updated = true;
+		}
 	}
 
 	public void reset() {
 		this.adder.reset();
 	}
 
+	/**
+	 * Return the time of the last read that followed a write, which is as close to
+	 * the time of the write as any reader can observe.
+	 * @return the timestamp
+	 */
+	@Override
+	public long getTimestamp() {
+		if (this.updated) {
+			this.updated = false;
+			setTimestamp(System.currentTimeMillis());
+		}
+		return super.getTimestamp();
+	}
+
 	@Override
 	public Long getValue() {
 		return this.adder.sum();
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -29,16 +29,16 @@ import org.springframework.lang.UsesJava8;
 @UsesJava8
 public class CounterBuffers extends Buffers<CounterBuffer> {
 
-	public void increment(final String name, final long delta) {
-		doWith(name, new Consumer<CounterBuffer>() {
-
-			@Override
-			public void accept(CounterBuffer buffer) {
-				buffer.setTimestamp(System.currentTimeMillis());
-				buffer.add(delta);
-			}
-
-		});
+	/**
+	 * Increment the named counter. The buffer is looked up directly (no callback is
+	 * allocated) and the clock is only read when the counter is, so concurrent
+	 * increments of a hot name mostly contend on the striped adder cells.
+	 * @param name the name of the counter
+	 * @param delta the amount to add
+	 * @see CounterBuffer#add(long)
+	 */
+	public void increment(String name, long delta) {
+		getOrCreate(name).add(delta);
 	}
 
 	public void reset(final String name) {
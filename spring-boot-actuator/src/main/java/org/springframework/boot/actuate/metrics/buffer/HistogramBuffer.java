@@ -0,0 +1,241 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Mutable buffer that records values into a fixed size, log-linear histogram (in the
+ * style of HdrHistogram) and a timestamp. Values are recorded without locking. The
+ * histogram is drained into an immutable {@link Snapshot} when it is
+ * {@link #rollover() rolled over} so that each snapshot describes only the values
+ * recorded since the previous one. Reading the {@link #getSnapshot() snapshot} also
+ * rolls the histogram over once the rollover interval has elapsed, so snapshots stay
+ * current even when nothing exports them.
+ * <p>
+ * Values are rounded to the nearest whole number. Values below 128 are counted
+ * exactly, larger values are counted with a relative error of less than 2%, up to a
+ * maximum of 2<sup>36</sup>-1 (values above that are clamped). The counts take a little
+ * under 16KB per buffer.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public class HistogramBuffer extends Buffer<Long> {
+
+	private static final int SUB_BUCKET_BITS = 7;
+
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+	private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+	private static final int MAX_VALUE_BITS = 36;
+
+	static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+	private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+	private final AtomicLong max = new AtomicLong();
+
+	private final long rolloverInterval;
+
+	private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+	private volatile long lastRollover;
+
+	public HistogramBuffer(long timestamp) {
+		this(timestamp, 0);
+	}
+
+	/**
+	 * Create a new {@link HistogramBuffer} instance.
+	 * @param timestamp the initial timestamp
+	 * @param rolloverInterval the interval in milliseconds after which reading the
+	 * snapshot rolls the histogram over (zero or less to only roll over on an explicit
+	 * {@link #rollover()})
+	 */
+	public HistogramBuffer(long timestamp, long rolloverInterval) {
+		super(timestamp);
+		this.rolloverInterval = rolloverInterval;
+		this.lastRollover = System.currentTimeMillis();
+	}
+
+	/**
+	 * Record a single value and the time of the write.
+	 * @param value the value to record
+	 */
+	public void record(double value) {
+		long now = System.currentTimeMillis();
+		if (now != getTimestamp()) {
+			setTimestamp(now);
+		}
+		long rounded = (value <= 0 ? 0
+				: (value >= MAX_VALUE ? MAX_VALUE : Math.round(value)));
+		this.counts.incrementAndGet(indexOf(rounded));
+		long current = this.max.get();
+		while (rounded > current && !this.max.compareAndSet(current, rounded)) {
+			current = this.max.get();
+		}
+	}
+
+	/**
+	 * Returns the number of values in the most recent snapshot.
+	 * @return the snapshot count
+	 */
+	@Override
+	public Long getValue() {
+		return getSnapshot().getCount();
+	}
+
+	/**
+	 * Return the snapshot taken by the most recent rollover, first rolling the
+	 * histogram over if the rollover interval has elapsed since then.
+	 * @return the snapshot
+	 */
+	public Snapshot getSnapshot() {
+		if (this.rolloverInterval > 0) {
+			long now = System.currentTimeMillis();
+			if (now - this.lastRollover >= this.rolloverInterval) {
+				synchronized (this) {
+					if (now - this.lastRollover >= this.rolloverInterval) {
+						rollover(now);
+					}
+				}
+			}
+		}
+		return this.snapshot;
+	}
+
+	/**
+	 * Drain the values recorded since the previous rollover into a new snapshot.
+	 */
+	public synchronized void rollover() {
+		rollover(System.currentTimeMillis());
+	}
+
+	private void rollover(long now) {
+		this.snapshot = drain();
+		this.lastRollover = now;
+	}
+
+	private Snapshot drain() {
+		long[] drained = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			drained[i] = this.counts.getAndSet(i, 0);
+			count += drained[i];
+		}
+		long max = this.max.getAndSet(0);
+		if (count == 0) {
+			return Snapshot.EMPTY;
+		}
+		return new Snapshot(count, valueAtPercentile(drained, count, max, 0.5),
+				valueAtPercentile(drained, count, max, 0.9),
+				valueAtPercentile(drained, count, max, 0.99),
+				valueAtPercentile(drained, count, max, 0.999), max);
+	}
+
+	private static long valueAtPercentile(long[] counts, long total, long max,
+			double percentile) {
+		long target = Math.max(1, (long) Math.ceil(percentile * total));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return Math.min(highestEquivalentValue(i), max);
+			}
+		}
+		return max;
+	}
+
+	static int indexOf(long value) {
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+		return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF_COUNT
+				+ (int) ((value >> shift) - SUB_BUCKET_HALF_COUNT);
+	}
+
+	static long highestEquivalentValue(int index) {
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int offset = index - SUB_BUCKET_COUNT;
+		int shift = offset / SUB_BUCKET_HALF_COUNT + 1;
+		long subBucket = offset % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+		return (subBucket << shift) + (1L << shift) - 1;
+	}
+
+	/**
+	 * Immutable summary of the values recorded in one interval.
+	 */
+	public static final class Snapshot {
+
+		static final Snapshot EMPTY = new Snapshot(0, 0, 0, 0, 0, 0);
+
+		private final long count;
+
+		private final long p50;
+
+		private final long p90;
+
+		private final long p99;
+
+		private final long p999;
+
+		private final long max;
+
+		Snapshot(long count, long p50, long p90, long p99, long p999, long max) {
+			this.count = count;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+			this.p999 = p999;
+			this.max = max;
+		}
+
+		public long getCount() {
+			return this.count;
+		}
+
+		public long getP50() {
+			return this.p50;
+		}
+
+		public long getP90() {
+			return this.p90;
+		}
+
+		public long getP99() {
+			return this.p99;
+		}
+
+		public long getP999() {
+			return this.p999;
+		}
+
+		public long getMax() {
+			return this.max;
+		}
+
+	}
+
+}
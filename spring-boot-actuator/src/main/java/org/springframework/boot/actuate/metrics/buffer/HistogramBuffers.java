@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.springframework.boot.actuate.metrics.export.Exporter;
+import org.springframework.lang.UsesJava8;
+
+/**
+ * Fast writes to in-memory metrics store using {@link HistogramBuffer}. Recorded values
+ * are summarized into percentiles each time a histogram is rolled over, at which point
+ * the underlying counts are reset so that each snapshot covers one interval. A histogram
+ * is rolled over when it is read and the rollover interval has elapsed, so snapshots do
+ * not go stale when metric export is disabled. As an {@link Exporter} bean the buffers
+ * are also rolled over on the same schedule as the other metric exporters.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@UsesJava8
+public class HistogramBuffers extends Buffers<HistogramBuffer> implements Exporter {
+
+	private static final Predicate<String> ALL = new Predicate<String>() {
+
+		@Override
+		public boolean test(String name) {
+			return true;
+		}
+
+	};
+
+	private final long rolloverInterval;
+
+	/**
+	 * Create a new {@link HistogramBuffers} instance that only rolls over when
+	 * {@link #export() exported}.
+	 */
+	public HistogramBuffers() {
+		this(0);
+	}
+
+	/**
+	 * Create a new {@link HistogramBuffers} instance.
+	 * @param rolloverInterval the interval in milliseconds after which reading a
+	 * histogram rolls it over (zero or less to only roll over when exported)
+	 */
+	public HistogramBuffers(long rolloverInterval) {
+		this.rolloverInterval = rolloverInterval;
+	}
+
+	public void record(String name, double value) {
+		getOrCreate(name).record(value);
+	}
+
+	/**
+	 * Roll over all the histograms, replacing their snapshots with the values recorded
+	 * since the previous export.
+	 */
+	@Override
+	public void export() {
+		forEach(ALL, new BiConsumer<String, HistogramBuffer>() {
+
+			@Override
+			public void accept(String name, HistogramBuffer buffer) {
+				buffer.rollover();
+			}
+
+		});
+	}
+
+	@Override
+	protected HistogramBuffer createBuffer() {
+		return new HistogramBuffer(0L, this.rolloverInterval);
+	}
+
+}
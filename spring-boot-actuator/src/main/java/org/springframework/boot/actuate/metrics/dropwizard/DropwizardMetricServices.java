@@ -24,7 +24,9 @@ import com.codahale.metrics.Counter;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.Histogram;
 import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
 import com.codahale.metrics.Timer;
 
 import org.springframework.boot.actuate.metrics.CounterService;
@@ -44,6 +46,13 @@ import org.springframework.boot.actuate.metrics.GaugeService;
  * <li>Other metrics are treated as simple {@link Gauge} values (single valued
  * measurements of type double)</li>
  * </ul>
+ * Gauges whose names match one of the {@link #setTimerPrefixes(String...) timer
+ * prefixes} (none by default) are recorded in a {@link Timer} instead, so for example
+ * "gauge.response." makes the response times recorded by the actuator available as
+ * "timer.response.*" percentiles.
+ * Timers and histograms use the reservoir provided by the {@link ReservoirFactory}, if
+ * any, and are cached by the name they were submitted with so that recording an
+ * observation does not create any new names.
  *
  * @author Dave Syer
  * @author Jay Anderson
@@ -57,12 +66,42 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 
 	private final ConcurrentHashMap<String, String> names = new ConcurrentHashMap<String, String>();
 
+	private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<String, Timer>();
+
+	private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+
+	private final ReservoirFactory reservoirFactory;
+
+	private String[] timerPrefixes = new String[0];
+
 	/**
 	 * Create a new {@link DropwizardMetricServices} instance.
 	 * @param registry the underlying metric registry
 	 */
 	public DropwizardMetricServices(MetricRegistry registry) {
+		this(registry, null);
+	}
+
+	/**
+	 * Create a new {@link DropwizardMetricServices} instance.
+	 * @param registry the underlying metric registry
+	 * @param reservoirFactory the factory that creates the reservoirs of timers and
+	 * histograms (may be {@code null} to use the Dropwizard defaults)
+	 */
+	public DropwizardMetricServices(MetricRegistry registry,
+			ReservoirFactory reservoirFactory) {
 		this.registry = registry;
+		this.reservoirFactory = reservoirFactory;
+	}
+
+	/**
+	 * Set the prefixes of the gauges whose values (in milliseconds) should be recorded in
+	 * a {@link Timer} instead of a {@link Gauge}. The timer's name is the gauge's name
+	 * with its "gauge." prefix replaced by "timer.". Defaults to none.
+	 * @param timerPrefixes the timer prefixes
+	 */
+	public void setTimerPrefixes(String... timerPrefixes) {
+		this.timerPrefixes = timerPrefixes;
 	}
 
 	@Override
@@ -91,17 +130,75 @@ public class DropwizardMetricServices implements CounterService, GaugeService {
 	public void submit(String name, double value) {
 		if (name.startsWith("histogram")) {
 			long longValue = (long) value;
-			Histogram metric = this.registry.histogram(name);
+			Histogram metric = getHistogram(name);
 			metric.update(longValue);
 		}
 		else if (name.startsWith("timer")) {
 			long longValue = (long) value;
-			Timer metric = this.registry.timer(name);
+			Timer metric = getTimer(name);
 			metric.update(longValue, TimeUnit.MILLISECONDS);
 		}
 		else {
 			name = wrapGaugeName(name);
-			setGaugeValue(name, value);
+			if (isTimer(name)) {
+				Timer metric = getTimer(name);
+				metric.update((long) value, TimeUnit.MILLISECONDS);
+			}
+			else {
+				setGaugeValue(name, value);
+			}
+		}
+	}
+
+	private boolean isTimer(String gaugeName) {
+		for (String prefix : this.timerPrefixes) {
+			if (gaugeName.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private Timer getTimer(String key) {
+		Timer timer = this.timers.get(key);
+		if (timer == null) {
+			String name = (key.startsWith("gauge.")
+					? "timer." + key.substring("gauge.".length()) : key);
+			Reservoir reservoir = getReservoir(name);
+			timer = (reservoir == null ? this.registry.timer(name)
+					: register(name, new Timer(reservoir), Timer.class));
+			this.timers.put(key, timer);
+		}
+		return timer;
+	}
+
+	private Histogram getHistogram(String name) {
+		Histogram histogram = this.histograms.get(name);
+		if (histogram == null) {
+			Reservoir reservoir = getReservoir(name);
+			histogram = (reservoir == null ? this.registry.histogram(name)
+					: register(name, new Histogram(reservoir), Histogram.class));
+			this.histograms.put(name, histogram);
+		}
+		return histogram;
+	}
+
+	private Reservoir getReservoir(String name) {
+		return (this.reservoirFactory == null ? null
+				: this.reservoirFactory.getReservoir(name));
+	}
+
+	private <T extends Metric> T register(String name, T metric, Class<T> type) {
+		try {
+			return this.registry.register(name, metric);
+		}
+		catch (IllegalArgumentException ex) {
+			// Registered concurrently (or by someone else)
+			Metric existing = this.registry.getMetrics().get(name);
+			if (type.isInstance(existing)) {
+				return type.cast(existing);
+			}
+			throw ex;
 		}
 	}
 
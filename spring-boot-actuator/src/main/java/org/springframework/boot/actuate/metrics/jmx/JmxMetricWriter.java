@@ -16,9 +16,16 @@
 
 package org.springframework.boot.actuate.metrics.jmx;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.management.MalformedObjectNameException;
 import javax.management.ObjectName;
@@ -41,6 +48,12 @@ import org.springframework.jmx.export.naming.ObjectNamingStrategy;
  * {@link ObjectNamingStrategy}, where the default is a
  * {@link DefaultMetricNamingStrategy} which provides {@code type}, {@code name} and
  * {@code value} keys by splitting up the metric name on periods.
+ * <p>
+ * Values are updated in a concurrent map, without locking, and the MBeans for newly seen
+ * names are registered in batches of up to {@link #setBatchSize(int) batchSize} by a
+ * background thread, so writing a metric never waits for the MBean server. If a
+ * {@link #setTimeToLive(long) timeToLive} is set, the MBeans of metrics that have not
+ * been written within that time are unregistered by the same thread.
  *
  * @author Dave Syer
  * @since 1.3.0
@@ -58,6 +71,19 @@ public class JmxMetricWriter implements MetricWriter {
 
 	private String domain = "org.springframework.metrics";
 
+	/**
+	 * Maximum number of MBeans registered in one go by the registration thread.
+	 */
+	private int batchSize = 100;
+
+	/**
+	 * Time (in milliseconds) after which metrics that have not been written are
+	 * unregistered. Defaults to 0 (never).
+	 */
+	private long timeToLive;
+
+	private Registrar registrar;
+
 	public JmxMetricWriter(MBeanExporter exporter) {
 		this.exporter = exporter;
 	}
@@ -70,6 +96,14 @@ public class JmxMetricWriter implements MetricWriter {
 		this.domain = domain;
 	}
 
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	public void setTimeToLive(long timeToLive) {
+		this.timeToLive = timeToLive;
+	}
+
 	@ManagedOperation
 	public void increment(String name, long value) {
 		increment(new Delta<Long>(name, value));
@@ -97,29 +131,80 @@ public class JmxMetricWriter implements MetricWriter {
 	public void reset(String name) {
 		MetricValue value = this.values.remove(name);
 		if (value != null) {
-			try {
-				// We can unregister the MBean, but if this writer is on the end of an
-				// Exporter the chances are it will be re-registered almost immediately.
-				this.exporter.unregisterManagedResource(getName(name, value));
-			}
-			catch (MalformedObjectNameException ex) {
-				logger.warn("Could not unregister MBean for " + name);
-			}
+			// We can unregister the MBean, but if this writer is on the end of an
+			// Exporter the chances are it will be re-registered almost immediately.
+			unregister(name, value);
+		}
+	}
+
+	/**
+	 * Register the MBeans of any metrics that are still pending and stop the registration
+	 * thread.
+	 */
+	public void close() {
+		Registrar registrar;
+		synchronized (this) {
+			registrar = this.registrar;
+			this.registrar = null;
+		}
+		if (registrar != null) {
+			registrar.close();
 		}
 	}
 
 	private MetricValue getValue(String name) {
-		if (!this.values.containsKey(name)) {
-			this.values.putIfAbsent(name, new MetricValue());
-			MetricValue value = this.values.get(name);
+		MetricValue value = this.values.get(name);
+		if (value == null) {
+			value = new MetricValue(name);
+			MetricValue existing = this.values.putIfAbsent(name, value);
+			if (existing != null) {
+				return existing;
+			}
+			getRegistrar().add(value);
+		}
+		return value;
+	}
+
+	private synchronized Registrar getRegistrar() {
+		if (this.registrar == null) {
+			this.registrar = new Registrar();
+		}
+		return this.registrar;
+	}
+
+	private void register(List<MetricValue> batch) {
+		for (MetricValue value : batch) {
+			if (this.values.get(value.name) != value) {
+				// Reset or expired before it was registered
+				continue;
+			}
 			try {
-				this.exporter.registerManagedResource(value, getName(name, value));
+				this.exporter.registerManagedResource(value, getName(value.name, value));
 			}
 			catch (Exception ex) {
-				// Could not register mbean, maybe just a race condition
+				logger.warn("Could not register MBean for " + value.name, ex);
+			}
+		}
+	}
+
+	private void unregisterExpired() {
+		long expired = System.currentTimeMillis() - this.timeToLive;
+		for (Map.Entry<String, MetricValue> entry : this.values.entrySet()) {
+			MetricValue value = entry.getValue();
+			if (value.lastWritten < expired
+					&& this.values.remove(entry.getKey(), value)) {
+				unregister(entry.getKey(), value);
 			}
 		}
-		return this.values.get(name);
+	}
+
+	private void unregister(String name, MetricValue value) {
+		try {
+			this.exporter.unregisterManagedResource(getName(name, value));
+		}
+		catch (MalformedObjectNameException ex) {
+			logger.warn("Could not unregister MBean for " + name);
+		}
 	}
 
 	private ObjectName getName(String name, MetricValue value)
@@ -128,31 +213,121 @@ public class JmxMetricWriter implements MetricWriter {
 		return this.namingStrategy.getObjectName(value, key);
 	}
 
+	/**
+	 * Background thread that registers newly seen metrics in batches and unregisters
+	 * expired ones.
+	 */
+	private class Registrar implements Runnable {
+
+		private final BlockingQueue<MetricValue> queue = new LinkedBlockingQueue<MetricValue>();
+
+		private final Thread thread;
+
+		private volatile boolean running = true;
+
+		Registrar() {
+			this.thread = new Thread(this, "jmx-metric-writer");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		public void add(MetricValue value) {
+			this.queue.offer(value);
+		}
+
+		@Override
+		public void run() {
+			long lastSweep = System.currentTimeMillis();
+			while (this.running) {
+				long timeToLive = JmxMetricWriter.this.timeToLive;
+				try {
+					MetricValue value = (timeToLive > 0
+							? this.queue.poll(timeToLive / 2 + 1, TimeUnit.MILLISECONDS)
+							: this.queue.take());
+					if (value != null) {
+						List<MetricValue> batch = new ArrayList<MetricValue>();
+						batch.add(value);
+						this.queue.drainTo(batch, JmxMetricWriter.this.batchSize - 1);
+						register(batch);
+					}
+				}
+				catch (InterruptedException ex) {
+					break;
+				}
+				catch (RuntimeException ex) {
+					logger.warn("Could not update MBeans", ex);
+				}
+				if (timeToLive > 0
+						&& System.currentTimeMillis() - lastSweep >= timeToLive / 2) {
+					lastSweep = System.currentTimeMillis();
+					unregisterExpired();
+				}
+			}
+		}
+
+		public void close() {
+			this.running = false;
+			this.thread.interrupt();
+			try {
+				this.thread.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			List<MetricValue> batch = new ArrayList<MetricValue>();
+			this.queue.drainTo(batch);
+			register(batch);
+		}
+
+	}
+
 	/**
 	 * A single metric value.
 	 */
 	@ManagedResource
 	public static class MetricValue {
 
-		private double value;
+		private final String name;
 
-		private long lastUpdated = 0;
+		private final AtomicLong bits = new AtomicLong(Double.doubleToLongBits(0));
+
+		private volatile long lastUpdated = 0;
+
+		private volatile long lastWritten = System.currentTimeMillis();
+
+		public MetricValue() {
+			this(null);
+		}
+
+		MetricValue(String name) {
+			this.name = name;
+		}
 
 		public void setValue(double value) {
-			if (this.value != value) {
-				this.lastUpdated = System.currentTimeMillis();
+			long now = System.currentTimeMillis();
+			long bits = Double.doubleToLongBits(value);
+			if (this.bits.getAndSet(bits) != bits) {
+				this.lastUpdated = now;
 			}
-			this.value = value;
+			this.lastWritten = now;
 		}
 
 		public void increment(long value) {
-			this.lastUpdated = System.currentTimeMillis();
-			this.value += value;
+			long now = System.currentTimeMillis();
+			while (true) {
+				long current = this.bits.get();
+				double next = Double.longBitsToDouble(current) + value;
+				if (this.bits.compareAndSet(current, Double.doubleToLongBits(next))) {
+					break;
+				}
+			}
+			this.lastUpdated = now;
+			this.lastWritten = now;
 		}
 
 		@ManagedAttribute
 		public double getValue() {
-			return this.value;
+			return Double.longBitsToDouble(this.bits.get());
 		}
 
 		@ManagedAttribute
@@ -16,11 +16,19 @@
 
 package org.springframework.boot.actuate.metrics.opentsdb;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,11 +46,13 @@ import org.springframework.web.client.RestTemplate;
 
 /**
  * A {@link GaugeWriter} for the Open TSDB database (version 2.0), writing metrics to the
- * HTTP endpoint provided by the server. Data are buffered according to the
- * {@link #setBufferSize(int) bufferSize} property, and only flushed automatically when
- * the buffer size is reached. Users should either manually {@link #flush()} after writing
- * a batch of data if that makes sense, or consider adding a {@link Scheduled Scheduled}
- * task to flush periodically.
+ * HTTP endpoint provided by the server. Values are queued for a background sender thread
+ * that posts them in batches of {@link #setBufferSize(int) bufferSize}, so the thread
+ * writing the metric never waits for the server. At most
+ * {@link #setQueueCapacity(int) queueCapacity} batches are held and values that do not
+ * fit are dropped. Users should either manually {@link #flush()} after writing a batch of
+ * data if that makes sense, or consider adding a {@link Scheduled Scheduled} task to
+ * flush periodically.
  *
  * @author Dave Syer
  * @author Thomas Badie
@@ -54,6 +64,8 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 
 	private static final int DEFAULT_READ_TIMEOUT = 30000;
 
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
 	private static final Log logger = LogFactory.getLog(OpenTsdbGaugeWriter.class);
 
 	private RestOperations restTemplate;
@@ -68,17 +80,38 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 	 */
 	private int bufferSize = 64;
 
+	/**
+	 * Maximum number of full buffers waiting to be posted by the sender thread.
+	 */
+	private int queueCapacity = 16;
+
 	/**
 	 * The media type to use to serialize and accept responses from the server. Defaults
-	 * to "application/json".
+	 * to "application/json". JSON bodies are written directly, any other media type is
+	 * left to the message converters of the {@link #setRestTemplate(RestOperations)
+	 * RestTemplate}.
 	 */
 	private MediaType mediaType = MediaType.APPLICATION_JSON;
 
-	private final List<OpenTsdbData> buffer = new ArrayList<OpenTsdbData>(
-			this.bufferSize);
+	/**
+	 * Compress request bodies with gzip. Only applies to JSON bodies.
+	 */
+	private boolean gzip;
 
 	private OpenTsdbNamingStrategy namingStrategy = new DefaultOpenTsdbNamingStrategy();
 
+	private final AtomicLong sent = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong posts = new AtomicLong();
+
+	private final AtomicLong totalLatency = new AtomicLong();
+
+	private volatile long maxLatency;
+
+	private Sender sender;
+
 	/**
 	 * Creates a new {@code OpenTsdbGaugeWriter} with the default connect (10 seconds) and
 	 * read (30 seconds) timeouts.
@@ -117,55 +150,330 @@ public class OpenTsdbGaugeWriter implements GaugeWriter {
 		this.bufferSize = bufferSize;
 	}
 
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
 	public void setMediaType(MediaType mediaType) {
 		this.mediaType = mediaType;
 	}
 
+	public void setGzip(boolean gzip) {
+		this.gzip = gzip;
+	}
+
 	public void setNamingStrategy(OpenTsdbNamingStrategy namingStrategy) {
 		this.namingStrategy = namingStrategy;
 	}
 
+	/**
+	 * Returns the number of values successfully posted to the server.
+	 * @return the number of values sent
+	 */
+	public long getSent() {
+		return this.sent.get();
+	}
+
+	/**
+	 * Returns the number of values discarded, either because they were not finite,
+	 * because the sender queue was full or because the server could not be reached or
+	 * rejected them.
+	 * @return the number of values dropped
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Returns the number of POSTs made to the server.
+	 * @return the number of posts
+	 */
+	public long getPosts() {
+		return this.posts.get();
+	}
+
+	/**
+	 * Returns the mean time taken by the POSTs made to the server so far.
+	 * @return the mean latency in milliseconds (or {@code 0} if nothing was posted)
+	 */
+	public long getLatency() {
+		long posts = this.posts.get();
+		return (posts == 0 ? 0 : this.totalLatency.get() / posts);
+	}
+
+	/**
+	 * Returns the longest time taken by a POST to the server.
+	 * @return the maximum latency in milliseconds
+	 */
+	public long getMaxLatency() {
+		return this.maxLatency;
+	}
+
 	@Override
 	public void set(Metric<?> value) {
+		double number = value.getValue().doubleValue();
+		if (Double.isNaN(number) || Double.isInfinite(number)) {
+			// Not representable in JSON or storable by Open TSDB
+			this.dropped.incrementAndGet();
+			return;
+		}
 		OpenTsdbData data = new OpenTsdbData(this.namingStrategy.getName(value.getName()),
 				value.getValue(), value.getTimestamp().getTime());
-		synchronized (this.buffer) {
-			this.buffer.add(data);
-			if (this.buffer.size() >= this.bufferSize) {
-				flush();
-			}
-		}
+		getSender().add(data);
 	}
 
 	/**
-	 * Flush the buffer without waiting for it to fill any further.
+	 * Ask the sender thread to post the queued data without waiting for a full buffer.
+	 * This method does not wait for the data to be posted.
 	 */
-	@SuppressWarnings("rawtypes")
 	public void flush() {
-		List<OpenTsdbData> snapshot = getBufferSnapshot();
-		if (snapshot.isEmpty()) {
-			return;
+		Sender sender;
+		synchronized (this) {
+			sender = this.sender;
+		}
+		if (sender != null) {
+			sender.flush();
 		}
-		HttpHeaders headers = new HttpHeaders();
-		headers.setAccept(Arrays.asList(this.mediaType));
-		headers.setContentType(this.mediaType);
-		ResponseEntity<Map> response = this.restTemplate.postForEntity(this.url,
-				new HttpEntity<List<OpenTsdbData>>(snapshot, headers), Map.class);
-		if (!response.getStatusCode().is2xxSuccessful()) {
-			logger.warn("Cannot write metrics (discarded " + snapshot.size()
-					+ " values): " + response.getBody());
+	}
+
+	/**
+	 * Stop the sender thread and post any queued data on the calling thread.
+	 */
+	public void close() {
+		Sender sender;
+		synchronized (this) {
+			sender = this.sender;
+			this.sender = null;
+		}
+		if (sender != null) {
+			sender.close();
+		}
+	}
+
+	private synchronized Sender getSender() {
+		if (this.sender == null) {
+			this.sender = new Sender(Math.max(1, this.bufferSize), this.queueCapacity);
 		}
+		return this.sender;
 	}
 
-	private List<OpenTsdbData> getBufferSnapshot() {
-		synchronized (this.buffer) {
-			if (this.buffer.isEmpty()) {
-				return Collections.emptyList();
+	private void write(Writer writer, List<OpenTsdbData> batch) throws IOException {
+		writer.write('[');
+		for (int i = 0; i < batch.size(); i++) {
+			if (i > 0) {
+				writer.write(',');
 			}
-			List<OpenTsdbData> snapshot = new ArrayList<OpenTsdbData>(this.buffer);
-			this.buffer.clear();
-			return snapshot;
+			write(writer, batch.get(i));
 		}
+		writer.write(']');
+	}
+
+	private void write(Writer writer, OpenTsdbData data) throws IOException {
+		writer.write("{\"metric\":");
+		writeString(writer, data.getMetric());
+		writer.write(",\"timestamp\":");
+		writer.write(String.valueOf(data.getTimestamp()));
+		writer.write(",\"value\":");
+		writer.write(String.valueOf(data.getValue()));
+		writer.write(",\"tags\":{");
+		boolean first = true;
+		for (Map.Entry<String, String> tag : data.getTags().entrySet()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writeString(writer, tag.getKey());
+			writer.write(':');
+			writeString(writer, tag.getValue());
+		}
+		writer.write("}}");
+	}
+
+	private void writeString(Writer writer, String value) throws IOException {
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				writer.write('\\');
+				writer.write(c);
+			}
+			else if (c < 0x20) {
+				writer.write(String.format("\\u%04x", (int) c));
+			}
+			else {
+				writer.write(c);
+			}
+		}
+		writer.write('"');
+	}
+
+	/**
+	 * Background thread that posts the queued values. The batch and the buffer the
+	 * request body is serialized into are only used by this thread (or by
+	 * {@link #close()} once the thread has stopped), so they are reused for every POST.
+	 */
+	private class Sender implements Runnable {
+
+		private final int batchSize;
+
+		private final BlockingQueue<OpenTsdbData> queue;
+
+		private final List<OpenTsdbData> batch;
+
+		private final ByteArrayOutputStream body;
+
+		private final Writer writer;
+
+		private final Object monitor = new Object();
+
+		private final Thread thread;
+
+		private boolean flushRequested;
+
+		private volatile boolean running = true;
+
+		Sender(int batchSize, int queueCapacity) {
+			this.batchSize = batchSize;
+			this.queue = new ArrayBlockingQueue<OpenTsdbData>(batchSize * queueCapacity);
+			this.batch = new ArrayList<OpenTsdbData>(batchSize);
+			this.body = new ByteArrayOutputStream(batchSize * 128);
+			this.writer = new OutputStreamWriter(this.body, UTF_8);
+			this.thread = new Thread(this, "opentsdb-writer");
+			this.thread.setDaemon(true);
+			this.thread.start();
+		}
+
+		public void add(OpenTsdbData data) {
+			if (!this.running || !this.queue.offer(data)) {
+				OpenTsdbGaugeWriter.this.dropped.incrementAndGet();
+				return;
+			}
+			if (this.queue.size() >= this.batchSize) {
+				signal(false);
+			}
+		}
+
+		public void flush() {
+			signal(true);
+		}
+
+		private void signal(boolean flush) {
+			synchronized (this.monitor) {
+				this.flushRequested |= flush;
+				this.monitor.notify();
+			}
+		}
+
+		@Override
+		public void run() {
+			while (this.running) {
+				try {
+					awaitBatch();
+				}
+				catch (InterruptedException ex) {
+					break;
+				}
+				postQueued();
+			}
+		}
+
+		private void awaitBatch() throws InterruptedException {
+			synchronized (this.monitor) {
+				while (this.running && (this.queue.isEmpty()
+						|| (!this.flushRequested && this.queue.size() < this.batchSize))) {
+					this.monitor.wait();
+				}
+				this.flushRequested = false;
+			}
+		}
+
+		public void close() {
+			this.running = false;
+			this.thread.interrupt();
+			try {
+				this.thread.join();
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			postQueued();
+		}
+
+		private void postQueued() {
+			while (this.queue.drainTo(this.batch, this.batchSize) > 0) {
+				try {
+					post(this.batch);
+				}
+				catch (RuntimeException ex) {
+					OpenTsdbGaugeWriter.this.dropped.addAndGet(this.batch.size());
+					logger.warn("Cannot write metrics (discarded " + this.batch.size()
+							+ " values)", ex);
+				}
+				finally {
+					this.batch.clear();
+				}
+			}
+		}
+
+		@SuppressWarnings("rawtypes")
+		private void post(List<OpenTsdbData> batch) {
+			HttpHeaders headers = new HttpHeaders();
+			headers.setAccept(Arrays.asList(OpenTsdbGaugeWriter.this.mediaType));
+			headers.setContentType(OpenTsdbGaugeWriter.this.mediaType);
+			HttpEntity<?> entity;
+			if (MediaType.APPLICATION_JSON
+					.isCompatibleWith(OpenTsdbGaugeWriter.this.mediaType)) {
+				if (OpenTsdbGaugeWriter.this.gzip) {
+					headers.set("Content-Encoding", "gzip");
+				}
+				entity = new HttpEntity<byte[]>(serialize(batch), headers);
+			}
+			else {
+				entity = new HttpEntity<List<OpenTsdbData>>(batch, headers);
+			}
+			long start = System.currentTimeMillis();
+			ResponseEntity<Map> response = OpenTsdbGaugeWriter.this.restTemplate
+					.postForEntity(OpenTsdbGaugeWriter.this.url, entity, Map.class);
+			recordLatency(System.currentTimeMillis() - start);
+			if (response.getStatusCode().is2xxSuccessful()) {
+				OpenTsdbGaugeWriter.this.sent.addAndGet(batch.size());
+			}
+			else {
+				OpenTsdbGaugeWriter.this.dropped.addAndGet(batch.size());
+				logger.warn("Cannot write metrics (discarded " + batch.size()
+						+ " values): " + response.getBody());
+			}
+		}
+
+		private void recordLatency(long latency) {
+			OpenTsdbGaugeWriter.this.posts.incrementAndGet();
+			OpenTsdbGaugeWriter.this.totalLatency.addAndGet(latency);
+			if (latency > OpenTsdbGaugeWriter.this.maxLatency) {
+				OpenTsdbGaugeWriter.this.maxLatency = latency;
+			}
+		}
+
+		private byte[] serialize(List<OpenTsdbData> batch) {
+			this.body.reset();
+			try {
+				if (OpenTsdbGaugeWriter.this.gzip) {
+					Writer writer = new OutputStreamWriter(
+							new GZIPOutputStream(this.body), UTF_8);
+					write(writer, batch);
+					writer.close();
+				}
+				else {
+					write(this.writer, batch);
+					this.writer.flush();
+				}
+			}
+			catch (IOException ex) {
+				// Can't happen with an in-memory stream
+				throw new IllegalStateException(ex);
+			}
+			return this.body.toByteArray();
+		}
+
 	}
 
 }
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.prometheus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
+
+/**
+ * Default {@link PrometheusNamingStrategy}. The HTTP metrics recorded by Spring Boot are
+ * mapped to a single family with labels, so {@code counter.status.200.root} becomes
+ * {@code counter_status{status="200",path="root"}} and {@code gauge.response.root}
+ * becomes {@code gauge_response{path="root"}}. When {@link HistogramBuffers} are
+ * {@link #setHistogramBuffers(HistogramBuffers) provided}, the percentiles of a response
+ * time histogram are mapped to a separate {@code gauge_response_quantiles} summary with
+ * a {@code quantile} label, so {@code gauge.response.root.p99} becomes
+ * {@code gauge_response_quantiles{path="root",quantile="0.99"}}, and its maximum to a
+ * separate {@code gauge_response_max} family. Keeping the percentiles out of the
+ * {@code gauge_response} family means that each family has a single type. Suffixes are
+ * only interpreted for names that belong to an existing histogram, so a path that
+ * happens to end in {@code .max} is not misparsed. Any other name is passed through with
+ * the characters that Prometheus does not allow replaced by underscores. Metrics whose
+ * name starts with {@code counter.} are exposed as counters and all others as gauges.
+ * Static labels can be added to every series with {@link #setLabels(Map)}. Up to 10000
+ * names are cached, beyond that names are created on each call.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public class DefaultPrometheusNamingStrategy implements PrometheusNamingStrategy {
+
+	private static final String COUNTER_PREFIX = "counter.";
+
+	private static final String STATUS_PREFIX = "counter.status.";
+
+	private static final String RESPONSE_PREFIX = "gauge.response.";
+
+	private static final String MAX_SUFFIX = ".max";
+
+	private static final Map<String, String> QUANTILES;
+
+	static {
+		Map<String, String> quantiles = new LinkedHashMap<String, String>();
+		quantiles.put(".p50", "0.5");
+		quantiles.put(".p90", "0.9");
+		quantiles.put(".p99", "0.99");
+		quantiles.put(".p999", "0.999");
+		QUANTILES = Collections.unmodifiableMap(quantiles);
+	}
+
+	/**
+	 * Maximum number of names to cache. Paths are part of the metric names, so there is
+	 * no natural bound on the number of distinct names.
+	 */
+	static final int CACHE_LIMIT = 10000;
+
+	private final Map<String, String> labels = new LinkedHashMap<String, String>();
+
+	private final ConcurrentMap<String, PrometheusName> cache = new ConcurrentHashMap<String, PrometheusName>();
+
+	private HistogramBuffers histogramBuffers;
+
+	/**
+	 * Labels to apply to every series.
+	 * @param labels the static labels
+	 */
+	public void setLabels(Map<String, String> labels) {
+		this.labels.putAll(labels);
+		this.cache.clear();
+	}
+
+	/**
+	 * The histograms whose percentile and maximum metrics should be mapped to labels.
+	 * @param histogramBuffers the histogram buffers (may be {@code null})
+	 */
+	public void setHistogramBuffers(HistogramBuffers histogramBuffers) {
+		this.histogramBuffers = histogramBuffers;
+		this.cache.clear();
+	}
+
+	@Override
+	public PrometheusName getName(String metricName) {
+		PrometheusName name = this.cache.get(metricName);
+		if (name == null) {
+			name = createName(metricName);
+			if (this.cache.size() < CACHE_LIMIT) {
+				this.cache.putIfAbsent(metricName, name);
+			}
+		}
+		return name;
+	}
+
+	private PrometheusName createName(String metricName) {
+		String type = (metricName.startsWith(COUNTER_PREFIX) ? "counter" : "gauge");
+		Map<String, String> labels = new LinkedHashMap<String, String>();
+		String family = metricName;
+		if (metricName.startsWith(STATUS_PREFIX)) {
+			String rest = metricName.substring(STATUS_PREFIX.length());
+			int index = rest.indexOf('.');
+			if (index > 0) {
+				family = "counter.status";
+				labels.put("status", rest.substring(0, index));
+				labels.put("path", rest.substring(index + 1));
+			}
+		}
+		else if (metricName.startsWith(RESPONSE_PREFIX)
+				&& metricName.length() > RESPONSE_PREFIX.length()) {
+			family = "gauge.response";
+			String path = metricName.substring(RESPONSE_PREFIX.length());
+			String quantile = null;
+			for (Map.Entry<String, String> entry : QUANTILES.entrySet()) {
+				if (isHistogramSuffix(metricName, entry.getKey())) {
+					path = path.substring(0, path.length() - entry.getKey().length());
+					quantile = entry.getValue();
+					break;
+				}
+			}
+			if (quantile == null && isHistogramSuffix(metricName, MAX_SUFFIX)) {
+				path = path.substring(0, path.length() - MAX_SUFFIX.length());
+				family = "gauge.response.max";
+			}
+			labels.put("path", path);
+			if (quantile != null) {
+				family = "gauge.response.quantiles";
+				type = "summary";
+				labels.put("quantile", quantile);
+			}
+		}
+		labels.putAll(this.labels);
+		return new PrometheusName(sanitize(family), type, labels);
+	}
+
+	private boolean isHistogramSuffix(String metricName, String suffix) {
+		if (this.histogramBuffers == null || !metricName.endsWith(suffix)
+				|| metricName.length() - suffix.length() <= RESPONSE_PREFIX.length()) {
+			return false;
+		}
+		String histogramName = metricName.substring(0,
+				metricName.length() - suffix.length());
+		return this.histogramBuffers.find(histogramName) != null;
+	}
+
+	/**
+	 * Convert the given name into a valid Prometheus metric name.
+	 * @param name the name
+	 * @return the sanitized name
+	 */
+	protected String sanitize(String name) {
+		StringBuilder result = new StringBuilder(name.length() + 1);
+		for (int i = 0; i < name.length(); i++) {
+			char ch = name.charAt(i);
+			boolean valid = (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z')
+					|| ch == '_' || ch == ':' || (i > 0 && ch >= '0' && ch <= '9');
+			if (i == 0 && ch >= '0' && ch <= '9') {
+				result.append('_');
+				valid = true;
+			}
+			result.append(valid ? ch : '_');
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.prometheus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.Assert;
+
+/**
+ * Prometheus name: a metric family name, its type and a set of labels. The text that
+ * identifies the series in the exposition format is rendered once, when the name is
+ * created.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public final class PrometheusName {
+
+	private final String name;
+
+	private final String type;
+
+	private final Map<String, String> labels;
+
+	private final String series;
+
+	/**
+	 * Create a new {@link PrometheusName} with no labels.
+	 * @param name the metric family name
+	 * @param type the Prometheus type ("counter", "gauge", "summary" or "untyped")
+	 */
+	public PrometheusName(String name, String type) {
+		this(name, type, Collections.<String, String>emptyMap());
+	}
+
+	/**
+	 * Create a new {@link PrometheusName}.
+	 * @param name the metric family name
+	 * @param type the Prometheus type ("counter", "gauge", "summary" or "untyped")
+	 * @param labels the labels of the series
+	 */
+	public PrometheusName(String name, String type, Map<String, String> labels) {
+		Assert.hasText(name, "Name must not be empty");
+		Assert.hasText(type, "Type must not be empty");
+		Assert.notNull(labels, "Labels must not be null");
+		this.name = name;
+		this.type = type;
+		this.labels = Collections
+				.unmodifiableMap(new LinkedHashMap<String, String>(labels));
+		this.series = renderSeries(name, this.labels);
+	}
+
+	private static String renderSeries(String name, Map<String, String> labels) {
+		if (labels.isEmpty()) {
+			return name;
+		}
+		StringBuilder series = new StringBuilder(name).append('{');
+		for (Map.Entry<String, String> label : labels.entrySet()) {
+			if (series.charAt(series.length() - 1) != '{') {
+				series.append(',');
+			}
+			series.append(label.getKey()).append("=\"");
+			appendEscaped(series, label.getValue());
+			series.append('"');
+		}
+		return series.append('}').toString();
+	}
+
+	private static void appendEscaped(StringBuilder builder, String value) {
+		for (int i = 0; i < value.length(); i++) {
+			char ch = value.charAt(i);
+			if (ch == '\\' || ch == '"') {
+				builder.append('\\').append(ch);
+			}
+			else if (ch == '\n') {
+				builder.append("\\n");
+			}
+			else {
+				builder.append(ch);
+			}
+		}
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public String getType() {
+		return this.type;
+	}
+
+	public Map<String, String> getLabels() {
+		return this.labels;
+	}
+
+	/**
+	 * Return the series identifier as it appears in the exposition format, i.e. the name
+	 * followed by the labels in braces (if there are any).
+	 * @return the series identifier
+	 */
+	public String getSeries() {
+		return this.series;
+	}
+
+	@Override
+	public String toString() {
+		return this.series;
+	}
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.prometheus;
+
+/**
+ * Strategy used to convert a metric name into a {@link PrometheusName}.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public interface PrometheusNamingStrategy {
+
+	/**
+	 * Convert the metric name into a {@link PrometheusName}. Implementations are called
+	 * once per metric on every scrape so should cache their results.
+	 * @param metricName the name of the metric
+	 * @return a Prometheus name
+	 */
+	PrometheusName getName(String metricName);
+
+}
@@ -17,8 +17,12 @@
 package org.springframework.boot.actuate.metrics.reader;
 
 import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -32,23 +36,26 @@ import com.codahale.metrics.Meter;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.MetricRegistryListener;
 import com.codahale.metrics.Sampling;
+import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import org.springframework.beans.BeanUtils;
-import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 /**
  * A Spring Boot {@link MetricReader} that reads metrics from a Dropwizard
  * {@link MetricRegistry}. Gauges and Counters are reflected as a single value. Timers,
  * Meters and Histograms are expanded into sets of metrics containing all the properties
- * of type Number.
+ * of type Number. The percentiles of Timers and Histograms are exposed as
+ * "&lt;name&gt;.snapshot.*" metrics and, when {@link #findAll() reading all metrics},
+ * are all taken from a single snapshot of each Timer or Histogram.
  *
  * @author Dave Syer
  * @author Andy Wilkinson
@@ -57,7 +64,7 @@ public class MetricRegistryMetricReader implements MetricReader, MetricRegistryL
 
 	private static final Log logger = LogFactory.getLog(MetricRegistryMetricReader.class);
 
-	private static final Map<Class<?>, Set<String>> numberKeys = new ConcurrentHashMap<Class<?>, Set<String>>();
+	private static final Map<Class<?>, Map<String, Method>> numberKeys = new ConcurrentHashMap<Class<?>, Map<String, Method>>();
 
 	private final Object monitor = new Object();
 
@@ -99,28 +106,50 @@ public class MetricRegistryMetricReader implements MetricReader, MetricRegistryL
 		}
 		if (metric instanceof Sampling) {
 			if (metricName.contains(".snapshot.")) {
-				Number value = getMetric(((Sampling) metric).getSnapshot(), metricName);
-				if (metric instanceof Timer) {
-					// convert back to MILLISEC
-					value = TimeUnit.MILLISECONDS.convert(value.longValue(),
-							TimeUnit.NANOSECONDS);
-				}
-				return new Metric<Number>(metricName, value);
+				return new Metric<Number>(metricName, getSnapshotMetric(metric,
+						((Sampling) metric).getSnapshot(), metricName));
 			}
 		}
 		return new Metric<Number>(metricName, getMetric(metric, metricName));
 	}
 
+	private Number getSnapshotMetric(com.codahale.metrics.Metric metric,
+			Snapshot snapshot, String metricName) {
+		Number value = getMetric(snapshot, metricName);
+		if (metric instanceof Timer) {
+			// convert back to MILLISEC
+			value = TimeUnit.MILLISECONDS.convert(value.longValue(),
+					TimeUnit.NANOSECONDS);
+		}
+		return value;
+	}
+
 	@Override
 	public Iterable<Metric<?>> findAll() {
 		return new Iterable<Metric<?>>() {
 			@Override
 			public Iterator<Metric<?>> iterator() {
 				Set<Metric<?>> metrics = new HashSet<Metric<?>>();
-				for (String name : MetricRegistryMetricReader.this.names.keySet()) {
-					Metric<?> metric = findOne(name);
-					if (metric != null) {
-						metrics.add(metric);
+				Map<String, List<String>> names = new LinkedHashMap<String, List<String>>();
+				synchronized (MetricRegistryMetricReader.this.monitor) {
+					for (Map.Entry<String, List<String>> entry : MetricRegistryMetricReader.this.reverse
+							.entrySet()) {
+						names.put(entry.getKey(), new ArrayList<String>(entry.getValue()));
+					}
+				}
+				for (Map.Entry<String, List<String>> entry : names.entrySet()) {
+					com.codahale.metrics.Metric metric = MetricRegistryMetricReader.this.registry
+							.getMetrics().get(entry.getKey());
+					if (metric instanceof Sampling) {
+						addSampling(metrics, metric, entry.getValue());
+					}
+					else {
+						for (String name : entry.getValue()) {
+							Metric<?> value = findOne(name);
+							if (value != null) {
+								metrics.add(value);
+							}
+						}
 					}
 				}
 				return metrics.iterator();
@@ -128,6 +157,20 @@ public class MetricRegistryMetricReader implements MetricReader, MetricRegistryL
 		};
 	}
 
+	private void addSampling(Set<Metric<?>> metrics, com.codahale.metrics.Metric metric,
+			List<String> names) {
+		Snapshot snapshot = ((Sampling) metric).getSnapshot();
+		for (String name : names) {
+			if (name.contains(".snapshot.")) {
+				metrics.add(new Metric<Number>(name, getSnapshotMetric(metric, snapshot,
+						name)));
+			}
+			else {
+				metrics.add(new Metric<Number>(name, getMetric(metric, name)));
+			}
+		}
+	}
+
 	@Override
 	public long count() {
 		return this.names.size();
@@ -228,31 +271,39 @@ public class MetricRegistryMetricReader implements MetricReader, MetricRegistryL
 		}
 		if (keys != null) {
 			for (String key : keys) {
-				this.names.remove(name + "." + key);
+				this.names.remove(key);
 			}
 		}
 	}
 
 	private static Set<String> getNumberKeys(Object metric) {
-		Set<String> result = numberKeys.get(metric.getClass());
+		return getNumberReadMethods(metric.getClass()).keySet();
+	}
+
+	private static Map<String, Method> getNumberReadMethods(Class<?> type) {
+		Map<String, Method> result = numberKeys.get(type);
 		if (result == null) {
-			result = new HashSet<String>();
-		}
-		if (result.isEmpty()) {
-			for (PropertyDescriptor descriptor : BeanUtils
-					.getPropertyDescriptors(metric.getClass())) {
-				if (ClassUtils.isAssignable(Number.class, descriptor.getPropertyType())) {
-					result.add(descriptor.getName());
+			result = new HashMap<String, Method>();
+			for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+				Method readMethod = descriptor.getReadMethod();
+				if (readMethod != null && ClassUtils.isAssignable(Number.class,
+						descriptor.getPropertyType())) {
+					ReflectionUtils.makeAccessible(readMethod);
+					result.put(descriptor.getName(), readMethod);
 				}
 			}
-			numberKeys.put(metric.getClass(), result);
+			numberKeys.put(type, result);
 		}
 		return result;
 	}
 
 	private static Number getMetric(Object metric, String metricName) {
 		String key = StringUtils.getFilenameExtension(metricName);
-		return (Number) new BeanWrapperImpl(metric).getPropertyValue(key);
+		Method readMethod = getNumberReadMethods(metric.getClass()).get(key);
+		if (readMethod == null) {
+			return null;
+		}
+		return (Number) ReflectionUtils.invokeMethod(readMethod, metric);
 	}
 
 }
@@ -48,7 +48,7 @@ public class InMemoryMetricRepository implements MetricRepository, MultiMetricRe
 		final String metricName = delta.getName();
 		final int amount = delta.getValue().intValue();
 		final Date timestamp = delta.getTimestamp();
-		this.metrics.update(metricName, new Callback<Metric<?>>() {
+		this.metrics.compareAndUpdate(metricName, new Callback<Metric<?>>() {
 			@Override
 			public Metric<?> modify(Metric<?> current) {
 				if (current != null) {
@@ -17,10 +17,15 @@
 package org.springframework.boot.actuate.metrics.repository.redis;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.springframework.boot.actuate.metrics.Metric;
 import org.springframework.boot.actuate.metrics.repository.MetricRepository;
@@ -28,6 +33,8 @@ import org.springframework.boot.actuate.metrics.writer.Delta;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.util.Assert;
 
 /**
@@ -37,6 +44,11 @@ import org.springframework.util.Assert;
  * multiple metrics repositories all point at the same instance of Redis, it may be useful
  * to change the prefix to be unique (but not if you want them to contribute to the same
  * metrics).
+ * <p>
+ * Each write is sent to Redis in a single pipelined round trip. Writes can also be
+ * {@link #setCoalesceWrites(boolean) coalesced} in memory, in which case they are only
+ * sent, in a single pipeline for all metrics, when the repository is {@link #flush()
+ * flushed}.
  *
  * @author Dave Syer
  */
@@ -54,6 +66,10 @@ public class RedisMetricRepository implements MetricRepository {
 
 	private final RedisOperations<String, String> redisOperations;
 
+	private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<String, PendingWrite>();
+
+	private boolean coalesceWrites;
+
 	/**
 	 * Create a RedisMetricRepository with a default prefix to apply to all metric names.
 	 * If multiple repositories share a redis instance they will feed into the same global
@@ -113,25 +129,52 @@ public class RedisMetricRepository implements MetricRepository {
 		this.zSetOperations = this.redisOperations.boundZSetOps(this.key);
 	}
 
+	/**
+	 * Set if writes should be coalesced in memory rather than sent to Redis immediately.
+	 * Coalesced writes are not visible to read operations until the repository is
+	 * {@link #flush() flushed}, which happens automatically if it is the target of a
+	 * metric exporter.
+	 * @param coalesceWrites if writes should be coalesced
+	 */
+	public void setCoalesceWrites(boolean coalesceWrites) {
+		this.coalesceWrites = coalesceWrites;
+	}
+
 	@Override
 	public Metric<?> findOne(String metricName) {
-		String redisKey = keyFor(metricName);
-		String raw = this.redisOperations.opsForValue().get(redisKey);
-		return deserialize(redisKey, raw, this.zSetOperations.score(redisKey));
+		final String redisKey = keyFor(metricName);
+		List<Object> results = this.redisOperations
+				.executePipelined(new SessionCallback<Object>() {
+
+					@Override
+					public <K, V> Object execute(RedisOperations<K, V> operations) {
+						RedisOperations<String, String> redis = cast(operations);
+						redis.opsForValue().get(redisKey);
+						redis.opsForZSet().score(RedisMetricRepository.this.key,
+								redisKey);
+						return null;
+					}
+
+				});
+		return deserialize(redisKey, (String) results.get(0), (Double) results.get(1));
 	}
 
 	@Override
 	public Iterable<Metric<?>> findAll() {
 
-		// This set is sorted
-		Set<String> keys = this.zSetOperations.range(0, -1);
-		Iterator<String> keysIt = keys.iterator();
+		// This set is sorted and includes the scores, so no further lookups are needed
+		Set<TypedTuple<String>> keys = this.zSetOperations.rangeWithScores(0, -1);
+		List<String> names = new ArrayList<String>(keys.size());
+		for (TypedTuple<String> key : keys) {
+			names.add(key.getValue());
+		}
+		Iterator<TypedTuple<String>> keysIt = keys.iterator();
 
 		List<Metric<?>> result = new ArrayList<Metric<?>>(keys.size());
-		List<String> values = this.redisOperations.opsForValue().multiGet(keys);
+		List<String> values = this.redisOperations.opsForValue().multiGet(names);
 		for (String v : values) {
-			String key = keysIt.next();
-			Metric<?> value = deserialize(key, v, this.zSetOperations.score(key));
+			TypedTuple<String> key = keysIt.next();
+			Metric<?> value = deserialize(key.getValue(), v, key.getScore());
 			if (value != null) {
 				result.add(value);
 			}
@@ -148,32 +191,101 @@ public class RedisMetricRepository implements MetricRepository {
 	@Override
 	public void increment(Delta<?> delta) {
 		String name = delta.getName();
-		String key = keyFor(name);
-		trackMembership(key);
-		double value = this.zSetOperations.incrementScore(key,
-				delta.getValue().doubleValue());
-		String raw = serialize(new Metric<Double>(name, value, delta.getTimestamp()));
-		this.redisOperations.opsForValue().set(key, raw);
+		double value = delta.getValue().doubleValue();
+		long timestamp = delta.getTimestamp().getTime();
+		if (this.coalesceWrites) {
+			while (!getPendingWrite(name).increment(value, timestamp)) {
+				// Flushed concurrently so try again with a new one
+			}
+			return;
+		}
+		PendingWrite write = new PendingWrite();
+		write.increment(value, timestamp);
+		write(Collections.singletonMap(keyFor(name), write));
 	}
 
 	@Override
 	public void set(Metric<?> value) {
 		String name = value.getName();
-		String key = keyFor(name);
-		trackMembership(key);
-		this.zSetOperations.add(key, value.getValue().doubleValue());
-		String raw = serialize(value);
-		this.redisOperations.opsForValue().set(key, raw);
+		double number = value.getValue().doubleValue();
+		long timestamp = value.getTimestamp().getTime();
+		if (this.coalesceWrites) {
+			while (!getPendingWrite(name).set(number, timestamp)) {
+				// Flushed concurrently so try again with a new one
+			}
+			return;
+		}
+		PendingWrite write = new PendingWrite();
+		write.set(number, timestamp);
+		write(Collections.singletonMap(keyFor(name), write));
 	}
 
 	@Override
 	public void reset(String metricName) {
+		this.pending.remove(metricName);
 		String key = keyFor(metricName);
 		if (this.zSetOperations.remove(key) == 1) {
 			this.redisOperations.delete(key);
 		}
 	}
 
+	/**
+	 * Send any coalesced writes to Redis in a single pipeline.
+	 */
+	public void flush() {
+		Map<String, PendingWrite> writes = new LinkedHashMap<String, PendingWrite>();
+		for (String name : this.pending.keySet()) {
+			PendingWrite write = this.pending.remove(name);
+			if (write != null) {
+				write.close();
+				writes.put(keyFor(name), write);
+			}
+		}
+		if (!writes.isEmpty()) {
+			write(writes);
+		}
+	}
+
+	private PendingWrite getPendingWrite(String name) {
+		PendingWrite write = this.pending.get(name);
+		if (write == null) {
+			write = new PendingWrite();
+			PendingWrite existing = this.pending.putIfAbsent(name, write);
+			write = (existing == null ? write : existing);
+		}
+		return write;
+	}
+
+	private void write(final Map<String, PendingWrite> writes) {
+		this.redisOperations.executePipelined(new SessionCallback<Object>() {
+
+			@Override
+			public <K, V> Object execute(RedisOperations<K, V> operations) {
+				RedisOperations<String, String> redis = cast(operations);
+				String key = RedisMetricRepository.this.key;
+				for (Map.Entry<String, PendingWrite> entry : writes.entrySet()) {
+					PendingWrite write = entry.getValue();
+					if (write.isSet()) {
+						redis.opsForZSet().add(key, entry.getKey(), write.getValue());
+					}
+					else {
+						redis.opsForZSet().incrementScore(key, entry.getKey(),
+								write.getValue());
+					}
+					redis.opsForValue().set(entry.getKey(),
+							String.valueOf(write.getTimestamp()));
+				}
+				return null;
+			}
+
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	private static RedisOperations<String, String> cast(RedisOperations<?, ?> operations) {
+		return (RedisOperations<String, String>) operations;
+	}
+
 	private Metric<?> deserialize(String redisKey, String v, Double value) {
 		if (redisKey == null || v == null || !redisKey.startsWith(this.prefix)) {
 			return null;
@@ -182,10 +294,6 @@ public class RedisMetricRepository implements MetricRepository {
 		return new Metric<Double>(nameFor(redisKey), value, timestamp);
 	}
 
-	private String serialize(Metric<?> entity) {
-		return String.valueOf(entity.getTimestamp().getTime());
-	}
-
 	private String keyFor(String name) {
 		return this.prefix + name;
 	}
@@ -194,8 +302,55 @@ public class RedisMetricRepository implements MetricRepository {
 		return redisKey.substring(this.prefix.length());
 	}
 
-	private void trackMembership(String redisKey) {
-		this.zSetOperations.incrementScore(redisKey, 0.0D);
+	/**
+	 * A write waiting to be sent to Redis: either an absolute value or an increment,
+	 * together with the latest timestamp.
+	 */
+	private static class PendingWrite {
+
+		private boolean set;
+
+		private double value;
+
+		private long timestamp;
+
+		private boolean closed;
+
+		public synchronized boolean increment(double delta, long timestamp) {
+			if (this.closed) {
+				return false;
+			}
+			this.value += delta;
+			this.timestamp = Math.max(this.timestamp, timestamp);
+			return true;
+		}
+
+		public synchronized boolean set(double value, long timestamp) {
+			if (this.closed) {
+				return false;
+			}
+			this.set = true;
+			this.value = value;
+			this.timestamp = Math.max(this.timestamp, timestamp);
+			return true;
+		}
+
+		public synchronized void close() {
+			this.closed = true;
+		}
+
+		public synchronized boolean isSet() {
+			return this.set;
+		}
+
+		public synchronized double getValue() {
+			return this.value;
+		}
+
+		public synchronized long getTimestamp() {
+			return this.timestamp;
+		}
+
 	}
 
 }
@@ -29,6 +29,7 @@ import org.springframework.boot.actuate.metrics.writer.Delta;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.BoundZSetOperations;
 import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
 import org.springframework.util.Assert;
 
 /**
@@ -73,14 +74,19 @@ public class RedisMultiMetricRepository implements MultiMetricRepository {
 		BoundZSetOperations<String, String> zSetOperations = this.redisOperations
 				.boundZSetOps(keyFor(group));
 
-		Set<String> keys = zSetOperations.range(0, -1);
-		Iterator<String> keysIt = keys.iterator();
+		// This set is sorted and includes the scores, so no further lookups are needed
+		Set<TypedTuple<String>> keys = zSetOperations.rangeWithScores(0, -1);
+		List<String> names = new ArrayList<String>(keys.size());
+		for (TypedTuple<String> key : keys) {
+			names.add(key.getValue());
+		}
+		Iterator<TypedTuple<String>> keysIt = keys.iterator();
 
 		List<Metric<?>> result = new ArrayList<Metric<?>>(keys.size());
-		List<String> values = this.redisOperations.opsForValue().multiGet(keys);
+		List<String> values = this.redisOperations.opsForValue().multiGet(names);
 		for (String v : values) {
-			String key = keysIt.next();
-			result.add(deserialize(group, key, v, zSetOperations.score(key)));
+			TypedTuple<String> key = keysIt.next();
+			result.add(deserialize(group, key.getValue(), v, key.getScore()));
 		}
 		return result;
 
@@ -44,16 +44,16 @@ public class InMemoryRichGaugeRepository implements RichGaugeRepository {
 
 		final String name = metric.getName();
 		final double value = metric.getValue().doubleValue();
-		this.repository.update(name, new Callback<RichGauge>() {
+		this.repository.compareAndUpdate(name, new Callback<RichGauge>() {
 			@Override
 			public RichGauge modify(RichGauge current) {
 				if (current == null) {
-					current = new RichGauge(name, value);
+					return new RichGauge(name, value);
 				}
-				else {
-					current.set(value);
-				}
-				return current;
+				// Updates may be retried so copy rather than changing the current gauge
+				return new RichGauge(name, current.getValue(), current.getAlpha(),
+						current.getAverage(), current.getMax(), current.getMin(),
+						current.getCount()).set(value);
 			}
 		});
 
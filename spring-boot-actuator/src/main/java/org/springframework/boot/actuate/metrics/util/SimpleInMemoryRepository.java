@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,65 +17,140 @@
 package org.springframework.boot.actuate.metrics.util;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentNavigableMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.springframework.util.ConcurrentReferenceHashMap;
 
 /**
  * Repository utility that stores stuff in memory with period-separated String keys.
+ * Each value is held in an {@link AtomicReference} in a hash map. A write that races
+ * with a removal is retried against the current state rather than lost. A separate
+ * sorted index of the names (only changed when a name is added or removed) supports
+ * ordered and prefix queries.
  *
  * @param <T> the type to store
  * @author Dave Syer
  */
 public class SimpleInMemoryRepository<T> {
 
-	private ConcurrentNavigableMap<String, T> values = new ConcurrentSkipListMap<String, T>();
+	private volatile ConcurrentMap<String, AtomicReference<T>> values = new ConcurrentHashMap<String, AtomicReference<T>>();
+
+	private volatile NavigableSet<String> names = new ConcurrentSkipListSet<String>();
 
 	private final ConcurrentMap<String, Object> locks = new ConcurrentReferenceHashMap<String, Object>();
 
+	/**
+	 * Update the value with the given name. Updates of the same name are serialized, so
+	 * the callback is invoked exactly once.
+	 * @param name the name
+	 * @param callback the callback used to compute the new value
+	 * @return the new value
+	 */
 	public T update(String name, Callback<T> callback) {
 		Object lock = this.locks.putIfAbsent(name, new Object());
 		if (lock == null) {
 			lock = this.locks.get(name);
 		}
 		synchronized (lock) {
-			T current = this.values.get(name);
-			T value = callback.modify(current);
-			this.values.put(name, value);
+			T value = callback.modify(findOne(name));
+			set(name, value);
 			return value;
 		}
 	}
 
-	public void set(String name, T value) {
-		T current = this.values.get(name);
-		if (current != null) {
-			this.values.replace(name, current, value);
+	/**
+	 * Update the value with the given name using compare-and-set rather than a lock. The
+	 * callback is invoked again if the value is changed concurrently, so it must be free
+	 * of side effects and must not change {@code current}. Values that are updated this
+	 * way should not also be updated with {@link #update(String, Callback)}.
+	 * @param name the name
+	 * @param callback the callback used to compute the new value
+	 * @return the new value
+	 * @since 1.4.0
+	 */
+	public T compareAndUpdate(String name, Callback<T> callback) {
+		while (true) {
+			AtomicReference<T> reference = this.values.get(name);
+			if (reference == null) {
+				T value = callback.modify(null);
+				if (this.values.putIfAbsent(name,
+						new AtomicReference<T>(value)) == null) {
+					this.names.add(name);
+					return value;
+				}
+			}
+			else {
+				T current = reference.get();
+				T value = callback.modify(current);
+				if (reference.compareAndSet(current, value)
+						&& isCurrent(name, reference)) {
+					return value;
+				}
+			}
 		}
-		else {
-			this.values.putIfAbsent(name, value);
+	}
+
+	public void set(String name, T value) {
+		while (true) {
+			AtomicReference<T> reference = this.values.get(name);
+			if (reference == null) {
+				if (this.values.putIfAbsent(name,
+						new AtomicReference<T>(value)) == null) {
+					this.names.add(name);
+					return;
+				}
+			}
+			else {
+				reference.set(value);
+				if (isCurrent(name, reference)) {
+					return;
+				}
+			}
 		}
 	}
 
+	/**
+	 * Check that a reference is still held by the repository after it has been written.
+	 * A reference that was removed (or replaced) concurrently is orphaned, so the write
+	 * has to be repeated against the current state to avoid being lost.
+	 * @param name the name
+	 * @param reference the reference that was written
+	 * @return {@code true} if the reference is still current
+	 */
+	private boolean isCurrent(String name, AtomicReference<T> reference) {
+		return this.values.get(name) == reference;
+	}
+
 	public long count() {
 		return this.values.size();
 	}
 
 	public void remove(String name) {
-		this.values.remove(name);
+		if (this.values.remove(name) != null) {
+			this.names.remove(name);
+			if (this.values.containsKey(name)) {
+				// Re-added concurrently, make sure the name is still indexed
+				this.names.add(name);
+			}
+		}
 	}
 
 	public T findOne(String name) {
-		if (this.values.containsKey(name)) {
-			return this.values.get(name);
-		}
-		return null;
+		AtomicReference<T> reference = this.values.get(name);
+		return (reference == null ? null : reference.get());
 	}
 
 	public Iterable<T> findAll() {
-		return new ArrayList<T>(this.values.values());
+		return getValues(this.names);
 	}
 
 	public Iterable<T> findAllWithPrefix(String prefix) {
@@ -85,16 +160,43 @@ public class SimpleInMemoryRepository<T> {
 		if (!prefix.endsWith(".")) {
 			prefix = prefix + ".";
 		}
-		return new ArrayList<T>(
-				this.values.subMap(prefix, false, prefix + "~", true).values());
+		return getValues(this.names.subSet(prefix, false, prefix + "~", true));
 	}
 
+	private List<T> getValues(Iterable<String> names) {
+		List<T> result = new ArrayList<T>();
+		for (String name : names) {
+			T value = findOne(name);
+			if (value != null) {
+				result.add(value);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Replace the current values with the contents of the given map. The map is copied,
+	 * so later changes to it are not reflected in this repository.
+	 * @param values the values
+	 */
 	public void setValues(ConcurrentNavigableMap<String, T> values) {
-		this.values = values;
+		ConcurrentMap<String, AtomicReference<T>> references = new ConcurrentHashMap<String, AtomicReference<T>>();
+		for (Map.Entry<String, T> entry : values.entrySet()) {
+			references.put(entry.getKey(), new AtomicReference<T>(entry.getValue()));
+		}
+		this.names = new ConcurrentSkipListSet<String>(values.keySet());
+		this.values = references;
 	}
 
 	protected NavigableMap<String, T> getValues() {
-		return this.values;
+		NavigableMap<String, T> values = new ConcurrentSkipListMap<String, T>();
+		for (String name : this.names) {
+			T value = findOne(name);
+			if (value != null) {
+				values.put(name, value);
+			}
+		}
+		return values;
 	}
 
 	/**
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Background stage used by {@link WebRequestTraceFilter} to store traces without
+ * blocking request threads. Requests are sampled, captured as an immutable snapshot of
+ * their raw fields, and handed to a bounded queue. A single daemon thread drains the
+ * queue in batches, expands each snapshot into a trace and adds it to the
+ * {@link TraceRepository}. Snapshots that do not fit in the queue are dropped and
+ * counted. An {@link InMemoryTraceRepository} keeps the time that the request
+ * completed, other repositories record the time that the trace is written.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+public class AsyncTraceWriter {
+
+	private static final Log logger = LogFactory.getLog(AsyncTraceWriter.class);
+
+	private final TraceRepository repository;
+
+	private final BlockingQueue<WebRequestTraceSnapshot> queue;
+
+	private final int batchSize;
+
+	private int sampleRate = 1;
+
+	private boolean alwaysSampleErrors = true;
+
+	private final AtomicLong requests = new AtomicLong();
+
+	private final AtomicLong written = new AtomicLong();
+
+	private final AtomicLong dropped = new AtomicLong();
+
+	private final AtomicLong skipped = new AtomicLong();
+
+	private final Thread thread;
+
+	private volatile boolean running = true;
+
+	/**
+	 * Create a new {@link AsyncTraceWriter} instance.
+	 * @param repository the repository to write traces to
+	 * @param queueCapacity the maximum number of traces waiting to be written
+	 * @param batchSize the maximum number of traces written in one batch
+	 */
+	public AsyncTraceWriter(TraceRepository repository, int queueCapacity,
+			int batchSize) {
+		Assert.notNull(repository, "Repository must not be null");
+		Assert.isTrue(queueCapacity > 0, "QueueCapacity must be positive");
+		Assert.isTrue(batchSize > 0, "BatchSize must be positive");
+		this.repository = repository;
+		this.queue = new ArrayBlockingQueue<WebRequestTraceSnapshot>(queueCapacity);
+		this.batchSize = batchSize;
+		this.thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				process();
+			}
+
+		}, "trace-writer");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Set the sample rate so that only one in every {@code sampleRate} requests is
+	 * traced.
+	 * @param sampleRate the sample rate (default 1, i.e. trace every request)
+	 */
+	public void setSampleRate(int sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Set if requests that result in an error should always be traced, regardless of
+	 * the sample rate.
+	 * @param alwaysSampleErrors if errors should always be sampled (default true)
+	 */
+	public void setAlwaysSampleErrors(boolean alwaysSampleErrors) {
+		this.alwaysSampleErrors = alwaysSampleErrors;
+	}
+
+	boolean isAlwaysSampleErrors() {
+		return this.alwaysSampleErrors;
+	}
+
+	/**
+	 * Returns the number of traces written to the repository.
+	 * @return the number of traces written
+	 */
+	public long getWritten() {
+		return this.written.get();
+	}
+
+	/**
+	 * Returns the number of traces dropped because the queue was full (or the writer
+	 * was closed).
+	 * @return the number of traces dropped
+	 */
+	public long getDropped() {
+		return this.dropped.get();
+	}
+
+	/**
+	 * Returns the number of requests that were not traced because of sampling.
+	 * @return the number of requests skipped
+	 */
+	public long getSkipped() {
+		return this.skipped.get();
+	}
+
+	/**
+	 * Determine if the current request is sampled by the sample rate. Requests that
+	 * are not sampled can still be traced if they result in an error.
+	 * @return {@code true} if the request should be captured
+	 */
+	boolean isSampled() {
+		return (this.sampleRate <= 1
+				|| this.requests.getAndIncrement() % this.sampleRate == 0);
+	}
+
+	/**
+	 * Record that a request was not traced because of sampling.
+	 */
+	void skip() {
+		this.skipped.incrementAndGet();
+	}
+
+	void write(WebRequestTraceSnapshot snapshot) {
+		if (!this.running || !this.queue.offer(snapshot)) {
+			this.dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Stop the background thread, writing any traces that are still queued.
+	 */
+	public void close() {
+		this.running = false;
+		this.thread.interrupt();
+		try {
+			this.thread.join();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		List<WebRequestTraceSnapshot> batch = new ArrayList<WebRequestTraceSnapshot>();
+		this.queue.drainTo(batch);
+		writeBatch(batch);
+	}
+
+	private void process() {
+		List<WebRequestTraceSnapshot> batch = new ArrayList<WebRequestTraceSnapshot>(
+				this.batchSize);
+		while (this.running) {
+			try {
+				batch.add(this.queue.take());
+			}
+			catch (InterruptedException ex) {
+				return;
+			}
+			this.queue.drainTo(batch, this.batchSize - 1);
+			writeBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void writeBatch(List<WebRequestTraceSnapshot> batch) {
+		for (WebRequestTraceSnapshot snapshot : batch) {
+			try {
+				Trace trace = snapshot.toTrace();
+				if (this.repository instanceof InMemoryTraceRepository) {
+					((InMemoryTraceRepository) this.repository).add(trace);
+				}
+				else {
+					this.repository.add(trace.getInfo());
+				}
+				this.written.incrementAndGet();
+			}
+			catch (Exception ex) {
+				logger.warn("Unable to add trace to repository", ex);
+			}
+		}
+	}
+
+}
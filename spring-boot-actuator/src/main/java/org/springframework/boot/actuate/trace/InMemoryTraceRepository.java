@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,65 +19,118 @@ package org.springframework.boot.actuate.trace;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * In-memory implementation of {@link TraceRepository}.
+ * In-memory implementation of {@link TraceRepository}. Traces are stored in a
+ * pre-sized circular buffer so that adding a trace is a constant time operation that
+ * does not block (other writers or readers).
  *
  * @author Dave Syer
  * @author Olivier Bourgain
  */
 public class InMemoryTraceRepository implements TraceRepository {
 
-	private int capacity = 100;
+	private volatile boolean reverse = true;
 
-	private boolean reverse = true;
-
-	private final List<Trace> traces = new LinkedList<Trace>();
+	private volatile Ring ring = new Ring(100);
 
 	/**
 	 * Flag to say that the repository lists traces in reverse order.
 	 * @param reverse flag value (default true)
 	 */
 	public void setReverse(boolean reverse) {
-		synchronized (this.traces) {
-			this.reverse = reverse;
-		}
+		this.reverse = reverse;
 	}
 
 	/**
-	 * Set the capacity of the in-memory repository.
+	 * Set the capacity of the in-memory repository. Existing traces are retained (up to
+	 * the new capacity), but traces added concurrently with a capacity change may be
+	 * lost.
 	 * @param capacity the capacity
 	 */
-	public void setCapacity(int capacity) {
-		synchronized (this.traces) {
-			this.capacity = capacity;
+	public synchronized void setCapacity(int capacity) {
+		Ring ring = new Ring(capacity);
+		for (Trace trace : this.ring.getTraces(false)) {
+			ring.add(trace);
 		}
+		this.ring = ring;
 	}
 
 	@Override
 	public List<Trace> findAll() {
-		synchronized (this.traces) {
-			return Collections.unmodifiableList(new ArrayList<Trace>(this.traces));
-		}
+		return Collections.unmodifiableList(this.ring.getTraces(this.reverse));
 	}
 
 	@Override
 	public void add(Map<String, Object> map) {
-		Trace trace = new Trace(new Date(), map);
-		synchronized (this.traces) {
-			while (this.traces.size() >= this.capacity) {
-				this.traces.remove(this.reverse ? this.capacity - 1 : 0);
-			}
-			if (this.reverse) {
-				this.traces.add(0, trace);
+		this.ring.add(new Trace(new Date(), map));
+	}
+
+	/**
+	 * Add a {@link Trace} that has already been timestamped.
+	 * @param trace the trace
+	 * @since 1.4.0
+	 */
+	public void add(Trace trace) {
+		this.ring.add(trace);
+	}
+
+	/**
+	 * Fixed size circular buffer of traces. Writers claim a slot with a single atomic
+	 * increment of the sequence. Each slot records the sequence number it was written
+	 * with so that readers can skip slots that have not yet been written, or that have
+	 * already been overwritten, while they were reading.
+	 */
+	private static class Ring {
+
+		private final AtomicReferenceArray<Entry> entries;
+
+		private final AtomicLong sequence = new AtomicLong();
+
+		Ring(int capacity) {
+			this.entries = new AtomicReferenceArray<Entry>(Math.max(capacity, 0));
+		}
+
+		public void add(Trace trace) {
+			int capacity = this.entries.length();
+			if (capacity > 0) {
+				long sequence = this.sequence.getAndIncrement();
+				this.entries.set((int) (sequence % capacity), new Entry(sequence, trace));
 			}
-			else {
-				this.traces.add(trace);
+		}
+
+		public List<Trace> getTraces(boolean reverse) {
+			int capacity = this.entries.length();
+			long end = this.sequence.get();
+			long start = Math.max(0, end - capacity);
+			List<Trace> traces = new ArrayList<Trace>((int) (end - start));
+			for (long i = start; i < end; i++) {
+				long sequence = (reverse ? end - 1 - (i - start) : i);
+				Entry entry = this.entries.get((int) (sequence % capacity));
+				if (entry != null && entry.sequence == sequence) {
+					traces.add(entry.trace);
+				}
 			}
+			return traces;
 		}
+
+	}
+
+	private static class Entry {
+
+		private final long sequence;
+
+		private final Trace trace;
+
+		Entry(long sequence, Trace trace) {
+			this.sequence = sequence;
+			this.trace = trace;
+		}
+
 	}
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012-2015 the original author or authors.
+ * Copyright 2012-2016 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -48,6 +48,8 @@ public class TraceProperties {
 	 */
 	private Set<Include> include = new HashSet<Include>(DEFAULT_INCLUDES);
 
+	private final Async async = new Async();
+
 	public Set<Include> getInclude() {
 		return this.include;
 	}
@@ -56,6 +58,84 @@ public class TraceProperties {
 		this.include = include;
 	}
 
+	public Async getAsync() {
+		return this.async;
+	}
+
+	/**
+	 * Asynchronous trace capture properties.
+	 */
+	public static class Async {
+
+		/**
+		 * Capture a snapshot of each sampled request on the request thread and convert
+		 * and store it in the background.
+		 */
+		private boolean enabled;
+
+		/**
+		 * Maximum number of captured requests waiting to be stored. Further requests are
+		 * dropped until there is space again.
+		 */
+		private int queueCapacity = 1000;
+
+		/**
+		 * Maximum number of traces stored in a single batch.
+		 */
+		private int batchSize = 100;
+
+		/**
+		 * Trace one in every N requests.
+		 */
+		private int sampleRate = 1;
+
+		/**
+		 * Trace all requests that result in an error, regardless of the sample rate.
+		 */
+		private boolean alwaysSampleErrors = true;
+
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		public void setEnabled(boolean enabled) {
+			this.enabled = enabled;
+		}
+
+		public int getQueueCapacity() {
+			return this.queueCapacity;
+		}
+
+		public void setQueueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+		}
+
+		public int getBatchSize() {
+			return this.batchSize;
+		}
+
+		public void setBatchSize(int batchSize) {
+			this.batchSize = batchSize;
+		}
+
+		public int getSampleRate() {
+			return this.sampleRate;
+		}
+
+		public void setSampleRate(int sampleRate) {
+			this.sampleRate = sampleRate;
+		}
+
+		public boolean isAlwaysSampleErrors() {
+			return this.alwaysSampleErrors;
+		}
+
+		public void setAlwaysSampleErrors(boolean alwaysSampleErrors) {
+			this.alwaysSampleErrors = alwaysSampleErrors;
+		}
+
+	}
+
 	/**
 	 * Include options for tracing.
 	 */
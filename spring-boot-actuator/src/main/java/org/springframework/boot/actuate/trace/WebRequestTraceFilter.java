@@ -17,6 +17,7 @@
 package org.springframework.boot.actuate.trace;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.security.Principal;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -37,6 +38,7 @@ import org.apache.commons.logging.LogFactory;
 import org.springframework.boot.actuate.trace.TraceProperties.Include;
 import org.springframework.boot.autoconfigure.web.ErrorAttributes;
 import org.springframework.core.Ordered;
+import org.springframework.util.ReflectionUtils;
 import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -63,6 +65,10 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 
 	private final TraceProperties properties;
 
+	private AsyncTraceWriter traceWriter;
+
+	private final boolean extended;
+
 	/**
 	 * Create a new {@link WebRequestTraceFilter} instance.
 	 * @param repository the trace repository
@@ -71,6 +77,13 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 	public WebRequestTraceFilter(TraceRepository repository, TraceProperties properties) {
 		this.repository = repository;
 		this.properties = properties;
+		this.extended = isOverridden("getTrace", HttpServletRequest.class)
+				|| isOverridden("enhanceTrace", Map.class, HttpServletResponse.class);
+	}
+
+	private boolean isOverridden(String name, Class<?>... parameterTypes) {
+		Method method = ReflectionUtils.findMethod(getClass(), name, parameterTypes);
+		return method.getDeclaringClass() != WebRequestTraceFilter.class;
 	}
 
 	/**
@@ -91,10 +104,29 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		this.order = order;
 	}
 
+	/**
+	 * Set the {@link AsyncTraceWriter} to use. When set, the fields of each sampled
+	 * request and its response are copied into an immutable snapshot on the request
+	 * thread, and the snapshot is expanded into a trace and added to the repository in
+	 * the background. If {@link #getTrace(HttpServletRequest)} or
+	 * {@link #enhanceTrace(Map, HttpServletResponse)} are overridden they are called on
+	 * the request thread instead, since they may use any part of the request, and only
+	 * the repository write happens in the background.
+	 * @param traceWriter the trace writer
+	 * @since 1.4.0
+	 */
+	public void setTraceWriter(AsyncTraceWriter traceWriter) {
+		this.traceWriter = traceWriter;
+	}
+
 	@Override
 	protected void doFilterInternal(HttpServletRequest request,
 			HttpServletResponse response, FilterChain filterChain)
 					throws ServletException, IOException {
+		if (this.traceWriter != null) {
+			doFilterWithTraceWriter(request, response, filterChain);
+			return;
+		}
 		Map<String, Object> trace = getTrace(request);
 		logTrace(request, trace);
 		try {
@@ -106,6 +138,63 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		}
 	}
 
+	private void doFilterWithTraceWriter(HttpServletRequest request,
+			HttpServletResponse response, FilterChain filterChain)
+					throws ServletException, IOException {
+		boolean sampled = this.traceWriter.isSampled();
+		Map<String, Object> trace = null;
+		WebRequestTraceSnapshot snapshot = null;
+		if (sampled && this.extended) {
+			trace = getTrace(request);
+		}
+		else if (sampled) {
+			snapshot = capture(request);
+		}
+		logTrace(request, trace);
+		boolean completed = false;
+		try {
+			filterChain.doFilter(request, response);
+			completed = true;
+		}
+		finally {
+			boolean error = (!completed
+					|| request.getAttribute("javax.servlet.error.exception") != null
+					|| response.getStatus() >= 500);
+			if (sampled || (error && this.traceWriter.isAlwaysSampleErrors())) {
+				// Errors of requests that were not sampled are captured once they complete
+				if (this.extended) {
+					trace = (trace != null ? trace : getTrace(request));
+					enhanceTrace(trace, response);
+					this.traceWriter.write(WebRequestTraceSnapshot.expanded(trace));
+				}
+				else {
+					snapshot = (snapshot != null ? snapshot : capture(request));
+					this.traceWriter.write(snapshot.withResponse(response));
+				}
+			}
+			else {
+				this.traceWriter.skip();
+			}
+		}
+	}
+
+	private WebRequestTraceSnapshot capture(HttpServletRequest request) {
+		Throwable exception = (Throwable) request
+				.getAttribute("javax.servlet.error.exception");
+		return WebRequestTraceSnapshot.capture(request, this.properties.getInclude(),
+				getError(request, exception));
+	}
+
+	private Map<String, Object> getError(HttpServletRequest request,
+			Throwable exception) {
+		if (isIncluded(Include.ERRORS) && exception != null
+				&& this.errorAttributes != null) {
+			return this.errorAttributes
+					.getErrorAttributes(new ServletRequestAttributes(request), true);
+		}
+		return null;
+	}
+
 	protected Map<String, Object> getTrace(HttpServletRequest request) {
 		HttpSession session = request.getSession(false);
 		Throwable exception = (Throwable) request
@@ -134,15 +223,11 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		add(trace, Include.SESSION_ID, "sessionId",
 				(session == null ? null : session.getId()));
 		add(trace, Include.REMOTE_USER, "remoteUser", request.getRemoteUser());
-		if (isIncluded(Include.ERRORS) && exception != null
-				&& this.errorAttributes != null) {
-			trace.put("error", this.errorAttributes
-					.getErrorAttributes(new ServletRequestAttributes(request), true));
-		}
+		add(trace, Include.ERRORS, "error", getError(request, exception));
 		return trace;
 	}
 
-	private Map<String, Object> getRequestHeaders(HttpServletRequest request) {
+	static Map<String, Object> getRequestHeaders(HttpServletRequest request) {
 		Map<String, Object> headers = new LinkedHashMap<String, Object>();
 		Enumeration<String> names = request.getHeaderNames();
 		while (names.hasMoreElements()) {
@@ -168,7 +253,7 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 		}
 	}
 
-	private Map<String, String> getResponseHeaders(HttpServletResponse response) {
+	static Map<String, String> getResponseHeaders(HttpServletResponse response) {
 		Map<String, String> headers = new LinkedHashMap<String, String>();
 		for (String header : response.getHeaderNames()) {
 			String value = response.getHeader(header);
@@ -183,7 +268,8 @@ public class WebRequestTraceFilter extends OncePerRequestFilter implements Order
 			logger.trace("Processing request " + request.getMethod() + " "
 					+ request.getRequestURI());
 			if (this.dumpRequests) {
-				logger.trace("Headers: " + trace.get("headers"));
+				logger.trace("Headers: "
+						+ (trace != null ? trace : getTrace(request)).get("headers"));
 			}
 		}
 	}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.springframework.boot.actuate.trace.TraceProperties.Include;
+
+/**
+ * Immutable copy of the raw request and response fields that make up a trace. The
+ * request fields are captured on the request thread (the servlet request and response
+ * must not be used once the request completes) and the snapshot is expanded into the
+ * same {@link Trace} as {@link WebRequestTraceFilter} builds on the request thread,
+ * usually in the background. Only the included fields are copied.
+ *
+ * @author Dave Syer
+ */
+final class WebRequestTraceSnapshot {
+
+	private final long timestamp;
+
+	private final Set<Include> includes;
+
+	private final String method;
+
+	private final String path;
+
+	private final Map<String, Object> requestHeaders;
+
+	private final String pathInfo;
+
+	private final String pathTranslated;
+
+	private final String contextPath;
+
+	private final String userPrincipal;
+
+	private final Map<String, String[]> parameters;
+
+	private final String query;
+
+	private final String authType;
+
+	private final String remoteAddress;
+
+	private final String sessionId;
+
+	private final String remoteUser;
+
+	private final Map<String, Object> error;
+
+	private final Map<String, String> responseHeaders;
+
+	private final Map<String, Object> expanded;
+
+	private WebRequestTraceSnapshot(HttpServletRequest request, Set<Include> includes,
+			Map<String, Object> error) {
+		this.timestamp = 0;
+		this.includes = includes;
+		this.method = request.getMethod();
+		this.path = request.getRequestURI();
+		this.requestHeaders = (includes.contains(Include.REQUEST_HEADERS)
+				? WebRequestTraceFilter.getRequestHeaders(request) : null);
+		this.pathInfo = (includes.contains(Include.PATH_INFO) ? request.getPathInfo()
+				: null);
+		this.pathTranslated = (includes.contains(Include.PATH_TRANSLATED)
+				? request.getPathTranslated() : null);
+		this.contextPath = (includes.contains(Include.CONTEXT_PATH)
+				? request.getContextPath() : null);
+		this.userPrincipal = (includes.contains(Include.USER_PRINCIPAL)
+				? getUserPrincipal(request) : null);
+		this.parameters = (includes.contains(Include.PARAMETERS)
+				? Collections.unmodifiableMap(
+						new LinkedHashMap<String, String[]>(request.getParameterMap()))
+				: null);
+		this.query = (includes.contains(Include.QUERY_STRING) ? request.getQueryString()
+				: null);
+		this.authType = (includes.contains(Include.AUTH_TYPE) ? request.getAuthType()
+				: null);
+		this.remoteAddress = (includes.contains(Include.REMOTE_ADDRESS)
+				? request.getRemoteAddr() : null);
+		this.sessionId = (includes.contains(Include.SESSION_ID) ? getSessionId(request)
+				: null);
+		this.remoteUser = (includes.contains(Include.REMOTE_USER)
+				? request.getRemoteUser() : null);
+		this.error = error;
+		this.responseHeaders = null;
+		this.expanded = null;
+	}
+
+	private WebRequestTraceSnapshot(WebRequestTraceSnapshot request,
+			HttpServletResponse response) {
+		this.timestamp = System.currentTimeMillis();
+		this.includes = request.includes;
+		this.method = request.method;
+		this.path = request.path;
+		this.requestHeaders = request.requestHeaders;
+		this.pathInfo = request.pathInfo;
+		this.pathTranslated = request.pathTranslated;
+		this.contextPath = request.contextPath;
+		this.userPrincipal = request.userPrincipal;
+		this.parameters = request.parameters;
+		this.query = request.query;
+		this.authType = request.authType;
+		this.remoteAddress = request.remoteAddress;
+		this.sessionId = request.sessionId;
+		this.remoteUser = request.remoteUser;
+		this.error = request.error;
+		this.responseHeaders = (this.includes.contains(Include.RESPONSE_HEADERS)
+				? WebRequestTraceFilter.getResponseHeaders(response) : null);
+		this.expanded = null;
+	}
+
+	private WebRequestTraceSnapshot(Map<String, Object> expanded) {
+		this.timestamp = System.currentTimeMillis();
+		this.includes = null;
+		this.method = null;
+		this.path = null;
+		this.requestHeaders = null;
+		this.pathInfo = null;
+		this.pathTranslated = null;
+		this.contextPath = null;
+		this.userPrincipal = null;
+		this.parameters = null;
+		this.query = null;
+		this.authType = null;
+		this.remoteAddress = null;
+		this.sessionId = null;
+		this.remoteUser = null;
+		this.error = null;
+		this.responseHeaders = null;
+		this.expanded = expanded;
+	}
+
+	private String getUserPrincipal(HttpServletRequest request) {
+		Principal principal = request.getUserPrincipal();
+		return (principal == null ? null : principal.getName());
+	}
+
+	private String getSessionId(HttpServletRequest request) {
+		HttpSession session = request.getSession(false);
+		return (session == null ? null : session.getId());
+	}
+
+	/**
+	 * Return a snapshot that also contains the fields of the given (completed)
+	 * response, timestamped now.
+	 * @param response the response
+	 * @return the completed snapshot
+	 */
+	public WebRequestTraceSnapshot withResponse(HttpServletResponse response) {
+		return new WebRequestTraceSnapshot(this, response);
+	}
+
+	/**
+	 * Expand the snapshot into a {@link Trace}, with the same content as
+	 * {@link WebRequestTraceFilter#getTrace(HttpServletRequest)} and
+	 * {@link WebRequestTraceFilter#enhanceTrace(Map, HttpServletResponse)} produce.
+	 * @return the trace
+	 */
+	public Trace toTrace() {
+		if (this.expanded != null) {
+			return new Trace(new Date(this.timestamp), this.expanded);
+		}
+		Map<String, Object> trace = new LinkedHashMap<String, Object>();
+		Map<String, Object> headers = new LinkedHashMap<String, Object>();
+		trace.put("method", this.method);
+		trace.put("path", this.path);
+		trace.put("headers", headers);
+		if (this.requestHeaders != null) {
+			headers.put("request", this.requestHeaders);
+		}
+		add(trace, "pathInfo", this.pathInfo);
+		add(trace, "pathTranslated", this.pathTranslated);
+		add(trace, "contextPath", this.contextPath);
+		add(trace, "userPrincipal", this.userPrincipal);
+		add(trace, "parameters", this.parameters);
+		add(trace, "query", this.query);
+		add(trace, "authType", this.authType);
+		add(trace, "remoteAddress", this.remoteAddress);
+		add(trace, "sessionId", this.sessionId);
+		add(trace, "remoteUser", this.remoteUser);
+		add(trace, "error", this.error);
+		if (this.responseHeaders != null) {
+			headers.put("response", this.responseHeaders);
+		}
+		return new Trace(new Date(this.timestamp), trace);
+	}
+
+	private void add(Map<String, Object> trace, String name, Object value) {
+		if (value != null) {
+			trace.put(name, value);
+		}
+	}
+
+	/**
+	 * Capture the included fields of the given request.
+	 * @param request the request
+	 * @param includes the items to include
+	 * @param error the error attributes to include or {@code null}
+	 * @return a snapshot that is completed with {@link #withResponse}
+	 */
+	public static WebRequestTraceSnapshot capture(HttpServletRequest request,
+			Set<Include> includes, Map<String, Object> error) {
+		return new WebRequestTraceSnapshot(request, includes, error);
+	}
+
+	/**
+	 * Wrap a trace that has already been built on the request thread, timestamped now.
+	 * @param trace the trace
+	 * @return the snapshot
+	 */
+	public static WebRequestTraceSnapshot expanded(Map<String, Object> trace) {
+		return new WebRequestTraceSnapshot(trace);
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.audit;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PartitionedAuditEventRepository}.
+ *
+ * @author Dave Syer
+ */
+public class PartitionedAuditEventRepositoryTests {
+
+	@Test
+	public void lessThanCapacity() throws Exception {
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository();
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("dave", "b"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("a");
+		assertThat(events.get(1).getType()).isEqualTo("b");
+	}
+
+	@Test
+	public void capacity() throws Exception {
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository(
+				2);
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("dave", "b"));
+		repository.add(new AuditEvent("dave", "c"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("b");
+		assertThat(events.get(1).getType()).isEqualTo("c");
+	}
+
+	@Test
+	public void capacityEvictsOldestBucketFirst() throws Exception {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2000, 1, 1, 0, 0, 0);
+		Map<String, Object> data = new HashMap<String, Object>();
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository(
+				2, 1000);
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "a", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "phil", "b", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "c", data));
+		assertThat(repository.find("dave", null)).extracting("type")
+				.containsExactly("c");
+		assertThat(repository.find(null, null)).extracting("type").containsExactly("b",
+				"c");
+	}
+
+	@Test
+	public void findByPrincipal() throws Exception {
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository();
+		repository.add(new AuditEvent("dave", "a"));
+		repository.add(new AuditEvent("phil", "b"));
+		repository.add(new AuditEvent("dave", "c"));
+		repository.add(new AuditEvent("phil", "d"));
+		List<AuditEvent> events = repository.find("dave", null);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("a");
+		assertThat(events.get(1).getType()).isEqualTo("c");
+		assertThat(repository.find("andy", null)).isEmpty();
+	}
+
+	@Test
+	public void findByDate() throws Exception {
+		Calendar calendar = Calendar.getInstance();
+		calendar.set(2000, 1, 1, 0, 0, 0);
+		calendar.set(Calendar.MILLISECOND, 0);
+		Map<String, Object> data = new HashMap<String, Object>();
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository();
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "a", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "phil", "b", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		Date after = calendar.getTime();
+		repository.add(new AuditEvent(calendar.getTime(), "dave", "c", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		repository.add(new AuditEvent(calendar.getTime(), "phil", "d", data));
+		calendar.add(Calendar.DAY_OF_YEAR, 1);
+		List<AuditEvent> events = repository.find(null, after);
+		assertThat(events.size()).isEqualTo(2);
+		assertThat(events.get(0).getType()).isEqualTo("c");
+		assertThat(events.get(1).getType()).isEqualTo("d");
+		events = repository.find("dave", after);
+		assertThat(events.size()).isEqualTo(1);
+		assertThat(events.get(0).getType()).isEqualTo("c");
+	}
+
+	@Test
+	public void findWithinBucketFiltersByDate() throws Exception {
+		Map<String, Object> data = new HashMap<String, Object>();
+		PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository(
+				10, 60000);
+		repository.add(new AuditEvent(new Date(1000), "dave", "a", data));
+		repository.add(new AuditEvent(new Date(2000), "dave", "b", data));
+		assertThat(repository.find("dave", new Date(1500))).extracting("type")
+				.containsExactly("b");
+	}
+
+	@Test
+	public void concurrentAdd() throws Exception {
+		final PartitionedAuditEventRepository repository = new PartitionedAuditEventRepository(
+				1000);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < 8; i++) {
+			final String principal = "user" + i;
+			futures.add(executor.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						repository.add(new AuditEvent(principal, "login"));
+					}
+				}
+
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(repository.find(null, null)).hasSize(1000);
+	}
+
+}
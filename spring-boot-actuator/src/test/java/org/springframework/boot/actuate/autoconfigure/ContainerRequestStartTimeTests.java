@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.autoconfigure;
+
+import javax.servlet.http.HttpServletRequestWrapper;
+
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.RequestFacade;
+import org.junit.Test;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ContainerRequestStartTime}.
+ *
+ * @author Dave Syer
+ */
+public class ContainerRequestStartTimeTests {
+
+	private final ContainerRequestStartTime startTime = new ContainerRequestStartTime();
+
+	@Test
+	public void tomcat() throws Exception {
+		org.apache.coyote.Request coyoteRequest = new org.apache.coyote.Request();
+		coyoteRequest.setStartTime(System.currentTimeMillis() - 100);
+		Request request = new Request();
+		request.setCoyoteRequest(coyoteRequest);
+		assertThat(this.startTime.getQueueTime(new RequestFacade(request)))
+				.isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	public void jetty() throws Exception {
+		org.eclipse.jetty.server.Request request = new org.eclipse.jetty.server.Request(
+				null, null);
+		request.setTimeStamp(System.currentTimeMillis() - 100);
+		assertThat(this.startTime.getQueueTime(request)).isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	public void wrappedRequest() throws Exception {
+		org.eclipse.jetty.server.Request request = new org.eclipse.jetty.server.Request(
+				null, null);
+		request.setTimeStamp(System.currentTimeMillis() - 100);
+		assertThat(this.startTime.getQueueTime(new HttpServletRequestWrapper(request)))
+				.isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	public void startTimeNotSet() throws Exception {
+		assertThat(this.startTime.getQueueTime(new RequestFacade(new Request())))
+				.isEqualTo(-1);
+	}
+
+	@Test
+	public void unsupportedRequest() throws Exception {
+		assertThat(this.startTime.getQueueTime(new MockHttpServletRequest()))
+				.isEqualTo(-1);
+	}
+
+}
@@ -40,6 +40,7 @@ import org.springframework.boot.actuate.endpoint.RequestMappingEndpoint;
 import org.springframework.boot.actuate.endpoint.ShutdownEndpoint;
 import org.springframework.boot.actuate.endpoint.TraceEndpoint;
 import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.actuate.info.Info;
 import org.springframework.boot.actuate.info.InfoContributor;
 import org.springframework.boot.actuate.metrics.Metric;
@@ -118,6 +119,25 @@ public class EndpointAutoConfigurationTests {
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	public void healthEndpointWithBackgroundRefresh() {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"endpoints.health.background-refresh:true");
+		this.context.register(EndpointAutoConfiguration.class,
+				HealthIndicatorAutoConfiguration.class);
+		this.context.refresh();
+		ScheduledCompositeHealthIndicator scheduled = this.context
+				.getBean(ScheduledCompositeHealthIndicator.class);
+		assertThat(scheduled.isRunning()).isTrue();
+		scheduled.refresh();
+		HealthEndpoint endpoint = this.context.getBean(HealthEndpoint.class);
+		assertThat(endpoint.invoke().getDetails()).containsKeys("diskSpace", "age");
+		assertThat(scheduled.getTimestamp()).isGreaterThan(0);
+		this.context.close();
+		assertThat(scheduled.isRunning()).isFalse();
+	}
+
 	@Test
 	public void metricEndpointsHasSystemMetricsByDefault() {
 		load(PublicMetricsAutoConfiguration.class, EndpointAutoConfiguration.class);
@@ -51,6 +51,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.MappedInterceptor;
 import org.springframework.web.util.NestedServletException;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -58,12 +60,16 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.fail;
+import static org.mockito.AdditionalMatchers.geq;
 import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyDouble;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
@@ -235,7 +241,7 @@ public class MetricFilterAutoConfigurationTests {
 		MockMvc mvc = MockMvcBuilders
 				.standaloneSetup(new MetricFilterTestController(latch)).addFilter(filter)
 				.build();
-		String attributeName = MetricsFilter.class.getName() + ".StopWatch";
+		String attributeName = MetricsFilter.class.getName() + ".StartTime";
 		MvcResult result = mvc.perform(post("/create")).andExpect(status().isOk())
 				.andExpect(request().asyncStarted())
 				.andExpect(request().attribute(attributeName, is(notNullValue())))
@@ -257,7 +263,7 @@ public class MetricFilterAutoConfigurationTests {
 		MockMvc mvc = MockMvcBuilders
 				.standaloneSetup(new MetricFilterTestController(latch)).addFilter(filter)
 				.build();
-		String attributeName = MetricsFilter.class.getName() + ".StopWatch";
+		String attributeName = MetricsFilter.class.getName() + ".StartTime";
 		MvcResult result = mvc.perform(post("/createFailure")).andExpect(status().isOk())
 				.andExpect(request().asyncStarted())
 				.andExpect(request().attribute(attributeName, is(notNullValue())))
@@ -295,6 +301,125 @@ public class MetricFilterAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void recordsActiveRequests() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		MetricsFilter filter = context.getBean(MetricsFilter.class);
+		MockMvc mvc = MockMvcBuilders.standaloneSetup(new MetricFilterTestController())
+				.addFilter(filter).addInterceptors(filter.getHandlerInterceptor())
+				.build();
+		mvc.perform(get("/templateVarTest/foo")).andExpect(status().isOk());
+		GaugeService gaugeService = context.getBean(GaugeService.class);
+		verify(gaugeService, atLeastOnce()).submit("requests.active", 0.0);
+		verify(gaugeService, atLeastOnce()).submit("requests.active.peak", 1.0);
+		verify(gaugeService, atLeastOnce())
+				.submit("active.templateVarTest.someVariable", 0.0);
+		context.close();
+	}
+
+	@Test
+	public void recordsPeakActiveRequests() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		final Filter filter = context.getBean(Filter.class);
+		final MockHttpServletRequest inner = new MockHttpServletRequest("GET",
+				"/test/inner");
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = mock(FilterChain.class);
+		willAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				filter.doFilter(inner, response, mock(FilterChain.class));
+				return null;
+			}
+		}).given(chain).doFilter(any(HttpServletRequest.class), eq(response));
+		filter.doFilter(new MockHttpServletRequest("GET", "/test/outer"), response,
+				chain);
+		filter.doFilter(new MockHttpServletRequest("GET", "/test/outer"), response,
+				mock(FilterChain.class));
+		GaugeService gaugeService = context.getBean(GaugeService.class);
+		verify(gaugeService, atLeastOnce()).submit("requests.active", 0.0);
+		verify(gaugeService, atLeastOnce()).submit("requests.active.peak", 2.0);
+		context.close();
+	}
+
+	@Test
+	public void countsActiveRequestsBeyondPatternLimitTogether() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		final MetricsFilter filter = context.getBean(MetricsFilter.class);
+		FilterChain chain = mock(FilterChain.class);
+		willAnswer(new Answer<Object>() {
+			@Override
+			public Object answer(InvocationOnMock invocation) throws Throwable {
+				filter.getHandlerInterceptor().preHandle(
+						(HttpServletRequest) invocation.getArguments()[0],
+						(HttpServletResponse) invocation.getArguments()[1], null);
+				return null;
+			}
+		}).given(chain).doFilter(any(HttpServletRequest.class),
+				any(HttpServletResponse.class));
+		for (int i = 0; i < 1000; i++) {
+			filter.doFilter(getMappedRequest("/pattern" + i),
+					new MockHttpServletResponse(), chain);
+		}
+		filter.doFilter(getMappedRequest("/extra"), new MockHttpServletResponse(),
+				chain);
+		GaugeService gaugeService = context.getBean(GaugeService.class);
+		verify(gaugeService).submit("active.overflow", 1.0);
+		verify(gaugeService).submit("active.overflow", 0.0);
+		verify(gaugeService, never()).submit(eq("active.extra"), anyDouble());
+		context.close();
+	}
+
+	@Test
+	public void recordsQueueTime() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context,
+				"endpoints.metrics.filter.queue-time:true");
+		context.register(Config.class, MetricFilterAutoConfiguration.class);
+		context.refresh();
+		Filter filter = context.getBean(Filter.class);
+		TimeStampedRequest request = new TimeStampedRequest("/test/path",
+				System.currentTimeMillis() - 100);
+		filter.doFilter(request, new MockHttpServletResponse(),
+				mock(FilterChain.class));
+		verify(context.getBean(GaugeService.class)).submit(eq("queue.test.path"),
+				geq(100.0));
+		context.close();
+	}
+
+	@Test
+	public void doesNotRecordQueueTimeByDefault() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		Filter filter = context.getBean(Filter.class);
+		TimeStampedRequest request = new TimeStampedRequest("/test/path",
+				System.currentTimeMillis() - 100);
+		filter.doFilter(request, new MockHttpServletResponse(),
+				mock(FilterChain.class));
+		verify(context.getBean(GaugeService.class), never())
+				.submit(eq("queue.test.path"), anyDouble());
+		context.close();
+	}
+
+	@Test
+	public void registersHandlerInterceptor() throws Exception {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				Config.class, MetricFilterAutoConfiguration.class);
+		MappedInterceptor interceptor = context.getBean(MappedInterceptor.class);
+		assertThat(interceptor.getInterceptor()).isSameAs(
+				context.getBean(MetricsFilter.class).getHandlerInterceptor());
+		context.close();
+	}
+
+	private MockHttpServletRequest getMappedRequest(String pattern) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+		return request;
+	}
+
 	@Configuration
 	public static class Config {
 
@@ -379,6 +504,24 @@ public class MetricFilterAutoConfigurationTests {
 
 	}
 
+	/**
+	 * Request that exposes its start time in the same way as Jetty.
+	 */
+	public static class TimeStampedRequest extends MockHttpServletRequest {
+
+		private final long timeStamp;
+
+		TimeStampedRequest(String requestUri, long timeStamp) {
+			super("GET", requestUri);
+			this.timeStamp = timeStamp;
+		}
+
+		public long getTimeStamp() {
+			return this.timeStamp;
+		}
+
+	}
+
 	@Component
 	@Order(0)
 	public static class RedirectFilter extends OncePerRequestFilter {
@@ -18,6 +18,9 @@ package org.springframework.boot.actuate.autoconfigure;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Timer;
 import org.junit.After;
 import org.junit.Test;
 
@@ -25,10 +28,13 @@ import org.springframework.boot.actuate.metrics.CounterService;
 import org.springframework.boot.actuate.metrics.GaugeService;
 import org.springframework.boot.actuate.metrics.buffer.BufferCounterService;
 import org.springframework.boot.actuate.metrics.buffer.BufferGaugeService;
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
 import org.springframework.boot.actuate.metrics.dropwizard.DropwizardMetricServices;
+import org.springframework.boot.actuate.metrics.dropwizard.ReservoirFactory;
 import org.springframework.boot.actuate.metrics.reader.MetricReader;
 import org.springframework.boot.actuate.metrics.reader.PrefixMetricReader;
 import org.springframework.boot.autoconfigure.aop.AopAutoConfiguration;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -66,6 +72,43 @@ public class MetricRepositoryAutoConfigurationTests {
 		assertThat(bean.findOne("gauge.foo").getValue()).isEqualTo(2.7);
 	}
 
+	@Test
+	public void histogramsDisabledByDefault() throws Exception {
+		this.context = new AnnotationConfigApplicationContext(
+				MetricRepositoryAutoConfiguration.class);
+		assertThat(this.context.getBeansOfType(HistogramBuffers.class)).isEmpty();
+		this.context.getBean(GaugeService.class).submit("response.foo", 12);
+		MetricReader reader = this.context.getBean(MetricReader.class);
+		assertThat(reader.findOne("gauge.response.foo.p99")).isNull();
+	}
+
+	@Test
+	public void histogramsEnabled() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.metrics.histogram.enabled:true");
+		this.context.register(MetricRepositoryAutoConfiguration.class);
+		this.context.refresh();
+		this.context.getBean(GaugeService.class).submit("response.foo", 12);
+		this.context.getBean(HistogramBuffers.class).export();
+		MetricReader reader = this.context.getBean(MetricReader.class);
+		assertThat(reader.findOne("gauge.response.foo.p99").getValue()).isEqualTo(12L);
+	}
+
+	@Test
+	public void histogramsRollOverOnReadWithoutExport() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.metrics.histogram.enabled:true",
+				"spring.metrics.histogram.rollover-millis:10");
+		this.context.register(MetricRepositoryAutoConfiguration.class);
+		this.context.refresh();
+		this.context.getBean(GaugeService.class).submit("response.foo", 12);
+		Thread.sleep(50);
+		MetricReader reader = this.context.getBean(MetricReader.class);
+		assertThat(reader.findOne("gauge.response.foo.p99").getValue()).isEqualTo(12L);
+	}
+
 	@Test
 	public void dropwizardInstalledIfPresent() {
 		this.context = new AnnotationConfigApplicationContext(
@@ -83,6 +126,35 @@ public class MetricRepositoryAutoConfigurationTests {
 		assertThat(gauge.getValue()).isEqualTo(new Double(2.7));
 	}
 
+	@Test
+	public void dropwizardTimerPrefixes() {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.metrics.dropwizard.timer-prefixes:gauge.response.");
+		this.context.register(MetricsDropwizardAutoConfiguration.class,
+				MetricRepositoryAutoConfiguration.class, AopAutoConfiguration.class);
+		this.context.refresh();
+		this.context.getBean(GaugeService.class).submit("response.foo", 100);
+		MetricRegistry registry = this.context.getBean(MetricRegistry.class);
+		assertThat(registry.getGauges()).doesNotContainKey("gauge.response.foo");
+		assertThat(registry.getTimers().get("timer.response.foo").getCount())
+				.isEqualTo(1);
+	}
+
+	@Test
+	public void dropwizardCustomReservoir() {
+		this.context = new AnnotationConfigApplicationContext(ReservoirConfig.class,
+				MetricsDropwizardAutoConfiguration.class,
+				MetricRepositoryAutoConfiguration.class, AopAutoConfiguration.class);
+		GaugeService gaugeService = this.context.getBean(GaugeService.class);
+		gaugeService.submit("timer.foo", 100);
+		gaugeService.submit("timer.foo", 200);
+		MetricRegistry registry = this.context.getBean(MetricRegistry.class);
+		Timer timer = (Timer) registry.getMetrics().get("timer.foo");
+		assertThat(timer.getCount()).isEqualTo(2);
+		assertThat(timer.getSnapshot().size()).isEqualTo(1);
+	}
+
 	@Test
 	public void skipsIfBeansExist() throws Exception {
 		this.context = new AnnotationConfigApplicationContext(Config.class,
@@ -91,6 +163,23 @@ public class MetricRepositoryAutoConfigurationTests {
 		assertThat(this.context.getBeansOfType(BufferCounterService.class)).isEmpty();
 	}
 
+	@Configuration
+	public static class ReservoirConfig {
+
+		@Bean
+		public ReservoirFactory reservoirFactory() {
+			return new ReservoirFactory() {
+
+				@Override
+				public Reservoir getReservoir(String name) {
+					return new SlidingWindowReservoir(1);
+				}
+
+			};
+		}
+
+	}
+
 	@Configuration
 	public static class Config {
 
@@ -32,6 +32,7 @@ import org.junit.Test;
 
 import org.springframework.boot.actuate.endpoint.CachePublicMetrics;
 import org.springframework.boot.actuate.endpoint.DataSourcePublicMetrics;
+import org.springframework.boot.actuate.endpoint.MemoryPublicMetrics;
 import org.springframework.boot.actuate.endpoint.MetricReaderPublicMetrics;
 import org.springframework.boot.actuate.endpoint.PublicMetrics;
 import org.springframework.boot.actuate.endpoint.RichGaugeReaderPublicMetrics;
@@ -46,6 +47,7 @@ import org.springframework.boot.autoconfigure.jdbc.metadata.DataSourcePoolMetada
 import org.springframework.boot.context.embedded.AnnotationConfigEmbeddedWebApplicationContext;
 import org.springframework.boot.context.embedded.MockEmbeddedServletContainerFactory;
 import org.springframework.boot.context.embedded.tomcat.TomcatEmbeddedServletContainerFactory;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.context.ConfigurableApplicationContext;
@@ -88,6 +90,23 @@ public class PublicMetricsAutoConfigurationTests {
 		assertThat(this.context.getBeansOfType(SystemPublicMetrics.class)).hasSize(1);
 	}
 
+	@Test
+	public void memoryPublicMetricsDisabledByDefault() throws Exception {
+		load();
+		assertThat(this.context.getBeansOfType(MemoryPublicMetrics.class)).isEmpty();
+	}
+
+	@Test
+	public void memoryPublicMetrics() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"spring.metrics.memory.enabled:true");
+		((AnnotationConfigApplicationContext) this.context)
+				.register(PublicMetricsAutoConfiguration.class);
+		this.context.refresh();
+		assertThat(this.context.getBeansOfType(MemoryPublicMetrics.class)).hasSize(1);
+	}
+
 	@Test
 	public void metricReaderPublicMetrics() throws Exception {
 		load();
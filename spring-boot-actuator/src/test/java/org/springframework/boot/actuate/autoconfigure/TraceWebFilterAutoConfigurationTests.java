@@ -18,9 +18,13 @@ package org.springframework.boot.actuate.autoconfigure;
 
 import org.junit.Test;
 
+import org.springframework.boot.actuate.endpoint.TracePublicMetrics;
+import org.springframework.boot.actuate.trace.AsyncTraceWriter;
 import org.springframework.boot.actuate.trace.WebRequestTraceFilter;
 import org.springframework.boot.autoconfigure.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -41,4 +45,36 @@ public class TraceWebFilterAutoConfigurationTests {
 		context.close();
 	}
 
+	@Test
+	public void asyncTraceWriterNotConfiguredByDefault() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+				PropertyPlaceholderAutoConfiguration.class,
+				TraceRepositoryAutoConfiguration.class,
+				TraceWebFilterAutoConfiguration.class);
+		assertThat(context.getBeansOfType(AsyncTraceWriter.class)).isEmpty();
+		assertThat(ReflectionTestUtils.getField(
+				context.getBean(WebRequestTraceFilter.class), "traceWriter")).isNull();
+		context.close();
+	}
+
+	@Test
+	public void configureAsyncTraceWriter() {
+		AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(context,
+				"management.trace.async.enabled:true",
+				"management.trace.async.sample-rate:10");
+		context.register(PropertyPlaceholderAutoConfiguration.class,
+				TraceRepositoryAutoConfiguration.class,
+				TraceWebFilterAutoConfiguration.class);
+		context.refresh();
+		AsyncTraceWriter traceWriter = context.getBean(AsyncTraceWriter.class);
+		assertThat(ReflectionTestUtils.getField(traceWriter, "sampleRate"))
+				.isEqualTo(10);
+		assertThat(ReflectionTestUtils.getField(
+				context.getBean(WebRequestTraceFilter.class), "traceWriter"))
+						.isSameAs(traceWriter);
+		assertThat(context.getBeansOfType(TracePublicMetrics.class)).hasSize(1);
+		context.close();
+	}
+
 }
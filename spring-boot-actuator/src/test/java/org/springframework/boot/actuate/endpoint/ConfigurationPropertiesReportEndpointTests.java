@@ -27,6 +27,7 @@ import org.springframework.boot.test.util.EnvironmentTestUtils;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -98,6 +99,56 @@ public class ConfigurationPropertiesReportEndpointTests
 		assertThat(nestedProperties.get("myTestProperty")).isEqualTo("654321");
 	}
 
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportIsCachedUntilCleared() throws Exception {
+		ConfigurationPropertiesReportEndpoint report = getEndpointBean();
+		Map<String, Object> properties = (Map<String, Object>) ((Map<String, Object>) report
+				.invoke().get("testProperties")).get("properties");
+		this.context.getBean(TestProperties.class).setMyTestProperty("rebound");
+		assertThat(((Map<String, Object>) report.invoke().get("testProperties"))
+				.get("properties")).isSameAs(properties);
+		report.clearCache();
+		Map<String, Object> rebound = (Map<String, Object>) ((Map<String, Object>) report
+				.invoke().get("testProperties")).get("properties");
+		assertThat(rebound).isNotSameAs(properties);
+		assertThat(rebound.get("myTestProperty")).isEqualTo("rebound");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportIsClearedWhenContextIsRefreshed() throws Exception {
+		ConfigurationPropertiesReportEndpoint report = getEndpointBean();
+		report.invoke();
+		this.context.getBean(TestProperties.class).setMyTestProperty("rebound");
+		this.context.publishEvent(new ContextRefreshedEvent(this.context));
+		Map<String, Object> properties = (Map<String, Object>) ((Map<String, Object>) report
+				.invoke().get("testProperties")).get("properties");
+		assertThat(properties.get("myTestProperty")).isEqualTo("rebound");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void reportIsClearedWhenBeanIsRebound() throws Exception {
+		ConfigurationPropertiesReportEndpoint report = getEndpointBean();
+		report.invoke();
+		TestProperties bean = this.context.getBean(TestProperties.class);
+		bean.setMyTestProperty("rebound");
+		this.context.getAutowireCapableBeanFactory().initializeBean(bean,
+				"testProperties");
+		Map<String, Object> properties = (Map<String, Object>) ((Map<String, Object>) report
+				.invoke().get("testProperties")).get("properties");
+		assertThat(properties.get("myTestProperty")).isEqualTo("rebound");
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	@SuppressWarnings("unchecked")
+	public void reportCannotBeModified() throws Exception {
+		Map<String, Object> properties = (Map<String, Object>) ((Map<String, Object>) getEndpointBean()
+				.invoke().get("testProperties")).get("properties");
+		properties.put("myTestProperty", "changed");
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testKeySanitizationWithCustomKeysByEnvironment() throws Exception {
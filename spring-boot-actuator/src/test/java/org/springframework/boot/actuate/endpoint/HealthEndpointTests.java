@@ -16,6 +16,7 @@
 
 package org.springframework.boot.actuate.endpoint;
 
+import java.util.Collections;
 import java.util.Map;
 
 import org.junit.Test;
@@ -24,8 +25,11 @@ import org.springframework.boot.actuate.health.Health;
 import org.springframework.boot.actuate.health.HealthAggregator;
 import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.boot.actuate.health.OrderedHealthAggregator;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Status;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.util.EnvironmentTestUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -49,6 +53,34 @@ public class HealthEndpointTests extends AbstractEndpointTests<HealthEndpoint> {
 		assertThat(getEndpointBean().invoke().getStatus()).isEqualTo(Status.UNKNOWN);
 	}
 
+	@Test
+	public void invokeReturnsScheduledSnapshot() throws Exception {
+		HealthIndicator statusHealthIndicator = new Config().statusHealthIndicator();
+		HealthEndpoint endpoint = new HealthEndpoint(new OrderedHealthAggregator(),
+				Collections.<String, HealthIndicator>singletonMap("status",
+						statusHealthIndicator));
+		ScheduledCompositeHealthIndicator scheduled = new ScheduledCompositeHealthIndicator(
+				new OrderedHealthAggregator());
+		endpoint.setScheduledHealthIndicator(scheduled);
+		endpoint.afterPropertiesSet();
+		scheduled.refresh();
+		assertThat(endpoint.invoke().getDetails()).containsKeys("status", "age");
+		assertThat(scheduled.getTimestamp()).isGreaterThan(0);
+	}
+
+	@Test
+	public void indicatorTimeToLiveIsBound() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		EnvironmentTestUtils.addEnvironment(this.context,
+				"endpoints.health.time-to-live:2000",
+				"endpoints.health.indicator-time-to-live.status:5000");
+		this.context.register(Config.class);
+		this.context.refresh();
+		HealthEndpoint endpoint = getEndpointBean();
+		assertThat(endpoint.getTimeToLive()).isEqualTo(2000);
+		assertThat(endpoint.getIndicatorTimeToLive()).containsEntry("status", 5000L);
+	}
+
 	@Configuration
 	@EnableConfigurationProperties
 	public static class Config {
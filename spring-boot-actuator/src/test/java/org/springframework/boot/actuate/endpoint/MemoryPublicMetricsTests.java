@@ -0,0 +1,117 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.Metric;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MemoryPublicMetrics}.
+ *
+ * @author Dave Syer
+ */
+public class MemoryPublicMetricsTests {
+
+	private final MemoryPublicMetrics publicMetrics = new MemoryPublicMetrics();
+
+	@After
+	public void destroy() {
+		this.publicMetrics.destroy();
+	}
+
+	@Test
+	public void metrics() throws Exception {
+		Map<String, Metric<?>> results = getMetrics();
+		assertThat(results).containsKeys("gc.interval", "gc.collections",
+				"gc.collections.time", "gc.collections.max", "gc.promoted",
+				"buffers.direct.count", "buffers.direct.used",
+				"buffers.direct.capacity");
+	}
+
+	@Test
+	public void metricsAreReportedForLastInterval() throws Exception {
+		this.publicMetrics.setInterval(60000);
+		Map<String, Metric<?>> first = getMetrics();
+		System.gc();
+		Thread.sleep(100);
+		assertThat(getMetrics().get("gc.collections").getValue())
+				.isEqualTo(first.get("gc.collections").getValue());
+	}
+
+	@Test
+	public void garbageCollectionIsRecorded() throws Exception {
+		this.publicMetrics.setInterval(0);
+		getMetrics();
+		System.gc();
+		long collections = 0;
+		for (int i = 0; i < 50 && collections == 0; i++) {
+			Thread.sleep(20);
+			collections += getMetrics().get("gc.collections").getValue().longValue();
+		}
+		assertThat(collections).isGreaterThan(0);
+	}
+
+	@Test
+	public void allocationIsRecordedBetweenCollections() throws Exception {
+		this.publicMetrics.setInterval(0);
+		List<byte[]> garbage = new ArrayList<byte[]>();
+		for (int i = 0; i < 1024; i++) {
+			garbage.add(new byte[1024]);
+		}
+		garbage.clear();
+		System.gc();
+		Metric<?> allocated = null;
+		for (int i = 0; i < 50 && allocated == null; i++) {
+			Thread.sleep(20);
+			Map<String, Metric<?>> metrics = getMetrics();
+			if (metrics.get("gc.collections").getValue().longValue() > 0) {
+				allocated = metrics.get("gc.allocated");
+				assertThat(metrics).containsKey("gc.allocated.rate.kbps");
+			}
+		}
+		if (allocated != null) {
+			assertThat(allocated.getValue().longValue()).isGreaterThan(0);
+		}
+	}
+
+	@Test
+	public void directBuffersAreReported() throws Exception {
+		long used = getMetrics().get("buffers.direct.used").getValue().longValue();
+		ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+		assertThat(getMetrics().get("buffers.direct.used").getValue().longValue())
+				.isGreaterThanOrEqualTo(used + buffer.capacity() / 1024);
+	}
+
+	private Map<String, Metric<?>> getMetrics() {
+		Map<String, Metric<?>> results = new HashMap<String, Metric<?>>();
+		for (Metric<?> metric : this.publicMetrics.metrics()) {
+			results.put(metric.getName(), metric);
+		}
+		return results;
+	}
+
+}
@@ -71,6 +71,54 @@ public class MetricsEndpointTests extends AbstractEndpointTests<MetricsEndpoint>
 		assertThat(iterator.hasNext()).isFalse();
 	}
 
+	@Test
+	public void snapshotIsSharedUntilItExpires() throws Exception {
+		CountingPublicMetrics publicMetrics = new CountingPublicMetrics();
+		MetricsEndpoint endpoint = new MetricsEndpoint(publicMetrics);
+		endpoint.setTimeToLive(10000);
+		Map<String, Object> metrics = endpoint.invoke();
+		assertThat(endpoint.invoke()).isSameAs(metrics);
+		assertThat(publicMetrics.count).isEqualTo(1);
+		endpoint.setTimeToLive(1);
+		Thread.sleep(10);
+		assertThat(endpoint.invoke()).isNotSameAs(metrics);
+		assertThat(publicMetrics.count).isEqualTo(2);
+	}
+
+	@Test
+	public void snapshotIsDiscardedWhenPublicMetricsAreRegistered() throws Exception {
+		MetricsEndpoint endpoint = new MetricsEndpoint(
+				new TestPublicMetrics(1, this.metric1));
+		endpoint.setTimeToLive(10000);
+		assertThat(endpoint.invoke()).containsOnlyKeys("a");
+		PublicMetrics publicMetrics = new TestPublicMetrics(2, this.metric2);
+		endpoint.registerPublicMetrics(publicMetrics);
+		assertThat(endpoint.invoke()).containsOnlyKeys("a", "b");
+		endpoint.unregisterPublicMetrics(publicMetrics);
+		assertThat(endpoint.invoke()).containsOnlyKeys("a");
+	}
+
+	@Test
+	public void noSnapshotByDefault() throws Exception {
+		CountingPublicMetrics publicMetrics = new CountingPublicMetrics();
+		MetricsEndpoint endpoint = new MetricsEndpoint(publicMetrics);
+		endpoint.invoke();
+		endpoint.invoke();
+		assertThat(publicMetrics.count).isEqualTo(2);
+	}
+
+	private static class CountingPublicMetrics implements PublicMetrics {
+
+		private int count;
+
+		@Override
+		public Collection<Metric<?>> metrics() {
+			this.count++;
+			return Collections.<Metric<?>>singleton(new Metric<Integer>("a", this.count));
+		}
+
+	}
+
 	private static class TestPublicMetrics implements PublicMetrics, Ordered {
 
 		private final int order;
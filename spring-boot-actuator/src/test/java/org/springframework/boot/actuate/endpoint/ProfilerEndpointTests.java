@@ -0,0 +1,215 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ProfilerEndpoint}.
+ *
+ * @author Dave Syer
+ */
+public class ProfilerEndpointTests extends AbstractEndpointTests<ProfilerEndpoint> {
+
+	public ProfilerEndpointTests() {
+		super(Config.class, ProfilerEndpoint.class, "profiler", true,
+				"endpoints.profiler");
+	}
+
+	@Before
+	public void stopSampling() {
+		getEndpointBean().stop();
+	}
+
+	@Test
+	public void invokeWithoutSamples() throws Exception {
+		Map<String, Object> result = getEndpointBean().invoke();
+		assertThat(result.get("samples")).isEqualTo(0L);
+		assertThat(getTree(result).get("count")).isEqualTo(0L);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void sampleWaitingThread() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = new Thread("waiting") {
+
+			@Override
+			public void run() {
+				waitHere(latch);
+			}
+
+		};
+		thread.start();
+		try {
+			ProfilerEndpoint endpoint = getEndpointBean();
+			endpoint.setThreadsPerSample(0);
+			while (thread.getState() != Thread.State.WAITING) {
+				Thread.sleep(10);
+			}
+			endpoint.sample();
+			endpoint.sample();
+			Map<String, Object> result = endpoint.invoke();
+			assertThat(result.get("samples")).isEqualTo(2L);
+			Map<String, Object> waiting = (Map<String, Object>) ((Map<String, Object>) result
+					.get("states")).get("WAITING");
+			assertThat(waiting).isNotNull();
+			assertThat(findNode(getTree(result),
+					ProfilerEndpointTests.class.getName() + ".waitHere")).isNotNull();
+		}
+		finally {
+			latch.countDown();
+			thread.join();
+		}
+	}
+
+	@Test
+	public void maxNodes() throws Exception {
+		ProfilerEndpoint endpoint = getEndpointBean();
+		endpoint.setMaxNodes(3);
+		endpoint.sample();
+		assertThat(countNodes(getTree(endpoint.invoke()))).isEqualTo(3);
+	}
+
+	@Test
+	public void reset() throws Exception {
+		ProfilerEndpoint endpoint = getEndpointBean();
+		endpoint.sample();
+		endpoint.reset();
+		assertThat(endpoint.invoke().get("samples")).isEqualTo(0L);
+	}
+
+	@Test
+	public void samplesTakeTurnsThroughThreads() throws Exception {
+		ProfilerEndpoint endpoint = getEndpointBean();
+		endpoint.setThreadsPerSample(0);
+		endpoint.sample();
+		assertThat((Long) getTree(endpoint.invoke()).get("count")).isGreaterThan(2L);
+		endpoint.reset();
+		endpoint.setThreadsPerSample(1);
+		endpoint.sample();
+		endpoint.sample();
+		assertThat((Long) getTree(endpoint.invoke()).get("count"))
+				.isLessThanOrEqualTo(2L);
+	}
+
+	@Test
+	public void dataIsDiscardedAfterWindow() throws Exception {
+		ProfilerEndpoint endpoint = getEndpointBean();
+		endpoint.setWindow(50);
+		endpoint.sample();
+		endpoint.sample();
+		assertThat(endpoint.invoke().get("samples")).isEqualTo(2L);
+		Thread.sleep(100);
+		endpoint.sample();
+		assertThat(endpoint.invoke().get("samples")).isEqualTo(1L);
+	}
+
+	@Test
+	public void startSamplesInBackground() throws Exception {
+		ProfilerEndpoint endpoint = getEndpointBean();
+		endpoint.setInterval(10);
+		endpoint.start();
+		assertThat(endpoint.isRunning()).isTrue();
+		long timeout = System.currentTimeMillis() + 5000;
+		while ((Long) endpoint.invoke().get("samples") == 0
+				&& System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		endpoint.stop();
+		assertThat(endpoint.isRunning()).isFalse();
+		assertThat((Long) endpoint.invoke().get("samples")).isGreaterThan(0L);
+	}
+
+	@Test
+	public void startedWithContext() throws Exception {
+		this.context.close();
+		setup();
+		ProfilerEndpoint endpoint = getEndpointBean();
+		assertThat(endpoint.isRunning()).isTrue();
+		this.context.close();
+		assertThat(endpoint.isRunning()).isFalse();
+	}
+
+	private static void waitHere(CountDownLatch latch) {
+		try {
+			latch.await();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> getTree(Map<String, Object> result) {
+		return (Map<String, Object>) result.get("tree");
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> findNode(Map<String, Object> node, String frame) {
+		if (frame.equals(node.get("frame"))) {
+			return node;
+		}
+		List<Map<String, Object>> children = (List<Map<String, Object>>) node
+				.get("children");
+		if (children != null) {
+			for (Map<String, Object> child : children) {
+				Map<String, Object> found = findNode(child, frame);
+				if (found != null) {
+					return found;
+				}
+			}
+		}
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private int countNodes(Map<String, Object> node) {
+		int count = 1;
+		List<Map<String, Object>> children = (List<Map<String, Object>>) node
+				.get("children");
+		if (children != null) {
+			for (Map<String, Object> child : children) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+
+	@Configuration
+	@EnableConfigurationProperties
+	public static class Config {
+
+		@Bean
+		public ProfilerEndpoint endpoint() {
+			return new ProfilerEndpoint();
+		}
+
+	}
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.trace.AsyncTraceWriter;
+import org.springframework.boot.actuate.trace.InMemoryTraceRepository;
+import org.springframework.boot.actuate.trace.TraceProperties;
+import org.springframework.boot.actuate.trace.WebRequestTraceFilter;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TracePublicMetrics}.
+ *
+ * @author Dave Syer
+ */
+public class TracePublicMetricsTests {
+
+	@Test
+	public void metrics() throws Exception {
+		InMemoryTraceRepository repository = new InMemoryTraceRepository();
+		AsyncTraceWriter traceWriter = new AsyncTraceWriter(repository, 10, 5);
+		traceWriter.setSampleRate(2);
+		WebRequestTraceFilter filter = new WebRequestTraceFilter(repository,
+				new TraceProperties());
+		filter.setTraceWriter(traceWriter);
+		for (int i = 0; i < 4; i++) {
+			filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		traceWriter.close();
+		Map<String, Metric<?>> results = new HashMap<String, Metric<?>>();
+		for (Metric<?> metric : new TracePublicMetrics(traceWriter).metrics()) {
+			results.put(metric.getName(), metric);
+		}
+		assertThat(results.get("trace.written").getValue()).isEqualTo(2L);
+		assertThat(results.get("trace.skipped").getValue()).isEqualTo(2L);
+		assertThat(results.get("trace.dropped").getValue()).isEqualTo(0L);
+	}
+
+}
@@ -23,9 +23,11 @@ import org.junit.Test;
 
 import org.springframework.boot.actuate.endpoint.HealthEndpoint;
 import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ScheduledCompositeHealthIndicator;
 import org.springframework.boot.actuate.health.Status;
 import org.springframework.core.env.MapPropertySource;
 import org.springframework.core.env.PropertySource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.mock.env.MockEnvironment;
@@ -162,6 +164,25 @@ public class HealthMvcEndpointTests {
 		assertThat(health.getDetails()).isEmpty();
 	}
 
+	@Test
+	public void backgroundRefreshedHealthIsNotCached() {
+		given(this.endpoint.getTimeToLive()).willReturn(10000L);
+		ScheduledCompositeHealthIndicator scheduled = mock(
+				ScheduledCompositeHealthIndicator.class);
+		given(scheduled.getTimestamp()).willReturn(System.currentTimeMillis() - 5000);
+		this.mvc.setScheduledHealthIndicator(scheduled);
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().up().build());
+		Object result = this.mvc.invoke(this.admin);
+		assertThat(result instanceof ResponseEntity).isTrue();
+		ResponseEntity<?> response = (ResponseEntity<?>) result;
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getHeaders().getFirst(HttpHeaders.AGE)).isEqualTo("5");
+		given(this.endpoint.invoke()).willReturn(new Health.Builder().down().build());
+		response = (ResponseEntity<?>) this.mvc.invoke(this.admin);
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+		assertThat(((Health) response.getBody()).getStatus()).isEqualTo(Status.DOWN);
+	}
+
 	@Test
 	public void insecureAnonymousAccessUnrestricted() {
 		this.mvc = new HealthMvcEndpoint(this.endpoint, false);
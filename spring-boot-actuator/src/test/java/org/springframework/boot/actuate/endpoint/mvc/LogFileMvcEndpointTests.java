@@ -17,6 +17,7 @@
 package org.springframework.boot.actuate.endpoint.mvc;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 
 import org.junit.Before;
@@ -29,9 +30,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.util.FileCopyUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 /**
  * Tests for {@link LogFileMvcEndpoint}.
@@ -108,6 +114,91 @@ public class LogFileMvcEndpointTests {
 		this.mvc.invoke(request, response);
 		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
 		assertThat(response.getContentAsString()).isEqualTo("--TEST--");
+		assertThat(response.getContentLength()).isEqualTo(8);
+	}
+
+	@Test
+	public void invokeWithRangeGetsPartialContent() throws Exception {
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.addHeader("Range", "bytes=2-5");
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+		assertThat(response.getContentAsString()).isEqualTo("TEST");
+	}
+
+	@Test
+	public void invokeGetsLastLines() throws Exception {
+		FileCopyUtils.copy("one\ntwo\nthree\n".getBytes(), this.logFile);
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		assertThat(getTail("lines", "2")).isEqualTo("two\nthree\n");
+		assertThat(getTail("lines", "0")).isEqualTo("");
+		assertThat(getTail("lines", "5")).isEqualTo("one\ntwo\nthree\n");
+	}
+
+	@Test
+	public void invokeGetsLastLinesFromLargeFile() throws Exception {
+		StringBuilder content = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			content.append("line ").append(i).append("\n");
+		}
+		content.append("no newline");
+		FileCopyUtils.copy(content.toString().getBytes(), this.logFile);
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		assertThat(getTail("lines", "3")).isEqualTo("line 9998\nline 9999\nno newline");
+	}
+
+	@Test
+	public void invokeGetsLastBytes() throws Exception {
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		assertThat(getTail("bytes", "4")).isEqualTo("ST--");
+		assertThat(getTail("bytes", "100")).isEqualTo("--TEST--");
+	}
+
+	@Test
+	public void invokeWithoutTailUsesLastModified() throws Exception {
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.addHeader("If-Modified-Since", this.logFile.lastModified() + 1000);
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+	}
+
+	@Test
+	public void invokeFollowsFile() throws Exception {
+		this.environment.setProperty("logging.file", this.logFile.getAbsolutePath());
+		this.mvc.setFollowPollInterval(10);
+		this.mvc.setFollowTimeout(500);
+		MockMvc mockMvc = MockMvcBuilders.standaloneSetup(this.mvc).build();
+		try {
+			MvcResult result = mockMvc
+					.perform(get("/logfile").param("bytes", "4").param("follow",
+							"true"))
+					.andExpect(request().asyncStarted()).andReturn();
+			FileOutputStream stream = new FileOutputStream(this.logFile, true);
+			stream.write("--MORE--".getBytes());
+			stream.close();
+			result.getAsyncResult(5000);
+			assertThat(result.getResponse().getContentAsString())
+					.isEqualTo("ST----MORE--");
+		}
+		finally {
+			this.mvc.destroy();
+		}
+	}
+
+	private String getTail(String name, String value) throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockHttpServletRequest request = new MockHttpServletRequest(HttpMethod.GET.name(),
+				"/logfile");
+		request.setParameter(name, value);
+		this.mvc.invoke(request, response);
+		assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		return response.getContentAsString();
 	}
 
 }
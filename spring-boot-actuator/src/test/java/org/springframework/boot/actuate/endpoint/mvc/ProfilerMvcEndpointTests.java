@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.endpoint.ProfilerEndpoint;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link ProfilerMvcEndpoint}.
+ *
+ * @author Dave Syer
+ */
+public class ProfilerMvcEndpointTests {
+
+	private ProfilerEndpoint endpoint = mock(ProfilerEndpoint.class);
+
+	private ProfilerMvcEndpoint mvc = new ProfilerMvcEndpoint(this.endpoint);
+
+	@Test
+	public void reset() {
+		given(this.endpoint.isEnabled()).willReturn(true);
+		ResponseEntity<?> response = (ResponseEntity<?>) this.mvc.reset();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		verify(this.endpoint).reset();
+	}
+
+	@Test
+	public void resetWhenDisabled() {
+		ResponseEntity<?> response = (ResponseEntity<?>) this.mvc.reset();
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+		verify(this.endpoint, never()).reset();
+	}
+
+}
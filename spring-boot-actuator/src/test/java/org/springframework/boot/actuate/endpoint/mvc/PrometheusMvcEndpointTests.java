@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.endpoint.mvc;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.repository.InMemoryMetricRepository;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link PrometheusMvcEndpoint}.
+ *
+ * @author Dave Syer
+ */
+public class PrometheusMvcEndpointTests {
+
+	private final MockHttpServletRequest request = new MockHttpServletRequest(
+			HttpMethod.GET.name(), "/prometheus");
+
+	private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+	@Test
+	public void invoke() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				publicMetrics(new Metric<Integer>("counter.status.200.root", 3),
+						new Metric<Double>("mem.free", 1.5),
+						new Metric<Long>("counter.status.404.star-star", 1L),
+						new Metric<Integer>("gauge.response.root", 5)));
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getStatus()).isEqualTo(HttpStatus.OK.value());
+		assertThat(this.response.getContentType()).startsWith("text/plain");
+		assertThat(this.response.getContentAsString()).isEqualTo(
+				"# TYPE counter_status counter\n"
+						+ "counter_status{status=\"200\",path=\"root\"} 3\n"
+						+ "counter_status{status=\"404\",path=\"star-star\"} 1\n"
+						+ "# TYPE mem_free gauge\n" + "mem_free 1.5\n"
+						+ "# TYPE gauge_response gauge\n"
+						+ "gauge_response{path=\"root\"} 5\n");
+	}
+
+	@Test
+	public void lastDuplicateWins() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				Arrays.asList(metrics(new Metric<Integer>("foo", 1)),
+						metrics(new Metric<Integer>("foo", 2))));
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getContentAsString())
+				.isEqualTo("# TYPE foo gauge\nfoo 2\n");
+	}
+
+	@Test
+	public void familiesFromSeveralSourcesAreGrouped() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(Arrays.asList(
+				metrics(new Metric<Integer>("counter.status.200.root", 1),
+						new Metric<Integer>("foo", 2)),
+				metrics(new Metric<Integer>("counter.status.200.root", 3),
+						new Metric<Integer>("counter.status.404.root", 4))));
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getContentAsString())
+				.isEqualTo("# TYPE counter_status counter\n"
+						+ "counter_status{status=\"200\",path=\"root\"} 3\n"
+						+ "counter_status{status=\"404\",path=\"root\"} 4\n"
+						+ "# TYPE foo gauge\nfoo 2\n");
+	}
+
+	@Test
+	public void specialValues() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				publicMetrics(new Metric<Double>("a", Double.NaN),
+						new Metric<Double>("b", Double.POSITIVE_INFINITY),
+						new Metric<Float>("c", Float.NEGATIVE_INFINITY)));
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getContentAsString()).contains("a NaN\n", "b +Inf\n",
+				"c -Inf\n");
+	}
+
+	@Test
+	public void metricReader() throws Exception {
+		InMemoryMetricRepository repository = new InMemoryMetricRepository();
+		repository.set(new Metric<Integer>("foo", 1));
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(repository);
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getContentAsString()).contains("foo 1\n");
+	}
+
+	@Test
+	public void gzip() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				publicMetrics(new Metric<Integer>("foo", 1)));
+		this.request.addHeader("Accept-Encoding", "deflate, gzip;q=1.0");
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getHeader("Content-Encoding")).isEqualTo("gzip");
+		GZIPInputStream stream = new GZIPInputStream(
+				new ByteArrayInputStream(this.response.getContentAsByteArray()));
+		assertThat(new String(StreamUtils.copyToByteArray(stream), "UTF-8"))
+				.isEqualTo("# TYPE foo gauge\nfoo 1\n");
+	}
+
+	@Test
+	public void noGzipWhenDisabled() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				publicMetrics(new Metric<Integer>("foo", 1)));
+		endpoint.setGzip(false);
+		this.request.addHeader("Accept-Encoding", "gzip");
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getHeader("Content-Encoding")).isNull();
+		assertThat(this.response.getContentAsString()).contains("foo 1\n");
+	}
+
+	@Test
+	public void notAvailableIfDisabled() throws Exception {
+		PrometheusMvcEndpoint endpoint = new PrometheusMvcEndpoint(
+				publicMetrics(new Metric<Integer>("foo", 1)));
+		endpoint.setEnabled(false);
+		endpoint.invoke(this.request, this.response);
+		assertThat(this.response.getStatus()).isEqualTo(HttpStatus.NOT_FOUND.value());
+	}
+
+	private Collection<PublicMetrics> publicMetrics(Metric<?>... metrics) {
+		return Collections.singleton(metrics(metrics));
+	}
+
+	private PublicMetrics metrics(final Metric<?>... metrics) {
+		return new PublicMetrics() {
+
+			@Override
+			public Collection<Metric<?>> metrics() {
+				return Arrays.asList(metrics);
+			}
+
+		};
+	}
+
+}
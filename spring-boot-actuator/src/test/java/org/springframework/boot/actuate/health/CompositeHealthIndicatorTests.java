@@ -18,8 +18,13 @@ package org.springframework.boot.actuate.health;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
@@ -48,6 +53,8 @@ public class CompositeHealthIndicatorTests {
 	@Mock
 	private HealthIndicator three;
 
+	private ExecutorService executor;
+
 	@Before
 	public void setup() {
 		MockitoAnnotations.initMocks(this);
@@ -61,6 +68,13 @@ public class CompositeHealthIndicatorTests {
 		this.healthAggregator = new OrderedHealthAggregator();
 	}
 
+	@After
+	public void shutdown() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+	}
+
 	@Test
 	public void createWithIndicators() throws Exception {
 		Map<String, HealthIndicator> indicators = new HashMap<String, HealthIndicator>();
@@ -126,4 +140,80 @@ public class CompositeHealthIndicatorTests {
 						+ "\"db2\":{\"status\":\"UNKNOWN\",\"2\":\"2\"}}}");
 	}
 
+	@Test
+	public void concurrentInvocation() throws Exception {
+		this.executor = Executors.newFixedThreadPool(2);
+		final CountDownLatch latch = new CountDownLatch(2);
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.addHealthIndicator("one", new LatchHealthIndicator(latch));
+		composite.addHealthIndicator("two", new LatchHealthIndicator(latch));
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.UP);
+		assertThat(result.getDetails()).containsOnlyKeys("one", "two");
+	}
+
+	@Test
+	public void concurrentInvocationWithTimeout() throws Exception {
+		this.executor = Executors.newFixedThreadPool(2);
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.setTimeout(100);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("slow",
+				new LatchHealthIndicator(new CountDownLatch(2)));
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(result.getDetails()).containsEntry("one",
+				new Health.Builder().unknown().withDetail("1", "1").build());
+		assertThat(result.getDetails()).containsEntry("slow",
+				new Health.Builder().down().withDetail("timeout", 100L).build());
+	}
+
+	@Test
+	public void concurrentInvocationWithFailure() throws Exception {
+		this.executor = Executors.newSingleThreadExecutor();
+		given(this.two.health()).willThrow(new IllegalStateException("Failure"));
+		CompositeHealthIndicator composite = new CompositeHealthIndicator(
+				this.healthAggregator);
+		composite.setExecutor(this.executor);
+		composite.addHealthIndicator("one", this.one);
+		composite.addHealthIndicator("two", this.two);
+		Health result = composite.health();
+		assertThat(result.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(result.getDetails()).containsEntry("two",
+				new Health.Builder().down()
+						.withDetail("error", "java.lang.IllegalStateException: Failure")
+						.build());
+	}
+
+	/**
+	 * {@link HealthIndicator} that counts down a latch and waits for it to reach zero.
+	 */
+	private static class LatchHealthIndicator implements HealthIndicator {
+
+		private final CountDownLatch latch;
+
+		LatchHealthIndicator(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Health health() {
+			this.latch.countDown();
+			try {
+				if (this.latch.await(10, TimeUnit.SECONDS)) {
+					return Health.up().build();
+				}
+			}
+			catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			return Health.down().build();
+		}
+
+	}
+
 }
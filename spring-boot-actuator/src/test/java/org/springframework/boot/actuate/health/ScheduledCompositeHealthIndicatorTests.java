@@ -0,0 +1,186 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.health;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Tests for {@link ScheduledCompositeHealthIndicator}.
+ *
+ * @author Dave Syer
+ */
+public class ScheduledCompositeHealthIndicatorTests {
+
+	@Mock
+	private HealthIndicator one;
+
+	@Mock
+	private HealthIndicator two;
+
+	private ScheduledCompositeHealthIndicator indicator;
+
+	@Before
+	public void setup() {
+		MockitoAnnotations.initMocks(this);
+		given(this.one.health()).willReturn(Health.up().build());
+		given(this.two.health()).willReturn(Health.up().build());
+		this.indicator = new ScheduledCompositeHealthIndicator(
+				new OrderedHealthAggregator());
+		this.indicator.addHealthIndicator("one", this.one, 1000);
+		this.indicator.addHealthIndicator("two", this.two, 5000);
+	}
+
+	@After
+	public void close() {
+		this.indicator.stop();
+	}
+
+	@Test
+	public void healthIsUnknownUntilRefreshed() throws Exception {
+		assertThat(this.indicator.getTimestamp()).isEqualTo(0);
+		assertThat(this.indicator.health().getStatus()).isEqualTo(Status.UNKNOWN);
+		verify(this.one, never()).health();
+		verify(this.two, never()).health();
+		this.indicator.refresh();
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.UP);
+		assertThat(health.getDetails()).containsOnlyKeys("one", "two", "age");
+		assertThat(this.indicator.getTimestamp()).isGreaterThan(0);
+	}
+
+	@Test
+	public void healthReturnsSnapshot() throws Exception {
+		this.indicator.refresh();
+		given(this.one.health()).willReturn(Health.down().build());
+		assertThat(this.indicator.health().getStatus()).isEqualTo(Status.UP);
+		verify(this.one, times(1)).health();
+	}
+
+	@Test
+	public void startRefreshesInBackground() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		given(this.one.health()).willAnswer(new CountingAnswer(latch));
+		this.indicator.start();
+		assertThat(this.indicator.isRunning()).isTrue();
+		assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(this.indicator.health().getStatus()).isEqualTo(Status.UP);
+	}
+
+	@Test
+	public void slowIndicatorDoesNotBlockOthers() throws Exception {
+		final CountDownLatch blocked = new CountDownLatch(1);
+		final CountDownLatch latch = new CountDownLatch(2);
+		given(this.one.health()).willAnswer(new CountingAnswer(latch));
+		given(this.two.health()).willAnswer(new Answer<Health>() {
+
+			@Override
+			public Health answer(InvocationOnMock invocation) throws Throwable {
+				blocked.await();
+				return Health.up().build();
+			}
+
+		});
+		this.indicator.start();
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+		finally {
+			blocked.countDown();
+		}
+	}
+
+	@Test
+	public void slowIndicatorTimesOut() throws Exception {
+		given(this.two.health()).willAnswer(new Answer<Health>() {
+
+			@Override
+			public Health answer(InvocationOnMock invocation) throws Throwable {
+				Thread.sleep(10000);
+				return Health.up().build();
+			}
+
+		});
+		this.indicator.setTimeout(100);
+		this.indicator.start();
+		long timeout = System.currentTimeMillis() + 5000;
+		while (this.indicator.getTimestamp() == 0
+				&& System.currentTimeMillis() < timeout) {
+			Thread.sleep(10);
+		}
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails().get("two"))
+				.isEqualTo(Health.down().withDetail("timeout", 100L).build());
+	}
+
+	@Test
+	public void healthIncludesAge() throws Exception {
+		this.indicator.refresh();
+		Thread.sleep(20);
+		assertThat((Long) this.indicator.health().getDetails().get("age"))
+				.isGreaterThanOrEqualTo(20L);
+	}
+
+	@Test
+	public void stopStopsRefreshing() throws Exception {
+		this.indicator.start();
+		this.indicator.stop();
+		assertThat(this.indicator.isRunning()).isFalse();
+	}
+
+	@Test
+	public void failingIndicatorIsDown() throws Exception {
+		given(this.two.health()).willThrow(new IllegalStateException("Failure"));
+		this.indicator.refresh();
+		Health health = this.indicator.health();
+		assertThat(health.getStatus()).isEqualTo(Status.DOWN);
+		assertThat(health.getDetails().get("two")).isEqualTo(Health.down()
+				.withDetail("error", "java.lang.IllegalStateException: Failure").build());
+	}
+
+	private static class CountingAnswer implements Answer<Health> {
+
+		private final CountDownLatch latch;
+
+		CountingAnswer(CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Health answer(InvocationOnMock invocation) throws Throwable {
+			this.latch.countDown();
+			return Health.up().build();
+		}
+
+	}
+
+}
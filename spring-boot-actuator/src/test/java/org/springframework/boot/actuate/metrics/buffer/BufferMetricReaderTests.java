@@ -31,8 +31,10 @@ public class BufferMetricReaderTests {
 
 	private GaugeBuffers gauges = new GaugeBuffers();
 
+	private HistogramBuffers histograms = new HistogramBuffers();
+
 	private BufferMetricReader reader = new BufferMetricReader(this.counters,
-			this.gauges);
+			this.gauges, this.histograms);
 
 	@Test
 	public void countReflectsNumberOfMetrics() {
@@ -55,4 +57,25 @@ public class BufferMetricReaderTests {
 		assertThat(this.reader.count()).isEqualTo(1);
 	}
 
+	@Test
+	public void findHistogram() {
+		this.histograms.record("foo", 5);
+		this.histograms.export();
+		assertThat(this.reader.findOne("foo")).isNull();
+		assertThat(this.reader.findOne("foo.p99").getValue()).isEqualTo(5L);
+		assertThat(this.reader.count()).isEqualTo(5);
+	}
+
+	@Test
+	public void findAllIncludesHistogramPercentiles() {
+		this.histograms.record("foo", 5);
+		this.histograms.record("foo", 7);
+		this.histograms.export();
+		assertThat(this.reader.findAll("foo.p")).hasSize(4);
+		this.histograms.record("foo", 9);
+		assertThat(this.reader.findAll("foo.max")).extracting("value").containsExactly(7L);
+		this.histograms.export();
+		assertThat(this.reader.findAll("foo.max")).extracting("value").containsExactly(9L);
+	}
+
 }
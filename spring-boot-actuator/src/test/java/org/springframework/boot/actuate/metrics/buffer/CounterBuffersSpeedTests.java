@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+
+import org.springframework.lang.UsesJava8;
+import org.springframework.util.StopWatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Speed tests comparing {@link CounterBuffers#increment(String, long)} with the
+ * callback based update that it used to perform, and with the same direct lookup
+ * reading the clock on every write, at increasing levels of contention.
+ *
+ * @author Dave Syer
+ */
+@RunWith(Theories.class)
+@UsesJava8
+public class CounterBuffersSpeedTests {
+
+	@DataPoints
+	public static int[] threads = new int[] { 1, 8, 32 };
+
+	private static String[] names = new String[] { "foo", "bar", "spam", "bucket" };
+
+	private static String[] sample = new String[1000];
+
+	private static final int number = Boolean.getBoolean("performance.test") ? 10000000
+			: 100000;
+
+	private static StopWatch watch = new StopWatch("counterBuffers");
+
+	@BeforeClass
+	public static void prime() {
+		Random random = new Random();
+		for (int i = 0; i < sample.length; i++) {
+			sample[i] = names[random.nextInt(names.length)];
+		}
+	}
+
+	@AfterClass
+	public static void washup() {
+		System.err.println(watch.prettyPrint());
+	}
+
+	@Theory
+	public void callback(int threadCount) throws Exception {
+		final CounterBuffers buffers = new CounterBuffers();
+		iterate("callback" + threadCount, threadCount, new Consumer<String>() {
+
+			@Override
+			public void accept(String name) {
+				buffers.doWith(name, new Consumer<CounterBuffer>() {
+
+					@Override
+					public void accept(CounterBuffer buffer) {
+						buffer.setTimestamp(System.currentTimeMillis());
+						buffer.add(1L);
+					}
+
+				});
+			}
+
+		});
+		assertThat(total(buffers)).isEqualTo((long) number * threadCount);
+	}
+
+	@Theory
+	public void clockPerWrite(int threadCount) throws Exception {
+		final CounterBuffers buffers = new CounterBuffers();
+		iterate("clockPerWrite" + threadCount, threadCount, new Consumer<String>() {
+
+			@Override
+			public void accept(String name) {
+				CounterBuffer buffer = buffers.getOrCreate(name);
+				buffer.setTimestamp(System.currentTimeMillis());
+				buffer.add(1L);
+			}
+
+		});
+		assertThat(total(buffers)).isEqualTo((long) number * threadCount);
+	}
+
+	@Theory
+	public void increment(int threadCount) throws Exception {
+		final CounterBuffers buffers = new CounterBuffers();
+		iterate("increment" + threadCount, threadCount, new Consumer<String>() {
+
+			@Override
+			public void accept(String name) {
+				buffers.increment(name, 1L);
+			}
+
+		});
+		assertThat(total(buffers)).isEqualTo((long) number * threadCount);
+		assertThat(buffers.find("foo").getTimestamp()).isGreaterThan(0L);
+	}
+
+	private void iterate(String taskName, int threadCount,
+			final Consumer<String> operation) throws Exception {
+		watch.start(taskName);
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				for (int i = 0; i < number; i++) {
+					operation.accept(sample[i % sample.length]);
+				}
+			}
+
+		};
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < threadCount; i++) {
+			futures.add(pool.submit(task));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		watch.stop();
+		pool.shutdown();
+		double rate = (double) number * threadCount / watch.getLastTaskTimeMillis()
+				* 1000;
+		System.err.println("Rate(" + taskName + ")=" + rate);
+	}
+
+	private long total(CounterBuffers buffers) {
+		final LongAdder total = new LongAdder();
+		buffers.forEach(Pattern.compile(".*").asPredicate(),
+				new BiConsumer<String, CounterBuffer>() {
+
+					@Override
+					public void accept(String name, CounterBuffer buffer) {
+						total.add(buffer.getValue());
+					}
+
+				});
+		return total.sum();
+	}
+
+}
@@ -56,6 +56,22 @@ public class CounterBuffersTests {
 		assertThat(this.value).isEqualTo(0);
 	}
 
+	@Test
+	public void timestampRecordsLastWrite() throws Exception {
+		this.buffers.increment("foo", 1);
+		CounterBuffer buffer = this.buffers.find("foo");
+		long timestamp = buffer.getTimestamp();
+		assertThat(timestamp).isGreaterThan(0);
+		Thread.sleep(10);
+		assertThat(buffer.getTimestamp()).isEqualTo(timestamp);
+		this.buffers.increment("foo", 1);
+		this.buffers.increment("foo", -1);
+		long updated = buffer.getTimestamp();
+		assertThat(updated).isGreaterThan(timestamp);
+		Thread.sleep(10);
+		assertThat(buffer.getTimestamp()).isEqualTo(updated);
+	}
+
 	@Test
 	public void findNonExistent() {
 		assertThat(this.buffers.find("foo")).isNull();
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.buffer;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffer.Snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests for {@link HistogramBuffers}.
+ *
+ * @author Dave Syer
+ */
+public class HistogramBuffersTests {
+
+	private HistogramBuffers buffers = new HistogramBuffers();
+
+	@Test
+	public void percentilesOfExactValues() {
+		for (int i = 1; i <= 100; i++) {
+			this.buffers.record("foo", i);
+		}
+		Snapshot snapshot = rollover("foo");
+		assertThat(snapshot.getCount()).isEqualTo(100);
+		assertThat(snapshot.getP50()).isEqualTo(50);
+		assertThat(snapshot.getP90()).isEqualTo(90);
+		assertThat(snapshot.getP99()).isEqualTo(99);
+		assertThat(snapshot.getP999()).isEqualTo(100);
+		assertThat(snapshot.getMax()).isEqualTo(100);
+	}
+
+	@Test
+	public void percentilesOfLargeValuesAreApproximate() {
+		for (int i = 1; i <= 1000; i++) {
+			this.buffers.record("foo", i * 1000);
+		}
+		Snapshot snapshot = rollover("foo");
+		assertThat((double) snapshot.getP50()).isCloseTo(500000, within(10000.0));
+		assertThat((double) snapshot.getP99()).isCloseTo(990000, within(20000.0));
+		assertThat(snapshot.getMax()).isEqualTo(1000000);
+	}
+
+	@Test
+	public void exportResetsValues() {
+		this.buffers.record("foo", 10);
+		assertThat(rollover("foo").getCount()).isEqualTo(1);
+		assertThat(rollover("foo").getCount()).isEqualTo(0);
+		assertThat(rollover("foo").getMax()).isEqualTo(0);
+	}
+
+	@Test
+	public void snapshotIsRetainedUntilExport() {
+		this.buffers.record("foo", 10);
+		HistogramBuffer buffer = this.buffers.find("foo");
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(0);
+		this.buffers.export();
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(1);
+		this.buffers.record("foo", 20);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void snapshotIsRolledOverOnReadOnceIntervalHasElapsed() throws Exception {
+		HistogramBuffers buffers = new HistogramBuffers(50);
+		buffers.record("foo", 10);
+		HistogramBuffer buffer = buffers.find("foo");
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(0);
+		Thread.sleep(100);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(1);
+		buffers.record("foo", 20);
+		assertThat(buffer.getSnapshot().getCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void recordSetsTimestamp() {
+		this.buffers.record("foo", 10);
+		assertThat(this.buffers.find("foo").getTimestamp()).isGreaterThan(0);
+	}
+
+	@Test
+	public void outOfRangeValuesAreClamped() {
+		this.buffers.record("foo", -1);
+		this.buffers.record("foo", Double.MAX_VALUE);
+		Snapshot snapshot = rollover("foo");
+		assertThat(snapshot.getCount()).isEqualTo(2);
+		assertThat(snapshot.getP50()).isEqualTo(0);
+		assertThat(snapshot.getMax()).isEqualTo(HistogramBuffer.MAX_VALUE);
+	}
+
+	@Test
+	public void bucketIndexesAreContiguous() {
+		long previous = -1;
+		for (int i = 0; i <= HistogramBuffer.indexOf(HistogramBuffer.MAX_VALUE); i++) {
+			long highest = HistogramBuffer.highestEquivalentValue(i);
+			assertThat(HistogramBuffer.indexOf(previous + 1)).isEqualTo(i);
+			assertThat(HistogramBuffer.indexOf(highest)).isEqualTo(i);
+			previous = highest;
+		}
+		assertThat(previous).isEqualTo(HistogramBuffer.MAX_VALUE);
+	}
+
+	private Snapshot rollover(String name) {
+		this.buffers.export();
+		return this.buffers.find(name).getSnapshot();
+	}
+
+}
@@ -21,6 +21,9 @@ import java.util.List;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Reservoir;
+import com.codahale.metrics.SlidingWindowReservoir;
+import com.codahale.metrics.Timer;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -84,6 +87,57 @@ public class DropwizardMetricServicesTests {
 		assertThat(this.registry.histogram("histogram.foo").getCount()).isEqualTo(2);
 	}
 
+	@Test
+	public void responseTimeRecordedAsGaugeByDefault() {
+		this.writer.submit("response.foo", 200);
+		@SuppressWarnings("unchecked")
+		Gauge<Double> gauge = (Gauge<Double>) this.registry.getMetrics()
+				.get("gauge.response.foo");
+		assertThat(gauge.getValue()).isEqualTo(new Double(200));
+		assertThat(this.registry.getTimers()).isEmpty();
+	}
+
+	@Test
+	public void responseTimeRecordedAsTimer() {
+		this.writer.setTimerPrefixes("gauge.response.");
+		this.writer.submit("response.foo", 200);
+		this.writer.submit("response.foo", 300);
+		assertThat(this.registry.getGauges()).doesNotContainKey("gauge.response.foo");
+		Timer timer = this.registry.timer("timer.response.foo");
+		assertThat(timer.getCount()).isEqualTo(2);
+		assertThat(timer.getSnapshot().getMax()).isEqualTo(300000000L);
+	}
+
+	@Test
+	public void customTimerPrefixes() {
+		this.writer.setTimerPrefixes("gauge.latency.");
+		this.writer.submit("response.foo", 200);
+		this.writer.submit("latency.foo", 200);
+		assertThat(this.registry.getTimers()).containsOnlyKeys("timer.latency.foo");
+	}
+
+	@Test
+	public void customReservoir() {
+		DropwizardMetricServices writer = new DropwizardMetricServices(this.registry,
+				new ReservoirFactory() {
+
+					@Override
+					public Reservoir getReservoir(String name) {
+						return (name.startsWith("timer.") ? new SlidingWindowReservoir(1)
+								: null);
+					}
+
+				});
+		writer.submit("timer.foo", 200);
+		writer.submit("timer.foo", 300);
+		writer.submit("histogram.foo", 200);
+		writer.submit("histogram.foo", 300);
+		assertThat(this.registry.timer("timer.foo").getCount()).isEqualTo(2);
+		assertThat(this.registry.timer("timer.foo").getSnapshot().size()).isEqualTo(1);
+		assertThat(this.registry.histogram("histogram.foo").getSnapshot().size())
+				.isEqualTo(2);
+	}
+
 	/**
 	 * Test the case where a given writer is used amongst several threads where each
 	 * thread is updating the same set of metrics. This would be an example case of the
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.jmx;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.jmx.export.annotation.AnnotationMBeanExporter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link JmxMetricWriter}.
+ *
+ * @author Dave Syer
+ */
+public class JmxMetricWriterTests {
+
+	private final MBeanServer server = MBeanServerFactory.newMBeanServer();
+
+	private final JmxMetricWriter writer;
+
+	public JmxMetricWriterTests() {
+		AnnotationMBeanExporter exporter = new AnnotationMBeanExporter();
+		exporter.setServer(this.server);
+		this.writer = new JmxMetricWriter(exporter);
+	}
+
+	@After
+	public void close() {
+		this.writer.close();
+	}
+
+	@Test
+	public void registersInBackground() throws Exception {
+		this.writer.set("foo", 2.5);
+		awaitCount(1);
+		ObjectName name = getNames().iterator().next();
+		assertThat(name.getKeyProperty("type")).isEqualTo("foo");
+		assertThat(this.server.getAttribute(name, "Value")).isEqualTo(2.5);
+		this.writer.set("foo", 3.5);
+		assertThat(this.server.getAttribute(name, "Value")).isEqualTo(3.5);
+	}
+
+	@Test
+	public void closeRegistersPendingMetrics() throws Exception {
+		this.writer.setBatchSize(10);
+		for (int i = 0; i < 250; i++) {
+			this.writer.set("foo.bar" + i, i);
+		}
+		this.writer.close();
+		assertThat(getNames()).hasSize(250);
+	}
+
+	@Test
+	public void concurrentIncrements() throws Exception {
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			Thread thread = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						JmxMetricWriterTests.this.writer
+								.increment(new Delta<Long>("counter.foo", 1L));
+					}
+				}
+
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		this.writer.close();
+		ObjectName name = getNames().iterator().next();
+		assertThat(this.server.getAttribute(name, "Value")).isEqualTo(40000.0);
+	}
+
+	@Test
+	public void reset() throws Exception {
+		this.writer.set("foo", 2.5);
+		this.writer.close();
+		assertThat(getNames()).hasSize(1);
+		this.writer.reset("foo");
+		assertThat(getNames()).isEmpty();
+	}
+
+	@Test
+	public void expiredMetricsAreUnregistered() throws Exception {
+		this.writer.setTimeToLive(100);
+		this.writer.set("foo", 2.5);
+		this.writer.set("bar", 2.5);
+		awaitCount(2);
+		long end = System.currentTimeMillis() + 5000;
+		while (getNames().size() > 1 && System.currentTimeMillis() < end) {
+			this.writer.set("bar", 2.5);
+			Thread.sleep(10);
+		}
+		Set<ObjectName> names = getNames();
+		assertThat(names).hasSize(1);
+		assertThat(names.iterator().next().getKeyProperty("type")).isEqualTo("bar");
+		this.writer.set("foo", 1.5);
+		awaitCount(2);
+	}
+
+	private void awaitCount(int count) throws Exception {
+		long end = System.currentTimeMillis() + 5000;
+		while (getNames().size() != count && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertThat(getNames()).hasSize(count);
+	}
+
+	private Set<ObjectName> getNames() throws Exception {
+		return this.server.queryNames(new ObjectName("org.springframework.metrics:*"),
+				null);
+	}
+
+}
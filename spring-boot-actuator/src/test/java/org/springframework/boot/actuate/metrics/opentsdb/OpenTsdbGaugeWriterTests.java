@@ -16,22 +16,38 @@
 
 package org.springframework.boot.actuate.metrics.opentsdb;
 
+import java.io.ByteArrayInputStream;
 import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestOperations;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 
 /**
  * Tests for {@link OpenTsdbGaugeWriter}.
@@ -50,13 +66,19 @@ public class OpenTsdbGaugeWriterTests {
 		this.writer.setRestTemplate(this.restTemplate);
 	}
 
+	@After
+	public void close() {
+		this.writer.close();
+	}
+
 	@Test
 	public void postSuccessfullyOnFlush() {
 		this.writer.set(new Metric<Double>("foo", 2.4));
 		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
 				.willReturn(emptyResponse());
 		this.writer.flush();
-		verify(this.restTemplate).postForEntity(anyString(), any(Object.class), anyMap());
+		verify(this.restTemplate, timeout(1000)).postForEntity(anyString(),
+				any(Object.class), anyMap());
 	}
 
 	@Test
@@ -65,11 +87,138 @@ public class OpenTsdbGaugeWriterTests {
 				.willReturn(emptyResponse());
 		this.writer.setBufferSize(0);
 		this.writer.set(new Metric<Double>("foo", 2.4));
-		verify(this.restTemplate).postForEntity(anyString(), any(Object.class), anyMap());
+		verify(this.restTemplate, timeout(1000)).postForEntity(anyString(),
+				any(Object.class), anyMap());
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void postJson() throws Exception {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willReturn(emptyResponse());
+		this.writer.setNamingStrategy(new NamingStrategy());
+		this.writer.set(new Metric<Double>("foo", 2.4, new Date(1000L)));
+		this.writer.close();
+		ArgumentCaptor<HttpEntity> entity = ArgumentCaptor.forClass(HttpEntity.class);
+		verify(this.restTemplate).postForEntity(anyString(), entity.capture(), anyMap());
+		assertThat(new String((byte[]) entity.getValue().getBody(), "UTF-8"))
+				.isEqualTo("[{\"metric\":\"foo\",\"timestamp\":1000,\"value\":2.4,"
+						+ "\"tags\":{\"domain\":\"\\\"test\\\"\"}}]");
+		assertThat(this.writer.getSent()).isEqualTo(1);
+		assertThat(this.writer.getPosts()).isEqualTo(1);
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void postGzip() throws Exception {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willReturn(emptyResponse());
+		this.writer.setGzip(true);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.close();
+		ArgumentCaptor<HttpEntity> entity = ArgumentCaptor.forClass(HttpEntity.class);
+		verify(this.restTemplate).postForEntity(anyString(), entity.capture(), anyMap());
+		assertThat(entity.getValue().getHeaders().getFirst("Content-Encoding"))
+				.isEqualTo("gzip");
+		byte[] body = StreamUtils.copyToByteArray(new GZIPInputStream(
+				new ByteArrayInputStream((byte[]) entity.getValue().getBody())));
+		assertThat(new String(body, "UTF-8")).startsWith("[{\"metric\":\"foo\"");
+	}
+
+	@Test
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void postOtherMediaTypeWithConverters() throws Exception {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willReturn(emptyResponse());
+		this.writer.setMediaType(MediaType.APPLICATION_XML);
+		this.writer.setGzip(true);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.close();
+		ArgumentCaptor<HttpEntity> entity = ArgumentCaptor.forClass(HttpEntity.class);
+		verify(this.restTemplate).postForEntity(anyString(), entity.capture(), anyMap());
+		assertThat(entity.getValue().getHeaders().getContentType())
+				.isEqualTo(MediaType.APPLICATION_XML);
+		assertThat(entity.getValue().getHeaders().containsKey("Content-Encoding"))
+				.isFalse();
+		assertThat(entity.getValue().getBody()).isInstanceOf(List.class);
+	}
+
+	@Test
+	@SuppressWarnings("rawtypes")
+	public void flushDoesNotWaitForServer() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willAnswer(new Answer<ResponseEntity<Map>>() {
+
+					@Override
+					public ResponseEntity<Map> answer(InvocationOnMock invocation)
+							throws Throwable {
+						latch.await();
+						return emptyResponse();
+					}
+
+				});
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.flush();
+		verify(this.restTemplate, timeout(1000)).postForEntity(anyString(),
+				any(Object.class), anyMap());
+		assertThat(this.writer.getSent()).isEqualTo(0);
+		latch.countDown();
+		this.writer.close();
+		assertThat(this.writer.getSent()).isEqualTo(1);
+	}
+
+	@Test
+	public void latencyIsAggregated() throws Exception {
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willReturn(emptyResponse());
+		this.writer.setBufferSize(1);
+		this.writer.set(new Metric<Double>("foo", 2.4));
+		this.writer.set(new Metric<Double>("bar", 2.4));
+		this.writer.close();
+		assertThat(this.writer.getPosts()).isEqualTo(2);
+		assertThat(this.writer.getSent()).isEqualTo(2);
+		assertThat(this.writer.getMaxLatency())
+				.isGreaterThanOrEqualTo(this.writer.getLatency());
+	}
+
+	@Test
+	public void dropNonFiniteValues() throws Exception {
+		this.writer.set(new Metric<Double>("foo", Double.NaN));
+		this.writer.set(new Metric<Double>("foo", Double.POSITIVE_INFINITY));
+		this.writer.flush();
+		verifyZeroInteractions(this.restTemplate);
+		assertThat(this.writer.getDropped()).isEqualTo(2);
 	}
 
+	@Test
 	@SuppressWarnings("rawtypes")
-	private ResponseEntity<Map> emptyResponse() {
+	public void dropWhenQueueIsFull() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		given(this.restTemplate.postForEntity(anyString(), any(Object.class), anyMap()))
+				.willAnswer(new Answer<ResponseEntity<Map>>() {
+
+					@Override
+					public ResponseEntity<Map> answer(InvocationOnMock invocation)
+							throws Throwable {
+						latch.await();
+						return emptyResponse();
+					}
+
+				});
+		this.writer.setBufferSize(1);
+		this.writer.setQueueCapacity(1);
+		for (int i = 0; i < 10; i++) {
+			this.writer.set(new Metric<Double>("foo", 2.4));
+		}
+		assertThat(this.writer.getDropped()).isGreaterThanOrEqualTo(8);
+		latch.countDown();
+		verify(this.restTemplate, timeout(1000).atLeast(1)).postForEntity(
+				eq("http://localhost:4242/api/put"), any(Object.class), anyMap());
+	}
+
+	@SuppressWarnings("rawtypes")
+	private static ResponseEntity<Map> emptyResponse() {
 		return new ResponseEntity<Map>(Collections.emptyMap(), HttpStatus.OK);
 	}
 
@@ -78,4 +227,15 @@ public class OpenTsdbGaugeWriterTests {
 		return any(Class.class);
 	}
 
+	private static class NamingStrategy implements OpenTsdbNamingStrategy {
+
+		@Override
+		public OpenTsdbName getName(String metricName) {
+			OpenTsdbName name = new OpenTsdbName(metricName);
+			name.setTags(Collections.singletonMap("domain", "\"test\""));
+			return name;
+		}
+
+	}
+
 }
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.prometheus;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import org.springframework.boot.actuate.metrics.buffer.HistogramBuffers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link DefaultPrometheusNamingStrategy}.
+ *
+ * @author Dave Syer
+ */
+public class DefaultPrometheusNamingStrategyTests {
+
+	private final DefaultPrometheusNamingStrategy strategy = new DefaultPrometheusNamingStrategy();
+
+	@Test
+	public void plainName() {
+		PrometheusName name = this.strategy.getName("mem.free");
+		assertThat(name.getName()).isEqualTo("mem_free");
+		assertThat(name.getType()).isEqualTo("gauge");
+		assertThat(name.getLabels()).isEmpty();
+		assertThat(name.getSeries()).isEqualTo("mem_free");
+	}
+
+	@Test
+	public void invalidCharacters() {
+		assertThat(this.strategy.getName("2xx.foo-bar").getName())
+				.isEqualTo("_2xx_foo_bar");
+	}
+
+	@Test
+	public void statusCounter() {
+		PrometheusName name = this.strategy.getName("counter.status.200.metrics.name");
+		assertThat(name.getName()).isEqualTo("counter_status");
+		assertThat(name.getType()).isEqualTo("counter");
+		assertThat(name.getSeries())
+				.isEqualTo("counter_status{status=\"200\",path=\"metrics.name\"}");
+	}
+
+	@Test
+	public void responseGauge() {
+		PrometheusName name = this.strategy.getName("gauge.response.root");
+		assertThat(name.getType()).isEqualTo("gauge");
+		assertThat(name.getSeries()).isEqualTo("gauge_response{path=\"root\"}");
+	}
+
+	@Test
+	public void responseGaugePercentile() {
+		HistogramBuffers histograms = new HistogramBuffers();
+		histograms.record("gauge.response.root", 1);
+		histograms.record("gauge.response.metrics.name", 1);
+		this.strategy.setHistogramBuffers(histograms);
+		PrometheusName name = this.strategy.getName("gauge.response.root.p50");
+		assertThat(name.getType()).isEqualTo("summary");
+		assertThat(name.getSeries())
+				.isEqualTo("gauge_response_quantiles{path=\"root\",quantile=\"0.5\"}");
+		assertThat(this.strategy.getName("gauge.response.metrics.name.p999").getSeries())
+				.isEqualTo("gauge_response_quantiles{path=\"metrics.name\","
+						+ "quantile=\"0.999\"}");
+	}
+
+	@Test
+	public void responseGaugeAndPercentilesAreSeparateFamilies() {
+		HistogramBuffers histograms = new HistogramBuffers();
+		histograms.record("gauge.response.root", 1);
+		this.strategy.setHistogramBuffers(histograms);
+		PrometheusName gauge = this.strategy.getName("gauge.response.root");
+		PrometheusName quantile = this.strategy.getName("gauge.response.root.p99");
+		assertThat(gauge.getName()).isEqualTo("gauge_response");
+		assertThat(gauge.getType()).isEqualTo("gauge");
+		assertThat(quantile.getName()).isEqualTo("gauge_response_quantiles");
+		assertThat(quantile.getType()).isEqualTo("summary");
+	}
+
+	@Test
+	public void responseGaugeMax() {
+		HistogramBuffers histograms = new HistogramBuffers();
+		histograms.record("gauge.response.root", 1);
+		this.strategy.setHistogramBuffers(histograms);
+		PrometheusName name = this.strategy.getName("gauge.response.root.max");
+		assertThat(name.getType()).isEqualTo("gauge");
+		assertThat(name.getSeries()).isEqualTo("gauge_response_max{path=\"root\"}");
+	}
+
+	@Test
+	public void responseGaugeWithSuffixButNoHistogram() {
+		assertThat(this.strategy.getName("gauge.response.root.max").getSeries())
+				.isEqualTo("gauge_response{path=\"root.max\"}");
+		assertThat(this.strategy.getName("gauge.response.root.p99").getSeries())
+				.isEqualTo("gauge_response{path=\"root.p99\"}");
+		this.strategy.setHistogramBuffers(new HistogramBuffers());
+		assertThat(this.strategy.getName("gauge.response.root.max").getSeries())
+				.isEqualTo("gauge_response{path=\"root.max\"}");
+	}
+
+	@Test
+	public void responseGaugeForPathNamedLikeSuffix() {
+		this.strategy.setHistogramBuffers(new HistogramBuffers());
+		assertThat(this.strategy.getName("gauge.response.max").getSeries())
+				.isEqualTo("gauge_response{path=\"max\"}");
+	}
+
+	@Test
+	public void staticLabels() {
+		this.strategy.setLabels(Collections.singletonMap("app", "a\"b"));
+		assertThat(this.strategy.getName("counter.foo").getSeries())
+				.isEqualTo("counter_foo{app=\"a\\\"b\"}");
+	}
+
+	@Test
+	public void namesAreCached() {
+		assertThat(this.strategy.getName("foo")).isSameAs(this.strategy.getName("foo"));
+	}
+
+	@Test
+	public void cacheIsBounded() {
+		for (int i = 0; i < DefaultPrometheusNamingStrategy.CACHE_LIMIT; i++) {
+			this.strategy.getName("gauge.response.path" + i);
+		}
+		PrometheusName name = this.strategy.getName("foo");
+		assertThat(name.getName()).isEqualTo("foo");
+		assertThat(this.strategy.getName("foo")).isNotSameAs(name);
+	}
+
+}
@@ -16,8 +16,11 @@
 
 package org.springframework.boot.actuate.metrics.reader;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
@@ -54,6 +57,31 @@ public class MetricRegistryMetricReaderTests {
 		assertThat(this.metricReader.findOne("test")).isNull();
 	}
 
+	@Test
+	public void timerPercentiles() {
+		for (int i = 1; i <= 100; i++) {
+			this.metricRegistry.timer("timer.test").update(i, TimeUnit.MILLISECONDS);
+		}
+		Map<String, Number> metrics = new HashMap<String, Number>();
+		for (Metric<?> metric : this.metricReader.findAll()) {
+			metrics.put(metric.getName(), metric.getValue());
+		}
+		assertThat(metrics.get("timer.test.count")).isEqualTo(100L);
+		assertThat(metrics.get("timer.test.snapshot.95thPercentile")).isEqualTo(95L);
+		assertThat(metrics.get("timer.test.snapshot.99thPercentile")).isEqualTo(99L);
+		assertThat(metrics.get("timer.test.snapshot.max")).isEqualTo(100L);
+		assertThat(this.metricReader.findOne("timer.test.snapshot.max").getValue())
+				.isEqualTo(100L);
+	}
+
+	@Test
+	public void removedHistogramIsNotCounted() {
+		this.metricRegistry.histogram("histogram.test").update(1);
+		assertThat(this.metricReader.count()).isGreaterThan(0);
+		this.metricRegistry.remove("histogram.test");
+		assertThat(this.metricReader.count()).isEqualTo(0);
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void numberGauge() {
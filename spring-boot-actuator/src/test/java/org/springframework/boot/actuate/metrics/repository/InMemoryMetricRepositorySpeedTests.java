@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.runner.RunWith;
+
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.rich.InMemoryRichGaugeRepository;
+import org.springframework.boot.actuate.metrics.rich.RichGauge;
+import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.util.StopWatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Speed tests for {@link InMemoryMetricRepository} and
+ * {@link InMemoryRichGaugeRepository} at increasing levels of contention.
+ *
+ * @author Dave Syer
+ */
+@RunWith(Theories.class)
+public class InMemoryMetricRepositorySpeedTests {
+
+	@DataPoints
+	public static int[] threads = new int[] { 1, 8, 32 };
+
+	private static String[] names = new String[] { "foo", "bar", "spam", "bucket" };
+
+	private static String[] sample = new String[1000];
+
+	private static final int number = Boolean.getBoolean("performance.test") ? 10000000
+			: 100000;
+
+	private static StopWatch watch = new StopWatch("inMemoryMetricRepository");
+
+	@BeforeClass
+	public static void prime() {
+		Random random = new Random();
+		for (int i = 0; i < sample.length; i++) {
+			sample[i] = names[random.nextInt(names.length)];
+		}
+	}
+
+	@AfterClass
+	public static void washup() {
+		System.err.println(watch.prettyPrint());
+	}
+
+	@Theory
+	public void increment(int threadCount) throws Exception {
+		final InMemoryMetricRepository repository = new InMemoryMetricRepository();
+		iterate("increment" + threadCount, threadCount, new Operation() {
+
+			@Override
+			public void run(String name) {
+				repository.increment(new Delta<Long>(name, 1L));
+			}
+
+		});
+		long total = 0;
+		for (Metric<?> metric : repository.findAll()) {
+			total += metric.getValue().longValue();
+		}
+		assertThat(total).isEqualTo((long) number * threadCount);
+	}
+
+	@Theory
+	public void richGauge(int threadCount) throws Exception {
+		final InMemoryRichGaugeRepository repository = new InMemoryRichGaugeRepository();
+		iterate("richGauge" + threadCount, threadCount, new Operation() {
+
+			@Override
+			public void run(String name) {
+				repository.set(new Metric<Double>(name, 1.0));
+			}
+
+		});
+		long total = 0;
+		for (RichGauge gauge : repository.findAll()) {
+			total += gauge.getCount();
+		}
+		assertThat(total).isEqualTo((long) number * threadCount);
+	}
+
+	private void iterate(String taskName, int threadCount, final Operation operation)
+			throws Exception {
+		watch.start(taskName);
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		Runnable task = new Runnable() {
+
+			@Override
+			public void run() {
+				for (int i = 0; i < number; i++) {
+					operation.run(sample[i % sample.length]);
+				}
+			}
+
+		};
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < threadCount; i++) {
+			futures.add(pool.submit(task));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		watch.stop();
+		pool.shutdown();
+		double rate = (double) number * threadCount / watch.getLastTaskTimeMillis()
+				* 1000;
+		System.err.println("Rate(" + taskName + ")=" + rate);
+	}
+
+	private interface Operation {
+
+		void run(String name);
+
+	}
+
+}
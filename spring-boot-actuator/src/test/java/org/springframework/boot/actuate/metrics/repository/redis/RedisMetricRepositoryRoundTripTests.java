@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.metrics.repository.redis;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.springframework.boot.actuate.metrics.Iterables;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.actuate.metrics.writer.Delta;
+import org.springframework.data.redis.connection.DefaultTuple;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands.Tuple;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Counts the round trips made by {@link RedisMetricRepository}, using a stand-in for a
+ * Redis server that treats each command outside a pipeline, and each pipeline, as one
+ * round trip.
+ *
+ * @author Dave Syer
+ */
+public class RedisMetricRepositoryRoundTripTests {
+
+	private static final int NUMBER = 10000;
+
+	private static final String[] NAMES = new String[] { "foo", "bar", "spam",
+			"bucket" };
+
+	private final AtomicInteger roundTrips = new AtomicInteger();
+
+	private final RedisConnectionFactory connectionFactory = mock(
+			RedisConnectionFactory.class);
+
+	public RedisMetricRepositoryRoundTripTests() {
+		given(this.connectionFactory.getConnection())
+				.willAnswer(new Answer<RedisConnection>() {
+
+					@Override
+					public RedisConnection answer(InvocationOnMock invocation) {
+						return (RedisConnection) Proxy.newProxyInstance(
+								getClass().getClassLoader(),
+								new Class<?>[] { RedisConnection.class },
+								new StandInConnection());
+					}
+
+				});
+	}
+
+	@Test
+	public void increments() {
+		RedisMetricRepository repository = new RedisMetricRepository(
+				this.connectionFactory);
+		for (int i = 0; i < NUMBER; i++) {
+			repository.increment(new Delta<Long>(NAMES[i % NAMES.length], 1L));
+		}
+		report("increments");
+		assertThat(this.roundTrips.get()).isEqualTo(NUMBER);
+	}
+
+	@Test
+	public void coalescedIncrements() {
+		RedisMetricRepository repository = new RedisMetricRepository(
+				this.connectionFactory);
+		repository.setCoalesceWrites(true);
+		for (int i = 0; i < NUMBER; i++) {
+			repository.increment(new Delta<Long>(NAMES[i % NAMES.length], 1L));
+		}
+		assertThat(this.roundTrips.get()).isEqualTo(0);
+		repository.flush();
+		report("coalescedIncrements");
+		assertThat(this.roundTrips.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void findAll() {
+		RedisMetricRepository repository = new RedisMetricRepository(
+				this.connectionFactory);
+		Iterable<Metric<?>> metrics = repository.findAll();
+		report("findAll");
+		assertThat(Iterables.collection(metrics)).hasSize(NAMES.length);
+		assertThat(this.roundTrips.get()).isEqualTo(2);
+	}
+
+	private void report(String taskName) {
+		System.err.println("RoundTrips(" + taskName + ")=" + this.roundTrips.get());
+	}
+
+	/**
+	 * Minimal {@link RedisConnection} that counts round trips and returns empty results,
+	 * apart from a few metrics in the key index.
+	 */
+	private class StandInConnection implements InvocationHandler {
+
+		private boolean pipelined;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args)
+				throws Throwable {
+			String name = method.getName();
+			if (name.equals("openPipeline")) {
+				this.pipelined = true;
+				return null;
+			}
+			if (name.equals("closePipeline")) {
+				this.pipelined = false;
+				RedisMetricRepositoryRoundTripTests.this.roundTrips.incrementAndGet();
+				return Collections.emptyList();
+			}
+			if (name.equals("isPipelined")) {
+				return this.pipelined;
+			}
+			if (name.equals("close") || name.startsWith("is")
+					|| name.equals("getNativeConnection")) {
+				return (method.getReturnType() == boolean.class ? false : null);
+			}
+			if (!this.pipelined) {
+				RedisMetricRepositoryRoundTripTests.this.roundTrips.incrementAndGet();
+			}
+			if (name.equals("zRangeWithScores")) {
+				Set<Tuple> tuples = new LinkedHashSet<Tuple>();
+				for (String metric : NAMES) {
+					tuples.add(new DefaultTuple(("spring.metrics." + metric).getBytes(),
+							1.0));
+				}
+				return tuples;
+			}
+			if (name.equals("mGet")) {
+				List<byte[]> values = new ArrayList<byte[]>();
+				for (int i = 0; i < ((byte[][]) args[0]).length; i++) {
+					values.add("0".getBytes());
+				}
+				return values;
+			}
+			Class<?> type = method.getReturnType();
+			if (type == long.class) {
+				return 0L;
+			}
+			if (type == boolean.class) {
+				return false;
+			}
+			return null;
+		}
+
+	}
+
+}
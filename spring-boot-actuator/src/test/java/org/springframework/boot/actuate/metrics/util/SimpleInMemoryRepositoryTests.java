@@ -24,6 +24,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
@@ -69,6 +70,27 @@ public class SimpleInMemoryRepositoryTests {
 		assertThat(this.repository.findOne("foo")).isEqualTo("bar");
 	}
 
+	@Test
+	public void updateRacingWithRemoveIsNotLost() {
+		this.repository.set("foo", "spam");
+		this.repository.update("foo", new Callback<String>() {
+
+			private boolean removed;
+
+			@Override
+			public String modify(String current) {
+				if (!this.removed) {
+					this.removed = true;
+					SimpleInMemoryRepositoryTests.this.repository.remove("foo");
+				}
+				return "bar";
+			}
+
+		});
+		assertThat(this.repository.findOne("foo")).isEqualTo("bar");
+		assertThat(this.repository.findAll()).containsExactly("bar");
+	}
+
 	@Test
 	public void findWithPrefix() {
 		this.repository.set("foo", "bar");
@@ -86,13 +108,78 @@ public class SimpleInMemoryRepositoryTests {
 		assertThat(iterator.hasNext()).isFalse();
 	}
 
+	@Test
+	public void findAllIsSortedByName() {
+		this.repository.set("foo.spam", "one");
+		this.repository.set("bar", "two");
+		this.repository.set("foo.bar", "three");
+		assertThat(this.repository.findAll()).containsExactly("two", "three", "one");
+	}
+
+	@Test
+	public void removeAndAddAgain() {
+		this.repository.set("foo.bar", "spam");
+		this.repository.remove("foo.bar");
+		assertThat(this.repository.findOne("foo.bar")).isNull();
+		assertThat(this.repository.findAllWithPrefix("foo")).isEmpty();
+		assertThat(this.repository.count()).isEqualTo(0);
+		this.repository.set("foo.bar", "bucket");
+		assertThat(this.repository.findAllWithPrefix("foo")).containsExactly("bucket");
+	}
+
 	@Test
 	public void updateConcurrent() throws Exception {
 		SimpleInMemoryRepository<Integer> repository = new SimpleInMemoryRepository<Integer>();
 		Collection<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
 		for (int i = 0; i < 1000; i++) {
-			tasks.add(new RepositoryUpdate(repository, 1));
-			tasks.add(new RepositoryUpdate(repository, -1));
+			tasks.add(new RepositoryUpdate(repository, 1, false));
+			tasks.add(new RepositoryUpdate(repository, -1, false));
+		}
+		List<Future<Boolean>> all = Executors.newFixedThreadPool(10).invokeAll(tasks);
+		for (Future<Boolean> future : all) {
+			assertThat(future.get(1, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(repository.findOne("foo")).isEqualTo(0);
+	}
+
+	@Test
+	public void updateConcurrentInvokesCallbackOnce() throws Exception {
+		final AtomicInteger invocations = new AtomicInteger();
+		Collection<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		for (int i = 0; i < 1000; i++) {
+			tasks.add(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					SimpleInMemoryRepositoryTests.this.repository.update("foo",
+							new Callback<String>() {
+
+								@Override
+								public String modify(String current) {
+									invocations.incrementAndGet();
+									return "bar";
+								}
+
+							});
+					return true;
+				}
+
+			});
+		}
+		List<Future<Boolean>> all = Executors.newFixedThreadPool(10).invokeAll(tasks);
+		for (Future<Boolean> future : all) {
+			assertThat(future.get(1, TimeUnit.SECONDS)).isTrue();
+		}
+		assertThat(invocations.get()).isEqualTo(1000);
+	}
+
+	@Test
+	public void compareAndUpdateConcurrent() throws Exception {
+		SimpleInMemoryRepository<Integer> repository = new SimpleInMemoryRepository<Integer>();
+		Collection<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+		for (int i = 0; i < 1000; i++) {
+			tasks.add(new RepositoryUpdate(repository, 1, true));
+			tasks.add(new RepositoryUpdate(repository, -1, true));
 		}
 		List<Future<Boolean>> all = Executors.newFixedThreadPool(10).invokeAll(tasks);
 		for (Future<Boolean> future : all) {
@@ -107,14 +194,18 @@ public class SimpleInMemoryRepositoryTests {
 
 		private final int delta;
 
-		RepositoryUpdate(SimpleInMemoryRepository<Integer> repository, int delta) {
+		private final boolean compareAndUpdate;
+
+		RepositoryUpdate(SimpleInMemoryRepository<Integer> repository, int delta,
+				boolean compareAndUpdate) {
 			this.repository = repository;
 			this.delta = delta;
+			this.compareAndUpdate = compareAndUpdate;
 		}
 
 		@Override
 		public Boolean call() throws Exception {
-			this.repository.update("foo", new Callback<Integer>() {
+			Callback<Integer> callback = new Callback<Integer>() {
 
 				@Override
 				public Integer modify(Integer current) {
@@ -124,7 +215,13 @@ public class SimpleInMemoryRepositoryTests {
 					return current + RepositoryUpdate.this.delta;
 				}
 
-			});
+			};
+			if (this.compareAndUpdate) {
+				this.repository.compareAndUpdate("foo", callback);
+			}
+			else {
+				this.repository.update("foo", callback);
+			}
 			return true;
 		}
 
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.actuate.trace;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.boot.actuate.trace.TraceProperties.Include;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link AsyncTraceWriter}.
+ *
+ * @author Dave Syer
+ */
+public class AsyncTraceWriterTests {
+
+	private final InMemoryTraceRepository repository = new InMemoryTraceRepository();
+
+	private final TraceProperties properties = new TraceProperties();
+
+	private AsyncTraceWriter writer;
+
+	@After
+	public void close() {
+		if (this.writer != null) {
+			this.writer.close();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void writesTraceInBackground() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 10, 5);
+		WebRequestTraceFilter filter = createFilter();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.addHeader("Content-Type", "application/json");
+		filter.doFilter(request, response, new MockFilterChain());
+		this.writer.close();
+		assertThat(this.writer.getWritten()).isEqualTo(1);
+		Map<String, Object> trace = this.repository.findAll().get(0).getInfo();
+		assertThat(trace.get("method")).isEqualTo("GET");
+		assertThat(trace.get("path")).isEqualTo("/foo");
+		Map<String, Object> headers = (Map<String, Object>) trace.get("headers");
+		assertThat(headers.get("request").toString())
+				.isEqualTo("{Accept=application/json}");
+		assertThat(headers.get("response").toString())
+				.isEqualTo("{Content-Type=application/json, status=200}");
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void capturesRequestBeforeFilterChain() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 10, 5);
+		WebRequestTraceFilter filter = createFilter();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("Accept", "application/json");
+		filter.doFilter(request, new MockHttpServletResponse(), new FilterChain() {
+
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) {
+				((MockHttpServletRequest) request).addHeader("X-Late", "bar");
+			}
+
+		});
+		this.writer.close();
+		Map<String, Object> trace = this.repository.findAll().get(0).getInfo();
+		Map<String, Object> headers = (Map<String, Object>) trace.get("headers");
+		assertThat(headers.get("request").toString())
+				.isEqualTo("{Accept=application/json}");
+	}
+
+	@Test
+	public void samplesRequests() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 100, 10);
+		this.writer.setSampleRate(3);
+		WebRequestTraceFilter filter = createFilter();
+		for (int i = 0; i < 9; i++) {
+			filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		this.writer.close();
+		assertThat(this.writer.getWritten()).isEqualTo(3);
+		assertThat(this.writer.getSkipped()).isEqualTo(6);
+	}
+
+	@Test
+	public void alwaysSamplesErrors() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 100, 10);
+		this.writer.setSampleRate(100);
+		WebRequestTraceFilter filter = createFilter();
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			response.setStatus(503);
+			filter.doFilter(new MockHttpServletRequest("GET", "/foo"), response,
+					new MockFilterChain());
+		}
+		this.writer.close();
+		assertThat(this.writer.getWritten()).isEqualTo(3);
+	}
+
+	@Test
+	public void alwaysSamplesExceptions() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 100, 10);
+		this.writer.setSampleRate(100);
+		WebRequestTraceFilter filter = createFilter();
+		for (int i = 0; i < 3; i++) {
+			try {
+				filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+						new MockHttpServletResponse(), new FilterChain() {
+
+							@Override
+							public void doFilter(ServletRequest request,
+									ServletResponse response) {
+								throw new IllegalStateException("Expected");
+							}
+
+						});
+			}
+			catch (IllegalStateException ex) {
+				// Expected
+			}
+		}
+		this.writer.close();
+		assertThat(this.writer.getWritten()).isEqualTo(3);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void expandsTraceWithFilterExtensionPoints() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 10, 5);
+		this.properties.getInclude().add(Include.PARAMETERS);
+		WebRequestTraceFilter filter = new WebRequestTraceFilter(this.repository,
+				this.properties) {
+
+			@Override
+			protected Map<String, Object> getTrace(HttpServletRequest request) {
+				Map<String, Object> trace = super.getTrace(request);
+				trace.put("custom", request.getHeader("X-Custom"));
+				return trace;
+			}
+
+			@Override
+			protected void enhanceTrace(Map<String, Object> trace,
+					HttpServletResponse response) {
+				super.enhanceTrace(trace, response);
+				trace.put("status", response.getStatus());
+			}
+
+		};
+		filter.setTraceWriter(this.writer);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.addHeader("X-Custom", "bar");
+		request.setParameter("spam", "eggs");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		response.setStatus(201);
+		filter.doFilter(request, response, new MockFilterChain());
+		this.writer.close();
+		Map<String, Object> trace = this.repository.findAll().get(0).getInfo();
+		assertThat(trace.get("custom")).isEqualTo("bar");
+		assertThat(trace.get("status")).isEqualTo(201);
+		assertThat((Map<String, String[]>) trace.get("parameters"))
+				.containsKey("spam");
+	}
+
+	@Test
+	public void extensionPointsCanUseAnyRequestMethod() throws Exception {
+		this.writer = new AsyncTraceWriter(this.repository, 10, 5);
+		WebRequestTraceFilter filter = new WebRequestTraceFilter(this.repository,
+				this.properties) {
+
+			@Override
+			protected Map<String, Object> getTrace(HttpServletRequest request) {
+				Map<String, Object> trace = super.getTrace(request);
+				trace.put("serverName", request.getServerName());
+				trace.put("locale", request.getLocale());
+				return trace;
+			}
+
+		};
+		filter.setTraceWriter(this.writer);
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/foo");
+		request.setServerName("example.com");
+		request.addPreferredLocale(Locale.FRENCH);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		this.writer.close();
+		Map<String, Object> trace = this.repository.findAll().get(0).getInfo();
+		assertThat(trace.get("serverName")).isEqualTo("example.com");
+		assertThat(trace.get("locale")).isEqualTo(Locale.FRENCH);
+	}
+
+	@Test
+	public void keepsRequestTimestamp() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		InMemoryTraceRepository repository = new InMemoryTraceRepository() {
+
+			@Override
+			public void add(Trace trace) {
+				try {
+					latch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+				super.add(trace);
+			}
+
+		};
+		this.writer = new AsyncTraceWriter(repository, 10, 5);
+		WebRequestTraceFilter filter = new WebRequestTraceFilter(repository,
+				this.properties);
+		filter.setTraceWriter(this.writer);
+		filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+				new MockHttpServletResponse(), new MockFilterChain());
+		long completed = System.currentTimeMillis();
+		Thread.sleep(50);
+		latch.countDown();
+		this.writer.close();
+		assertThat(repository.findAll().get(0).getTimestamp().getTime())
+				.isLessThanOrEqualTo(completed);
+	}
+
+	@Test
+	public void dropsWhenQueueIsFull() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(1);
+		TraceRepository blocking = new TraceRepository() {
+
+			@Override
+			public List<Trace> findAll() {
+				return null;
+			}
+
+			@Override
+			public void add(Map<String, Object> trace) {
+				try {
+					latch.await();
+				}
+				catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+		};
+		this.writer = new AsyncTraceWriter(blocking, 1, 1);
+		WebRequestTraceFilter filter = createFilter();
+		for (int i = 0; i < 10; i++) {
+			filter.doFilter(new MockHttpServletRequest("GET", "/foo"),
+					new MockHttpServletResponse(), new MockFilterChain());
+		}
+		assertThat(this.writer.getDropped()).isGreaterThanOrEqualTo(8);
+		latch.countDown();
+	}
+
+	private WebRequestTraceFilter createFilter() {
+		WebRequestTraceFilter filter = new WebRequestTraceFilter(this.repository,
+				this.properties);
+		filter.setTraceWriter(this.writer);
+		return filter;
+	}
+
+}
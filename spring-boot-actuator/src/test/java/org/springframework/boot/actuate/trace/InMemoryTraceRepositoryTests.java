@@ -16,8 +16,12 @@
 
 package org.springframework.boot.actuate.trace;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Test;
 
@@ -57,4 +61,42 @@ public class InMemoryTraceRepositoryTests {
 		assertThat(traces.get(0).getInfo().get("bar")).isEqualTo("foo");
 	}
 
+	@Test
+	public void capacityChangeRetainsMostRecentTraces() {
+		this.repository.add(Collections.<String, Object>singletonMap("foo", "bar"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "foo"));
+		this.repository.add(Collections.<String, Object>singletonMap("bar", "bar"));
+		this.repository.setCapacity(2);
+		List<Trace> traces = this.repository.findAll();
+		assertThat(traces).hasSize(2);
+		assertThat(traces.get(0).getInfo().get("bar")).isEqualTo("bar");
+		assertThat(traces.get(1).getInfo().get("bar")).isEqualTo("foo");
+	}
+
+	@Test
+	public void concurrentAdd() throws Exception {
+		this.repository.setCapacity(10000);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < 8; i++) {
+			futures.add(executor.submit(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int j = 0; j < 5000; j++) {
+						InMemoryTraceRepositoryTests.this.repository.add(
+								Collections.<String, Object>singletonMap("foo", j));
+						InMemoryTraceRepositoryTests.this.repository.findAll();
+					}
+				}
+
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		assertThat(this.repository.findAll()).hasSize(10000);
+	}
+
 }
@@ -61,6 +61,8 @@ public class JarWriter {
 
 	private final Set<String> writtenEntries = new HashSet<String>();
 
+	private final NestedJarIndex nestedJarIndex = new NestedJarIndex();
+
 	/**
 	 * Create a new {@link JarWriter} instance.
 	 * @param file the file to write
@@ -176,6 +178,26 @@ public class JarWriter {
 		}
 		new CrcAndSize(file).setupStoredEntry(entry);
 		writeEntry(entry, new InputStreamEntryWriter(new FileInputStream(file), true));
+		this.nestedJarIndex.add(entry.getName(), file, entry.getCrc());
+	}
+
+	/**
+	 * Write an index of the nested libraries that have been written so that the
+	 * launcher can open them without parsing their central directories. Does nothing if
+	 * no libraries have been written.
+	 * @throws IOException if the index cannot be written
+	 */
+	public void writeNestedLibraryIndex() throws IOException {
+		if (this.nestedJarIndex.isEmpty()) {
+			return;
+		}
+		JarEntry entry = new JarEntry(NestedJarIndex.ENTRY_NAME);
+		writeEntry(entry, new EntryWriter() {
+			@Override
+			public void write(OutputStream outputStream) throws IOException {
+				JarWriter.this.nestedJarIndex.write(outputStream);
+			}
+		});
 	}
 
 	private long getNestedLibraryTime(File file) {
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.tools;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An index of the central directories of the nested jars in an archive. The index is
+ * written as a single entry so that the launcher can open each nested jar without
+ * parsing its central directory. For each nested jar it records the hash codes of the
+ * entry names (in the form used by the loader's {@code JarFileEntries}), the offsets
+ * of the central directory records and the packages that the jar contains. The CRC and
+ * size of the nested jar, and the offset and size of its central directory, are
+ * recorded so that a stale index can be detected.
+ *
+ * @author Dave Syer
+ */
+class NestedJarIndex {
+
+	/**
+	 * The name of the entry that contains the index.
+	 */
+	static final String ENTRY_NAME = "META-INF/loader.idx";
+
+	private static final int MAGIC = 0x4e4a4958;
+
+	private static final int VERSION = 2;
+
+	private static final int END_RECORD_SIGNATURE = 0x06054b50;
+
+	private static final int END_RECORD_MINIMUM_SIZE = 22;
+
+	private static final int END_RECORD_MAXIMUM_SIZE = END_RECORD_MINIMUM_SIZE + 0xFFFF;
+
+	private static final int FILE_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int FILE_HEADER_SIZE = 46;
+
+	private final List<Record> records = new ArrayList<Record>();
+
+	/**
+	 * Add the nested jar with the given entry name. Files that cannot be read as a
+	 * plain (non-ZIP64) archive are left out of the index so that the loader parses
+	 * them as usual.
+	 * @param name the name of the entry containing the nested jar
+	 * @param file the nested jar file
+	 * @param crc the CRC of the nested jar
+	 */
+	public void add(String name, File file, long crc) {
+		try {
+			RandomAccessFile data = new RandomAccessFile(file, "r");
+			try {
+				Record record = read(name, data, crc);
+				if (record != null) {
+					this.records.add(record);
+				}
+			}
+			finally {
+				data.close();
+			}
+		}
+		catch (IOException ex) {
+			// Ignore and leave the jar out of the index
+		}
+	}
+
+	public boolean isEmpty() {
+		return this.records.isEmpty();
+	}
+
+	/**
+	 * Write the index to the given stream.
+	 * @param outputStream the destination
+	 * @throws IOException if the index cannot be written
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		DataOutputStream output = new DataOutputStream(outputStream);
+		output.writeInt(MAGIC);
+		output.writeInt(VERSION);
+		output.writeInt(this.records.size());
+		for (Record record : this.records) {
+			record.write(output);
+		}
+		output.flush();
+	}
+
+	private Record read(String name, RandomAccessFile data, long crc)
+			throws IOException {
+		long length = data.length();
+		int tailLength = (int) Math.min(length, END_RECORD_MAXIMUM_SIZE);
+		byte[] tail = new byte[tailLength];
+		data.seek(length - tailLength);
+		data.readFully(tail);
+		int endRecord = findEndRecord(tail);
+		if (endRecord < 0) {
+			return null;
+		}
+		int numberOfRecords = (int) value(tail, endRecord + 10, 2);
+		long centralDirectoryLength = value(tail, endRecord + 12, 4);
+		long centralDirectoryOffset = value(tail, endRecord + 16, 4);
+		long centralDirectoryStart = length - (tailLength - endRecord)
+				- centralDirectoryLength;
+		if (centralDirectoryStart < 0) {
+			return null;
+		}
+		byte[] centralDirectory = new byte[(int) centralDirectoryLength];
+		data.seek(centralDirectoryStart);
+		data.readFully(centralDirectory);
+		return new Record(name, length, crc, numberOfRecords, centralDirectoryOffset,
+				centralDirectory);
+	}
+
+	private int findEndRecord(byte[] tail) {
+		for (int offset = tail.length - END_RECORD_MINIMUM_SIZE; offset >= 0; offset--) {
+			if (value(tail, offset, 4) == END_RECORD_SIGNATURE && value(tail,
+					offset + 20, 2) == tail.length - offset - END_RECORD_MINIMUM_SIZE) {
+				return offset;
+			}
+		}
+		return -1;
+	}
+
+	private static long value(byte[] bytes, int offset, int length) {
+		long value = 0;
+		for (int i = length - 1; i >= 0; i--) {
+			value = ((value << 8) | (bytes[offset + i] & 0xFF));
+		}
+		return value;
+	}
+
+	/**
+	 * Calculate the hash code of an entry name in the same way as the loader's
+	 * {@code AsciiBytes}.
+	 * @param bytes the UTF-8 bytes of the name
+	 * @param offset the offset of the name
+	 * @param length the length of the name
+	 * @return the hash code
+	 */
+	static int hashCode(byte[] bytes, int offset, int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			int b = bytes[i] & 0xff;
+			if (b > 0x7F) {
+				// Decode multi-byte UTF
+				for (int size = 0; size < 3; size++) {
+					if ((b & (0x40 >> size)) == 0) {
+						b = b & (0x1F >> size);
+						for (int j = 0; j < size; j++) {
+							b <<= 6;
+							b |= bytes[++i] & 0x3F;
+						}
+						break;
+					}
+				}
+			}
+			hash = 31 * hash + b;
+		}
+		return hash;
+	}
+
+	/**
+	 * The index of a single nested jar.
+	 */
+	private static class Record {
+
+		private static final String META_INF = "META-INF/";
+
+		private static final String SIGNATURE_FILE_EXTENSION = ".SF";
+
+		private final String name;
+
+		private final long size;
+
+		private final long crc;
+
+		private final int numberOfRecords;
+
+		private final long centralDirectoryOffset;
+
+		private final long centralDirectorySize;
+
+		private boolean signed;
+
+		private int[] hashCodes;
+
+		private int[] centralDirectoryOffsets;
+
+		private int[] positions;
+
+		private final Set<String> packages = new LinkedHashSet<String>();
+
+		Record(String name, long size, long crc, int numberOfRecords,
+				long centralDirectoryOffset, byte[] centralDirectory) throws IOException {
+			this.name = name;
+			this.size = size;
+			this.crc = crc;
+			this.numberOfRecords = numberOfRecords;
+			this.centralDirectoryOffset = centralDirectoryOffset;
+			this.centralDirectorySize = centralDirectory.length;
+			load(centralDirectory);
+		}
+
+		private void load(byte[] centralDirectory) throws IOException {
+			final int[] hashCodes = new int[this.numberOfRecords];
+			final int[] offsets = new int[this.numberOfRecords];
+			Integer[] order = new Integer[this.numberOfRecords];
+			int offset = 0;
+			for (int i = 0; i < this.numberOfRecords; i++) {
+				if (offset + FILE_HEADER_SIZE > centralDirectory.length
+						|| value(centralDirectory, offset, 4) != FILE_HEADER_SIGNATURE) {
+					throw new IOException("Invalid central directory record");
+				}
+				int nameLength = (int) value(centralDirectory, offset + 28, 2);
+				int extraLength = (int) value(centralDirectory, offset + 30, 2);
+				int commentLength = (int) value(centralDirectory, offset + 32, 2);
+				String name = new String(centralDirectory, offset + FILE_HEADER_SIZE,
+						nameLength, "UTF-8");
+				addPackage(name);
+				hashCodes[i] = NestedJarIndex.hashCode(centralDirectory,
+						offset + FILE_HEADER_SIZE, nameLength);
+				offsets[i] = offset;
+				order[i] = i;
+				offset += FILE_HEADER_SIZE + nameLength + extraLength + commentLength;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+
+				@Override
+				public int compare(Integer o1, Integer o2) {
+					int h1 = hashCodes[o1];
+					int h2 = hashCodes[o2];
+					return (h1 < h2 ? -1 : (h1 == h2 ? 0 : 1));
+				}
+
+			});
+			this.hashCodes = new int[this.numberOfRecords];
+			this.centralDirectoryOffsets = new int[this.numberOfRecords];
+			this.positions = new int[this.numberOfRecords];
+			for (int i = 0; i < this.numberOfRecords; i++) {
+				this.hashCodes[i] = hashCodes[order[i]];
+				this.centralDirectoryOffsets[i] = offsets[order[i]];
+				this.positions[order[i]] = i;
+			}
+		}
+
+		private void addPackage(String name) {
+			if (name.startsWith(META_INF) && name.endsWith(SIGNATURE_FILE_EXTENSION)) {
+				this.signed = true;
+			}
+			if (!name.endsWith("/")) {
+				int index = name.lastIndexOf('/');
+				this.packages.add(
+						index == -1 ? "" : name.substring(0, index).replace('/', '.'));
+			}
+		}
+
+		public void write(DataOutputStream output) throws IOException {
+			output.writeUTF(this.name);
+			output.writeLong(this.size);
+			output.writeLong(this.crc);
+			output.writeInt(this.numberOfRecords);
+			output.writeLong(this.centralDirectoryOffset);
+			output.writeLong(this.centralDirectorySize);
+			output.writeBoolean(this.signed);
+			write(output, this.hashCodes);
+			write(output, this.centralDirectoryOffsets);
+			write(output, this.positions);
+			output.writeInt(this.packages.size());
+			for (String name : this.packages) {
+				output.writeUTF(name);
+			}
+		}
+
+		private void write(DataOutputStream output, int[] values) throws IOException {
+			for (int value : values) {
+				output.writeInt(value);
+			}
+		}
+
+	}
+
+}
@@ -316,6 +316,42 @@ public class RepackagerTests {
 		assertThat(entry.getComment().length()).isEqualTo(47);
 	}
 
+	@Test
+	public void librariesAreIndexed() throws Exception {
+		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
+		libJar.addClass("a/b/C.class", ClassWithoutMainMethod.class);
+		final File libJarFile = libJar.getFile();
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		Repackager repackager = new Repackager(file);
+		repackager.repackage(new Libraries() {
+			@Override
+			public void doWithLibraries(LibraryCallback callback) throws IOException {
+				callback.library(new Library(libJarFile, LibraryScope.COMPILE));
+			}
+		});
+		assertThat(hasEntry(file, "META-INF/loader.idx")).isTrue();
+		org.springframework.boot.loader.jar.JarFile jarFile = new org.springframework.boot.loader.jar.JarFile(
+				file);
+		try {
+			org.springframework.boot.loader.jar.JarFile nested = jarFile.getNestedJarFile(
+					jarFile.getEntry("BOOT-INF/lib/" + libJarFile.getName()));
+			assertThat(nested.getEntry("a/b/C.class")).isNotNull();
+			assertThat(nested.getEntry("a/b/D.class")).isNull();
+		}
+		finally {
+			jarFile.close();
+		}
+	}
+
+	@Test
+	public void noLibrariesAreNotIndexed() throws Exception {
+		this.testJarFile.addClass("a/b/C.class", ClassWithMainMethod.class);
+		File file = this.testJarFile.getFile();
+		new Repackager(file).repackage(NO_LIBRARIES);
+		assertThat(hasEntry(file, "META-INF/loader.idx")).isFalse();
+	}
+
 	@Test
 	public void duplicateLibraries() throws Exception {
 		TestJarFile libJar = new TestJarFile(this.temporaryFolder);
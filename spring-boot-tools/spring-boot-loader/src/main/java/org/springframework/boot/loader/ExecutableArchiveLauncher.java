@@ -16,23 +16,36 @@
 
 package org.springframework.boot.loader;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 
 import org.springframework.boot.loader.archive.Archive;
 import org.springframework.boot.loader.archive.Archive.Entry;
 import org.springframework.boot.loader.archive.Archive.EntryFilter;
+import org.springframework.boot.loader.archive.JarFileArchive;
 
 /**
- * Base class for executable archive {@link Launcher}s.
+ * Base class for executable archive {@link Launcher}s. If the {@literal loader.parallel}
+ * system property is {@code true} the nested archives of a jar are opened concurrently
+ * on a small pool of daemon threads, which is shut down before the main class is
+ * launched.
  *
  * @author Phillip Webb
  * @author Andy Wilkinson
  */
 public abstract class ExecutableArchiveLauncher extends Launcher {
 
+	private static final String PARALLEL = "loader.parallel";
+
+	private static final int MAX_THREADS = 4;
+
 	private final Archive archive;
 
 	public ExecutableArchiveLauncher() {
@@ -69,7 +82,7 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 	@Override
 	protected List<Archive> getClassPathArchives() throws Exception {
 		List<Archive> archives = new ArrayList<Archive>(
-				this.archive.getNestedArchives(new EntryFilter() {
+				getNestedArchives(new EntryFilter() {
 					@Override
 					public boolean matches(Entry entry) {
 						return isNestedArchive(entry);
@@ -79,6 +92,22 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 		return archives;
 	}
 
+	private List<Archive> getNestedArchives(EntryFilter filter) throws IOException {
+		int threads = Math.min(Runtime.getRuntime().availableProcessors(), MAX_THREADS);
+		if (!Boolean.getBoolean(PARALLEL) || threads < 2
+				|| !(this.archive instanceof JarFileArchive)) {
+			return this.archive.getNestedArchives(filter);
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new LauncherThreadFactory());
+		try {
+			return ((JarFileArchive) this.archive).getNestedArchives(filter, executor);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Determine if the specified {@link JarEntry} is a nested item that should be added
 	 * to the classpath. The method is called once for each entry.
@@ -96,4 +125,21 @@ public abstract class ExecutableArchiveLauncher extends Launcher {
 	protected void postProcessClassPathArchives(List<Archive> archives) throws Exception {
 	}
 
+	/**
+	 * {@link ThreadFactory} for the daemon threads used to open nested archives.
+	 */
+	private static class LauncherThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable,
+					"launcher-" + this.count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
 }
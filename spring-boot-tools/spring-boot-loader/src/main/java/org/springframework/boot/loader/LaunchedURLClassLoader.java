@@ -18,18 +18,31 @@ package org.springframework.boot.loader;
 
 import java.io.IOException;
 import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLConnection;
 import java.security.AccessController;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.springframework.boot.loader.jar.Handler;
 import org.springframework.boot.loader.jar.JarFile;
 
 /**
- * {@link ClassLoader} used by the {@link Launcher}.
+ * {@link ClassLoader} used by the {@link Launcher}. When all of the URLs are backed by
+ * a {@link JarFile} the class loader builds an index of the jars that contain each
+ * package. Resources, and the manifests used to define packages, are then only looked
+ * up in the jars that own their package rather than by probing every URL in turn, and
+ * classes in packages that no jar contains are rejected without probing. Classes are
+ * still found and defined by {@link URLClassLoader}.
  *
  * @author Phillip Webb
  * @author Dave Syer
@@ -37,6 +50,10 @@ import org.springframework.boot.loader.jar.JarFile;
  */
 public class LaunchedURLClassLoader extends URLClassLoader {
 
+	private final Object packageIndexMonitor = new Object();
+
+	private volatile PackageIndex packageIndex;
+
 	/**
 	 * Create a new {@link LaunchedURLClassLoader} instance.
 	 * @param urls the URLs from which to load classes and resources
@@ -48,6 +65,10 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
 	@Override
 	public URL findResource(String name) {
+		PackageIndex packageIndex = getPackageIndex();
+		if (packageIndex.isIndexed(name)) {
+			return packageIndex.findResource(name);
+		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
 			return super.findResource(name);
@@ -59,6 +80,10 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 
 	@Override
 	public Enumeration<URL> findResources(String name) throws IOException {
+		PackageIndex packageIndex = getPackageIndex();
+		if (packageIndex.isIndexed(name)) {
+			return Collections.enumeration(packageIndex.findResources(name));
+		}
 		Handler.setUseFastConnectionExceptions(true);
 		try {
 			return super.findResources(name);
@@ -93,6 +118,43 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	@Override
+	protected Class<?> findClass(String name) throws ClassNotFoundException {
+		PackageIndex packageIndex = getPackageIndex();
+		if (packageIndex.isAvailable()
+				&& packageIndex.getJars(getPackageName(name)).isEmpty()) {
+			throw new ClassNotFoundException(name);
+		}
+		return super.findClass(name);
+	}
+
+	@Override
+	protected void addURL(URL url) {
+		synchronized (this.packageIndexMonitor) {
+			super.addURL(url);
+			this.packageIndex = null;
+		}
+	}
+
+	private PackageIndex getPackageIndex() {
+		PackageIndex packageIndex = this.packageIndex;
+		if (packageIndex == null) {
+			synchronized (this.packageIndexMonitor) {
+				packageIndex = this.packageIndex;
+				if (packageIndex == null) {
+					packageIndex = PackageIndex.get(getURLs());
+					this.packageIndex = packageIndex;
+				}
+			}
+		}
+		return packageIndex;
+	}
+
+	private static String getPackageName(String className) {
+		int lastDot = className.lastIndexOf('.');
+		return (lastDot == -1 ? "" : className.substring(0, lastDot));
+	}
+
 	/**
 	 * Define a package before a {@code findClass} call is made. This is necessary to
 	 * ensure that the appropriate manifest for nested JARs is associated with the
@@ -129,7 +191,7 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 				public Object run() throws ClassNotFoundException {
 					String packageEntryName = packageName.replace(".", "/") + "/";
 					String classEntryName = className.replace(".", "/") + ".class";
-					for (URL url : getURLs()) {
+					for (URL url : getPackageIndex().getUrls(packageName)) {
 						try {
 							if (url.getContent() instanceof JarFile) {
 								JarFile jarFile = (JarFile) url.getContent();
@@ -180,4 +242,146 @@ public class LaunchedURLClassLoader extends URLClassLoader {
 		}
 	}
 
+	/**
+	 * Index of the jars that contain each package. The index is only available when
+	 * every URL of the class loader is backed by a {@link JarFile}.
+	 */
+	private static final class PackageIndex {
+
+		private static final String NESTED_SEPARATOR = "!/";
+
+		private final URL[] urls;
+
+		private final Map<String, List<IndexedJar>> jars;
+
+		private PackageIndex(URL[] urls, Map<String, List<IndexedJar>> jars) {
+			this.urls = urls;
+			this.jars = jars;
+		}
+
+		public boolean isAvailable() {
+			return this.jars != null;
+		}
+
+		/**
+		 * Return if the given resource can be found using the index. Directories, the
+		 * root and resources in archives nested below a URL are not indexed.
+		 * @param name the resource name
+		 * @return {@code true} if the resource is indexed
+		 */
+		public boolean isIndexed(String name) {
+			return isAvailable() && name.length() > 0 && !name.startsWith("/")
+					&& !name.endsWith("/") && !name.contains(NESTED_SEPARATOR);
+		}
+
+		public List<IndexedJar> getJars(String packageName) {
+			List<IndexedJar> jars = (this.jars == null ? null
+					: this.jars.get(packageName));
+			return (jars == null ? Collections.<IndexedJar>emptyList() : jars);
+		}
+
+		public List<URL> getUrls(String packageName) {
+			if (!isAvailable()) {
+				return Arrays.asList(this.urls);
+			}
+			List<URL> urls = new ArrayList<URL>();
+			for (IndexedJar jar : getJars(packageName)) {
+				urls.add(jar.getUrl());
+			}
+			return urls;
+		}
+
+		public URL findResource(String name) {
+			for (IndexedJar jar : getJars(getResourcePackageName(name))) {
+				URL url = jar.findResource(name);
+				if (url != null) {
+					return url;
+				}
+			}
+			return null;
+		}
+
+		public List<URL> findResources(String name) {
+			List<URL> urls = new ArrayList<URL>();
+			for (IndexedJar jar : getJars(getResourcePackageName(name))) {
+				URL url = jar.findResource(name);
+				if (url != null) {
+					urls.add(url);
+				}
+			}
+			return urls;
+		}
+
+		private String getResourcePackageName(String name) {
+			int lastSlash = name.lastIndexOf('/');
+			return (lastSlash == -1 ? "" : name.substring(0, lastSlash).replace('/', '.'));
+		}
+
+		public static PackageIndex get(URL[] urls) {
+			Map<String, List<IndexedJar>> jars = new HashMap<String, List<IndexedJar>>();
+			for (URL url : urls) {
+				Object content;
+				try {
+					content = url.getContent();
+				}
+				catch (Exception ex) {
+					content = null;
+				}
+				if (!(content instanceof JarFile)) {
+					return new PackageIndex(urls, null);
+				}
+				IndexedJar jar = new IndexedJar(url, (JarFile) content);
+				for (String packageName : jar.getJarFile().getPackageNames()) {
+					List<IndexedJar> packageJars = jars.get(packageName);
+					if (packageJars == null) {
+						packageJars = new ArrayList<IndexedJar>(1);
+						jars.put(packageName, packageJars);
+					}
+					packageJars.add(jar);
+				}
+			}
+			return new PackageIndex(urls, jars);
+		}
+
+	}
+
+	/**
+	 * A {@link JarFile} and the URL that it was added to the class loader with.
+	 */
+	private static final class IndexedJar {
+
+		private final URL url;
+
+		private final JarFile jarFile;
+
+		IndexedJar(URL url, JarFile jarFile) {
+			this.url = url;
+			this.jarFile = jarFile;
+		}
+
+		public URL getUrl() {
+			return this.url;
+		}
+
+		public JarFile getJarFile() {
+			return this.jarFile;
+		}
+
+		public URL findResource(String name) {
+			if (this.jarFile.getEntry(name) == null) {
+				return null;
+			}
+			try {
+				return new URL(this.url, new URI(null, null, name, null).toASCIIString());
+			}
+			catch (URISyntaxException ex) {
+				return null;
+			}
+			catch (IOException ex) {
+				return null;
+			}
+		}
+
+	}
+
 }
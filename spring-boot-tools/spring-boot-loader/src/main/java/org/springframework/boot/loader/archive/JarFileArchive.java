@@ -29,6 +29,10 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.jar.JarEntry;
 import java.util.jar.Manifest;
 
@@ -90,6 +94,65 @@ public class JarFileArchive implements Archive {
 		return Collections.unmodifiableList(nestedArchives);
 	}
 
+	/**
+	 * Returns nested {@link Archive}s for entries that match the specified filter,
+	 * opening them concurrently with the given executor. The archives are returned in the
+	 * same order as {@link #getNestedArchives(EntryFilter)}.
+	 * @param filter the filter used to limit entries
+	 * @param executor the executor used to open the nested archives
+	 * @return nested archives
+	 * @throws IOException if nested archives cannot be read
+	 */
+	public List<Archive> getNestedArchives(EntryFilter filter, ExecutorService executor)
+			throws IOException {
+		List<Future<Archive>> futures = new ArrayList<Future<Archive>>();
+		for (final Entry entry : this) {
+			if (filter.matches(entry)) {
+				futures.add(executor.submit(new Callable<Archive>() {
+
+					@Override
+					public Archive call() throws Exception {
+						Archive archive = getNestedArchive(entry);
+						if (archive instanceof JarFileArchive) {
+							// Index the packages while we are in the background
+							((JarFileArchive) archive).jarFile.getPackageNames();
+						}
+						return archive;
+					}
+
+				}));
+			}
+		}
+		List<Archive> nestedArchives = new ArrayList<Archive>(futures.size());
+		for (Future<Archive> future : futures) {
+			nestedArchives.add(getNestedArchive(future));
+		}
+		return Collections.unmodifiableList(nestedArchives);
+	}
+
+	private Archive getNestedArchive(Future<Archive> future) throws IOException {
+		try {
+			return future.get();
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while opening nested archives", ex);
+		}
+		catch (ExecutionException ex) {
+			Throwable cause = ex.getCause();
+			if (cause instanceof IOException) {
+				throw (IOException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
 	@Override
 	public Iterator<Entry> iterator() {
 		return new EntryIterator(this.jarFile.entries());
@@ -116,7 +179,7 @@ public class JarFileArchive implements Archive {
 		return new JarFileArchive(file, file.toURI().toURL());
 	}
 
-	private File getTempUnpackFolder() {
+	private synchronized File getTempUnpackFolder() {
 		if (this.tempUnpackFolder == null) {
 			File tempFolder = new File(System.getProperty("java.io.tmpdir"));
 			this.tempUnpackFolder = createUnpackFolder(tempFolder);
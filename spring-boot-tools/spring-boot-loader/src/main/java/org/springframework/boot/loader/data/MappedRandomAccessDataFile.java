@@ -0,0 +1,262 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * {@link RandomAccessData} implementation backed by a read-only {@link MappedByteBuffer}.
+ * Unlike {@link RandomAccessDataFile} no file handles are acquired when reading, so any
+ * number of threads can read concurrently. Files that are larger than a single buffer
+ * can address are mapped in several chunks. Subsections share the mapped buffers of the
+ * file that they were created from.
+ * <p>
+ * The mapping is released when the buffers are garbage collected, {@link #close()} only
+ * drops the references that are held by this instance.
+ *
+ * @author Dave Syer
+ */
+public class MappedRandomAccessDataFile implements RandomAccessData {
+
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+	private final File file;
+
+	private final int chunkSize;
+
+	private volatile ByteBuffer[] chunks;
+
+	private final long offset;
+
+	private final long length;
+
+	/**
+	 * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+	 * @param file the underlying file
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	public MappedRandomAccessDataFile(File file) throws IOException {
+		this(file, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Create a new {@link MappedRandomAccessDataFile} backed by the specified file.
+	 * @param file the underlying file
+	 * @param chunkSize the maximum size of each mapped buffer
+	 * @throws IOException if the file cannot be mapped
+	 * @throws IllegalArgumentException if the file is null or does not exist
+	 */
+	MappedRandomAccessDataFile(File file, int chunkSize) throws IOException {
+		if (file == null) {
+			throw new IllegalArgumentException("File must not be null");
+		}
+		if (!file.exists()) {
+			throw new IllegalArgumentException("File must exist");
+		}
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.offset = 0L;
+		this.length = file.length();
+		this.chunks = map(file, this.length, chunkSize);
+	}
+
+	/**
+	 * Private constructor used to create a {@link #getSubsection(long, long) subsection}.
+	 * @param file the underlying file
+	 * @param chunkSize the maximum size of each mapped buffer
+	 * @param chunks the mapped buffers
+	 * @param offset the offset of the section
+	 * @param length the length of the section
+	 */
+	private MappedRandomAccessDataFile(File file, int chunkSize, ByteBuffer[] chunks,
+			long offset, long length) {
+		this.file = file;
+		this.chunkSize = chunkSize;
+		this.chunks = chunks;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	private static ByteBuffer[] map(File file, long length, int chunkSize)
+			throws IOException {
+		int count = (int) Math.max(1, (length + chunkSize - 1) / chunkSize);
+		ByteBuffer[] chunks = new ByteBuffer[count];
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			for (int i = 0; i < count; i++) {
+				long position = (long) i * chunkSize;
+				chunks[i] = channel.map(MapMode.READ_ONLY, position,
+						Math.min(chunkSize, length - position));
+			}
+		}
+		finally {
+			randomAccessFile.close();
+		}
+		return chunks;
+	}
+
+	/**
+	 * Returns the underlying File.
+	 * @return the underlying file
+	 */
+	public File getFile() {
+		return this.file;
+	}
+
+	@Override
+	public InputStream getInputStream(ResourceAccess access) throws IOException {
+		return new DataInputStream(getChunks());
+	}
+
+	@Override
+	public RandomAccessData getSubsection(long offset, long length) {
+		if (offset < 0 || length < 0 || offset + length > this.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new MappedRandomAccessDataFile(this.file, this.chunkSize, this.chunks,
+				this.offset + offset, length);
+	}
+
+	@Override
+	public long getSize() {
+		return this.length;
+	}
+
+	public void close() throws IOException {
+		this.chunks = null;
+	}
+
+	private ByteBuffer[] getChunks() throws IOException {
+		ByteBuffer[] chunks = this.chunks;
+		if (chunks == null) {
+			throw new IOException("File has been closed");
+		}
+		return chunks;
+	}
+
+	/**
+	 * {@link InputStream} implementation for the {@link MappedRandomAccessDataFile}.
+	 * Each stream reads through its own duplicates of the shared buffers.
+	 */
+	private class DataInputStream extends InputStream {
+
+		private final ByteBuffer[] chunks;
+
+		private final ByteBuffer[] buffers;
+
+		private long position;
+
+		DataInputStream(ByteBuffer[] chunks) {
+			this.chunks = chunks;
+			this.buffers = new ByteBuffer[chunks.length];
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (cap(1) <= 0) {
+				return -1;
+			}
+			long index = MappedRandomAccessDataFile.this.offset + this.position;
+			int chunkSize = MappedRandomAccessDataFile.this.chunkSize;
+			int rtn = this.chunks[(int) (index / chunkSize)].get((int) (index % chunkSize))
+					& 0xFF;
+			this.position++;
+			return rtn;
+		}
+
+		@Override
+		public int read(byte[] b) throws IOException {
+			return read(b, 0, b == null ? 0 : b.length);
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (b == null) {
+				throw new NullPointerException("Bytes must not be null");
+			}
+			if (len == 0) {
+				return 0;
+			}
+			int cappedLen = cap(len);
+			if (cappedLen <= 0) {
+				return -1;
+			}
+			int chunkSize = MappedRandomAccessDataFile.this.chunkSize;
+			int remaining = cappedLen;
+			while (remaining > 0) {
+				long index = MappedRandomAccessDataFile.this.offset + this.position;
+				int chunk = (int) (index / chunkSize);
+				int chunkIndex = (int) (index % chunkSize);
+				int amount = Math.min(remaining, chunkSize - chunkIndex);
+				ByteBuffer buffer = getBuffer(chunk);
+				buffer.position(chunkIndex);
+				buffer.get(b, off, amount);
+				off += amount;
+				remaining -= amount;
+				this.position += amount;
+			}
+			return cappedLen;
+		}
+
+		private ByteBuffer getBuffer(int chunk) {
+			ByteBuffer buffer = this.buffers[chunk];
+			if (buffer == null) {
+				buffer = this.chunks[chunk].duplicate();
+				this.buffers[chunk] = buffer;
+			}
+			return buffer;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			if (n <= 0) {
+				return 0;
+			}
+			long amount = Math.min(MappedRandomAccessDataFile.this.length - this.position,
+					n);
+			this.position += amount;
+			return amount;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return cap(Integer.MAX_VALUE);
+		}
+
+		/**
+		 * Cap the specified value such that it cannot exceed the number of bytes
+		 * remaining.
+		 * @param n the value to cap
+		 * @return the capped value
+		 */
+		private int cap(long n) {
+			return (int) Math.min(MappedRandomAccessDataFile.this.length - this.position,
+					n);
+		}
+
+	}
+
+}
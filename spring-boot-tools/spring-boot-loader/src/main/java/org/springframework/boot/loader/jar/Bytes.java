@@ -59,7 +59,7 @@ final class Bytes {
 		return fill(inputStream, bytes, 0, bytes.length);
 	}
 
-	private static boolean fill(InputStream inputStream, byte[] bytes, int offset,
+	public static boolean fill(InputStream inputStream, byte[] bytes, int offset,
 			int length) throws IOException {
 		while (length > 0) {
 			int read = inputStream.read(bytes, offset, length);
@@ -67,7 +67,7 @@ final class Bytes {
 				return false;
 			}
 			offset += read;
-			length = -read;
+			length -= read;
 		}
 		return true;
 	}
@@ -108,9 +108,24 @@ class CentralDirectoryEndRecord {
 	 * @return the central directory data
 	 */
 	public RandomAccessData getCentralDirectory(RandomAccessData data) {
-		long offset = Bytes.littleEndianValue(this.block, this.offset + 16, 4);
-		long length = Bytes.littleEndianValue(this.block, this.offset + 12, 4);
-		return data.getSubsection(offset, length);
+		return data.getSubsection(getCentralDirectoryOffset(),
+				getCentralDirectorySize());
+	}
+
+	/**
+	 * Return the offset of the "Central directory", as indicated in this record.
+	 * @return the offset of the central directory
+	 */
+	public long getCentralDirectoryOffset() {
+		return Bytes.littleEndianValue(this.block, this.offset + 16, 4);
+	}
+
+	/**
+	 * Return the size of the "Central directory", as indicated in this record.
+	 * @return the size of the central directory
+	 */
+	public long getCentralDirectorySize() {
+		return Bytes.littleEndianValue(this.block, this.offset + 12, 4);
 	}
 
 	/**
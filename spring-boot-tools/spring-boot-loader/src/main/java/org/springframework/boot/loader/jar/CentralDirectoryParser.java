@@ -76,7 +76,7 @@ class CentralDirectoryParser {
 		return data;
 	}
 
-	private RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord,
+	static RandomAccessData getArchiveData(CentralDirectoryEndRecord endRecord,
 			RandomAccessData data) {
 		long offset = endRecord.getStartOfArchive(data);
 		if (offset == 0) {
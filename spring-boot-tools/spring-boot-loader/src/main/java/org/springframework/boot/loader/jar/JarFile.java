@@ -24,12 +24,15 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.jar.JarInputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
+import org.springframework.boot.loader.data.MappedRandomAccessDataFile;
 import org.springframework.boot.loader.data.RandomAccessData;
 import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
 import org.springframework.boot.loader.data.RandomAccessDataFile;
@@ -42,6 +45,13 @@ import org.springframework.boot.loader.data.RandomAccessDataFile;
  * on any directory entry.</li>
  * <li>A nested {@link JarFile} can be {@link #getNestedJarFile(ZipEntry) obtained} for
  * embedded JAR files (as long as their entry is not compressed).</li>
+ * <li>Nested jars that are listed in a {@literal META-INF/loader.idx} index written
+ * when the archive was repackaged are opened without parsing their central
+ * directories.</li>
+ * <li>The data can be read through a memory mapping of the file (see
+ * {@link #JarFile(File, boolean)}) so that concurrent reads do not contend for file
+ * handles. Set the {@literal loader.mapped} system property to {@code true} to use a
+ * mapping for all jar files that are opened by the launcher.</li>
  * </ul>
  *
  * @author Phillip Webb
@@ -54,6 +64,8 @@ public class JarFile extends java.util.jar.JarFile {
 
 	private static final String HANDLERS_PACKAGE = "org.springframework.boot.loader";
 
+	private static final String MAPPED = "loader.mapped";
+
 	private static final AsciiBytes META_INF = new AsciiBytes("META-INF/");
 
 	private static final AsciiBytes SIGNATURE_FILE_EXTENSION = new AsciiBytes(".SF");
@@ -72,13 +84,32 @@ public class JarFile extends java.util.jar.JarFile {
 
 	private boolean signed;
 
+	private NestedJarIndex nestedJarIndex;
+
+	private Set<String> packageNames;
+
 	/**
 	 * Create a new {@link JarFile} backed by the specified file.
 	 * @param file the root jar file
 	 * @throws IOException if the file cannot be read
 	 */
 	public JarFile(File file) throws IOException {
-		this(new RandomAccessDataFile(file));
+		this(file, Boolean.getBoolean(MAPPED));
+	}
+
+	/**
+	 * Create a new {@link JarFile} backed by the specified file.
+	 * @param file the root jar file
+	 * @param mapped if the data should be read through a read-only memory mapping of the
+	 * file rather than through a pool of file handles
+	 * @throws IOException if the file cannot be read
+	 */
+	public JarFile(File file, boolean mapped) throws IOException {
+		this(new RandomAccessDataFile(file), mapped);
+	}
+
+	private JarFile(RandomAccessDataFile file, boolean mapped) throws IOException {
+		this(file, "", (mapped ? new MappedRandomAccessDataFile(file.getFile()) : file));
 	}
 
 	/**
@@ -100,18 +131,70 @@ public class JarFile extends java.util.jar.JarFile {
 	 */
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot,
 			RandomAccessData data) throws IOException {
-		this(rootFile, pathFromRoot, data, null);
+		this(rootFile, pathFromRoot, data, null, null);
 	}
 
 	private JarFile(RandomAccessDataFile rootFile, String pathFromRoot,
-			RandomAccessData data, JarEntryFilter filter) throws IOException {
+			RandomAccessData data, JarEntryFilter filter,
+			NestedJarIndex.Record indexRecord) throws IOException {
 		super(rootFile.getFile());
 		this.rootFile = rootFile;
 		this.pathFromRoot = pathFromRoot;
-		CentralDirectoryParser parser = new CentralDirectoryParser();
-		this.entries = parser.addVisitor(new JarFileEntries(this, filter));
-		parser.addVisitor(centralDirectoryVisitor());
-		this.data = parser.parse(data, filter == null);
+		this.entries = new JarFileEntries(this, filter);
+		RandomAccessData archiveData = null;
+		if (indexRecord != null) {
+			try {
+				archiveData = load(data, indexRecord);
+			}
+			catch (IndexOutOfBoundsException ex) {
+				// Parse as usual
+			}
+		}
+		if (archiveData == null) {
+			CentralDirectoryParser parser = new CentralDirectoryParser();
+			parser.addVisitor(this.entries);
+			parser.addVisitor(centralDirectoryVisitor());
+			archiveData = parser.parse(data, filter == null);
+		}
+		this.data = archiveData;
+	}
+
+	private RandomAccessData load(RandomAccessData data,
+			NestedJarIndex.Record indexRecord) throws IOException {
+		CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(data);
+		if (endRecord.getNumberOfRecords() != indexRecord.getNumberOfRecords()
+				|| endRecord.getCentralDirectoryOffset() != indexRecord
+						.getCentralDirectoryOffset()
+				|| endRecord.getCentralDirectorySize() != indexRecord
+						.getCentralDirectorySize()) {
+			return null;
+		}
+		data = CentralDirectoryParser.getArchiveData(endRecord, data);
+		RandomAccessData centralDirectoryData = endRecord.getCentralDirectory(data);
+		if (!isFirstEntryIndexed(centralDirectoryData, indexRecord)) {
+			return null;
+		}
+		this.entries.load(centralDirectoryData, indexRecord);
+		this.signed = indexRecord.isSigned();
+		this.packageNames = indexRecord.getPackages();
+		return data;
+	}
+
+	private boolean isFirstEntryIndexed(RandomAccessData centralDirectoryData,
+			NestedJarIndex.Record indexRecord) {
+		if (indexRecord.getNumberOfRecords() == 0) {
+			return true;
+		}
+		try {
+			CentralDirectoryFileHeader header = CentralDirectoryFileHeader
+					.fromRandomAccessData(centralDirectoryData,
+							indexRecord.getCentralDirectoryOffsets()[0]);
+			return header != null
+					&& header.getName().hashCode() == indexRecord.getHashCodes()[0];
+		}
+		catch (IOException ex) {
+			return false;
+		}
 	}
 
 	private CentralDirectoryVisitor centralDirectoryVisitor() {
@@ -211,13 +294,28 @@ public class JarFile extends java.util.jar.JarFile {
 		return this.entries.getInputStream(name, access);
 	}
 
+	/**
+	 * Return the uncompressed content of the specified entry. Unlike reading from
+	 * {@link #getInputStream(ZipEntry)}, compressed entries are inflated directly into an
+	 * array of the entry's size.
+	 * @param ze the zip entry
+	 * @return the content of the entry or {@code null} if the entry cannot be found
+	 * @throws IOException if the entry cannot be read
+	 */
+	public byte[] getBytes(ZipEntry ze) throws IOException {
+		if (ze instanceof JarEntry) {
+			return this.entries.getBytes((JarEntry) ze);
+		}
+		return (ze == null ? null : this.entries.getBytes(ze.getName()));
+	}
+
 	/**
 	 * Return a nested {@link JarFile} loaded from the specified entry.
 	 * @param entry the zip entry
 	 * @return a {@link JarFile} for the entry
 	 * @throws IOException if the nested jar file cannot be read
 	 */
-	public synchronized JarFile getNestedJarFile(final ZipEntry entry)
+	public JarFile getNestedJarFile(final ZipEntry entry)
 			throws IOException {
 		return getNestedJarFile((JarEntry) entry);
 	}
@@ -228,7 +326,7 @@ public class JarFile extends java.util.jar.JarFile {
 	 * @return a {@link JarFile} for the entry
 	 * @throws IOException if the nested jar file cannot be read
 	 */
-	public synchronized JarFile getNestedJarFile(JarEntry entry) throws IOException {
+	public JarFile getNestedJarFile(JarEntry entry) throws IOException {
 		try {
 			return createJarFileFromEntry(entry);
 		}
@@ -259,7 +357,7 @@ public class JarFile extends java.util.jar.JarFile {
 		return new JarFile(this.rootFile,
 				this.pathFromRoot + "!/"
 						+ entry.getName().substring(0, sourceName.length() - 1),
-				this.data, filter);
+				this.data, filter, null);
 	}
 
 	private JarFile createJarFileFromFileEntry(JarEntry entry) throws IOException {
@@ -271,7 +369,29 @@ public class JarFile extends java.util.jar.JarFile {
 		}
 		RandomAccessData entryData = this.entries.getEntryData(entry.getName());
 		return new JarFile(this.rootFile, this.pathFromRoot + "!/" + entry.getName(),
-				entryData);
+				entryData, null, getNestedJarIndex().getRecord(entry));
+	}
+
+	private synchronized NestedJarIndex getNestedJarIndex() {
+		if (this.nestedJarIndex == null) {
+			this.nestedJarIndex = (this.pathFromRoot.isEmpty()
+					? NestedJarIndex.load(this) : NestedJarIndex.NONE);
+		}
+		return this.nestedJarIndex;
+	}
+
+	/**
+	 * Return the names of the packages that contain at least one entry that is not a
+	 * directory. The root of the jar is returned as the empty package name. Nested jars
+	 * that have been opened from an index return the indexed names.
+	 * @return the package names
+	 */
+	public Set<String> getPackageNames() {
+		if (this.packageNames == null) {
+			this.packageNames = Collections
+					.unmodifiableSet(this.entries.getPackageNames());
+		}
+		return this.packageNames;
 	}
 
 	@Override
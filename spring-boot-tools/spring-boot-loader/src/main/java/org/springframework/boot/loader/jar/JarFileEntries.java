@@ -22,8 +22,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 
 import org.springframework.boot.loader.data.RandomAccessData;
@@ -94,6 +96,19 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		this.positions = new int[maxSize];
 	}
 
+	/**
+	 * Load the entries from an index rather than visiting each file header.
+	 * @param centralDirectoryData the central directory data
+	 * @param record the index record
+	 */
+	void load(RandomAccessData centralDirectoryData, NestedJarIndex.Record record) {
+		this.centralDirectoryData = centralDirectoryData;
+		this.size = record.getNumberOfRecords();
+		this.hashCodes = record.getHashCodes();
+		this.centralDirectoryOffsets = record.getCentralDirectoryOffsets();
+		this.positions = record.getPositions();
+	}
+
 	@Override
 	public void visitFileHeader(CentralDirectoryFileHeader fileHeader, int dataOffset) {
 		AsciiBytes name = applyFilter(fileHeader.getName());
@@ -187,6 +202,35 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		return inputStream;
 	}
 
+	public byte[] getBytes(String name) throws IOException {
+		FileHeader entry = getEntry(name, FileHeader.class, false);
+		return getBytes(entry);
+	}
+
+	public byte[] getBytes(FileHeader entry) throws IOException {
+		if (entry == null) {
+			return null;
+		}
+		RandomAccessData data = getEntryData(entry);
+		if (entry.getMethod() != ZipEntry.DEFLATED) {
+			return Bytes.get(data);
+		}
+		// Leave room for the extra "dummy" byte that the inflater needs
+		int compressedSize = (int) data.getSize();
+		byte[] compressed = new byte[compressedSize + 1];
+		InputStream inputStream = data.getInputStream(ResourceAccess.ONCE);
+		try {
+			if (!Bytes.fill(inputStream, compressed, 0, compressedSize)) {
+				throw new IOException("Unable to read bytes");
+			}
+		}
+		finally {
+			inputStream.close();
+		}
+		return ZipInflaterInputStream.inflate(compressed, compressed.length,
+				(int) entry.getSize());
+	}
+
 	public RandomAccessData getEntryData(String name) throws IOException {
 		FileHeader entry = getEntry(name, FileHeader.class, false);
 		if (entry == null) {
@@ -270,6 +314,27 @@ class JarFileEntries implements CentralDirectoryVisitor, Iterable<JarEntry> {
 		return index;
 	}
 
+	/**
+	 * Return the names of the packages that contain at least one (non-directory) entry.
+	 * The root of the jar is returned as the empty package name.
+	 * @return the package names
+	 */
+	public Set<String> getPackageNames() {
+		Set<String> packageNames = new LinkedHashSet<String>();
+		for (int i = 0; i < this.size; i++) {
+			FileHeader header = getEntry(this.positions[i], FileHeader.class, false);
+			String name = (header instanceof JarEntry ? ((JarEntry) header).getName()
+					: applyFilter(((CentralDirectoryFileHeader) header).getName())
+							.toString());
+			if (!name.endsWith(SLASH)) {
+				int lastSlash = name.lastIndexOf(SLASH);
+				packageNames.add(lastSlash == -1 ? NO_SUFFIX
+						: name.substring(0, lastSlash).replace('/', '.'));
+			}
+		}
+		return packageNames;
+	}
+
 	public void clearCache() {
 		this.entriesCache.clear();
 	}
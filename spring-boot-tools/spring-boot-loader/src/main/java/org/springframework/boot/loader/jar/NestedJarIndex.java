@@ -0,0 +1,227 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of the central directories of the nested jars in an archive, written when
+ * the archive is repackaged. Allows a nested {@link JarFile} to be opened without
+ * parsing its central directory. A {@link Record} is only returned when the CRC and size
+ * of the nested jar match the values that were indexed, and is only used when the
+ * offset and size of its central directory match as well. An index whose records are
+ * not internally consistent is ignored.
+ *
+ * @author Dave Syer
+ */
+class NestedJarIndex {
+
+	/**
+	 * The name of the entry that contains the index.
+	 */
+	static final String ENTRY_NAME = "META-INF/loader.idx";
+
+	static final NestedJarIndex NONE = new NestedJarIndex(
+			Collections.<String, Record>emptyMap());
+
+	private static final int MAGIC = 0x4e4a4958;
+
+	private static final int VERSION = 2;
+
+	private static final int FILE_HEADER_SIZE = 46;
+
+	private final Map<String, Record> records;
+
+	NestedJarIndex(Map<String, Record> records) {
+		this.records = records;
+	}
+
+	/**
+	 * Return the index record for the given nested jar entry.
+	 * @param entry the entry containing the nested jar
+	 * @return the record or {@code null} if the entry has not been indexed or the index
+	 * is stale
+	 */
+	public Record getRecord(JarEntry entry) {
+		Record record = this.records.get(entry.getName());
+		if (record == null || record.getSize() != entry.getSize()
+				|| record.getCrc() != entry.getCrc()) {
+			return null;
+		}
+		return record;
+	}
+
+	/**
+	 * Load the index of the given jar file.
+	 * @param jarFile the jar file
+	 * @return the index, or {@link #NONE} if the jar has no index or it cannot be read
+	 */
+	public static NestedJarIndex load(JarFile jarFile) {
+		try {
+			JarEntry entry = jarFile.getJarEntry(ENTRY_NAME);
+			if (entry == null) {
+				return NONE;
+			}
+			byte[] bytes = jarFile.getBytes(entry);
+			return load(new DataInputStream(new ByteArrayInputStream(bytes)));
+		}
+		catch (IOException ex) {
+			return NONE;
+		}
+	}
+
+	private static NestedJarIndex load(DataInputStream input) throws IOException {
+		if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+			return NONE;
+		}
+		int size = input.readInt();
+		Map<String, Record> records = new HashMap<String, Record>(size * 2);
+		for (int i = 0; i < size; i++) {
+			Record record = new Record(input);
+			records.put(record.getName(), record);
+		}
+		return new NestedJarIndex(records);
+	}
+
+	/**
+	 * The index of a single nested jar.
+	 */
+	static class Record {
+
+		private final String name;
+
+		private final long size;
+
+		private final long crc;
+
+		private final int numberOfRecords;
+
+		private final long centralDirectoryOffset;
+
+		private final long centralDirectorySize;
+
+		private final boolean signed;
+
+		private final int[] hashCodes;
+
+		private final int[] centralDirectoryOffsets;
+
+		private final int[] positions;
+
+		private final Set<String> packages;
+
+		Record(DataInputStream input) throws IOException {
+			this.name = input.readUTF();
+			this.size = input.readLong();
+			this.crc = input.readLong();
+			this.numberOfRecords = input.readInt();
+			this.centralDirectoryOffset = input.readLong();
+			this.centralDirectorySize = input.readLong();
+			this.signed = input.readBoolean();
+			this.hashCodes = read(input, this.numberOfRecords);
+			this.centralDirectoryOffsets = read(input, this.numberOfRecords);
+			this.positions = read(input, this.numberOfRecords);
+			validate();
+			int packages = input.readInt();
+			Set<String> names = new LinkedHashSet<String>(packages * 2);
+			for (int i = 0; i < packages; i++) {
+				names.add(input.readUTF());
+			}
+			this.packages = Collections.unmodifiableSet(names);
+		}
+
+		private void validate() throws IOException {
+			boolean[] positions = new boolean[this.numberOfRecords];
+			for (int i = 0; i < this.numberOfRecords; i++) {
+				int position = this.positions[i];
+				int offset = this.centralDirectoryOffsets[i];
+				if (position < 0 || position >= this.numberOfRecords
+						|| positions[position] || offset < 0
+						|| offset + FILE_HEADER_SIZE > this.centralDirectorySize
+						|| (i > 0 && this.hashCodes[i - 1] > this.hashCodes[i])) {
+					throw new IOException("Invalid index record for " + this.name);
+				}
+				positions[position] = true;
+			}
+		}
+
+		private int[] read(DataInputStream input, int size) throws IOException {
+			int[] values = new int[size];
+			for (int i = 0; i < size; i++) {
+				values[i] = input.readInt();
+			}
+			return values;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public long getSize() {
+			return this.size;
+		}
+
+		public long getCrc() {
+			return this.crc;
+		}
+
+		public int getNumberOfRecords() {
+			return this.numberOfRecords;
+		}
+
+		public long getCentralDirectoryOffset() {
+			return this.centralDirectoryOffset;
+		}
+
+		public long getCentralDirectorySize() {
+			return this.centralDirectorySize;
+		}
+
+		public boolean isSigned() {
+			return this.signed;
+		}
+
+		public int[] getHashCodes() {
+			return this.hashCodes;
+		}
+
+		public int[] getCentralDirectoryOffsets() {
+			return this.centralDirectoryOffsets;
+		}
+
+		public int[] getPositions() {
+			return this.positions;
+		}
+
+		/**
+		 * Return the names of the packages that contain at least one entry.
+		 * @return the package names
+		 */
+		public Set<String> getPackages() {
+			return this.packages;
+		}
+
+	}
+
+}
@@ -19,28 +19,44 @@ package org.springframework.boot.loader.jar;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
 
 /**
  * {@link InflaterInputStream} that supports the writing of an extra "dummy" byte (which
- * is required with JDK 6) and returns accurate available() results.
+ * is required with JDK 6) and returns accurate available() results. {@link Inflater}
+ * instances are pooled and returned to the pool as soon as the end of the data is
+ * reached or it cannot be inflated, so that streams that are not closed do not keep
+ * them.
  *
  * @author Phillip Webb
  */
 class ZipInflaterInputStream extends InflaterInputStream {
 
+	private static final int MAX_POOLED_INFLATERS = 16;
+
+	private static final Deque<Inflater> inflaters = new ArrayDeque<Inflater>();
+
 	private boolean extraBytesWritten;
 
 	private int available;
 
+	private boolean released;
+
 	ZipInflaterInputStream(InputStream inputStream, int size) {
-		super(inputStream, new Inflater(true), getInflaterBufferSize(size));
+		super(inputStream, obtainInflater(), getInflaterBufferSize(size));
 		this.available = size;
 	}
 
 	@Override
 	public int available() throws IOException {
+		if (this.released) {
+			return 0;
+		}
 		if (this.available < 0) {
 			return super.available();
 		}
@@ -49,10 +65,23 @@ class ZipInflaterInputStream extends InflaterInputStream {
 
 	@Override
 	public int read(byte[] b, int off, int len) throws IOException {
-		int result = super.read(b, off, len);
+		if (this.released) {
+			return -1;
+		}
+		int result;
+		try {
+			result = super.read(b, off, len);
+		}
+		catch (IOException ex) {
+			release();
+			throw ex;
+		}
 		if (result != -1) {
 			this.available -= result;
 		}
+		if (result == -1 || this.inf.finished()) {
+			release();
+		}
 		return result;
 	}
 
@@ -72,6 +101,72 @@ class ZipInflaterInputStream extends InflaterInputStream {
 		}
 	}
 
+	@Override
+	public void close() throws IOException {
+		super.close();
+		release();
+	}
+
+	private void release() {
+		if (!this.released) {
+			this.released = true;
+			releaseInflater(this.inf);
+		}
+	}
+
+	/**
+	 * Inflate the given deflated data directly into an array of the given size. The
+	 * input must include an extra "dummy" byte after the deflated data.
+	 * @param input the deflated data
+	 * @param length the length of the input, including the extra byte
+	 * @param size the size of the inflated data
+	 * @return the inflated data
+	 * @throws IOException if the data cannot be inflated
+	 */
+	static byte[] inflate(byte[] input, int length, int size) throws IOException {
+		Inflater inflater = obtainInflater();
+		try {
+			inflater.setInput(input, 0, length);
+			byte[] bytes = new byte[size];
+			int offset = 0;
+			while (offset < size) {
+				int inflated = inflater.inflate(bytes, offset, size - offset);
+				if (inflated == 0) {
+					throw new EOFException("Unexpected end of deflated data");
+				}
+				offset += inflated;
+			}
+			return bytes;
+		}
+		catch (DataFormatException ex) {
+			throw new ZipException(ex.getMessage());
+		}
+		finally {
+			releaseInflater(inflater);
+		}
+	}
+
+	private static Inflater obtainInflater() {
+		synchronized (inflaters) {
+			Inflater inflater = inflaters.poll();
+			if (inflater != null) {
+				return inflater;
+			}
+		}
+		return new Inflater(true);
+	}
+
+	private static void releaseInflater(Inflater inflater) {
+		inflater.reset();
+		synchronized (inflaters) {
+			if (inflaters.size() < MAX_POOLED_INFLATERS) {
+				inflaters.push(inflater);
+				return;
+			}
+		}
+		inflater.end();
+	}
+
 	private static int getInflaterBufferSize(long size) {
 		size += 2; // inflater likes some space
 		size = (size > 65536 ? 8192 : size);
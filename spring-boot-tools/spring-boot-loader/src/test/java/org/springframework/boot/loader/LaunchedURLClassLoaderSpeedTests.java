@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import org.springframework.boot.loader.jar.Handler;
+import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.util.StopWatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Speed tests for resource and class lookups in {@link LaunchedURLClassLoader} with
+ * increasing numbers of nested jars, compared with a plain {@link URLClassLoader} that
+ * probes every jar in turn.
+ *
+ * @author Dave Syer
+ */
+@RunWith(Theories.class)
+public class LaunchedURLClassLoaderSpeedTests {
+
+	@ClassRule
+	public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@DataPoints
+	public static int[] jars = new int[] { 20, 200 };
+
+	private static final int number = Boolean.getBoolean("performance.test") ? 100000
+			: 2000;
+
+	private static StopWatch watch = new StopWatch("launchedUrlClassLoader");
+
+	private static JarFile jarFile;
+
+	@BeforeClass
+	public static void createJar() throws Exception {
+		File file = temporaryFolder.newFile();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(file));
+		try {
+			for (int i = 0; i < 200; i++) {
+				writeNestedJar(output, i);
+			}
+		}
+		finally {
+			output.close();
+		}
+		jarFile = new JarFile(file);
+	}
+
+	@AfterClass
+	public static void washup() throws IOException {
+		System.err.println(watch.prettyPrint());
+		jarFile.close();
+	}
+
+	@Theory
+	public void launchedUrlClassLoader(int jarCount) throws Exception {
+		iterate("launched" + jarCount, jarCount,
+				new LaunchedURLClassLoader(getUrls(jarCount), null));
+	}
+
+	@Theory
+	public void urlClassLoader(int jarCount) throws Exception {
+		iterate("plain" + jarCount, jarCount,
+				new URLClassLoader(getUrls(jarCount), null));
+	}
+
+	private void iterate(String taskName, int jarCount, URLClassLoader loader)
+			throws Exception {
+		// The resource in the last jar is the worst case for probing
+		String name = "p" + (jarCount - 1) + "/resource.txt";
+		watch.start(taskName);
+		Handler.setUseFastConnectionExceptions(true);
+		try {
+			for (int i = 0; i < number; i++) {
+				loader.getResource(name);
+				loader.getResource("missing/resource.txt");
+				try {
+					loader.loadClass("missing.Missing");
+				}
+				catch (ClassNotFoundException ex) {
+					// Expected
+				}
+			}
+		}
+		finally {
+			Handler.setUseFastConnectionExceptions(false);
+		}
+		watch.stop();
+		assertThat(loader.getResource(name)).isNotNull();
+		assertThat(loader.getResource("missing/resource.txt")).isNull();
+		double rate = (double) number / watch.getLastTaskTimeMillis() * 1000;
+		System.err.println("Rate(" + taskName + ")=" + rate);
+	}
+
+	private URL[] getUrls(int jarCount) throws IOException {
+		URL[] urls = new URL[jarCount];
+		for (int i = 0; i < jarCount; i++) {
+			urls[i] = jarFile.getNestedJarFile(jarFile.getEntry("lib" + i + ".jar"))
+					.getUrl();
+		}
+		return urls;
+	}
+
+	private static void writeNestedJar(JarOutputStream output, int index)
+			throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		JarOutputStream nested = new JarOutputStream(bytes, new Manifest());
+		nested.putNextEntry(new JarEntry("p" + index + "/"));
+		nested.closeEntry();
+		nested.putNextEntry(new JarEntry("p" + index + "/resource.txt"));
+		nested.write(index);
+		nested.closeEntry();
+		nested.close();
+		byte[] data = bytes.toByteArray();
+		JarEntry entry = new JarEntry("lib" + index + ".jar");
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		entry.setCrc(crc.getValue());
+		entry.setSize(data.length);
+		entry.setCompressedSize(data.length);
+		entry.setMethod(ZipEntry.STORED);
+		output.putNextEntry(entry);
+		output.write(data);
+		output.closeEntry();
+	}
+
+}
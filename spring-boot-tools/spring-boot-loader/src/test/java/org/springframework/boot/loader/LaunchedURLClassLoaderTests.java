@@ -17,15 +17,31 @@
 package org.springframework.boot.loader;
 
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
 
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 import org.junit.rules.TemporaryFolder;
 
 import org.springframework.boot.loader.jar.JarFile;
+import org.springframework.util.StreamUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 /**
  * Tests for {@link LaunchedURLClassLoader}.
@@ -36,6 +52,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 @SuppressWarnings("resource")
 public class LaunchedURLClassLoaderTests {
 
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
 	@Rule
 	public TemporaryFolder temporaryFolder = new TemporaryFolder();
 
@@ -85,4 +104,104 @@ public class LaunchedURLClassLoaderTests {
 		assertThat(resource.openConnection().getInputStream().read()).isEqualTo(3);
 	}
 
+	@Test
+	public void resolveResourceFromIndexedNestedJars() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(file);
+		JarFile jarFile = new JarFile(file);
+		URL nested = jarFile.getNestedJarFile(jarFile.getEntry("nested.jar")).getUrl();
+		URL another = jarFile.getNestedJarFile(jarFile.getEntry("another-nested.jar"))
+				.getUrl();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(
+				new URL[] { nested, another }, null);
+		URL resource = loader.getResource("3.dat");
+		assertThat(resource.toString()).isEqualTo(nested + "3.dat");
+		assertThat(resource.openConnection().getInputStream().read()).isEqualTo(3);
+		List<URL> resources = Collections.list(loader.getResources("3.dat"));
+		assertThat(resources).hasSize(2);
+		assertThat(resources.get(1).toString()).isEqualTo(another + "3.dat");
+		resource = loader.getResource("\u00E4.dat");
+		assertThat(resource.openConnection().getInputStream().read())
+				.isEqualTo(0xE4);
+		assertThat(loader.getResource("missing.dat")).isNull();
+		assertThat(loader.getResource("META-INF/")).isNotNull();
+	}
+
+	@Test
+	public void loadClassFromIndexedJar() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(file),
+				new Manifest());
+		String name = TestJarCreator.class.getName().replace('.', '/') + ".class";
+		output.putNextEntry(new ZipEntry(name));
+		InputStream inputStream = getClass().getResourceAsStream("/" + name);
+		StreamUtils.copy(inputStream, output);
+		inputStream.close();
+		output.closeEntry();
+		output.close();
+		URL url = new JarFile(file).getUrl();
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(new URL[] { url },
+				null);
+		Class<?> type = loader.loadClass(TestJarCreator.class.getName());
+		assertThat(type.getClassLoader()).isSameAs(loader);
+		assertThat(type.getPackage().getName())
+				.isEqualTo(TestJarCreator.class.getPackage().getName());
+		assertThat(type.getProtectionDomain().getCodeSource().getLocation())
+				.isEqualTo(url);
+		this.thrown.expect(ClassNotFoundException.class);
+		loader.loadClass("org.springframework.boot.loader.Missing");
+	}
+
+	@Test
+	public void indexedLookupsOnlyProbeJarsThatContainThePackage() throws Exception {
+		JarFile first = spy(createJar("a/first.txt"));
+		JarFile second = spy(createJar("b/second.txt"));
+		LaunchedURLClassLoader loader = new LaunchedURLClassLoader(
+				new URL[] { getUrl(first), getUrl(second) }, null);
+		assertThat(loader.findResource("b/second.txt")).isNotNull();
+		assertThat(loader.findResource("c/missing.txt")).isNull();
+		try {
+			loader.loadClass("c.Missing");
+		}
+		catch (ClassNotFoundException ex) {
+			// Expected
+		}
+		verify(first, never()).getEntry(anyString());
+		verify(second).getEntry("b/second.txt");
+		verify(second, never()).getEntry("c/missing.txt");
+	}
+
+	private JarFile createJar(String entryName) throws IOException {
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(file));
+		output.putNextEntry(new ZipEntry(entryName));
+		output.write(1);
+		output.closeEntry();
+		output.close();
+		return new JarFile(file);
+	}
+
+	private URL getUrl(final JarFile jarFile) throws IOException {
+		return new URL("jar", null, -1, jarFile.getUrl().getFile(),
+				new URLStreamHandler() {
+
+					@Override
+					protected URLConnection openConnection(URL url) throws IOException {
+						return new URLConnection(url) {
+
+							@Override
+							public void connect() throws IOException {
+							}
+
+							@Override
+							public Object getContent() throws IOException {
+								return jarFile;
+							}
+
+						};
+					}
+
+				});
+	}
+
 }
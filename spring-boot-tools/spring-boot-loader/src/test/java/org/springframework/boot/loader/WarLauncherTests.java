@@ -78,6 +78,24 @@ public class WarLauncherTests {
 				new URL("jar:" + warRoot.toURI().toURL() + "!/WEB-INF/lib/foo.jar!/"));
 	}
 
+	@Test
+	public void archivedWarNestedArchivesCanBeOpenedInParallel() throws Exception {
+		File warRoot = createWarArchive();
+		System.setProperty("loader.parallel", "true");
+		try {
+			WarLauncher launcher = new WarLauncher(new JarFileArchive(warRoot));
+			List<Archive> archives = launcher.getClassPathArchives();
+			assertThat(archives).hasSize(2);
+			assertThat(getUrls(archives)).containsOnly(
+					new URL("jar:" + warRoot.toURI().toURL() + "!/WEB-INF/classes!/"),
+					new URL("jar:" + warRoot.toURI().toURL()
+							+ "!/WEB-INF/lib/foo.jar!/"));
+		}
+		finally {
+			System.clearProperty("loader.parallel");
+		}
+	}
+
 	private Set<URL> getUrls(List<Archive> archives) throws MalformedURLException {
 		Set<URL> urls = new HashSet<URL>(archives.size());
 		for (Archive archive : archives) {
@@ -19,7 +19,10 @@ package org.springframework.boot.loader.archive;
 import java.io.File;
 import java.net.URL;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Before;
 import org.junit.Rule;
@@ -86,6 +89,57 @@ public class JarFileArchiveTests {
 				.isEqualTo("jar:" + this.rootJarFileUrl + "!/nested.jar!/");
 	}
 
+	@Test
+	public void getNestedArchivesInParallel() throws Exception {
+		Archive.EntryFilter filter = new Archive.EntryFilter() {
+
+			@Override
+			public boolean matches(Entry entry) {
+				return entry.getName().endsWith(".jar") || entry.getName().equals("d/");
+			}
+
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Archive> nested = this.archive.getNestedArchives(filter, executor);
+			List<Archive> expected = this.archive.getNestedArchives(filter);
+			assertThat(nested).hasSize(3);
+			for (int i = 0; i < expected.size(); i++) {
+				assertThat(nested.get(i).getUrl())
+						.isEqualTo(expected.get(i).getUrl());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void getNestedUnpackedArchivesInParallel() throws Exception {
+		setup(true);
+		Archive.EntryFilter filter = new Archive.EntryFilter() {
+
+			@Override
+			public boolean matches(Entry entry) {
+				return entry.getName().endsWith(".jar");
+			}
+
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Archive> nested = this.archive.getNestedArchives(filter, executor);
+			assertThat(nested).hasSize(2);
+			assertThat(nested.get(0).getUrl().toString()).endsWith("/nested.jar");
+			assertThat(nested.get(1).getUrl().toString())
+					.endsWith("/another-nested.jar");
+			assertThat(new File(nested.get(0).getUrl().toURI()).getParentFile())
+					.isEqualTo(new File(nested.get(1).getUrl().toURI()).getParentFile());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void getNestedUnpackedArchive() throws Exception {
 		setup(true);
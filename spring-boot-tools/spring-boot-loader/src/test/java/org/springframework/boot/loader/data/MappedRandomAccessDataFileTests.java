@@ -0,0 +1,235 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.data;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.boot.loader.data.RandomAccessData.ResourceAccess;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link MappedRandomAccessDataFile}.
+ *
+ * @author Dave Syer
+ */
+public class MappedRandomAccessDataFileTests {
+
+	private static final byte[] BYTES;
+
+	static {
+		BYTES = new byte[256];
+		for (int i = 0; i < BYTES.length; i++) {
+			BYTES[i] = (byte) i;
+		}
+	}
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File tempFile;
+
+	private MappedRandomAccessDataFile file;
+
+	private InputStream inputStream;
+
+	@Before
+	public void setup() throws Exception {
+		this.tempFile = this.temporaryFolder.newFile();
+		FileOutputStream outputStream = new FileOutputStream(this.tempFile);
+		outputStream.write(BYTES);
+		outputStream.close();
+		this.file = new MappedRandomAccessDataFile(this.tempFile);
+		this.inputStream = this.file.getInputStream(ResourceAccess.PER_READ);
+	}
+
+	@After
+	public void cleanup() throws Exception {
+		this.inputStream.close();
+		this.file.close();
+	}
+
+	@Test
+	public void fileNotNull() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must not be null");
+		new MappedRandomAccessDataFile(null);
+	}
+
+	@Test
+	public void fileExists() throws Exception {
+		this.thrown.expect(IllegalArgumentException.class);
+		this.thrown.expectMessage("File must exist");
+		new MappedRandomAccessDataFile(new File("/does/not/exist"));
+	}
+
+	@Test
+	public void inputStreamRead() throws Exception {
+		for (int i = 0; i <= 255; i++) {
+			assertThat(this.inputStream.read()).isEqualTo(i);
+		}
+		assertThat(this.inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamReadNullBytes() throws Exception {
+		this.thrown.expect(NullPointerException.class);
+		this.thrown.expectMessage("Bytes must not be null");
+		this.inputStream.read(null);
+	}
+
+	@Test
+	public void inputStreamReadBytes() throws Exception {
+		byte[] b = new byte[256];
+		int amountRead = this.inputStream.read(b);
+		assertThat(b).isEqualTo(BYTES);
+		assertThat(amountRead).isEqualTo(256);
+	}
+
+	@Test
+	public void inputStreamReadOffsetBytes() throws Exception {
+		byte[] b = new byte[7];
+		this.inputStream.skip(1);
+		int amountRead = this.inputStream.read(b, 2, 3);
+		assertThat(b).isEqualTo(new byte[] { 0, 0, 1, 2, 3, 0, 0 });
+		assertThat(amountRead).isEqualTo(3);
+	}
+
+	@Test
+	public void inputStreamReadMoreBytesThanAvailable() throws Exception {
+		byte[] b = new byte[257];
+		int amountRead = this.inputStream.read(b);
+		assertThat(b).startsWith(BYTES);
+		assertThat(amountRead).isEqualTo(256);
+		assertThat(this.inputStream.read(b)).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamReadZeroLength() throws Exception {
+		byte[] b = new byte[] { 0x0F };
+		int amountRead = this.inputStream.read(b, 0, 0);
+		assertThat(b).isEqualTo(new byte[] { 0x0F });
+		assertThat(amountRead).isEqualTo(0);
+		assertThat(this.inputStream.read()).isEqualTo(0);
+	}
+
+	@Test
+	public void inputStreamSkip() throws Exception {
+		assertThat(this.inputStream.skip(-1)).isEqualTo(0L);
+		assertThat(this.inputStream.skip(4)).isEqualTo(4L);
+		assertThat(this.inputStream.read()).isEqualTo(4);
+		assertThat(this.inputStream.skip(300)).isEqualTo(251L);
+		assertThat(this.inputStream.read()).isEqualTo(-1);
+	}
+
+	@Test
+	public void inputStreamAvailable() throws Exception {
+		assertThat(this.inputStream.available()).isEqualTo(256);
+		this.inputStream.skip(10);
+		assertThat(this.inputStream.available()).isEqualTo(246);
+	}
+
+	@Test
+	public void subsectionTooBig() throws Exception {
+		this.file.getSubsection(1, 255);
+		this.thrown.expect(IndexOutOfBoundsException.class);
+		this.file.getSubsection(1, 256);
+	}
+
+	@Test
+	public void nestedSubsection() throws Exception {
+		RandomAccessData subsection = this.file.getSubsection(10, 20).getSubsection(5,
+				3);
+		assertThat(subsection.getSize()).isEqualTo(3);
+		InputStream inputStream = subsection.getInputStream(ResourceAccess.PER_READ);
+		byte[] b = new byte[4];
+		assertThat(inputStream.read(b)).isEqualTo(3);
+		assertThat(b).isEqualTo(new byte[] { 15, 16, 17, 0 });
+	}
+
+	@Test
+	public void readsAcrossChunks() throws Exception {
+		MappedRandomAccessDataFile file = new MappedRandomAccessDataFile(this.tempFile,
+				16);
+		InputStream inputStream = file.getSubsection(10, 100)
+				.getInputStream(ResourceAccess.ONCE);
+		byte[] b = new byte[100];
+		assertThat(inputStream.read(b)).isEqualTo(100);
+		assertThat(b).isEqualTo(Arrays.copyOfRange(BYTES, 10, 110));
+		inputStream = file.getInputStream(ResourceAccess.ONCE);
+		for (int i = 0; i <= 255; i++) {
+			assertThat(inputStream.read()).isEqualTo(i);
+		}
+	}
+
+	@Test
+	public void getFile() throws Exception {
+		assertThat(this.file.getFile()).isEqualTo(this.tempFile);
+	}
+
+	@Test
+	public void concurrentReads() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(20);
+		List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < 100; i++) {
+			results.add(executorService.submit(new Callable<Boolean>() {
+
+				@Override
+				public Boolean call() throws Exception {
+					InputStream subsectionInputStream = MappedRandomAccessDataFileTests.this.file
+							.getSubsection(0, 256)
+							.getInputStream(ResourceAccess.PER_READ);
+					byte[] b = new byte[256];
+					subsectionInputStream.read(b);
+					return Arrays.equals(b, BYTES);
+				}
+			}));
+		}
+		for (Future<Boolean> future : results) {
+			assertThat(future.get()).isTrue();
+		}
+		executorService.shutdown();
+	}
+
+	@Test
+	public void readAfterClose() throws Exception {
+		this.file.close();
+		this.thrown.expect(IOException.class);
+		this.file.getInputStream(ResourceAccess.PER_READ);
+	}
+
+}
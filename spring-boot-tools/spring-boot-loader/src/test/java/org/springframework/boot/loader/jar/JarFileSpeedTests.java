@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.experimental.theories.DataPoints;
+import org.junit.experimental.theories.Theories;
+import org.junit.experimental.theories.Theory;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import org.springframework.boot.loader.LaunchedURLClassLoader;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.StopWatch;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Speed tests for reading and loading all of the classes in the nested jars of a sample
+ * fat jar, comparing {@link JarFile#getBytes(ZipEntry)} with reading from
+ * {@link JarFile#getInputStream(ZipEntry)}.
+ *
+ * @author Dave Syer
+ */
+@RunWith(Theories.class)
+public class JarFileSpeedTests {
+
+	@ClassRule
+	public static TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@DataPoints
+	public static boolean[] direct = new boolean[] { false, true };
+
+	private static final int number = Boolean.getBoolean("performance.test") ? 100
+			: 3;
+
+	private static StopWatch watch = new StopWatch("jarFile");
+
+	private static JarFile jarFile;
+
+	private static List<JarFile> nestedJarFiles = new ArrayList<JarFile>();
+
+	@BeforeClass
+	public static void createJar() throws Exception {
+		File file = temporaryFolder.newFile();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(file));
+		try {
+			writeNestedJar(output, StringUtils.class);
+			writeNestedJar(output, Test.class);
+		}
+		finally {
+			output.close();
+		}
+		jarFile = new JarFile(file);
+		for (java.util.jar.JarEntry entry : Collections.list(jarFile.entries())) {
+			nestedJarFiles.add(jarFile.getNestedJarFile(entry));
+		}
+	}
+
+	@AfterClass
+	public static void washup() throws IOException {
+		System.err.println(watch.prettyPrint());
+		jarFile.close();
+	}
+
+	@Theory
+	public void readClasses(boolean direct) throws Exception {
+		String taskName = (direct ? "direct" : "stream");
+		long expected = 0;
+		long total = 0;
+		watch.start(taskName);
+		for (int i = 0; i < number; i++) {
+			for (JarFile nestedJarFile : nestedJarFiles) {
+				for (java.util.jar.JarEntry entry : Collections.list(nestedJarFile
+						.entries())) {
+					if (entry.getName().endsWith(".class")) {
+						expected += entry.getSize();
+						total += (direct ? nestedJarFile.getBytes(entry).length
+								: read(nestedJarFile, entry));
+					}
+				}
+			}
+		}
+		watch.stop();
+		assertThat(total).isEqualTo(expected);
+		double rate = (double) total / watch.getLastTaskTimeMillis() * 1000;
+		System.err.println("Rate(" + taskName + ")=" + rate);
+	}
+
+	@Test
+	public void loadClasses() throws Exception {
+		URL[] urls = new URL[nestedJarFiles.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = nestedJarFiles.get(i).getUrl();
+		}
+		int loaded = 0;
+		watch.start("loadClasses");
+		for (int i = 0; i < number; i++) {
+			LaunchedURLClassLoader loader = new LaunchedURLClassLoader(urls, null);
+			for (JarFile nestedJarFile : nestedJarFiles) {
+				for (java.util.jar.JarEntry entry : Collections.list(nestedJarFile
+						.entries())) {
+					String name = entry.getName();
+					if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+						try {
+							loader.loadClass(name.substring(0, name.length() - 6)
+									.replace('/', '.'));
+							loaded++;
+						}
+						catch (LinkageError ex) {
+							// Optional dependencies are not available
+						}
+					}
+				}
+			}
+		}
+		watch.stop();
+		assertThat(loaded).isGreaterThan(0);
+		double rate = (double) loaded / watch.getLastTaskTimeMillis() * 1000;
+		System.err.println("Rate(loadClasses)=" + rate);
+	}
+
+	private int read(JarFile jarFile, java.util.jar.JarEntry entry) throws IOException {
+		InputStream inputStream = jarFile.getInputStream(entry);
+		try {
+			return StreamUtils.copyToByteArray(inputStream).length;
+		}
+		finally {
+			inputStream.close();
+		}
+	}
+
+	private static void writeNestedJar(JarOutputStream output, Class<?> type)
+			throws Exception {
+		File file = new File(
+				type.getProtectionDomain().getCodeSource().getLocation().toURI());
+		byte[] data = FileCopyUtils.copyToByteArray(file);
+		ZipEntry entry = new ZipEntry("lib/" + file.getName());
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		entry.setCrc(crc.getValue());
+		entry.setSize(data.length);
+		entry.setCompressedSize(data.length);
+		entry.setMethod(ZipEntry.STORED);
+		output.putNextEntry(entry);
+		output.write(data);
+		output.closeEntry();
+	}
+
+}
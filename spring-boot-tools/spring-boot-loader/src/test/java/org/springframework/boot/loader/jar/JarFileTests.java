@@ -27,6 +27,7 @@ import java.net.URLClassLoader;
 import java.nio.charset.Charset;
 import java.util.Enumeration;
 import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.jar.Manifest;
 import java.util.zip.ZipEntry;
 
@@ -155,6 +156,56 @@ public class JarFileTests {
 		assertThat(inputStream.read()).isEqualTo(-1);
 	}
 
+	@Test
+	public void getBytes() throws Exception {
+		assertThat(this.jarFile.getBytes(this.jarFile.getEntry("1.dat")))
+				.isEqualTo(new byte[] { 1 });
+		assertThat(this.jarFile.getBytes(new ZipEntry("2.dat")))
+				.isEqualTo(new byte[] { 2 });
+	}
+
+	@Test
+	public void getBytesOfMissingEntry() throws Exception {
+		assertThat(this.jarFile.getBytes(null)).isNull();
+		assertThat(this.jarFile.getBytes(new ZipEntry("missing.dat"))).isNull();
+	}
+
+	@Test
+	public void getBytesMatchesInputStream() throws Exception {
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream jarOutputStream = new JarOutputStream(
+				new FileOutputStream(file));
+		try {
+			for (int size : new int[] { 0, 1, 8192, 100000 }) {
+				jarOutputStream.putNextEntry(new JarEntry(size + ".txt"));
+				for (int i = 0; i < size; i++) {
+					jarOutputStream.write(i % 10 == 0 ? '\n' : 'a' + i % 26);
+				}
+				jarOutputStream.closeEntry();
+			}
+		}
+		finally {
+			jarOutputStream.close();
+		}
+		JarFile jarFile = new JarFile(file);
+		java.util.jar.JarFile jdkJarFile = new java.util.jar.JarFile(file);
+		try {
+			Enumeration<java.util.jar.JarEntry> entries = jarFile.entries();
+			while (entries.hasMoreElements()) {
+				java.util.jar.JarEntry entry = entries.nextElement();
+				byte[] expected = StreamUtils.copyToByteArray(
+						jdkJarFile.getInputStream(jdkJarFile.getEntry(entry.getName())));
+				assertThat(jarFile.getBytes(entry)).isEqualTo(expected);
+				assertThat(StreamUtils.copyToByteArray(jarFile.getInputStream(entry)))
+						.isEqualTo(expected);
+			}
+		}
+		finally {
+			jdkJarFile.close();
+			jarFile.close();
+		}
+	}
+
 	@Test
 	public void getName() throws Exception {
 		assertThat(this.jarFile.getName()).isEqualTo(this.rootJarFile.getPath());
@@ -253,6 +304,8 @@ public class JarFileTests {
 				.getInputStream(nestedJarFile.getEntry("3.dat"));
 		assertThat(inputStream.read()).isEqualTo(3);
 		assertThat(inputStream.read()).isEqualTo(-1);
+		assertThat(nestedJarFile.getBytes(nestedJarFile.getEntry("4.dat")))
+				.isEqualTo(new byte[] { 4 });
 
 		URL url = nestedJarFile.getUrl();
 		assertThat(url.toString())
@@ -390,6 +443,17 @@ public class JarFileTests {
 		getNestedJarFile();
 	}
 
+	@Test
+	public void memoryMappedJarFile() throws Exception {
+		this.jarFile = new JarFile(this.rootJarFile, true);
+		// Call some other tests to verify
+		getEntries();
+		getInputStream();
+		getBytes();
+		getNestedJarFile();
+		getNestedJarDirectory();
+	}
+
 	@Test
 	public void cannotLoadMissingJar() throws Exception {
 		// relates to gh-1070
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.springframework.boot.loader.TestJarCreator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link NestedJarIndex}.
+ *
+ * @author Dave Syer
+ */
+public class NestedJarIndexTests {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File plainJarFile;
+
+	private JarFile jarFile;
+
+	private JarFile indexedJarFile;
+
+	@Before
+	public void setup() throws Exception {
+		this.plainJarFile = this.temporaryFolder.newFile();
+		TestJarCreator.createTestJar(this.plainJarFile);
+		this.jarFile = new JarFile(this.plainJarFile);
+	}
+
+	@After
+	public void close() throws Exception {
+		this.jarFile.close();
+		if (this.indexedJarFile != null) {
+			this.indexedJarFile.close();
+		}
+	}
+
+	@Test
+	public void noIndex() throws Exception {
+		assertThat(NestedJarIndex.load(this.jarFile)).isSameAs(NestedJarIndex.NONE);
+	}
+
+	@Test
+	public void nestedJarFileIsLoadedFromIndex() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		this.indexedJarFile = createIndexedJar(indexOf(entry, entry.getCrc(), 2));
+		JarFile nested = this.indexedJarFile
+				.getNestedJarFile(this.indexedJarFile.getEntry("nested.jar"));
+		NestedJarIndex index = (NestedJarIndex) ReflectionTestUtils
+				.getField(this.indexedJarFile, "nestedJarIndex");
+		NestedJarIndex.Record record = index
+				.getRecord(this.indexedJarFile.getJarEntry("nested.jar"));
+		assertThat(record).isNotNull();
+		assertThat(record.getPackages()).containsExactly("");
+		assertThat(getHashCodes(nested)).isSameAs(record.getHashCodes());
+		assertThat(getEntryNames(nested)).isEqualTo(
+				getEntryNames(this.jarFile.getNestedJarFile(entry)));
+		InputStream inputStream = nested.getInputStream(nested.getEntry("3.dat"));
+		assertThat(StreamUtils.copyToByteArray(inputStream))
+				.isEqualTo(new byte[] { 3 });
+		assertThat(nested.getEntry("\u00E4.dat")).isNotNull();
+		assertThat(nested.getEntry("missing.dat")).isNull();
+		assertThat(nested.getManifest().getMainAttributes().getValue("Built-By"))
+				.isEqualTo("j2");
+	}
+
+	@Test
+	public void staleIndexIsIgnored() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		this.indexedJarFile = createIndexedJar(indexOf(entry, entry.getCrc() + 1, 2));
+		assertThat(NestedJarIndex.load(this.indexedJarFile)
+				.getRecord(this.indexedJarFile.getJarEntry("nested.jar"))).isNull();
+		JarFile nested = this.indexedJarFile
+				.getNestedJarFile(this.indexedJarFile.getEntry("nested.jar"));
+		assertThat(getEntryNames(nested)).isEqualTo(
+				getEntryNames(this.jarFile.getNestedJarFile(entry)));
+	}
+
+	@Test
+	public void unknownVersionIsIgnored() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		this.indexedJarFile = createIndexedJar(indexOf(entry, entry.getCrc(), 3));
+		assertThat(NestedJarIndex.load(this.indexedJarFile))
+				.isSameAs(NestedJarIndex.NONE);
+		JarFile nested = this.indexedJarFile
+				.getNestedJarFile(this.indexedJarFile.getEntry("nested.jar"));
+		assertThat(nested.getEntry("3.dat")).isNotNull();
+	}
+
+	@Test
+	public void staleCentralDirectoryIsIgnoredWhenCrcMatches() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		this.indexedJarFile = createIndexedJar(
+				indexOf(entry, entry.getCrc(), 2, 1, false));
+		NestedJarIndex.Record record = NestedJarIndex.load(this.indexedJarFile)
+				.getRecord(this.indexedJarFile.getJarEntry("nested.jar"));
+		assertThat(record).isNotNull();
+		JarFile nested = this.indexedJarFile
+				.getNestedJarFile(this.indexedJarFile.getEntry("nested.jar"));
+		assertThat(getHashCodes(nested)).isNotSameAs(record.getHashCodes());
+		assertThat(getEntryNames(nested)).isEqualTo(
+				getEntryNames(this.jarFile.getNestedJarFile(entry)));
+		assertThat(nested.getEntry("3.dat")).isNotNull();
+	}
+
+	@Test
+	public void positionsOutOfBoundsAreIgnored() throws Exception {
+		JarEntry entry = this.jarFile.getJarEntry("nested.jar");
+		this.indexedJarFile = createIndexedJar(
+				indexOf(entry, entry.getCrc(), 2, 0, true));
+		assertThat(NestedJarIndex.load(this.indexedJarFile))
+				.isSameAs(NestedJarIndex.NONE);
+		JarFile nested = this.indexedJarFile
+				.getNestedJarFile(this.indexedJarFile.getEntry("nested.jar"));
+		assertThat(getEntryNames(nested)).isEqualTo(
+				getEntryNames(this.jarFile.getNestedJarFile(entry)));
+	}
+
+	private byte[] indexOf(JarEntry entry, long crc, int version) throws IOException {
+		return indexOf(entry, crc, version, 0, false);
+	}
+
+	private byte[] indexOf(JarEntry entry, long crc, int version,
+			long centralDirectoryOffsetDelta, boolean corruptPositions)
+					throws IOException {
+		JarFile nested = this.jarFile.getNestedJarFile(entry);
+		JarFileEntries entries = (JarFileEntries) ReflectionTestUtils.getField(nested,
+				"entries");
+		int size = (Integer) ReflectionTestUtils.getField(entries, "size");
+		CentralDirectoryEndRecord endRecord = new CentralDirectoryEndRecord(
+				nested.getData());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		output.writeInt(0x4e4a4958);
+		output.writeInt(version);
+		output.writeInt(1);
+		output.writeUTF(entry.getName());
+		output.writeLong(entry.getSize());
+		output.writeLong(crc);
+		output.writeInt(size);
+		output.writeLong(
+				endRecord.getCentralDirectoryOffset() + centralDirectoryOffsetDelta);
+		output.writeLong(endRecord.getCentralDirectorySize());
+		output.writeBoolean(false);
+		for (String field : new String[] { "hashCodes", "centralDirectoryOffsets",
+				"positions" }) {
+			int[] values = (int[]) ReflectionTestUtils.getField(entries, field);
+			for (int i = 0; i < size; i++) {
+				output.writeInt(corruptPositions && "positions".equals(field) && i == 0
+						? size : values[i]);
+			}
+		}
+		output.writeInt(1);
+		output.writeUTF("");
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	private JarFile createIndexedJar(byte[] index) throws IOException {
+		File file = this.temporaryFolder.newFile();
+		JarOutputStream output = new JarOutputStream(new FileOutputStream(file));
+		try {
+			Enumeration<java.util.jar.JarEntry> entries = this.jarFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = new ZipEntry(entries.nextElement());
+				if (entry.getMethod() != ZipEntry.STORED) {
+					entry.setCompressedSize(-1);
+				}
+				output.putNextEntry(entry);
+				StreamUtils.copy(this.jarFile.getInputStream(entry), output);
+				output.closeEntry();
+			}
+			output.putNextEntry(new ZipEntry(NestedJarIndex.ENTRY_NAME));
+			output.write(index);
+			output.closeEntry();
+		}
+		finally {
+			output.close();
+		}
+		return new JarFile(file);
+	}
+
+	private int[] getHashCodes(JarFile jarFile) {
+		Object entries = ReflectionTestUtils.getField(jarFile, "entries");
+		return (int[]) ReflectionTestUtils.getField(entries, "hashCodes");
+	}
+
+	private List<String> getEntryNames(JarFile jarFile) {
+		List<String> names = new ArrayList<String>();
+		Enumeration<java.util.jar.JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			names.add(entries.nextElement().getName());
+		}
+		return names;
+	}
+
+}
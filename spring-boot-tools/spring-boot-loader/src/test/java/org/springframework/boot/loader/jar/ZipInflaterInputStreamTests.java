@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.loader.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ZipInflaterInputStream}.
+ *
+ * @author Dave Syer
+ */
+public class ZipInflaterInputStreamTests {
+
+	@Rule
+	public ExpectedException thrown = ExpectedException.none();
+
+	private final byte[] data = createData();
+
+	@Test
+	public void inflate() throws Exception {
+		byte[] deflated = deflate(this.data);
+		assertThat(ZipInflaterInputStream.inflate(deflated, deflated.length,
+				this.data.length)).isEqualTo(this.data);
+	}
+
+	@Test(timeout = 5000)
+	public void inflateTruncatedData() throws Exception {
+		byte[] deflated = deflate(this.data);
+		byte[] truncated = Arrays.copyOf(deflated, deflated.length / 2);
+		this.thrown.expect(EOFException.class);
+		ZipInflaterInputStream.inflate(truncated, truncated.length, this.data.length);
+	}
+
+	@Test(timeout = 5000)
+	public void inflateCorruptData() throws Exception {
+		byte[] corrupt = new byte[64];
+		Arrays.fill(corrupt, (byte) 0xFF);
+		this.thrown.expect(ZipException.class);
+		ZipInflaterInputStream.inflate(corrupt, corrupt.length, this.data.length);
+	}
+
+	@Test(timeout = 5000)
+	public void readTruncatedData() throws Exception {
+		byte[] deflated = deflate(this.data);
+		ZipInflaterInputStream inputStream = new ZipInflaterInputStream(
+				new ByteArrayInputStream(deflated, 0, deflated.length / 2),
+				this.data.length);
+		Inflater inflater = (Inflater) ReflectionTestUtils.getField(inputStream, "inf");
+		try {
+			StreamUtils.copyToByteArray(inputStream);
+			throw new AssertionError("Expected EOFException");
+		}
+		catch (EOFException ex) {
+			assertThat(getPool()).contains(inflater);
+		}
+	}
+
+	@Test
+	public void inflaterIsReleasedAtEndOfDataWithoutClose() throws Exception {
+		byte[] deflated = deflate(this.data);
+		ZipInflaterInputStream inputStream = new ZipInflaterInputStream(
+				new ByteArrayInputStream(deflated), this.data.length);
+		Inflater inflater = (Inflater) ReflectionTestUtils.getField(inputStream, "inf");
+		byte[] bytes = new byte[this.data.length];
+		int offset = 0;
+		while (offset < bytes.length) {
+			offset += inputStream.read(bytes, offset, bytes.length - offset);
+		}
+		assertThat(bytes).isEqualTo(this.data);
+		assertThat(getPool()).contains(inflater);
+		assertThat(inputStream.read()).isEqualTo(-1);
+		assertThat(inputStream.available()).isEqualTo(0);
+	}
+
+	private byte[] createData() {
+		byte[] data = new byte[16 * 1024];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (i % 251);
+		}
+		return data;
+	}
+
+	private byte[] deflate(byte[] data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DeflaterOutputStream output = new DeflaterOutputStream(bytes,
+				new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+		output.write(data);
+		output.close();
+		return bytes.toByteArray();
+	}
+
+	@SuppressWarnings("unchecked")
+	private Deque<Inflater> getPool() {
+		return (Deque<Inflater>) ReflectionTestUtils
+				.getField(ZipInflaterInputStream.class, "inflaters");
+	}
+
+}
@@ -21,6 +21,8 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanCreationException;
@@ -113,6 +115,11 @@ public class ConfigurationPropertiesBindingPostProcessor
 
 	private int order = Ordered.HIGHEST_PRECEDENCE + 1;
 
+	private volatile boolean refreshed;
+
+	private final Set<String> boundBeanNames = Collections
+			.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
 	/**
 	 * A list of custom converters (in addition to the defaults) to use when converting
 	 * properties for binding.
@@ -222,6 +229,9 @@ public class ConfigurationPropertiesBindingPostProcessor
 	@Override
 	public void onApplicationEvent(ContextRefreshedEvent event) {
 		freeLocalValidator();
+		if (event.getApplicationContext() == this.applicationContext) {
+			this.refreshed = true;
+		}
 	}
 
 	@Override
@@ -283,15 +293,23 @@ public class ConfigurationPropertiesBindingPostProcessor
 	@Override
 	public Object postProcessBeforeInitialization(Object bean, String beanName)
 			throws BeansException {
+		boolean bound = false;
 		ConfigurationProperties annotation = AnnotationUtils
 				.findAnnotation(bean.getClass(), ConfigurationProperties.class);
 		if (annotation != null) {
 			postProcessBeforeInitialization(bean, beanName, annotation);
+			bound = true;
 		}
 		annotation = this.beans.findFactoryAnnotation(beanName,
 				ConfigurationProperties.class);
 		if (annotation != null) {
 			postProcessBeforeInitialization(bean, beanName, annotation);
+			bound = true;
+		}
+		if (bound && !this.boundBeanNames.add(beanName) && this.refreshed
+				&& this.applicationContext != null) {
+			this.applicationContext
+					.publishEvent(new ConfigurationPropertiesReboundEvent(bean, beanName));
 		}
 		return bean;
 	}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2016 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.boot.context.properties;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Event published by the {@link ConfigurationPropertiesBindingPostProcessor} when a
+ * {@link ConfigurationProperties} bean is bound again after its application context has
+ * been refreshed (for instance when the bean is re-initialized once the environment has
+ * changed). It is not published the first time a bean with a given name is bound, so
+ * lazy beans do not trigger it. The source of the event is the bean that was bound.
+ * <p>
+ * The event is mainly intended for the actuator, which uses it to refresh its report of
+ * the {@link ConfigurationProperties} beans.
+ *
+ * @author Dave Syer
+ * @since 1.4.0
+ */
+@SuppressWarnings("serial")
+public class ConfigurationPropertiesReboundEvent extends ApplicationEvent {
+
+	private final String beanName;
+
+	/**
+	 * Create a new {@link ConfigurationPropertiesReboundEvent} instance.
+	 * @param bean the bean that was bound
+	 * @param beanName the name of the bean
+	 */
+	public ConfigurationPropertiesReboundEvent(Object bean, String beanName) {
+		super(bean);
+		this.beanName = beanName;
+	}
+
+	/**
+	 * Return the name of the bean that was bound.
+	 * @return the bean name
+	 */
+	public String getBeanName() {
+		return this.beanName;
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.boot.context.properties;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.annotation.PostConstruct;
@@ -34,6 +35,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.GenericBeanDefinition;
 import org.springframework.boot.bind.RelaxedBindingNotWritablePropertyException;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -281,6 +283,60 @@ public class ConfigurationPropertiesBindingPostProcessorTests {
 				.isEqualTo("words".toCharArray());
 	}
 
+	@Test
+	public void reboundEventPublishedWhenBoundAfterRefresh() throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		TestPropertySourceUtils.addInlinedPropertiesToEnvironment(this.context,
+				"test.chars=word");
+		final List<ConfigurationPropertiesReboundEvent> events = new ArrayList<ConfigurationPropertiesReboundEvent>();
+		this.context.addApplicationListener(
+				new ApplicationListener<ConfigurationPropertiesReboundEvent>() {
+
+					@Override
+					public void onApplicationEvent(
+							ConfigurationPropertiesReboundEvent event) {
+						events.add(event);
+					}
+
+				});
+		this.context.register(PropertyWithCharArray.class);
+		this.context.refresh();
+		assertThat(events).isEmpty();
+		String beanName = this.context.getBeanNamesForType(PropertyWithCharArray.class)[0];
+		PropertyWithCharArray bean = this.context.getBean(PropertyWithCharArray.class);
+		this.context.getAutowireCapableBeanFactory().initializeBean(bean, beanName);
+		assertThat(events).hasSize(1);
+		assertThat(events.get(0).getSource()).isSameAs(bean);
+		assertThat(events.get(0).getBeanName()).isEqualTo(beanName);
+	}
+
+	@Test
+	public void reboundEventNotPublishedWhenLazyBeanIsFirstBoundAfterRefresh()
+			throws Exception {
+		this.context = new AnnotationConfigApplicationContext();
+		TestPropertySourceUtils.addInlinedPropertiesToEnvironment(this.context,
+				"test.chars=word");
+		final List<ConfigurationPropertiesReboundEvent> events = new ArrayList<ConfigurationPropertiesReboundEvent>();
+		this.context.addApplicationListener(
+				new ApplicationListener<ConfigurationPropertiesReboundEvent>() {
+
+					@Override
+					public void onApplicationEvent(
+							ConfigurationPropertiesReboundEvent event) {
+						events.add(event);
+					}
+
+				});
+		GenericBeanDefinition beanDefinition = new GenericBeanDefinition();
+		beanDefinition.setBeanClass(PropertyWithCharArray.class);
+		beanDefinition.setLazyInit(true);
+		this.context.registerBeanDefinition("lazy", beanDefinition);
+		this.context.refresh();
+		assertThat(this.context.getBean("lazy", PropertyWithCharArray.class).getChars())
+				.isEqualTo("word".toCharArray());
+		assertThat(events).isEmpty();
+	}
+
 	@Test
 	public void notWritablePropertyException() throws Exception {
 		this.context = new AnnotationConfigApplicationContext();